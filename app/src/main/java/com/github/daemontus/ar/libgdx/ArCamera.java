@@ -0,0 +1,73 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Plane;
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * Camera which renders with the projection and pose matrices computed by Vuforia as they are.
+ *
+ * Unlike {@link com.badlogic.gdx.graphics.PerspectiveCamera}, the projection isn't rebuilt from a field
+ * of view, so the principal point offset and the screen rotation of the Vuforia projection are kept
+ * and the content stays registered with the video background. The view matrix is the Vuforia pose,
+ * position, direction and up are derived from it (they are not inputs of {@link #update()}).
+ * The near and far planes and the viewport size of {@link Camera} are not used either, they are
+ * part of the projection.
+ */
+public class ArCamera extends Camera {
+
+    private final Vector3 center = new Vector3();
+
+    /**
+     * @param projection column major GL projection matrix of the current view
+     */
+    public void setProjection(float[] projection) {
+        this.projection.set(projection);
+    }
+
+    /**
+     * Sets the view so that the target with the given pose (row major 3x4) is at the world origin.
+     */
+    public void setPose(float[] pose, int offset) {
+        PoseMath.poseToGL(view.val, 0, pose, offset);
+        PoseMath.cameraFrame(pose, offset, position, up, direction);
+    }
+
+    /**
+     * Sets the view to the Vuforia camera coordinates, targets are then placed by their
+     * model transforms (see {@link PoseMath#poseToGL}).
+     */
+    public void setIdentity() {
+        view.idt();
+        position.setZero();
+        direction.set(0, 0, 1);
+        up.set(0, -1, 0);
+    }
+
+    @Override
+    public void update() {
+        update(true);
+    }
+
+    @Override
+    public void update(boolean updateFrustum) {
+        combined.set(projection);
+        Matrix4.mul(combined.val, view.val);
+
+        if (updateFrustum) {
+            invProjectionView.set(combined);
+            Matrix4.inv(invProjectionView.val);
+            frustum.update(invProjectionView);
+            //planes are built with the winding of a GL projection, a reflected (front camera)
+            //projection mirrors it and the planes would face out, so orient them by the frustum center
+            center.setZero().prj(invProjectionView);
+            for (Plane plane : frustum.planes) {
+                if (plane.testPoint(center) == Plane.PlaneSide.Back) {
+                    plane.normal.scl(-1);
+                    plane.d = -plane.d;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,1148 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.graphics.GL20;
+
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * GL20 wrapper which filters out redundant state changes and counts the calls that reach the driver.
+ *
+ * Installed as {@link com.badlogic.gdx.Gdx#gl}, it is shared by the Vuforia video background pass and
+ * the libgdx {@link com.badlogic.gdx.graphics.g3d.utils.RenderContext}. Enabling an already enabled
+ * capability, switching to the current program, front face, cull face, depth or blend state and clearing
+ * buffers which weren't drawn to since the last clear then cost only a comparison.
+ *
+ * The wrapper doesn't see GL calls made around it (e.g. by native Vuforia code), so the cached state
+ * should be {@link #invalidate() invalidated} at the start of every frame and after a context loss.
+ */
+public class CachingGL20 implements GL20 {
+
+    private static final int UNKNOWN = -1;
+
+    //capabilities with cached state, any other capability is passed through
+    private static final int[] CAPABILITIES = {
+            GL_BLEND, GL_CULL_FACE, GL_DEPTH_TEST, GL_DITHER, GL_POLYGON_OFFSET_FILL,
+            GL_SAMPLE_ALPHA_TO_COVERAGE, GL_SAMPLE_COVERAGE, GL_SCISSOR_TEST, GL_STENCIL_TEST
+    };
+
+    private final GL20 gl;
+
+    private final int[] capabilities = new int[CAPABILITIES.length];
+    private int program, frontFace, cullFace, depthMask, depthFunc, blendSource, blendDestination;
+    private float clearRed, clearGreen, clearBlue, clearAlpha;
+    //buffers cleared since the last draw call or change of the clear parameters
+    private int cleared;
+
+    private int calls = 0;
+    private int filtered = 0;
+    private int drawCalls = 0;
+
+    public CachingGL20(GL20 gl) {
+        this.gl = gl;
+        invalidate();
+    }
+
+    /**
+     * @return the wrapped GL
+     */
+    public GL20 getDelegate() {
+        return gl;
+    }
+
+    /**
+     * Forgets all cached state, the next state change of every kind reaches the driver.
+     */
+    public void invalidate() {
+        Arrays.fill(capabilities, UNKNOWN);
+        program = frontFace = cullFace = depthMask = depthFunc = blendSource = blendDestination = UNKNOWN;
+        clearRed = clearGreen = clearBlue = clearAlpha = Float.NaN;
+        cleared = 0;
+    }
+
+    /**
+     * @return number of calls passed to the driver since the last {@link #resetCounters()}
+     */
+    public int getCalls() {
+        return calls;
+    }
+
+    /**
+     * @return number of redundant calls filtered out since the last {@link #resetCounters()}
+     */
+    public int getFilteredCalls() {
+        return filtered;
+    }
+
+    /**
+     * @return number of draw calls since the last {@link #resetCounters()}
+     */
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    public void resetCounters() {
+        calls = filtered = drawCalls = 0;
+    }
+
+    private void setCapability(int cap, boolean enabled) {
+        int value = enabled ? 1 : 0;
+        int index = capabilityIndex(cap);
+        if (index >= 0) {
+            if (capabilities[index] == value) {
+                filtered++;
+                return;
+            }
+            capabilities[index] = value;
+        }
+        if (cap == GL_SCISSOR_TEST) cleared = 0;
+        calls++;
+        if (enabled) {
+            gl.glEnable(cap);
+        } else {
+            gl.glDisable(cap);
+        }
+    }
+
+    private static int capabilityIndex(int cap) {
+        for (int i = 0; i < CAPABILITIES.length; i++) {
+            if (CAPABILITIES[i] == cap) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public void glActiveTexture(int texture) {
+        calls++;
+        gl.glActiveTexture(texture);
+    }
+
+    @Override
+    public void glBindTexture(int target, int texture) {
+        calls++;
+        gl.glBindTexture(target, texture);
+    }
+
+    @Override
+    public void glBlendFunc(int sfactor, int dfactor) {
+        if (sfactor == blendSource && dfactor == blendDestination) {
+            filtered++;
+            return;
+        }
+        blendSource = sfactor;
+        blendDestination = dfactor;
+        calls++;
+        gl.glBlendFunc(sfactor, dfactor);
+    }
+
+    @Override
+    public void glClear(int mask) {
+        if ((mask & ~cleared) == 0) {
+            // nothing was drawn and no clear parameter changed since the buffers were cleared
+            filtered++;
+            return;
+        }
+        cleared |= mask;
+        calls++;
+        gl.glClear(mask);
+    }
+
+    @Override
+    public void glClearColor(float red, float green, float blue, float alpha) {
+        if (red == clearRed && green == clearGreen && blue == clearBlue && alpha == clearAlpha) {
+            filtered++;
+            return;
+        }
+        clearRed = red;
+        clearGreen = green;
+        clearBlue = blue;
+        clearAlpha = alpha;
+        cleared = 0;
+        calls++;
+        gl.glClearColor(red, green, blue, alpha);
+    }
+
+    @Override
+    public void glClearDepthf(float depth) {
+        cleared = 0;
+        calls++;
+        gl.glClearDepthf(depth);
+    }
+
+    @Override
+    public void glClearStencil(int s) {
+        cleared = 0;
+        calls++;
+        gl.glClearStencil(s);
+    }
+
+    @Override
+    public void glColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+        cleared = 0;
+        calls++;
+        gl.glColorMask(red, green, blue, alpha);
+    }
+
+    @Override
+    public void glCompressedTexImage2D(int target, int level, int internalformat, int width, int height, int border, int imageSize, Buffer data) {
+        calls++;
+        gl.glCompressedTexImage2D(target, level, internalformat, width, height, border, imageSize, data);
+    }
+
+    @Override
+    public void glCompressedTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int imageSize, Buffer data) {
+        calls++;
+        gl.glCompressedTexSubImage2D(target, level, xoffset, yoffset, width, height, format, imageSize, data);
+    }
+
+    @Override
+    public void glCopyTexImage2D(int target, int level, int internalformat, int x, int y, int width, int height, int border) {
+        calls++;
+        gl.glCopyTexImage2D(target, level, internalformat, x, y, width, height, border);
+    }
+
+    @Override
+    public void glCopyTexSubImage2D(int target, int level, int xoffset, int yoffset, int x, int y, int width, int height) {
+        calls++;
+        gl.glCopyTexSubImage2D(target, level, xoffset, yoffset, x, y, width, height);
+    }
+
+    @Override
+    public void glCullFace(int mode) {
+        if (mode == cullFace) {
+            filtered++;
+            return;
+        }
+        cullFace = mode;
+        calls++;
+        gl.glCullFace(mode);
+    }
+
+    @Override
+    public void glDeleteTextures(int n, IntBuffer textures) {
+        calls++;
+        gl.glDeleteTextures(n, textures);
+    }
+
+    @Override
+    public void glDeleteTexture(int texture) {
+        calls++;
+        gl.glDeleteTexture(texture);
+    }
+
+    @Override
+    public void glDepthFunc(int func) {
+        if (func == depthFunc) {
+            filtered++;
+            return;
+        }
+        depthFunc = func;
+        calls++;
+        gl.glDepthFunc(func);
+    }
+
+    @Override
+    public void glDepthMask(boolean flag) {
+        int value = flag ? 1 : 0;
+        if (value == depthMask) {
+            filtered++;
+            return;
+        }
+        depthMask = value;
+        cleared = 0;
+        calls++;
+        gl.glDepthMask(flag);
+    }
+
+    @Override
+    public void glDepthRangef(float zNear, float zFar) {
+        calls++;
+        gl.glDepthRangef(zNear, zFar);
+    }
+
+    @Override
+    public void glDisable(int cap) {
+        setCapability(cap, false);
+    }
+
+    @Override
+    public void glDrawArrays(int mode, int first, int count) {
+        cleared = 0;
+        drawCalls++;
+        calls++;
+        gl.glDrawArrays(mode, first, count);
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, Buffer indices) {
+        cleared = 0;
+        drawCalls++;
+        calls++;
+        gl.glDrawElements(mode, count, type, indices);
+    }
+
+    @Override
+    public void glEnable(int cap) {
+        setCapability(cap, true);
+    }
+
+    @Override
+    public void glFinish() {
+        calls++;
+        gl.glFinish();
+    }
+
+    @Override
+    public void glFlush() {
+        calls++;
+        gl.glFlush();
+    }
+
+    @Override
+    public void glFrontFace(int mode) {
+        if (mode == frontFace) {
+            filtered++;
+            return;
+        }
+        frontFace = mode;
+        calls++;
+        gl.glFrontFace(mode);
+    }
+
+    @Override
+    public void glGenTextures(int n, IntBuffer textures) {
+        calls++;
+        gl.glGenTextures(n, textures);
+    }
+
+    @Override
+    public int glGenTexture() {
+        calls++;
+        return gl.glGenTexture();
+    }
+
+    @Override
+    public int glGetError() {
+        calls++;
+        return gl.glGetError();
+    }
+
+    @Override
+    public void glGetIntegerv(int pname, IntBuffer params) {
+        calls++;
+        gl.glGetIntegerv(pname, params);
+    }
+
+    @Override
+    public String glGetString(int name) {
+        calls++;
+        return gl.glGetString(name);
+    }
+
+    @Override
+    public void glHint(int target, int mode) {
+        calls++;
+        gl.glHint(target, mode);
+    }
+
+    @Override
+    public void glLineWidth(float width) {
+        calls++;
+        gl.glLineWidth(width);
+    }
+
+    @Override
+    public void glPixelStorei(int pname, int param) {
+        calls++;
+        gl.glPixelStorei(pname, param);
+    }
+
+    @Override
+    public void glPolygonOffset(float factor, float units) {
+        calls++;
+        gl.glPolygonOffset(factor, units);
+    }
+
+    @Override
+    public void glReadPixels(int x, int y, int width, int height, int format, int type, Buffer pixels) {
+        calls++;
+        gl.glReadPixels(x, y, width, height, format, type, pixels);
+    }
+
+    @Override
+    public void glScissor(int x, int y, int width, int height) {
+        cleared = 0;
+        calls++;
+        gl.glScissor(x, y, width, height);
+    }
+
+    @Override
+    public void glStencilFunc(int func, int ref, int mask) {
+        calls++;
+        gl.glStencilFunc(func, ref, mask);
+    }
+
+    @Override
+    public void glStencilMask(int mask) {
+        cleared = 0;
+        calls++;
+        gl.glStencilMask(mask);
+    }
+
+    @Override
+    public void glStencilOp(int fail, int zfail, int zpass) {
+        calls++;
+        gl.glStencilOp(fail, zfail, zpass);
+    }
+
+    @Override
+    public void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, Buffer pixels) {
+        calls++;
+        gl.glTexImage2D(target, level, internalformat, width, height, border, format, type, pixels);
+    }
+
+    @Override
+    public void glTexParameterf(int target, int pname, float param) {
+        calls++;
+        gl.glTexParameterf(target, pname, param);
+    }
+
+    @Override
+    public void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels) {
+        calls++;
+        gl.glTexSubImage2D(target, level, xoffset, yoffset, width, height, format, type, pixels);
+    }
+
+    @Override
+    public void glViewport(int x, int y, int width, int height) {
+        cleared = 0;
+        calls++;
+        gl.glViewport(x, y, width, height);
+    }
+
+    @Override
+    public void glAttachShader(int program, int shader) {
+        calls++;
+        gl.glAttachShader(program, shader);
+    }
+
+    @Override
+    public void glBindAttribLocation(int program, int index, String name) {
+        calls++;
+        gl.glBindAttribLocation(program, index, name);
+    }
+
+    @Override
+    public void glBindBuffer(int target, int buffer) {
+        calls++;
+        gl.glBindBuffer(target, buffer);
+    }
+
+    @Override
+    public void glBindFramebuffer(int target, int framebuffer) {
+        cleared = 0;
+        calls++;
+        gl.glBindFramebuffer(target, framebuffer);
+    }
+
+    @Override
+    public void glBindRenderbuffer(int target, int renderbuffer) {
+        calls++;
+        gl.glBindRenderbuffer(target, renderbuffer);
+    }
+
+    @Override
+    public void glBlendColor(float red, float green, float blue, float alpha) {
+        calls++;
+        gl.glBlendColor(red, green, blue, alpha);
+    }
+
+    @Override
+    public void glBlendEquation(int mode) {
+        calls++;
+        gl.glBlendEquation(mode);
+    }
+
+    @Override
+    public void glBlendEquationSeparate(int modeRGB, int modeAlpha) {
+        calls++;
+        gl.glBlendEquationSeparate(modeRGB, modeAlpha);
+    }
+
+    @Override
+    public void glBlendFuncSeparate(int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+        calls++;
+        gl.glBlendFuncSeparate(srcRGB, dstRGB, srcAlpha, dstAlpha);
+    }
+
+    @Override
+    public void glBufferData(int target, int size, Buffer data, int usage) {
+        calls++;
+        gl.glBufferData(target, size, data, usage);
+    }
+
+    @Override
+    public void glBufferSubData(int target, int offset, int size, Buffer data) {
+        calls++;
+        gl.glBufferSubData(target, offset, size, data);
+    }
+
+    @Override
+    public int glCheckFramebufferStatus(int target) {
+        calls++;
+        return gl.glCheckFramebufferStatus(target);
+    }
+
+    @Override
+    public void glCompileShader(int shader) {
+        calls++;
+        gl.glCompileShader(shader);
+    }
+
+    @Override
+    public int glCreateProgram() {
+        calls++;
+        return gl.glCreateProgram();
+    }
+
+    @Override
+    public int glCreateShader(int type) {
+        calls++;
+        return gl.glCreateShader(type);
+    }
+
+    @Override
+    public void glDeleteBuffer(int buffer) {
+        calls++;
+        gl.glDeleteBuffer(buffer);
+    }
+
+    @Override
+    public void glDeleteBuffers(int n, IntBuffer buffers) {
+        calls++;
+        gl.glDeleteBuffers(n, buffers);
+    }
+
+    @Override
+    public void glDeleteFramebuffer(int framebuffer) {
+        calls++;
+        gl.glDeleteFramebuffer(framebuffer);
+    }
+
+    @Override
+    public void glDeleteFramebuffers(int n, IntBuffer framebuffers) {
+        calls++;
+        gl.glDeleteFramebuffers(n, framebuffers);
+    }
+
+    @Override
+    public void glDeleteProgram(int program) {
+        if (program == this.program) this.program = UNKNOWN;
+        calls++;
+        gl.glDeleteProgram(program);
+    }
+
+    @Override
+    public void glDeleteRenderbuffer(int renderbuffer) {
+        calls++;
+        gl.glDeleteRenderbuffer(renderbuffer);
+    }
+
+    @Override
+    public void glDeleteRenderbuffers(int n, IntBuffer renderbuffers) {
+        calls++;
+        gl.glDeleteRenderbuffers(n, renderbuffers);
+    }
+
+    @Override
+    public void glDeleteShader(int shader) {
+        calls++;
+        gl.glDeleteShader(shader);
+    }
+
+    @Override
+    public void glDetachShader(int program, int shader) {
+        calls++;
+        gl.glDetachShader(program, shader);
+    }
+
+    @Override
+    public void glDisableVertexAttribArray(int index) {
+        calls++;
+        gl.glDisableVertexAttribArray(index);
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, int indices) {
+        cleared = 0;
+        drawCalls++;
+        calls++;
+        gl.glDrawElements(mode, count, type, indices);
+    }
+
+    @Override
+    public void glEnableVertexAttribArray(int index) {
+        calls++;
+        gl.glEnableVertexAttribArray(index);
+    }
+
+    @Override
+    public void glFramebufferRenderbuffer(int target, int attachment, int renderbuffertarget, int renderbuffer) {
+        calls++;
+        gl.glFramebufferRenderbuffer(target, attachment, renderbuffertarget, renderbuffer);
+    }
+
+    @Override
+    public void glFramebufferTexture2D(int target, int attachment, int textarget, int texture, int level) {
+        calls++;
+        gl.glFramebufferTexture2D(target, attachment, textarget, texture, level);
+    }
+
+    @Override
+    public int glGenBuffer() {
+        calls++;
+        return gl.glGenBuffer();
+    }
+
+    @Override
+    public void glGenBuffers(int n, IntBuffer buffers) {
+        calls++;
+        gl.glGenBuffers(n, buffers);
+    }
+
+    @Override
+    public void glGenerateMipmap(int target) {
+        calls++;
+        gl.glGenerateMipmap(target);
+    }
+
+    @Override
+    public int glGenFramebuffer() {
+        calls++;
+        return gl.glGenFramebuffer();
+    }
+
+    @Override
+    public void glGenFramebuffers(int n, IntBuffer framebuffers) {
+        calls++;
+        gl.glGenFramebuffers(n, framebuffers);
+    }
+
+    @Override
+    public int glGenRenderbuffer() {
+        calls++;
+        return gl.glGenRenderbuffer();
+    }
+
+    @Override
+    public void glGenRenderbuffers(int n, IntBuffer renderbuffers) {
+        calls++;
+        gl.glGenRenderbuffers(n, renderbuffers);
+    }
+
+    @Override
+    public String glGetActiveAttrib(int program, int index, IntBuffer size, Buffer type) {
+        calls++;
+        return gl.glGetActiveAttrib(program, index, size, type);
+    }
+
+    @Override
+    public String glGetActiveUniform(int program, int index, IntBuffer size, Buffer type) {
+        calls++;
+        return gl.glGetActiveUniform(program, index, size, type);
+    }
+
+    @Override
+    public void glGetAttachedShaders(int program, int maxcount, Buffer count, IntBuffer shaders) {
+        calls++;
+        gl.glGetAttachedShaders(program, maxcount, count, shaders);
+    }
+
+    @Override
+    public int glGetAttribLocation(int program, String name) {
+        calls++;
+        return gl.glGetAttribLocation(program, name);
+    }
+
+    @Override
+    public void glGetBooleanv(int pname, Buffer params) {
+        calls++;
+        gl.glGetBooleanv(pname, params);
+    }
+
+    @Override
+    public void glGetBufferParameteriv(int target, int pname, IntBuffer params) {
+        calls++;
+        gl.glGetBufferParameteriv(target, pname, params);
+    }
+
+    @Override
+    public void glGetFloatv(int pname, FloatBuffer params) {
+        calls++;
+        gl.glGetFloatv(pname, params);
+    }
+
+    @Override
+    public void glGetFramebufferAttachmentParameteriv(int target, int attachment, int pname, IntBuffer params) {
+        calls++;
+        gl.glGetFramebufferAttachmentParameteriv(target, attachment, pname, params);
+    }
+
+    @Override
+    public void glGetProgramiv(int program, int pname, IntBuffer params) {
+        calls++;
+        gl.glGetProgramiv(program, pname, params);
+    }
+
+    @Override
+    public String glGetProgramInfoLog(int program) {
+        calls++;
+        return gl.glGetProgramInfoLog(program);
+    }
+
+    @Override
+    public void glGetRenderbufferParameteriv(int target, int pname, IntBuffer params) {
+        calls++;
+        gl.glGetRenderbufferParameteriv(target, pname, params);
+    }
+
+    @Override
+    public void glGetShaderiv(int shader, int pname, IntBuffer params) {
+        calls++;
+        gl.glGetShaderiv(shader, pname, params);
+    }
+
+    @Override
+    public String glGetShaderInfoLog(int shader) {
+        calls++;
+        return gl.glGetShaderInfoLog(shader);
+    }
+
+    @Override
+    public void glGetShaderPrecisionFormat(int shadertype, int precisiontype, IntBuffer range, IntBuffer precision) {
+        calls++;
+        gl.glGetShaderPrecisionFormat(shadertype, precisiontype, range, precision);
+    }
+
+    @Override
+    public void glGetTexParameterfv(int target, int pname, FloatBuffer params) {
+        calls++;
+        gl.glGetTexParameterfv(target, pname, params);
+    }
+
+    @Override
+    public void glGetTexParameteriv(int target, int pname, IntBuffer params) {
+        calls++;
+        gl.glGetTexParameteriv(target, pname, params);
+    }
+
+    @Override
+    public void glGetUniformfv(int program, int location, FloatBuffer params) {
+        calls++;
+        gl.glGetUniformfv(program, location, params);
+    }
+
+    @Override
+    public void glGetUniformiv(int program, int location, IntBuffer params) {
+        calls++;
+        gl.glGetUniformiv(program, location, params);
+    }
+
+    @Override
+    public int glGetUniformLocation(int program, String name) {
+        calls++;
+        return gl.glGetUniformLocation(program, name);
+    }
+
+    @Override
+    public void glGetVertexAttribfv(int index, int pname, FloatBuffer params) {
+        calls++;
+        gl.glGetVertexAttribfv(index, pname, params);
+    }
+
+    @Override
+    public void glGetVertexAttribiv(int index, int pname, IntBuffer params) {
+        calls++;
+        gl.glGetVertexAttribiv(index, pname, params);
+    }
+
+    @Override
+    public void glGetVertexAttribPointerv(int index, int pname, Buffer pointer) {
+        calls++;
+        gl.glGetVertexAttribPointerv(index, pname, pointer);
+    }
+
+    @Override
+    public boolean glIsBuffer(int buffer) {
+        calls++;
+        return gl.glIsBuffer(buffer);
+    }
+
+    @Override
+    public boolean glIsEnabled(int cap) {
+        calls++;
+        return gl.glIsEnabled(cap);
+    }
+
+    @Override
+    public boolean glIsFramebuffer(int framebuffer) {
+        calls++;
+        return gl.glIsFramebuffer(framebuffer);
+    }
+
+    @Override
+    public boolean glIsProgram(int program) {
+        calls++;
+        return gl.glIsProgram(program);
+    }
+
+    @Override
+    public boolean glIsRenderbuffer(int renderbuffer) {
+        calls++;
+        return gl.glIsRenderbuffer(renderbuffer);
+    }
+
+    @Override
+    public boolean glIsShader(int shader) {
+        calls++;
+        return gl.glIsShader(shader);
+    }
+
+    @Override
+    public boolean glIsTexture(int texture) {
+        calls++;
+        return gl.glIsTexture(texture);
+    }
+
+    @Override
+    public void glLinkProgram(int program) {
+        calls++;
+        gl.glLinkProgram(program);
+    }
+
+    @Override
+    public void glReleaseShaderCompiler() {
+        calls++;
+        gl.glReleaseShaderCompiler();
+    }
+
+    @Override
+    public void glRenderbufferStorage(int target, int internalformat, int width, int height) {
+        calls++;
+        gl.glRenderbufferStorage(target, internalformat, width, height);
+    }
+
+    @Override
+    public void glSampleCoverage(float value, boolean invert) {
+        calls++;
+        gl.glSampleCoverage(value, invert);
+    }
+
+    @Override
+    public void glShaderBinary(int n, IntBuffer shaders, int binaryformat, Buffer binary, int length) {
+        calls++;
+        gl.glShaderBinary(n, shaders, binaryformat, binary, length);
+    }
+
+    @Override
+    public void glShaderSource(int shader, String string) {
+        calls++;
+        gl.glShaderSource(shader, string);
+    }
+
+    @Override
+    public void glStencilFuncSeparate(int face, int func, int ref, int mask) {
+        calls++;
+        gl.glStencilFuncSeparate(face, func, ref, mask);
+    }
+
+    @Override
+    public void glStencilMaskSeparate(int face, int mask) {
+        cleared = 0;
+        calls++;
+        gl.glStencilMaskSeparate(face, mask);
+    }
+
+    @Override
+    public void glStencilOpSeparate(int face, int fail, int zfail, int zpass) {
+        calls++;
+        gl.glStencilOpSeparate(face, fail, zfail, zpass);
+    }
+
+    @Override
+    public void glTexParameterfv(int target, int pname, FloatBuffer params) {
+        calls++;
+        gl.glTexParameterfv(target, pname, params);
+    }
+
+    @Override
+    public void glTexParameteri(int target, int pname, int param) {
+        calls++;
+        gl.glTexParameteri(target, pname, param);
+    }
+
+    @Override
+    public void glTexParameteriv(int target, int pname, IntBuffer params) {
+        calls++;
+        gl.glTexParameteriv(target, pname, params);
+    }
+
+    @Override
+    public void glUniform1f(int location, float x) {
+        calls++;
+        gl.glUniform1f(location, x);
+    }
+
+    @Override
+    public void glUniform1fv(int location, int count, FloatBuffer v) {
+        calls++;
+        gl.glUniform1fv(location, count, v);
+    }
+
+    @Override
+    public void glUniform1fv(int location, int count, float[] v, int offset) {
+        calls++;
+        gl.glUniform1fv(location, count, v, offset);
+    }
+
+    @Override
+    public void glUniform1i(int location, int x) {
+        calls++;
+        gl.glUniform1i(location, x);
+    }
+
+    @Override
+    public void glUniform1iv(int location, int count, IntBuffer v) {
+        calls++;
+        gl.glUniform1iv(location, count, v);
+    }
+
+    @Override
+    public void glUniform1iv(int location, int count, int[] v, int offset) {
+        calls++;
+        gl.glUniform1iv(location, count, v, offset);
+    }
+
+    @Override
+    public void glUniform2f(int location, float x, float y) {
+        calls++;
+        gl.glUniform2f(location, x, y);
+    }
+
+    @Override
+    public void glUniform2fv(int location, int count, FloatBuffer v) {
+        calls++;
+        gl.glUniform2fv(location, count, v);
+    }
+
+    @Override
+    public void glUniform2fv(int location, int count, float[] v, int offset) {
+        calls++;
+        gl.glUniform2fv(location, count, v, offset);
+    }
+
+    @Override
+    public void glUniform2i(int location, int x, int y) {
+        calls++;
+        gl.glUniform2i(location, x, y);
+    }
+
+    @Override
+    public void glUniform2iv(int location, int count, IntBuffer v) {
+        calls++;
+        gl.glUniform2iv(location, count, v);
+    }
+
+    @Override
+    public void glUniform2iv(int location, int count, int[] v, int offset) {
+        calls++;
+        gl.glUniform2iv(location, count, v, offset);
+    }
+
+    @Override
+    public void glUniform3f(int location, float x, float y, float z) {
+        calls++;
+        gl.glUniform3f(location, x, y, z);
+    }
+
+    @Override
+    public void glUniform3fv(int location, int count, FloatBuffer v) {
+        calls++;
+        gl.glUniform3fv(location, count, v);
+    }
+
+    @Override
+    public void glUniform3fv(int location, int count, float[] v, int offset) {
+        calls++;
+        gl.glUniform3fv(location, count, v, offset);
+    }
+
+    @Override
+    public void glUniform3i(int location, int x, int y, int z) {
+        calls++;
+        gl.glUniform3i(location, x, y, z);
+    }
+
+    @Override
+    public void glUniform3iv(int location, int count, IntBuffer v) {
+        calls++;
+        gl.glUniform3iv(location, count, v);
+    }
+
+    @Override
+    public void glUniform3iv(int location, int count, int[] v, int offset) {
+        calls++;
+        gl.glUniform3iv(location, count, v, offset);
+    }
+
+    @Override
+    public void glUniform4f(int location, float x, float y, float z, float w) {
+        calls++;
+        gl.glUniform4f(location, x, y, z, w);
+    }
+
+    @Override
+    public void glUniform4fv(int location, int count, FloatBuffer v) {
+        calls++;
+        gl.glUniform4fv(location, count, v);
+    }
+
+    @Override
+    public void glUniform4fv(int location, int count, float[] v, int offset) {
+        calls++;
+        gl.glUniform4fv(location, count, v, offset);
+    }
+
+    @Override
+    public void glUniform4i(int location, int x, int y, int z, int w) {
+        calls++;
+        gl.glUniform4i(location, x, y, z, w);
+    }
+
+    @Override
+    public void glUniform4iv(int location, int count, IntBuffer v) {
+        calls++;
+        gl.glUniform4iv(location, count, v);
+    }
+
+    @Override
+    public void glUniform4iv(int location, int count, int[] v, int offset) {
+        calls++;
+        gl.glUniform4iv(location, count, v, offset);
+    }
+
+    @Override
+    public void glUniformMatrix2fv(int location, int count, boolean transpose, FloatBuffer value) {
+        calls++;
+        gl.glUniformMatrix2fv(location, count, transpose, value);
+    }
+
+    @Override
+    public void glUniformMatrix2fv(int location, int count, boolean transpose, float[] value, int offset) {
+        calls++;
+        gl.glUniformMatrix2fv(location, count, transpose, value, offset);
+    }
+
+    @Override
+    public void glUniformMatrix3fv(int location, int count, boolean transpose, FloatBuffer value) {
+        calls++;
+        gl.glUniformMatrix3fv(location, count, transpose, value);
+    }
+
+    @Override
+    public void glUniformMatrix3fv(int location, int count, boolean transpose, float[] value, int offset) {
+        calls++;
+        gl.glUniformMatrix3fv(location, count, transpose, value, offset);
+    }
+
+    @Override
+    public void glUniformMatrix4fv(int location, int count, boolean transpose, FloatBuffer value) {
+        calls++;
+        gl.glUniformMatrix4fv(location, count, transpose, value);
+    }
+
+    @Override
+    public void glUniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset) {
+        calls++;
+        gl.glUniformMatrix4fv(location, count, transpose, value, offset);
+    }
+
+    @Override
+    public void glUseProgram(int program) {
+        if (program == this.program) {
+            filtered++;
+            return;
+        }
+        this.program = program;
+        calls++;
+        gl.glUseProgram(program);
+    }
+
+    @Override
+    public void glValidateProgram(int program) {
+        calls++;
+        gl.glValidateProgram(program);
+    }
+
+    @Override
+    public void glVertexAttrib1f(int indx, float x) {
+        calls++;
+        gl.glVertexAttrib1f(indx, x);
+    }
+
+    @Override
+    public void glVertexAttrib1fv(int indx, FloatBuffer values) {
+        calls++;
+        gl.glVertexAttrib1fv(indx, values);
+    }
+
+    @Override
+    public void glVertexAttrib2f(int indx, float x, float y) {
+        calls++;
+        gl.glVertexAttrib2f(indx, x, y);
+    }
+
+    @Override
+    public void glVertexAttrib2fv(int indx, FloatBuffer values) {
+        calls++;
+        gl.glVertexAttrib2fv(indx, values);
+    }
+
+    @Override
+    public void glVertexAttrib3f(int indx, float x, float y, float z) {
+        calls++;
+        gl.glVertexAttrib3f(indx, x, y, z);
+    }
+
+    @Override
+    public void glVertexAttrib3fv(int indx, FloatBuffer values) {
+        calls++;
+        gl.glVertexAttrib3fv(indx, values);
+    }
+
+    @Override
+    public void glVertexAttrib4f(int indx, float x, float y, float z, float w) {
+        calls++;
+        gl.glVertexAttrib4f(indx, x, y, z, w);
+    }
+
+    @Override
+    public void glVertexAttrib4fv(int indx, FloatBuffer values) {
+        calls++;
+        gl.glVertexAttrib4fv(indx, values);
+    }
+
+    @Override
+    public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, Buffer ptr) {
+        calls++;
+        gl.glVertexAttribPointer(indx, size, type, normalized, stride, ptr);
+    }
+
+    @Override
+    public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, int ptr) {
+        calls++;
+        gl.glVertexAttribPointer(indx, size, type, normalized, stride, ptr);
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.daemontus.ar.libgdx;
+
+/**
+ * Monotonic time source of the frame measurements, can be replaced by a fake clock.
+ */
+public interface Clock {
+
+    Clock SYSTEM = new Clock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    /**
+     * @return current time in nanoseconds, only differences between two values are meaningful
+     */
+    long nanoTime();
+}
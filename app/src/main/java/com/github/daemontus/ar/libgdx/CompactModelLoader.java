@@ -0,0 +1,518 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.ModelLoader;
+import com.badlogic.gdx.assets.loaders.TextureLoader;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g3d.Attribute;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.model.MeshPart;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodePart;
+import com.badlogic.gdx.graphics.g3d.model.data.ModelAnimation;
+import com.badlogic.gdx.graphics.g3d.model.data.ModelData;
+import com.badlogic.gdx.graphics.g3d.model.data.ModelMaterial;
+import com.badlogic.gdx.graphics.g3d.model.data.ModelNode;
+import com.badlogic.gdx.graphics.g3d.model.data.ModelNodeAnimation;
+import com.badlogic.gdx.graphics.g3d.model.data.ModelNodeKeyframe;
+import com.badlogic.gdx.graphics.g3d.model.data.ModelNodePart;
+import com.badlogic.gdx.graphics.g3d.model.data.ModelTexture;
+import com.badlogic.gdx.graphics.g3d.utils.TextureProvider;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Quaternion;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ArrayMap;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
+
+/**
+ * Loads models in the compact format (.g3dc files), written offline by the CompactModelWriter of
+ * the benchmark module.
+ *
+ * The file holds the vertex and index buffers of every mesh exactly as the GPU takes them, they are
+ * copied from the file straight into the buffers of the meshes, without the float and short arrays
+ * (and the JSON tree before them) of the g3db loader. Files on the storage are memory mapped, assets
+ * packed in the apk (or on the classpath) can't be and are read into one direct buffer instead.
+ * Materials, nodes and animations are small, they are read into {@link ModelData} and built by
+ * {@link Model} itself, so a compact model is the same as the g3db model it was converted from.
+ * The bounds of the mesh parts are stored too, they aren't computed from the vertices.
+ *
+ * Quantized meshes (see CompactModelWriter) keep their normalized integer attributes, the
+ * materials of their parts get a {@link QuantizationAttribute} for the {@link QuantizedShaderProvider}.
+ * The bounding box methods of {@link Mesh} read positions as floats and don't work on them.
+ *
+ * Like the g3db loader, the file is parsed on the loading thread of the asset manager and the meshes
+ * are created on the GL thread, textures are loaded by the asset manager as dependencies.
+ */
+public class CompactModelLoader extends AsynchronousAssetLoader<Model, ModelLoader.ModelParameters> {
+
+    public static final String SUFFIX = ".g3dc";
+
+    static final int MAGIC = 0x47334443; // G3DC
+    static final int VERSION = 2;
+
+    private final ModelLoader.ModelParameters defaultParameters = new ModelLoader.ModelParameters();
+    //models parsed for their dependencies, waiting for loadSync
+    private final Array<ObjectMap.Entry<String, Data>> items = new Array<ObjectMap.Entry<String, Data>>();
+
+    public CompactModelLoader(FileHandleResolver resolver) {
+        super(resolver);
+    }
+
+    /**
+     * Parsed model file, the vertex and index buffers of its meshes point into the file.
+     */
+    public static final class Data {
+        //materials, nodes and animations, the meshes are kept in the buffers
+        final ModelData model = new ModelData();
+        final Array<MeshData> meshes = new Array<MeshData>();
+    }
+
+    static final class MeshData {
+        VertexAttribute[] attributes;
+        //null if the attributes aren't quantized
+        QuantizationAttribute quantization;
+        String[] partIds;
+        int[] partTypes;
+        int[] partSizes;
+        //center and half extents of every part
+        float[] partBounds;
+        FloatBuffer vertices;
+        ShortBuffer indices;
+    }
+
+    /**
+     * Directly loads the model on the calling thread, its textures are loaded by the provider.
+     */
+    public Model loadModel(FileHandle file, TextureProvider textures) {
+        return loadModel(parse(file), textures);
+    }
+
+    /**
+     * Directly creates the parsed model on the calling thread.
+     */
+    public Model loadModel(Data data, TextureProvider textures) {
+        return new CompactModel(data, textures);
+    }
+
+    /**
+     * Reads the model file, on any thread.
+     */
+    public static Data parse(FileHandle file) {
+        ByteBuffer buffer;
+        try {
+            buffer = map(file);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Unable to read model "+file, e);
+        }
+        //textures are stored relative to the model, like in g3db files
+        return parse(buffer, file.parent().path());
+    }
+
+    /**
+     * @param modelDir directory of the model, the file names of the textures are relative to it
+     */
+    public static Data parse(ByteBuffer buffer, String modelDir) {
+        if (!buffer.isDirect()) {
+            //the vertex buffers are copied as floats, between direct buffers their bits are kept
+            ByteBuffer direct = ByteBuffer.allocateDirect(buffer.remaining());
+            direct.put(buffer.duplicate()).flip();
+            buffer = direct;
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+            throw new GdxRuntimeException("Not a compact model");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new GdxRuntimeException("Unsupported compact model version "+version);
+        }
+        String textureDir = modelDir.length() == 0 || modelDir.endsWith("/") ? modelDir : modelDir + "/";
+
+        Data data = new Data();
+        data.model.id = readString(buffer);
+        int meshes = buffer.getInt();
+        for (int i = 0; i < meshes; i++) {
+            data.meshes.add(readMesh(buffer));
+        }
+        int materials = buffer.getInt();
+        for (int i = 0; i < materials; i++) {
+            data.model.materials.add(readMaterial(buffer, textureDir));
+        }
+        int nodes = buffer.getInt();
+        for (int i = 0; i < nodes; i++) {
+            data.model.nodes.add(readNode(buffer));
+        }
+        int animations = buffer.getInt();
+        for (int i = 0; i < animations; i++) {
+            data.model.animations.add(readAnimation(buffer));
+        }
+        return data;
+    }
+
+    private static ByteBuffer map(FileHandle file) throws IOException {
+        if (file.type() != Files.FileType.Classpath && file.file().exists()) {
+            RandomAccessFile input = new RandomAccessFile(file.file(), "r");
+            try {
+                return input.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, input.length());
+            } finally {
+                //the mapping stays valid
+                input.close();
+            }
+        }
+        long length = file.length();
+        if (length <= 0) {
+            //compressed assets don't know their length, parse copies them into a direct buffer
+            return ByteBuffer.wrap(file.readBytes());
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) length);
+        ReadableByteChannel channel = Channels.newChannel(file.read());
+        try {
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {}
+        } finally {
+            channel.close();
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static MeshData readMesh(ByteBuffer buffer) {
+        MeshData mesh = new MeshData();
+        mesh.attributes = new VertexAttribute[buffer.getInt()];
+        for (int i = 0; i < mesh.attributes.length; i++) {
+            int usage = buffer.getInt();
+            int components = buffer.getInt();
+            int type = buffer.getInt();
+            boolean normalized = buffer.getInt() != 0;
+            String alias = readString(buffer);
+            int unit = buffer.getInt();
+            mesh.attributes[i] = new VertexAttribute(usage, components, type, normalized, alias, unit);
+        }
+        if (buffer.getInt() != 0) {
+            QuantizationAttribute quantization = new QuantizationAttribute();
+            quantization.positionOffset.set(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+            quantization.positionScale.set(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+            quantization.texCoordOffset.set(buffer.getFloat(), buffer.getFloat());
+            quantization.texCoordScale.set(buffer.getFloat(), buffer.getFloat());
+            mesh.quantization = quantization;
+        }
+        int parts = buffer.getInt();
+        mesh.partIds = new String[parts];
+        mesh.partTypes = new int[parts];
+        mesh.partSizes = new int[parts];
+        mesh.partBounds = new float[parts * 6];
+        for (int i = 0; i < parts; i++) {
+            mesh.partIds[i] = readString(buffer);
+            mesh.partTypes[i] = buffer.getInt();
+            mesh.partSizes[i] = buffer.getInt();
+            for (int j = 0; j < 6; j++) {
+                mesh.partBounds[i * 6 + j] = buffer.getFloat();
+            }
+        }
+        int vertexBytes = buffer.getInt();
+        int indexBytes = buffer.getInt();
+        mesh.vertices = slice(buffer, vertexBytes).asFloatBuffer();
+        mesh.indices = slice(buffer, indexBytes).asShortBuffer();
+        return mesh;
+    }
+
+    /**
+     * @return the next bytes of the buffer (skipping the padding after them), without copying them
+     */
+    private static ByteBuffer slice(ByteBuffer buffer, int bytes) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(slice.position() + bytes);
+        buffer.position(buffer.position() + align(bytes));
+        return slice.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    static int align(int bytes) {
+        return (bytes + 3) & ~3;
+    }
+
+    private static ModelMaterial readMaterial(ByteBuffer buffer, String textureDir) {
+        ModelMaterial material = new ModelMaterial();
+        material.id = readString(buffer);
+        material.ambient = readColor(buffer);
+        material.diffuse = readColor(buffer);
+        material.specular = readColor(buffer);
+        material.emissive = readColor(buffer);
+        material.reflection = readColor(buffer);
+        material.shininess = buffer.getFloat();
+        material.opacity = buffer.getFloat();
+        int textures = buffer.getInt();
+        if (textures > 0) {
+            material.textures = new Array<ModelTexture>(textures);
+            for (int i = 0; i < textures; i++) {
+                ModelTexture texture = new ModelTexture();
+                texture.id = readString(buffer);
+                texture.fileName = textureDir + readString(buffer);
+                texture.usage = buffer.getInt();
+                if (buffer.getInt() != 0) texture.uvTranslation = new Vector2(buffer.getFloat(), buffer.getFloat());
+                if (buffer.getInt() != 0) texture.uvScaling = new Vector2(buffer.getFloat(), buffer.getFloat());
+                material.textures.add(texture);
+            }
+        }
+        return material;
+    }
+
+    private static Color readColor(ByteBuffer buffer) {
+        if (buffer.getInt() == 0) return null;
+        return new Color(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+    }
+
+    private static ModelNode readNode(ByteBuffer buffer) {
+        ModelNode node = new ModelNode();
+        node.id = readString(buffer);
+        node.translation = readVector(buffer);
+        node.rotation = readQuaternion(buffer);
+        node.scale = readVector(buffer);
+        int parts = buffer.getInt();
+        if (parts > 0) {
+            node.parts = new ModelNodePart[parts];
+            for (int i = 0; i < parts; i++) {
+                ModelNodePart part = new ModelNodePart();
+                part.meshPartId = readString(buffer);
+                part.materialId = readString(buffer);
+                int bones = buffer.getInt();
+                if (bones > 0) {
+                    part.bones = new ArrayMap<String, Matrix4>(true, bones, String.class, Matrix4.class);
+                    for (int j = 0; j < bones; j++) {
+                        String bone = readString(buffer);
+                        Matrix4 transform = new Matrix4();
+                        buffer.asFloatBuffer().get(transform.val);
+                        buffer.position(buffer.position() + 16 * 4);
+                        part.bones.put(bone, transform);
+                    }
+                }
+                node.parts[i] = part;
+            }
+        }
+        int children = buffer.getInt();
+        if (children > 0) {
+            node.children = new ModelNode[children];
+            for (int i = 0; i < children; i++) {
+                node.children[i] = readNode(buffer);
+            }
+        }
+        return node;
+    }
+
+    private static ModelAnimation readAnimation(ByteBuffer buffer) {
+        ModelAnimation animation = new ModelAnimation();
+        animation.id = readString(buffer);
+        int nodes = buffer.getInt();
+        for (int i = 0; i < nodes; i++) {
+            ModelNodeAnimation node = new ModelNodeAnimation();
+            node.nodeId = readString(buffer);
+            int keyframes = buffer.getInt();
+            if (keyframes >= 0) {
+                node.translation = new Array<ModelNodeKeyframe<Vector3>>(keyframes);
+                for (int j = 0; j < keyframes; j++) {
+                    ModelNodeKeyframe<Vector3> keyframe = new ModelNodeKeyframe<Vector3>();
+                    keyframe.keytime = buffer.getFloat();
+                    keyframe.value = readVector(buffer);
+                    node.translation.add(keyframe);
+                }
+            }
+            keyframes = buffer.getInt();
+            if (keyframes >= 0) {
+                node.rotation = new Array<ModelNodeKeyframe<Quaternion>>(keyframes);
+                for (int j = 0; j < keyframes; j++) {
+                    ModelNodeKeyframe<Quaternion> keyframe = new ModelNodeKeyframe<Quaternion>();
+                    keyframe.keytime = buffer.getFloat();
+                    keyframe.value = readQuaternion(buffer);
+                    node.rotation.add(keyframe);
+                }
+            }
+            keyframes = buffer.getInt();
+            if (keyframes >= 0) {
+                node.scaling = new Array<ModelNodeKeyframe<Vector3>>(keyframes);
+                for (int j = 0; j < keyframes; j++) {
+                    ModelNodeKeyframe<Vector3> keyframe = new ModelNodeKeyframe<Vector3>();
+                    keyframe.keytime = buffer.getFloat();
+                    keyframe.value = readVector(buffer);
+                    node.scaling.add(keyframe);
+                }
+            }
+            animation.nodeAnimations.add(node);
+        }
+        return animation;
+    }
+
+    private static Vector3 readVector(ByteBuffer buffer) {
+        if (buffer.getInt() == 0) return null;
+        return new Vector3(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+    }
+
+    private static Quaternion readQuaternion(ByteBuffer buffer) {
+        if (buffer.getInt() == 0) return null;
+        return new Quaternion(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        buffer.position(buffer.position() + align(length) - length);
+        try {
+            return new String(bytes, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new GdxRuntimeException(e);
+        }
+    }
+
+    //the loader of libgdx returns raw descriptors
+    @SuppressWarnings("rawtypes")
+    @Override
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, ModelLoader.ModelParameters parameters) {
+        Array<AssetDescriptor> dependencies = new Array<AssetDescriptor>();
+        Data data = parse(file);
+
+        ObjectMap.Entry<String, Data> item = new ObjectMap.Entry<String, Data>();
+        item.key = fileName;
+        item.value = data;
+        synchronized (items) {
+            items.add(item);
+        }
+
+        TextureLoader.TextureParameter textureParameter = parameters != null
+                ? parameters.textureParameter
+                : defaultParameters.textureParameter;
+        for (ModelMaterial material : data.model.materials) {
+            if (material.textures == null) continue;
+            for (ModelTexture texture : material.textures) {
+                dependencies.add(new AssetDescriptor<Texture>(texture.fileName, Texture.class, textureParameter));
+            }
+        }
+        return dependencies;
+    }
+
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, ModelLoader.ModelParameters parameters) {
+    }
+
+    @Override
+    public Model loadSync(AssetManager manager, String fileName, FileHandle file, ModelLoader.ModelParameters parameters) {
+        Data data = null;
+        synchronized (items) {
+            for (int i = 0; i < items.size; i++) {
+                if (items.get(i).key.equals(fileName)) {
+                    data = items.removeIndex(i).value;
+                    break;
+                }
+            }
+        }
+        if (data == null) return null;
+        Model model = new CompactModel(data, new TextureProvider.AssetTextureProvider(manager));
+        //the textures belong to the asset manager, they are released when the model is unloaded
+        Iterator<Disposable> disposables = model.getManagedDisposables().iterator();
+        while (disposables.hasNext()) {
+            if (disposables.next() instanceof Texture) disposables.remove();
+        }
+        return model;
+    }
+
+    private static final class CompactModel extends Model {
+
+        private final ObjectMap<Mesh, QuantizationAttribute> quantizations = new ObjectMap<Mesh, QuantizationAttribute>();
+
+        CompactModel(Data data, TextureProvider textures) {
+            for (MeshData mesh : data.meshes) {
+                loadMesh(mesh);
+            }
+            loadMaterials(data.model.materials, textures);
+            loadNodes(data.model.nodes);
+            if (quantizations.size > 0) {
+                for (Node node : nodes) {
+                    setQuantization(node);
+                }
+            }
+            loadAnimations(data.model.animations);
+            calculateTransforms();
+        }
+
+        /**
+         * Adds the quantization of their meshes to the materials of the node parts, a material shared
+         * by meshes with different quantizations is copied.
+         */
+        private void setQuantization(Node node) {
+            for (NodePart part : node.parts) {
+                QuantizationAttribute quantization = quantizations.get(part.meshPart.mesh);
+                if (quantization == null) continue;
+                Attribute current = part.material.get(QuantizationAttribute.Type);
+                if (current == null) {
+                    part.material.set(quantization);
+                } else if (!current.equals(quantization)) {
+                    part.material = part.material.copy();
+                    part.material.set(quantization);
+                    materials.add(part.material);
+                }
+            }
+            for (Node child : node.getChildren()) {
+                setQuantization(child);
+            }
+        }
+
+        //the same as Model.convertMesh, but the buffers come from the file
+        private void loadMesh(MeshData data) {
+            VertexAttributes attributes = new VertexAttributes(data.attributes);
+            int vertices = data.vertices.remaining() * 4 / attributes.vertexSize;
+            Mesh mesh = new Mesh(true, vertices, data.indices.remaining(), attributes);
+            meshes.add(mesh);
+            manageDisposable(mesh);
+
+            FloatBuffer vertexBuffer = mesh.getVerticesBuffer();
+            vertexBuffer.clear();
+            vertexBuffer.put(data.vertices.duplicate());
+            vertexBuffer.flip();
+            ShortBuffer indexBuffer = mesh.getIndicesBuffer();
+            indexBuffer.clear();
+            indexBuffer.put(data.indices.duplicate());
+            indexBuffer.flip();
+
+            if (data.quantization != null) quantizations.put(mesh, data.quantization);
+
+            int offset = 0;
+            for (int i = 0; i < data.partIds.length; i++) {
+                MeshPart part = new MeshPart();
+                part.id = data.partIds[i];
+                part.primitiveType = data.partTypes[i];
+                part.offset = offset;
+                part.size = data.partSizes[i];
+                part.mesh = mesh;
+                float[] bounds = data.partBounds;
+                part.center.set(bounds[i * 6], bounds[i * 6 + 1], bounds[i * 6 + 2]);
+                part.halfExtents.set(bounds[i * 6 + 3], bounds[i * 6 + 4], bounds[i * 6 + 5]);
+                part.radius = part.halfExtents.len();
+                offset += part.size;
+                meshParts.add(part);
+            }
+        }
+    }
+}
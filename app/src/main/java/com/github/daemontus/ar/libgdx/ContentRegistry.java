@@ -0,0 +1,114 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Maps tracked targets to the model assets rendered on them.
+ *
+ * A target is looked up by its trackable id first, then by its name (ids get their names from
+ * {@link #bind(int, String)}, usually when the data set is loaded) and finally the default asset is used.
+ * The registry can be filled from any thread, the rendering thread notices changes by {@link #getVersion()}.
+ *
+ * Targets can be {@link #link(String, String) linked} to the targets likely seen next (e.g. the next
+ * page of a catalogue), their models are prefetched when the target is seen.
+ */
+public class ContentRegistry {
+
+    private final IntMap<String> idAssets = new IntMap<String>();
+    private final ObjectMap<String, String> nameAssets = new ObjectMap<String, String>();
+    private final IntMap<String> names = new IntMap<String>();
+    private final ObjectMap<String, Array<String>> likelyNext = new ObjectMap<String, Array<String>>();
+    private String defaultAsset;
+    private volatile int version = 0;
+
+    /**
+     * @param defaultAsset model of the targets without their own asset, null to render nothing on them
+     */
+    public ContentRegistry(String defaultAsset) {
+        this.defaultAsset = defaultAsset;
+    }
+
+    public synchronized void register(int trackableId, String asset) {
+        idAssets.put(trackableId, asset);
+        version++;
+    }
+
+    public synchronized void register(String trackableName, String asset) {
+        nameAssets.put(trackableName, asset);
+        version++;
+    }
+
+    /**
+     * Sets the name of a trackable, so the assets registered by name are found by its id.
+     */
+    public synchronized void bind(int trackableId, String trackableName) {
+        names.put(trackableId, trackableName);
+        version++;
+    }
+
+    /**
+     * Marks next as likely to be seen soon after the target is seen.
+     */
+    public synchronized void link(String trackableName, String next) {
+        Array<String> targets = likelyNext.get(trackableName);
+        if (targets == null) {
+            targets = new Array<String>();
+            likelyNext.put(trackableName, targets);
+        }
+        if (!targets.contains(next, false)) targets.add(next);
+        version++;
+    }
+
+    public synchronized void setDefaultAsset(String asset) {
+        defaultAsset = asset;
+        version++;
+    }
+
+    public synchronized String getDefaultAsset() {
+        return defaultAsset;
+    }
+
+    /**
+     * @return model asset of the trackable, null if nothing should be rendered on it
+     */
+    public synchronized String getAsset(int trackableId) {
+        String asset = idAssets.get(trackableId);
+        if (asset != null) return asset;
+        String name = names.get(trackableId);
+        if (name != null) {
+            asset = nameAssets.get(name);
+            if (asset != null) return asset;
+        }
+        return defaultAsset;
+    }
+
+    /**
+     * Adds the model assets of the targets likely seen after the trackable to out.
+     *
+     * @return number of added assets
+     */
+    public synchronized int getLikelyNextAssets(int trackableId, Array<String> out) {
+        String name = names.get(trackableId);
+        if (name == null) return 0;
+        Array<String> targets = likelyNext.get(name);
+        if (targets == null) return 0;
+        int added = 0;
+        for (int i = 0; i < targets.size; i++) {
+            String asset = nameAssets.get(targets.get(i), defaultAsset);
+            if (asset != null) {
+                out.add(asset);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * @return number which changes with every change of the registry
+     */
+    public int getVersion() {
+        return version;
+    }
+}
@@ -1,43 +1,231 @@
 package com.github.daemontus.ar.libgdx;
 
 import com.badlogic.gdx.Screen;
-import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.g3d.Model;
 import com.badlogic.gdx.graphics.g3d.ModelInstance;
-import com.github.daemontus.ar.vuforia.VuforiaRenderer;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.IntSet;
+import com.badlogic.gdx.utils.TimeUtils;
 
 /**
  * Screen implementation responsible for model loading and calling renderer properly.
+ *
+ * Every target gets the model the {@link ContentRegistry} maps it to, models are loaded on first
+ * use and kept in a {@link ModelCache}. By default the models are streamed: every frame gives the
+ * asset manager a few milliseconds and the camera image is rendered right away, a target shows its
+ * model once it's loaded. The default model of the registry is loaded from the start and the models
+ * of the targets likely seen next are prefetched whenever a target is seen.
  */
 public class Display implements Screen {
 
-    public ModelInstance modelInstance;
-    public Model model;
+    //time given to the asset manager in every frame while a model is streamed
+    public static final int LOAD_BUDGET_MS = 4;
+    //estimated memory of the loaded models
+    public static final long GPU_BUDGET = 64L << 20;
+    public static final long HEAP_BUDGET = 32L << 20;
+
+    private static final String MODEL = "jet.g3dc";
+
+    private static final Trace.Event FIRST_FRAME = Trace.event("DISPLAY", Trace.INFO, 0, "First frame after %.1f ms");
+    private static final Trace.Event LOADED = Trace.event("DISPLAY", Trace.INFO, 0, "First model loaded after %.1f ms in %.0f frames");
+
+    //model instance of every target seen with a loaded model
+    private final IntMap<ModelInstance> instances = new IntMap<ModelInstance>();
+    //targets whose models (and the models of their likely next targets) were prefetched
+    private final IntSet prefetched = new IntSet();
+    private final Array<String> nextAssets = new Array<String>();
 
     private Renderer mRenderer;
+    private FrameTimings timings = new FrameTimings();
+
+    private ContentRegistry registry;
+    private int registryVersion;
+    private final ModelCache cache;
+    private long evictionGeneration = 0;
+    private final int loadBudget;
+    private final long created;
+    private long firstFrame = -1;
+    private long loaded = -1;
+    private int loadingFrames = 0;
 
     public Display() {
+        this(false);
+    }
+
+    public Display(boolean multiTarget) {
+        this(multiTarget, LOAD_BUDGET_MS);
+    }
+
+    /**
+     * @param loadBudgetMs milliseconds of every frame spent loading models, 0 loads them right away
+     */
+    public Display(boolean multiTarget, int loadBudgetMs) {
+        this(multiTarget, loadBudgetMs, new ContentRegistry(MODEL));
+    }
+
+    /**
+     * @param registry models of the targets
+     */
+    public Display(boolean multiTarget, int loadBudgetMs, ContentRegistry registry) {
+        this(multiTarget, loadBudgetMs, registry, new ModelCache(GPU_BUDGET, HEAP_BUDGET));
+    }
+
+    /**
+     * @param cache cache of the loaded models, disposed with the display
+     */
+    public Display(boolean multiTarget, int loadBudgetMs, ContentRegistry registry, ModelCache cache) {
+        created = TimeUtils.nanoTime();
+        loadBudget = loadBudgetMs;
+
+        mRenderer = new Renderer(multiTarget);
+        this.cache = cache;
+        setContentRegistry(registry);
+        if (loadBudget <= 0) {
+            cache.update(0);
+            checkLoaded();
+        }
+    }
+
+    /**
+     * @param registry models of the targets, its default model starts loading
+     */
+    public void setContentRegistry(ContentRegistry registry) {
+        this.registry = registry;
+        registryVersion = registry.getVersion();
+        instances.clear();
+        prefetched.clear();
+        String asset = registry.getDefaultAsset();
+        if (asset != null) cache.load(asset);
+    }
+
+    private void checkLoaded() {
+        if (loaded < 0 && cache.size() > 0) {
+            loaded = TimeUtils.nanoTime();
+            Trace.trace(LOADED, (loaded - created) / 1e6, loadingFrames);
+        }
+    }
 
-        mRenderer = new Renderer();
+    /**
+     * @return true if no model is being loaded
+     */
+    public boolean isLoaded() {
+        return !cache.isLoading();
+    }
 
-        AssetManager assets = new AssetManager();
-        assets.load("jet.g3db", Model.class);
-        assets.finishLoading();
+    /**
+     * @return loading progress of the requested models between 0 and 1
+     */
+    public float getLoadProgress() {
+        return cache.getProgress();
+    }
 
-        model = assets.get("jet.g3db", Model.class);
+    /**
+     * @return nanoseconds from the creation of the display to its first frame, -1 before the first frame
+     */
+    public long getTimeToFirstFrame() {
+        return firstFrame < 0 ? -1 : firstFrame - created;
+    }
+
+    /**
+     * @return nanoseconds from the creation of the display until the first model was loaded, -1 while loading
+     */
+    public long getLoadTime() {
+        return loaded < 0 ? -1 : loaded - created;
+    }
+
+    /**
+     * @return number of frames rendered while some model was streamed
+     */
+    public int getLoadingFrames() {
+        return loadingFrames;
+    }
+
+    /**
+     * @return cache of the loaded models and its hit, miss and eviction counters
+     */
+    public ModelCache getModelCache() {
+        return cache;
+    }
 
-        modelInstance = new ModelInstance(model);
+    /**
+     * @return model instance of the target, null if its model isn't loaded yet or it has none
+     */
+    public ModelInstance getModelInstance(int trackableId) {
+        String asset = registry.getAsset(trackableId);
+        if (asset == null) return null;
+        Model model = cache.get(asset);
+        if (model == null) return null;
+        ModelInstance instance = instances.get(trackableId);
+        if (instance == null || instance.model != model) {
+            instance = new ModelInstance(model);
+            instances.put(trackableId, instance);
+        }
+        return instance;
+    }
 
+    /**
+     * Prefetches the models of the targets in the results and of the targets likely seen after them,
+     * once per target (again after the registry changes or a model is evicted).
+     */
+    public void prefetch(FrameResults results) {
+        for (int i = 0; i < results.size(); i++) {
+            int id = results.getId(i);
+            if (!prefetched.add(id)) continue;
+            String asset = registry.getAsset(id);
+            if (asset != null) cache.prefetch(asset);
+            nextAssets.clear();
+            registry.getLikelyNextAssets(id, nextAssets);
+            for (int j = 0; j < nextAssets.size; j++) {
+                cache.prefetch(nextAssets.get(j));
+            }
+        }
     }
 
     @Override
     public void render(float delta) {
+        if (firstFrame < 0) {
+            firstFrame = TimeUtils.nanoTime();
+            Trace.trace(FIRST_FRAME, (firstFrame - created) / 1e6);
+        }
+        if (registry.getVersion() != registryVersion) {
+            registryVersion = registry.getVersion();
+            instances.clear();
+            prefetched.clear();
+        }
+        cache.beginFrame();
+        if (cache.isLoading()) {
+            loadingFrames++;
+            timings.start(FrameTimings.STAGE_ASSET_LOADING);
+            cache.update(loadBudget);
+            timings.stop(FrameTimings.STAGE_ASSET_LOADING);
+            checkLoaded();
+        } else {
+            //models kept over the budget because they were visible may be evicted now
+            cache.update(loadBudget);
+        }
+        if (cache.getEvictionGeneration() != evictionGeneration) {
+            evictionGeneration = cache.getEvictionGeneration();
+            dropEvictedInstances();
+            prefetched.clear();
+        }
         mRenderer.render(this, delta);
     }
 
+    private void dropEvictedInstances() {
+        IntMap.Keys keys = instances.keys();
+        while (keys.hasNext) {
+            int id = keys.next();
+            String asset = registry.getAsset(id);
+            if (asset == null || !cache.contains(asset)) keys.remove();
+        }
+    }
+
     @Override
     public void dispose() {
         mRenderer.dispose();
+        instances.clear();
+        cache.dispose();
     }
 
 
@@ -66,7 +254,20 @@ public class Display implements Screen {
 
     }
 
-    public void setVuforiaRenderer(VuforiaRenderer renderer) {
-        mRenderer.setVuforiaRenderer(renderer);
+    public void setTrackingSource(TrackingSource source) {
+        mRenderer.setTrackingSource(source);
+    }
+
+    public void setPoseFilter(PoseFilter filter) {
+        mRenderer.setPoseFilter(filter);
+    }
+
+    public void setPosePredictor(PosePredictor predictor) {
+        mRenderer.setPosePredictor(predictor);
+    }
+
+    public void setFrameTimings(FrameTimings timings) {
+        this.timings = timings;
+        mRenderer.setFrameTimings(timings);
     }
 }
@@ -3,31 +3,69 @@ package com.github.daemontus.ar.libgdx;
 import android.util.Log;
 
 import com.badlogic.gdx.Game;
-import com.badlogic.gdx.graphics.FPSLogger;
-
-import com.github.daemontus.ar.vuforia.VuforiaRenderer;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.TimeUtils;
 
 /**
  * Instance of libgdx Game class responsible for rendering 3D content over augmented reality.
  */
 public class Engine extends Game {
 
-    private FPSLogger fps;
-    private VuforiaRenderer vuforiaRenderer;
+    //frame timings and GL calls are logged and reset this often
+    private static final long STATS_INTERVAL = 5000000000L;
+
+    private static final Trace.Event GL_ERROR = Trace.event("ENGINE", Trace.ERROR, 1000, "GL error in frame: %.0f");
+
+    private final FrameTimings timings;
+    private CachingGL20 gl;
+    private int glFrames = 0;
+    private long statsTime;
+    private TrackingSource trackingSource;
 
     private boolean isCreated = false;
     private int width = 0;
     private int height = 0;
     private Display mDisplay;
+    private PoseFilter poseFilter;
+    private PosePredictor posePredictor;
+    private ContentRegistry contentRegistry;
+
+    private final boolean multiTarget;
+
+    public Engine() {
+        this(false);
+    }
+
+    /**
+     * @param multiTarget render content on every tracked target instead of just the first one
+     */
+    public Engine(boolean multiTarget) {
+        this(multiTarget, new FrameTimings());
+    }
+
+    /**
+     * @param timings timings of the rendered frames, e.g. measured with a fake {@link Clock}
+     */
+    public Engine(boolean multiTarget, FrameTimings timings) {
+        this.multiTarget = multiTarget;
+        this.timings = timings;
+    }
 
     @Override
     public void create () {
-        fps = new FPSLogger();
-        mDisplay = new Display();
-        mDisplay.setVuforiaRenderer(vuforiaRenderer);
+        //one GL state cache shared by the video background and libgdx rendering
+        gl = new CachingGL20(Gdx.gl20);
+        installGL();
+        statsTime = TimeUtils.nanoTime();
+        mDisplay = contentRegistry == null ? new Display(multiTarget)
+                : new Display(multiTarget, Display.LOAD_BUDGET_MS, contentRegistry);
+        mDisplay.setTrackingSource(trackingSource);
+        mDisplay.setPoseFilter(poseFilter);
+        mDisplay.setPosePredictor(posePredictor);
+        mDisplay.setFrameTimings(timings);
         setScreen(mDisplay);
-        if (vuforiaRenderer != null) {
-            vuforiaRenderer.onSurfaceCreated();
+        if (trackingSource != null) {
+            trackingSource.onSurfaceCreated();
         }
         isCreated = true;
     }
@@ -38,21 +76,108 @@ public class Engine extends Game {
         this.width = width;
         this.height = height;
         Log.d("ENGINE", "Resize: "+width+"x"+height);
-        if (vuforiaRenderer != null) vuforiaRenderer.onSurfaceChanged(width, height);
+        if (trackingSource != null) trackingSource.onSurfaceChanged(width, height);
     }
 
     @Override
     public void render () {
+        timings.beginFrame();
+        installGL();
+        //native Vuforia code may have changed GL state since the last frame
+        gl.invalidate();
         super.render();
-        fps.log();
+        Trace.checkGLError(GL_ERROR);
+        //the frame is submitted, libgdx swaps the buffers right after this
+        timings.endFrame();
+        Trace.frame();
+        logStats();
     }
 
-    public void setVuforiaRenderer(VuforiaRenderer vuforiaRenderer) {
-        this.vuforiaRenderer = vuforiaRenderer;
+    @Override
+    public void pause() {
+        super.pause();
+        //time spent paused is not a swap
+        timings.pause();
+    }
+
+    private void installGL() {
+        //the backend sets its own GL again if it has to recreate it
+        if (Gdx.gl20 != gl) {
+            Gdx.gl = Gdx.gl20 = gl;
+        }
+    }
+
+    private void logStats() {
+        glFrames++;
+        if (TimeUtils.nanoTime() - statsTime > STATS_INTERVAL) {
+            Log.d("ENGINE", timings.toString());
+            Log.d("ENGINE", "GL calls per frame: "+(gl.getCalls() / glFrames)
+                    +" (filtered: "+(gl.getFilteredCalls() / glFrames)+", draw calls: "+(gl.getDrawCalls() / glFrames)+")");
+            ModelCache models = mDisplay.getModelCache();
+            Log.d("ENGINE", "Models: "+models.size()+" ("+(models.getGpuBytes() >> 10)+" KB GPU, "+(models.getHeapBytes() >> 10)
+                    +" KB heap), hits: "+models.getHits()+", misses: "+models.getMisses()+", evictions: "+models.getEvictions()
+                    +", prefetches: "+models.getPrefetches()+" (used: "+models.getPrefetchHits()+")");
+            timings.reset();
+            gl.resetCounters();
+            models.resetCounters();
+            glFrames = 0;
+            statsTime = TimeUtils.nanoTime();
+        }
+    }
+
+    /**
+     * @return screen rendering the content, it reports the loading progress of the models; null before {@link #create()}
+     */
+    public Display getDisplay() {
+        return mDisplay;
+    }
+
+    /**
+     * @return timings of the rendered frames, the tracking source may measure its stages into them as well
+     */
+    public FrameTimings getFrameTimings() {
+        return timings;
+    }
+
+    /**
+     * @param trackingSource source of the camera frames and poses, usually {@link com.github.daemontus.ar.vuforia.VuforiaRenderer}
+     */
+    public void setTrackingSource(TrackingSource trackingSource) {
+        this.trackingSource = trackingSource;
         if (isCreated) {
-            mDisplay.setVuforiaRenderer(vuforiaRenderer);
-            vuforiaRenderer.onSurfaceCreated();
+            mDisplay.setTrackingSource(trackingSource);
+            trackingSource.onSurfaceCreated();
         }
         if (width != 0 && height != 0) resize(width, height);
     }
+
+    /**
+     * @param poseFilter filter applied to tracked poses before rendering, null to use raw poses
+     */
+    public void setPoseFilter(PoseFilter poseFilter) {
+        this.poseFilter = poseFilter;
+        if (isCreated) {
+            mDisplay.setPoseFilter(poseFilter);
+        }
+    }
+
+    /**
+     * @param posePredictor predictor extrapolating poses to the render time, null to render the camera frame poses
+     */
+    public void setPosePredictor(PosePredictor posePredictor) {
+        this.posePredictor = posePredictor;
+        if (isCreated) {
+            mDisplay.setPosePredictor(posePredictor);
+        }
+    }
+
+    /**
+     * @param contentRegistry models of the targets, by default every target shows the jet
+     */
+    public void setContentRegistry(ContentRegistry contentRegistry) {
+        this.contentRegistry = contentRegistry;
+        if (isCreated) {
+            mDisplay.setContentRegistry(contentRegistry);
+        }
+    }
 }
@@ -0,0 +1,123 @@
+package com.github.daemontus.ar.libgdx;
+
+/**
+ * Reusable container of the trackables found in one camera frame.
+ *
+ * Ids, statuses and poses are kept in primitive arrays which are only reallocated when a frame
+ * has more results than ever before, so refilling the container every frame doesn't allocate.
+ * Poses use the row major 3x4 layout of {@link com.vuforia.Matrix34F}, the pose of the i-th
+ * result starts at {@link #getPoseOffset(int)} of {@link #getPoses()}.
+ */
+public class FrameResults {
+
+    private double timestamp;
+    private int size = 0;
+    private int[] ids;
+    private int[] statuses;
+    private float[] poses;
+
+    public FrameResults() {
+        this(4);
+    }
+
+    /**
+     * @param capacity number of results that fit in without reallocation
+     */
+    public FrameResults(int capacity) {
+        ids = new int[capacity];
+        statuses = new int[capacity];
+        poses = new float[capacity * PoseMath.POSE_SIZE];
+    }
+
+    /**
+     * Removes all results and starts a new frame.
+     *
+     * @param timestamp time of the camera frame in seconds
+     */
+    public void clear(double timestamp) {
+        this.timestamp = timestamp;
+        size = 0;
+    }
+
+    /**
+     * Appends a result, the pose is copied.
+     */
+    public void add(int trackableId, int status, float[] pose, int poseOffset) {
+        if (size == ids.length) {
+            grow(Math.max(8, size * 2));
+        }
+        ids[size] = trackableId;
+        statuses[size] = status;
+        System.arraycopy(pose, poseOffset, poses, size * PoseMath.POSE_SIZE, PoseMath.POSE_SIZE);
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return time of the camera frame in seconds
+     */
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    public int getId(int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    /**
+     * @return one of the {@link com.vuforia.TrackableResult.STATUS} values
+     */
+    public int getStatus(int index) {
+        checkIndex(index);
+        return statuses[index];
+    }
+
+    /**
+     * @return index of the result of the given trackable or -1 if it's not in this frame
+     */
+    public int indexOf(int trackableId) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == trackableId) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @return backing array of all poses, only the first {@link #size()} poses are valid
+     */
+    public float[] getPoses() {
+        return poses;
+    }
+
+    public int getPoseOffset(int index) {
+        checkIndex(index);
+        return index * PoseMath.POSE_SIZE;
+    }
+
+    /**
+     * Copies the pose of the index-th result into result.
+     */
+    public void getPose(int index, float[] result, int resultOffset) {
+        System.arraycopy(poses, getPoseOffset(index), result, resultOffset, PoseMath.POSE_SIZE);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index "+index+", size "+size);
+    }
+
+    private void grow(int capacity) {
+        int[] newIds = new int[capacity];
+        int[] newStatuses = new int[capacity];
+        float[] newPoses = new float[capacity * PoseMath.POSE_SIZE];
+        System.arraycopy(ids, 0, newIds, 0, size);
+        System.arraycopy(statuses, 0, newStatuses, 0, size);
+        System.arraycopy(poses, 0, newPoses, 0, size * PoseMath.POSE_SIZE);
+        ids = newIds;
+        statuses = newStatuses;
+        poses = newPoses;
+    }
+}
@@ -0,0 +1,267 @@
+package com.github.daemontus.ar.libgdx;
+
+import java.util.Locale;
+
+/**
+ * Durations of the stages of every rendered frame, aggregated into a {@link LatencyHistogram} per stage,
+ * and the latency from the camera frame to the rendered frame.
+ *
+ * A stage can be started and stopped several times within a frame, the durations are summed and
+ * recorded as one sample by {@link #endFrame()}. Stages which didn't run in a frame are not recorded.
+ *
+ * Motion to photon latency is the time from the capture of the camera frame (its timestamp, reported
+ * by {@link #cameraFrame(double)} when the tracking state is updated) to the end of the rendered frame,
+ * when it's handed over to the buffer swap. It's only valid when the camera timestamps share the base
+ * of the timings clock, or when the difference of the bases is known and set by
+ * {@link #setCameraClockOffset(long)}. The offset is 0 unless it's set, which holds for the
+ * {@link SyntheticTrackingSource} clock but isn't guaranteed for Vuforia camera frames on a device.
+ * Frames with an implausible latency (negative or over a second, e.g. from clocks with different
+ * bases) are only counted as unsynchronized. The time from the state update to the end of the
+ * frame is measured on the timings clock alone, so it's always available. Frames which render the same
+ * camera frame as the previous frame are counted as stale.
+ *
+ * Timing is allocation free and meant to be used on the rendering thread only.
+ */
+public class FrameTimings {
+
+    // Vuforia state update (camera frame and tracking results)
+    public static final int STAGE_UPDATE_STATE = 0;
+    // drawing the camera image
+    public static final int STAGE_VIDEO_BACKGROUND = 1;
+    // filtering, prediction and conversion of the poses
+    public static final int STAGE_POSES = 2;
+    // rendering of the models
+    public static final int STAGE_MODEL_BATCH = 3;
+    // streaming of the models, only in the frames before they are loaded
+    public static final int STAGE_ASSET_LOADING = 4;
+    // from the end of one frame to the start of the next one, i.e. buffer swap and waiting for vsync
+    public static final int STAGE_SWAP = 5;
+    // the whole frame, without the swap
+    public static final int STAGE_FRAME = 6;
+    public static final int STAGE_COUNT = 7;
+
+    private static final String[] STAGE_NAMES = {
+            "update state", "video background", "poses", "model batch", "asset loading", "swap", "frame"
+    };
+
+    private static final long MAX_LATENCY = 1000000000L;
+
+    private final Clock clock;
+    private final LatencyHistogram[] histograms = new LatencyHistogram[STAGE_COUNT];
+    private final long[] started = new long[STAGE_COUNT];
+    private final long[] elapsed = new long[STAGE_COUNT];
+    private final boolean[] ran = new boolean[STAGE_COUNT];
+    private long frames = 0;
+    private long since;
+    private boolean inFrame = false;
+    private long frameStart;
+    private boolean hasLastFrame = false;
+    private long lastFrameEnd;
+
+    private final LatencyHistogram motionToPhoton = new LatencyHistogram();
+    private final LatencyHistogram updateToFrameEnd = new LatencyHistogram();
+    private long cameraClockOffset = 0;
+    private boolean hasCameraFrame = false;
+    private double cameraTimestamp;
+    private long cameraUpdate;
+    private double lastRenderedTimestamp = Double.NaN;
+    private long staleFrames = 0;
+    private long unsynchronizedFrames = 0;
+
+    public FrameTimings() {
+        this(Clock.SYSTEM);
+    }
+
+    public FrameTimings(Clock clock) {
+        this.clock = clock;
+        for (int i = 0; i < STAGE_COUNT; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        since = clock.nanoTime();
+    }
+
+    /**
+     * Starts a frame, the time since the end of the previous one is recorded as {@link #STAGE_SWAP}.
+     */
+    public void beginFrame() {
+        frameStart = clock.nanoTime();
+        inFrame = true;
+        if (hasLastFrame) {
+            add(STAGE_SWAP, frameStart - lastFrameEnd);
+        }
+    }
+
+    public void start(int stage) {
+        started[stage] = clock.nanoTime();
+    }
+
+    public void stop(int stage) {
+        elapsed[stage] += clock.nanoTime() - started[stage];
+        ran[stage] = true;
+    }
+
+    /**
+     * Adds a duration measured elsewhere to the stage in this frame.
+     */
+    public void add(int stage, long nanos) {
+        elapsed[stage] += nanos;
+        ran[stage] = true;
+    }
+
+    /**
+     * Reports the camera frame rendered in this frame, called when the tracking state is updated.
+     *
+     * @param timestamp capture time of the camera frame in seconds
+     */
+    public void cameraFrame(double timestamp) {
+        cameraTimestamp = timestamp;
+        cameraUpdate = clock.nanoTime();
+        hasCameraFrame = true;
+    }
+
+    /**
+     * Ends the frame and records its stages and latency.
+     */
+    public void endFrame() {
+        long end = clock.nanoTime();
+        if (inFrame) {
+            add(STAGE_FRAME, end - frameStart);
+            inFrame = false;
+        }
+        for (int i = 0; i < STAGE_COUNT; i++) {
+            if (ran[i]) {
+                histograms[i].record(elapsed[i]);
+                elapsed[i] = 0;
+                ran[i] = false;
+            }
+        }
+
+        if (hasCameraFrame) {
+            if (cameraTimestamp == lastRenderedTimestamp) staleFrames++;
+            lastRenderedTimestamp = cameraTimestamp;
+            updateToFrameEnd.record(end - cameraUpdate);
+            long latency = end - ((long) (cameraTimestamp * 1e9) + cameraClockOffset);
+            if (latency < 0 || latency > MAX_LATENCY) {
+                unsynchronizedFrames++;
+            } else {
+                motionToPhoton.record(latency);
+            }
+            hasCameraFrame = false;
+        }
+
+        frames++;
+        lastFrameEnd = end;
+        hasLastFrame = true;
+    }
+
+    /**
+     * Forgets the end of the last frame, so the time spent paused isn't recorded as a swap.
+     */
+    public void pause() {
+        hasLastFrame = false;
+    }
+
+    public LatencyHistogram getHistogram(int stage) {
+        return histograms[stage];
+    }
+
+    public static String getStageName(int stage) {
+        return STAGE_NAMES[stage];
+    }
+
+    /**
+     * @return time from the capture of the camera frame to the end of the frame rendering it
+     */
+    public LatencyHistogram getMotionToPhoton() {
+        return motionToPhoton;
+    }
+
+    /**
+     * @return time from the tracking state update to the end of the frame
+     */
+    public LatencyHistogram getUpdateToFrameEnd() {
+        return updateToFrameEnd;
+    }
+
+    /**
+     * Sets the difference of the clock bases, only known when the camera reports its clock base.
+     *
+     * @param offset nanoseconds added to the camera timestamps to get the time of the timings clock
+     */
+    public void setCameraClockOffset(long offset) {
+        cameraClockOffset = offset;
+    }
+
+    /**
+     * @return number of frames which rendered the same camera frame as the frame before them
+     */
+    public long getStaleFrames() {
+        return staleFrames;
+    }
+
+    /**
+     * @return number of frames whose camera timestamp doesn't match the timings clock
+     */
+    public long getUnsynchronizedFrames() {
+        return unsynchronizedFrames;
+    }
+
+    /**
+     * @return number of frames since the last {@link #reset()}
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * @return frames per second since the last {@link #reset()}
+     */
+    public float getFramesPerSecond() {
+        long nanos = clock.nanoTime() - since;
+        return nanos <= 0 ? 0 : frames * 1e9f / nanos;
+    }
+
+    /**
+     * Removes all samples, a frame in progress is kept.
+     */
+    public void reset() {
+        for (int i = 0; i < STAGE_COUNT; i++) {
+            histograms[i].reset();
+        }
+        motionToPhoton.reset();
+        updateToFrameEnd.reset();
+        staleFrames = 0;
+        unsynchronizedFrames = 0;
+        frames = 0;
+        since = clock.nanoTime();
+    }
+
+    /**
+     * Appends fps, stale frames and p50/p95/p99/max (in milliseconds) of every stage which ran and
+     * of the latencies, one histogram per line.
+     */
+    public StringBuilder dump(StringBuilder out) {
+        out.append(String.format(Locale.US, "%.1f fps, %d frames, %d stale", getFramesPerSecond(), frames, staleFrames));
+        if (unsynchronizedFrames > 0) {
+            out.append(", ").append(unsynchronizedFrames).append(" with unsynchronized camera clock");
+        }
+        for (int i = 0; i < STAGE_COUNT; i++) {
+            dump(out, STAGE_NAMES[i], histograms[i]);
+        }
+        dump(out, "motion to photon", motionToPhoton);
+        dump(out, "update to frame end", updateToFrameEnd);
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return dump(new StringBuilder()).toString();
+    }
+
+    private static void dump(StringBuilder out, String name, LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) return;
+        out.append(String.format(Locale.US, "\n%s: p50 %.2f, p95 %.2f, p99 %.2f, max %.2f ms",
+                name, histogram.getPercentile(50) / 1e6, histogram.getPercentile(95) / 1e6,
+                histogram.getPercentile(99) / 1e6, histogram.getMax() / 1e6));
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.utils.IntMap;
+
+/**
+ * Constant velocity Kalman filter applied to every pose component.
+ *
+ * Each component has a [value, velocity] state driven by white noise acceleration.
+ * Rotation and translation components have separate noise parameters, because they
+ * use very different units.
+ */
+public class KalmanPoseFilter implements PoseFilter {
+
+    /** A trackable not seen for this long (in seconds) starts from scratch. */
+    private static final double RESET_INTERVAL = 0.5;
+
+    private final float rotationProcessNoise;
+    private final float rotationMeasurementNoise;
+    private final float translationProcessNoise;
+    private final float translationMeasurementNoise;
+
+    private final IntMap<Track> tracks = new IntMap<Track>();
+
+    /**
+     * Defaults tuned for poses in millimeters with about 1.5 mm of translation noise.
+     */
+    public KalmanPoseFilter() {
+        this(0.5f, 1.6e-5f, 2e4f, 2.25f);
+    }
+
+    /**
+     * @param rotationProcessNoise spectral density of the rotation component acceleration
+     * @param rotationMeasurementNoise variance of the measured rotation components
+     * @param translationProcessNoise spectral density of the translation acceleration
+     * @param translationMeasurementNoise variance of the measured translation
+     */
+    public KalmanPoseFilter(float rotationProcessNoise, float rotationMeasurementNoise,
+                            float translationProcessNoise, float translationMeasurementNoise) {
+        this.rotationProcessNoise = rotationProcessNoise;
+        this.rotationMeasurementNoise = rotationMeasurementNoise;
+        this.translationProcessNoise = translationProcessNoise;
+        this.translationMeasurementNoise = translationMeasurementNoise;
+    }
+
+    @Override
+    public void filter(int trackableId, double timestamp, float[] pose, int offset) {
+        Track track = tracks.get(trackableId);
+        if (track == null) {
+            track = new Track();
+            tracks.put(trackableId, track);
+        }
+
+        double interval = timestamp - track.timestamp;
+        if (!track.initialized || interval > RESET_INTERVAL || interval < 0) {
+            for (int i = 0; i < PoseMath.POSE_SIZE; i++) {
+                float r = (i % 4 == 3) ? translationMeasurementNoise : rotationMeasurementNoise;
+                int s = i * Track.STRIDE;
+                track.state[s] = pose[offset + i];
+                track.state[s + 1] = 0f;
+                // unknown velocity, measured value
+                track.state[s + 2] = r;
+                track.state[s + 3] = 0f;
+                track.state[s + 4] = 1e3f * r;
+            }
+            System.arraycopy(pose, offset, track.output, 0, PoseMath.POSE_SIZE);
+            track.timestamp = timestamp;
+            track.initialized = true;
+            return;
+        }
+        if (interval == 0) {
+            // same camera frame again, repeat the last result exactly
+            System.arraycopy(track.output, 0, pose, offset, PoseMath.POSE_SIZE);
+            return;
+        }
+
+        float dt = (float) interval;
+        float dt2 = dt * dt;
+        for (int i = 0; i < PoseMath.POSE_SIZE; i++) {
+            boolean translation = i % 4 == 3;
+            float q = translation ? translationProcessNoise : rotationProcessNoise;
+            float r = translation ? translationMeasurementNoise : rotationMeasurementNoise;
+            float[] st = track.state;
+            int s = i * Track.STRIDE;
+
+            // predict
+            float x = st[s] + st[s + 1] * dt;
+            float v = st[s + 1];
+            float p00 = st[s + 2] + 2 * dt * st[s + 3] + dt2 * st[s + 4] + q * dt2 * dt2 / 4;
+            float p01 = st[s + 3] + dt * st[s + 4] + q * dt2 * dt / 2;
+            float p11 = st[s + 4] + q * dt2;
+
+            // update with the measurement
+            float innovation = pose[offset + i] - x;
+            float k0 = p00 / (p00 + r);
+            float k1 = p01 / (p00 + r);
+            x += k0 * innovation;
+            v += k1 * innovation;
+            p11 -= k1 * p01;
+            p01 -= k0 * p01;
+            p00 -= k0 * p00;
+
+            st[s] = x;
+            st[s + 1] = v;
+            st[s + 2] = p00;
+            st[s + 3] = p01;
+            st[s + 4] = p11;
+            pose[offset + i] = x;
+        }
+        track.timestamp = timestamp;
+
+        PoseMath.orthonormalize(pose, offset);
+        System.arraycopy(pose, offset, track.output, 0, PoseMath.POSE_SIZE);
+    }
+
+    @Override
+    public void reset(int trackableId) {
+        tracks.remove(trackableId);
+    }
+
+    private static class Track {
+        // value, velocity and the covariance (p00, p01, p11) of every component
+        static final int STRIDE = 5;
+
+        final float[] state = new float[PoseMath.POSE_SIZE * STRIDE];
+        // the last (orthonormalized) pose
+        final float[] output = new float[PoseMath.POSE_SIZE];
+        double timestamp;
+        boolean initialized = false;
+    }
+}
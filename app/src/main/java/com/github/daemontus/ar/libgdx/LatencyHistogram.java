@@ -0,0 +1,96 @@
+package com.github.daemontus.ar.libgdx;
+
+/**
+ * Histogram of durations in nanoseconds with fixed, logarithmic buckets.
+ *
+ * Every power of two is split into 8 linear buckets, so a percentile is accurate to about 12 %
+ * from 8 ns to over 15 minutes. Recording is a few shifts and an increment, nothing is allocated.
+ * The histogram isn't thread safe, reads from another thread may see a partially recorded sample.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // values up to 2^40 ns (about 18 minutes) are bucketed, larger ones go to the last bucket
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final int[] counts = new int[BUCKETS];
+    private long count = 0;
+    private long sum = 0;
+    private long max = 0;
+
+    /**
+     * @param nanos duration in nanoseconds, negative values are recorded as zero
+     */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts[bucket(nanos)]++;
+        count++;
+        sum += nanos;
+        if (nanos > max) max = nanos;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return longest recorded duration in nanoseconds, 0 if the histogram is empty
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return mean duration in nanoseconds, 0 if the histogram is empty
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return upper bound of the bucket the percentile falls into (at most the maximum), 0 if the histogram is empty
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) return 0;
+        long rank = (long) Math.ceil(Math.max(0, Math.min(100, percentile)) / 100.0 * count);
+        if (rank < 1) rank = 1;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(max, upperBound(i));
+        }
+        return max;
+    }
+
+    /**
+     * Removes all samples.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = 0;
+        }
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        // the highest bit is implicit, the next SUB_BUCKET_BITS bits select the sub bucket
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        if (bucket == BUCKETS - 1) return Long.MAX_VALUE;
+        int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        int sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
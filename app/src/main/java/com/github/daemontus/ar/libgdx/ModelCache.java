@@ -0,0 +1,395 @@
+package com.github.daemontus.ar.libgdx;
+
+import android.util.Log;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetErrorListener;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g3d.Attribute;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.attributes.TextureAttribute;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+
+/**
+ * Models loaded on first use and kept in a least recently used cache bounded by their estimated size.
+ *
+ * {@link #get(String)} returns the model if it's loaded, otherwise its loading is queued and it's
+ * available a few frames later (the asset manager is advanced by {@link #update(int)}). When the
+ * loaded models exceed the GPU or heap budget, the least recently used ones are unloaded, except
+ * the models used in the current or the previous frame, so the cache may stay over the budget when
+ * the visible models alone don't fit. Models are only disposed in {@link #update(int)} and
+ * {@link #dispose()}, both have to run on the GL thread.
+ *
+ * Models which will probably be needed soon can be {@link #prefetch(String) prefetched}. A prefetch
+ * is started only when no requested model is being loaded and the cache has room for it (it's under
+ * the budget or its least recently used model can be evicted), one at a time and the most recent
+ * first, so it never delays a visible model. Like every load, its file is read and parsed on the
+ * loading thread of the asset manager and only the GL upload takes the time of {@link #update(int)}.
+ *
+ * Models in the compact format ({@link CompactModelLoader}) are loaded like any other model.
+ *
+ * The size of a model is estimated from its meshes (vertex and index buffers, kept both on the GPU
+ * and in the client side buffers) and its textures (GPU only, RGBA with a third more for mipmaps).
+ * Textures shared by several models are counted for each of them.
+ */
+public class ModelCache implements Disposable {
+
+    private static final String LOG = "MODELS";
+
+    //older prefetches are dropped, they are probably no longer needed
+    private static final int MAX_PREFETCHES = 8;
+
+    private static final Trace.Event EVICTED = Trace.event(LOG, Trace.DEBUG, 1000, "Evicted model, %.0f KB GPU, %.0f KB heap in use");
+
+    private static final class Entry {
+        final String asset;
+        final Model model;
+        final long gpuBytes;
+        final long heapBytes;
+        long lastUsed;
+        //neighbours in the least recently used order
+        Entry older, newer;
+
+        Entry(String asset, Model model, long gpuBytes, long heapBytes) {
+            this.asset = asset;
+            this.model = model;
+            this.gpuBytes = gpuBytes;
+            this.heapBytes = heapBytes;
+        }
+    }
+
+    private final AssetManager assets;
+    private final long gpuBudget;
+    private final long heapBudget;
+
+    //loaded models, also linked from the least recently used one to the most recent, so that the order is
+    //kept and walked without allocating every frame
+    private final ObjectMap<String, Entry> entries = new ObjectMap<String, Entry>();
+    private Entry eldest, newest;
+    private final Array<String> pending = new Array<String>();
+    //prefetches waiting for the loading to be idle
+    private final Array<String> prefetchQueue = new Array<String>();
+    //prefetched models (loading or loaded) which weren't used yet
+    private final ObjectSet<String> prefetched = new ObjectSet<String>();
+    private final ObjectSet<String> failed = new ObjectSet<String>();
+    private final ObjectSet<Texture> textures = new ObjectSet<Texture>();
+
+    private long frame = 0;
+    private long gpuBytes = 0;
+    private long heapBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    //counts all evictions, it's never reset
+    private long evictionGeneration = 0;
+    private long prefetches = 0;
+    private long prefetchHits = 0;
+
+    /**
+     * @param gpuBudget estimated bytes of the loaded models in the GPU memory
+     * @param heapBudget estimated bytes of the loaded models in the app memory
+     */
+    public ModelCache(long gpuBudget, long heapBudget) {
+        this(new AssetManager(), gpuBudget, heapBudget);
+    }
+
+    public ModelCache(AssetManager assets, long gpuBudget, long heapBudget) {
+        this.assets = assets;
+        this.gpuBudget = gpuBudget;
+        this.heapBudget = heapBudget;
+        assets.setLoader(Model.class, CompactModelLoader.SUFFIX, new CompactModelLoader(assets.getFileHandleResolver()));
+        assets.setErrorListener(new AssetErrorListener() {
+            //the listener of libgdx takes a raw descriptor
+            @SuppressWarnings("rawtypes")
+            @Override
+            public void error(AssetDescriptor asset, Throwable throwable) {
+                //a missing model only leaves its targets empty
+                failed.add(asset.fileName);
+                pending.removeValue(asset.fileName, false);
+                prefetched.remove(asset.fileName);
+                Log.e(LOG, "Unable to load model "+asset.fileName+": "+throwable);
+            }
+        });
+    }
+
+    /**
+     * Starts the next frame, the models used in it and the previous one are never evicted.
+     */
+    public void beginFrame() {
+        frame++;
+    }
+
+    /**
+     * @return the model or null if it's not loaded yet (the loading is started) or it failed to load
+     */
+    public Model get(String asset) {
+        Entry entry = entries.get(asset);
+        if (entry != null) {
+            hits++;
+            if (prefetched.size > 0 && prefetched.remove(asset)) prefetchHits++;
+            entry.lastUsed = frame;
+            if (entry != newest) {
+                unlink(entry);
+                link(entry);
+            }
+            return entry.model;
+        }
+        load(asset);
+        return null;
+    }
+
+    /**
+     * Starts loading the model unless it's loaded, being loaded or failed to load.
+     */
+    public void load(String asset) {
+        if (entries.containsKey(asset) || pending.contains(asset, false) || failed.contains(asset)) return;
+        misses++;
+        prefetchQueue.removeValue(asset, false);
+        submit(asset);
+    }
+
+    /**
+     * Queues loading of a model which may be needed soon, unless it's loaded, being loaded or failed to load.
+     */
+    public void prefetch(String asset) {
+        if (entries.containsKey(asset) || pending.contains(asset, false) || prefetchQueue.contains(asset, false)
+                || failed.contains(asset)) return;
+        if (prefetchQueue.size == MAX_PREFETCHES) prefetchQueue.removeIndex(0);
+        prefetchQueue.add(asset);
+    }
+
+    private void submit(String asset) {
+        pending.add(asset);
+        assets.load(asset, Model.class);
+    }
+
+    /**
+     * Advances the loading for at most the given time and evicts models over the budget.
+     *
+     * @param millis loading time, 0 finishes all loading
+     * @return true if no model is being loaded
+     */
+    public boolean update(int millis) {
+        if (pending.size > 0) {
+            if (millis <= 0) {
+                assets.finishLoading();
+            } else {
+                assets.update(millis);
+            }
+            for (int i = pending.size - 1; i >= 0; i--) {
+                String asset = pending.get(i);
+                if (assets.isLoaded(asset)) {
+                    pending.removeIndex(i);
+                    add(asset, assets.get(asset, Model.class));
+                }
+            }
+        }
+        evict();
+        if (pending.size == 0 && prefetchQueue.size > 0 && hasRoom()) {
+            String asset = prefetchQueue.pop();
+            prefetches++;
+            prefetched.add(asset);
+            submit(asset);
+        }
+        return pending.size == 0;
+    }
+
+    /**
+     * @return true if the cache is under the budget or its least recently used model may be evicted
+     */
+    private boolean hasRoom() {
+        if (gpuBytes < gpuBudget && heapBytes < heapBudget) return true;
+        return eldest != null && eldest.lastUsed < frame - 1;
+    }
+
+    private void add(String asset, Model model) {
+        long vertexBytes = 0;
+        for (Mesh mesh : model.meshes) {
+            vertexBytes += (long) mesh.getNumVertices() * mesh.getVertexSize() + (long) mesh.getNumIndices() * 2;
+        }
+        long textureBytes = 0;
+        textures.clear();
+        for (Material material : model.materials) {
+            for (Attribute attribute : material) {
+                if (attribute instanceof TextureAttribute) {
+                    Texture texture = ((TextureAttribute) attribute).textureDescription.texture;
+                    if (texture != null && textures.add(texture)) {
+                        long bytes = (long) texture.getWidth() * texture.getHeight() * 4;
+                        textureBytes += texture.getMinFilter().isMipMap() ? bytes * 4 / 3 : bytes;
+                    }
+                }
+            }
+        }
+        textures.clear();
+
+        Entry entry = new Entry(asset, model, vertexBytes + textureBytes, vertexBytes);
+        entry.lastUsed = frame;
+        entries.put(asset, entry);
+        link(entry);
+        gpuBytes += entry.gpuBytes;
+        heapBytes += entry.heapBytes;
+    }
+
+    private void evict() {
+        if (gpuBytes <= gpuBudget && heapBytes <= heapBudget) return;
+        //the models after the first one in use were used even later
+        while (eldest != null && eldest.lastUsed < frame - 1 && (gpuBytes > gpuBudget || heapBytes > heapBudget)) {
+            Entry entry = eldest;
+            unlink(entry);
+            entries.remove(entry.asset);
+            gpuBytes -= entry.gpuBytes;
+            heapBytes -= entry.heapBytes;
+            evictions++;
+            evictionGeneration++;
+            prefetched.remove(entry.asset);
+            //disposes the model and releases its textures
+            assets.unload(entry.asset);
+            Trace.trace(EVICTED, gpuBytes / 1024.0, heapBytes / 1024.0);
+        }
+    }
+
+    /**
+     * Appends the entry as the most recently used one.
+     */
+    private void link(Entry entry) {
+        entry.older = newest;
+        entry.newer = null;
+        if (newest != null) {
+            newest.newer = entry;
+        } else {
+            eldest = entry;
+        }
+        newest = entry;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.older != null) {
+            entry.older.newer = entry.newer;
+        } else {
+            eldest = entry.newer;
+        }
+        if (entry.newer != null) {
+            entry.newer.older = entry.older;
+        } else {
+            newest = entry.older;
+        }
+        entry.older = entry.newer = null;
+    }
+
+    /**
+     * @return true if the model is loaded, it's not marked as used
+     */
+    public boolean contains(String asset) {
+        return entries.containsKey(asset);
+    }
+
+    /**
+     * @return true if the model failed to load, it's never loaded again
+     */
+    public boolean isFailed(String asset) {
+        return failed.contains(asset);
+    }
+
+    /**
+     * @return true if some model is being loaded, queued prefetches don't count
+     */
+    public boolean isLoading() {
+        return pending.size > 0;
+    }
+
+    /**
+     * @return loading progress of the queued models between 0 and 1
+     */
+    public float getProgress() {
+        return pending.size == 0 ? 1f : assets.getProgress();
+    }
+
+    /**
+     * @return number of loaded models
+     */
+    public int size() {
+        return entries.size;
+    }
+
+    public long getGpuBytes() {
+        return gpuBytes;
+    }
+
+    public long getHeapBytes() {
+        return heapBytes;
+    }
+
+    /**
+     * @return number of {@link #get(String)} calls which found a loaded model
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of models which weren't loaded when they were requested
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return number of evicted models since the last {@link #resetCounters()}
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return number which changes with every evicted model, unlike the counters it's never reset
+     */
+    public long getEvictionGeneration() {
+        return evictionGeneration;
+    }
+
+    /**
+     * @return number of prefetches started
+     */
+    public long getPrefetches() {
+        return prefetches;
+    }
+
+    /**
+     * @return number of prefetched models which were used later
+     */
+    public long getPrefetchHits() {
+        return prefetchHits;
+    }
+
+    /**
+     * Resets the statistics counters, {@link #getEvictionGeneration()} is kept.
+     */
+    public void resetCounters() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        prefetches = 0;
+        prefetchHits = 0;
+    }
+
+    /**
+     * Disposes all models, on the GL thread.
+     */
+    @Override
+    public void dispose() {
+        entries.clear();
+        eldest = newest = null;
+        pending.clear();
+        prefetchQueue.clear();
+        prefetched.clear();
+        gpuBytes = 0;
+        heapBytes = 0;
+        assets.dispose();
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.utils.IntMap;
+
+import java.util.Arrays;
+
+/**
+ * One Euro filter (Casiez et al., 2012) applied to every pose component.
+ *
+ * The cutoff frequency grows with the speed of the component, so slow movement (jitter)
+ * is smoothed heavily while fast movement passes with little lag. Rotation and translation
+ * components have a separate speed coefficient, because they use very different units.
+ */
+public class OneEuroPoseFilter implements PoseFilter {
+
+    /** A trackable not seen for this long (in seconds) starts from scratch. */
+    private static final double RESET_INTERVAL = 0.5;
+
+    private final float minCutoff;
+    private final float rotationBeta;
+    private final float translationBeta;
+    private final float derivativeCutoff;
+
+    private final IntMap<Track> tracks = new IntMap<Track>();
+
+    /**
+     * Defaults tuned for poses in millimeters.
+     */
+    public OneEuroPoseFilter() {
+        this(1.0f, 5f, 0.05f, 1.0f);
+    }
+
+    /**
+     * @param minCutoff cutoff frequency (Hz) of a still pose, lower means less jitter
+     * @param rotationBeta how fast the cutoff grows with the speed of rotation components
+     * @param translationBeta how fast the cutoff grows with the speed of translation components
+     * @param derivativeCutoff cutoff frequency (Hz) used when estimating the speed
+     */
+    public OneEuroPoseFilter(float minCutoff, float rotationBeta, float translationBeta, float derivativeCutoff) {
+        this.minCutoff = minCutoff;
+        this.rotationBeta = rotationBeta;
+        this.translationBeta = translationBeta;
+        this.derivativeCutoff = derivativeCutoff;
+    }
+
+    @Override
+    public void filter(int trackableId, double timestamp, float[] pose, int offset) {
+        Track track = tracks.get(trackableId);
+        if (track == null) {
+            track = new Track();
+            tracks.put(trackableId, track);
+        }
+
+        double dt = timestamp - track.timestamp;
+        if (!track.initialized || dt > RESET_INTERVAL || dt < 0) {
+            System.arraycopy(pose, offset, track.value, 0, PoseMath.POSE_SIZE);
+            System.arraycopy(pose, offset, track.output, 0, PoseMath.POSE_SIZE);
+            Arrays.fill(track.derivative, 0f);
+            track.timestamp = timestamp;
+            track.initialized = true;
+            return;
+        }
+        if (dt == 0) {
+            // same camera frame again, repeat the last result exactly
+            System.arraycopy(track.output, 0, pose, offset, PoseMath.POSE_SIZE);
+            return;
+        }
+
+        float rate = (float) (1.0 / dt);
+        float derivativeAlpha = alpha(derivativeCutoff, rate);
+        for (int i = 0; i < PoseMath.POSE_SIZE; i++) {
+            float previous = track.value[i];
+            float derivative = (pose[offset + i] - previous) * rate;
+            derivative = track.derivative[i] + derivativeAlpha * (derivative - track.derivative[i]);
+            track.derivative[i] = derivative;
+
+            float beta = (i % 4 == 3) ? translationBeta : rotationBeta;
+            float cutoff = minCutoff + beta * Math.abs(derivative);
+            float value = previous + alpha(cutoff, rate) * (pose[offset + i] - previous);
+            track.value[i] = value;
+        }
+        track.timestamp = timestamp;
+
+        System.arraycopy(track.value, 0, track.output, 0, PoseMath.POSE_SIZE);
+        PoseMath.orthonormalize(track.output, 0);
+        System.arraycopy(track.output, 0, pose, offset, PoseMath.POSE_SIZE);
+    }
+
+    @Override
+    public void reset(int trackableId) {
+        tracks.remove(trackableId);
+    }
+
+    private static float alpha(float cutoff, float rate) {
+        float tau = (float) (1.0 / (2 * Math.PI * cutoff));
+        return 1.0f / (1.0f + tau * rate);
+    }
+
+    private static class Track {
+        // filtered components and the orthonormalized pose made of them
+        final float[] value = new float[PoseMath.POSE_SIZE];
+        final float[] output = new float[PoseMath.POSE_SIZE];
+        final float[] derivative = new float[PoseMath.POSE_SIZE];
+        double timestamp;
+        boolean initialized = false;
+    }
+}
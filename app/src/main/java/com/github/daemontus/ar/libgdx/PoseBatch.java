@@ -0,0 +1,179 @@
+package com.github.daemontus.ar.libgdx;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Converts many poses at once into GL model-view matrices and camera frames.
+ *
+ * The poses are packed as structure of arrays: component c (0..11, in the row major
+ * {@link com.vuforia.Matrix34F} order) of pose i is stored at {@code poses[c * count + i]}.
+ * Model-view matrices are written as consecutive column major 4x4 matrices, camera frames
+ * as consecutive {@link #FRAME_SIZE} floats (position, up, direction, see {@link PoseMath#cameraFrame}).
+ *
+ * Large batches can optionally be split across an {@link Executor} (e.g. a ForkJoinPool
+ * where available). The batch waits for its chunks on its own counter, so a parallel call
+ * doesn't allocate. Chunks rejected by the executor are converted on the calling thread.
+ * A batch object is not thread safe, each caller should use its own.
+ */
+public class PoseBatch {
+
+    /** Number of floats in one camera frame. */
+    public static final int FRAME_SIZE = 9;
+
+    private final Executor executor;
+    private final int parallelThreshold;
+    private final Chunk[] chunks;
+
+    //chunks of the running call which haven't finished yet, the last one wakes up the waiter
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile Thread waiter;
+
+    /**
+     * Creates a batch converter which always works on the calling thread.
+     */
+    public PoseBatch() {
+        this(null, Integer.MAX_VALUE, 1);
+    }
+
+    /**
+     * @param executor executor used for batches of at least parallelThreshold poses
+     * @param parallelThreshold minimal batch size which is worth splitting
+     * @param parallelism number of chunks a large batch is split into
+     */
+    public PoseBatch(Executor executor, int parallelThreshold, int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive: "+parallelism);
+        this.executor = executor;
+        this.parallelThreshold = parallelThreshold;
+        chunks = new Chunk[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            chunks[i] = new Chunk();
+        }
+    }
+
+    /**
+     * Converts count poses. Either output array may be null if it's not needed.
+     */
+    public void convert(float[] poses, int count, float[] modelViews, float[] cameraFrames) {
+        if (executor == null || count < parallelThreshold || chunks.length == 1) {
+            convert(poses, count, 0, count, modelViews, cameraFrames);
+            return;
+        }
+
+        int chunkCount = Math.min(chunks.length, count);
+        waiter = Thread.currentThread();
+        pending.set(chunkCount);
+        int start = 0;
+        boolean inline = false;
+        for (int c = 0; c < chunkCount; c++) {
+            int end = start + (count - start) / (chunkCount - c);
+            Chunk chunk = chunks[c];
+            chunk.set(poses, count, start, end, modelViews, cameraFrames);
+            if (inline || c == chunkCount - 1) {
+                chunk.run();    // last chunk is processed on the calling thread
+            } else {
+                try {
+                    executor.execute(chunk);
+                } catch (RejectedExecutionException e) {
+                    //e.g. a shut down executor, this and the remaining chunks run here
+                    inline = true;
+                    chunk.run();
+                }
+            }
+            start = end;
+        }
+
+        //the chunks write into the output arrays, so they are waited for even if interrupted
+        boolean interrupted = false;
+        while (pending.get() > 0) {
+            LockSupport.park(this);
+            if (Thread.interrupted()) interrupted = true;
+        }
+        waiter = null;
+        if (interrupted) Thread.currentThread().interrupt();
+
+        for (int c = 0; c < chunkCount; c++) {
+            chunks[c].rethrow();
+        }
+    }
+
+    /**
+     * Converts poses with index from start (inclusive) to end (exclusive).
+     */
+    public static void convert(float[] poses, int count, int start, int end,
+                               float[] modelViews, float[] cameraFrames) {
+        for (int i = start; i < end; i++) {
+            float r00 = poses[i], r01 = poses[count + i], r02 = poses[2 * count + i], tx = poses[3 * count + i];
+            float r10 = poses[4 * count + i], r11 = poses[5 * count + i], r12 = poses[6 * count + i], ty = poses[7 * count + i];
+            float r20 = poses[8 * count + i], r21 = poses[9 * count + i], r22 = poses[10 * count + i], tz = poses[11 * count + i];
+
+            if (modelViews != null) {
+                int m = i * 16;
+                modelViews[m] = r00; modelViews[m + 1] = r10; modelViews[m + 2] = r20; modelViews[m + 3] = 0f;
+                modelViews[m + 4] = r01; modelViews[m + 5] = r11; modelViews[m + 6] = r21; modelViews[m + 7] = 0f;
+                modelViews[m + 8] = r02; modelViews[m + 9] = r12; modelViews[m + 10] = r22; modelViews[m + 11] = 0f;
+                modelViews[m + 12] = tx; modelViews[m + 13] = ty; modelViews[m + 14] = tz; modelViews[m + 15] = 1f;
+            }
+
+            if (cameraFrames != null) {
+                int f = i * FRAME_SIZE;
+                cameraFrames[f] = -(r00 * tx + r10 * ty + r20 * tz);
+                cameraFrames[f + 1] = -(r01 * tx + r11 * ty + r21 * tz);
+                cameraFrames[f + 2] = -(r02 * tx + r12 * ty + r22 * tz);
+                cameraFrames[f + 3] = -r10;
+                cameraFrames[f + 4] = -r11;
+                cameraFrames[f + 5] = -r12;
+                cameraFrames[f + 6] = r20;
+                cameraFrames[f + 7] = r21;
+                cameraFrames[f + 8] = r22;
+            }
+        }
+    }
+
+    /**
+     * Copies one pose from the row major 3x4 layout into the packed batch layout.
+     */
+    public static void pack(float[] poses, int count, int index, float[] pose, int poseOffset) {
+        for (int c = 0; c < PoseMath.POSE_SIZE; c++) {
+            poses[c * count + index] = pose[poseOffset + c];
+        }
+    }
+
+    private class Chunk implements Runnable {
+
+        private float[] poses, modelViews, cameraFrames;
+        private int count, start, end;
+        private RuntimeException error;
+
+        void set(float[] poses, int count, int start, int end,
+                 float[] modelViews, float[] cameraFrames) {
+            this.poses = poses;
+            this.count = count;
+            this.start = start;
+            this.end = end;
+            this.modelViews = modelViews;
+            this.cameraFrames = cameraFrames;
+            this.error = null;
+        }
+
+        @Override
+        public void run() {
+            try {
+                convert(poses, count, start, end, modelViews, cameraFrames);
+            } catch (RuntimeException e) {
+                error = e;
+            } finally {
+                if (pending.decrementAndGet() == 0) LockSupport.unpark(waiter);
+            }
+        }
+
+        void rethrow() {
+            RuntimeException e = error;
+            poses = modelViews = cameraFrames = null;
+            error = null;
+            if (e != null) throw e;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.daemontus.ar.libgdx;
+
+/**
+ * Smoothing stage applied to raw tracking poses before they are used for rendering.
+ *
+ * Implementations keep their state per trackable id and must not allocate once a trackable
+ * has been seen. Poses are in the row major 3x4 layout of {@link com.vuforia.Matrix34F}.
+ */
+public interface PoseFilter {
+
+    /**
+     * Replaces the pose with its filtered value.
+     *
+     * @param trackableId id of the trackable the pose belongs to
+     * @param timestamp time of the camera frame in seconds
+     */
+    void filter(int trackableId, double timestamp, float[] pose, int offset);
+
+    /**
+     * Forgets all state kept for the trackable (next pose is taken as is).
+     */
+    void reset(int trackableId);
+}
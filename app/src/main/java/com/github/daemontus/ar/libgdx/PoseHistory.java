@@ -0,0 +1,195 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.IntMap;
+
+/**
+ * Remembers the last few time-stamped poses of every trackable.
+ *
+ * Every trackable id has a fixed capacity ring buffer backed by primitive arrays, so nothing is
+ * allocated once a trackable has been seen. Velocities are computed from the two newest samples,
+ * stationary queries only walk the samples inside the queried window.
+ *
+ * Poses use the row major 3x4 layout of {@link com.vuforia.Matrix34F} (target in camera
+ * coordinates), so velocities are expressed in camera coordinates as well.
+ */
+public class PoseHistory {
+
+    private final int capacity;
+    private final IntMap<Track> tracks = new IntMap<Track>();
+
+    /**
+     * @param capacity number of samples remembered per trackable
+     */
+    public PoseHistory(int capacity) {
+        if (capacity < 2) throw new IllegalArgumentException("Capacity must be at least 2: "+capacity);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Records a new pose. Samples which are not newer than the last one (e.g. the same camera
+     * frame rendered twice) are ignored.
+     *
+     * @param timestamp time of the camera frame in seconds
+     */
+    public void add(int trackableId, double timestamp, float[] pose, int offset) {
+        Track track = tracks.get(trackableId);
+        if (track == null) {
+            track = new Track(capacity);
+            tracks.put(trackableId, track);
+        }
+        if (track.size > 0 && timestamp <= track.timestamps[track.head]) return;
+
+        track.head = (track.head + 1) % capacity;
+        track.timestamps[track.head] = timestamp;
+        System.arraycopy(pose, offset, track.poses, track.head * PoseMath.POSE_SIZE, PoseMath.POSE_SIZE);
+        if (track.size < capacity) track.size++;
+    }
+
+    /**
+     * @return number of samples remembered for the trackable
+     */
+    public int size(int trackableId) {
+        Track track = tracks.get(trackableId);
+        return track == null ? 0 : track.size;
+    }
+
+    /**
+     * @param age 0 for the newest sample, size - 1 for the oldest one
+     * @return time of the sample in seconds
+     */
+    public double getTimestamp(int trackableId, int age) {
+        Track track = track(trackableId, age);
+        return track.timestamps[track.index(age)];
+    }
+
+    /**
+     * Copies the pose of the sample into result.
+     *
+     * @param age 0 for the newest sample, size - 1 for the oldest one
+     */
+    public void getPose(int trackableId, int age, float[] result, int resultOffset) {
+        Track track = track(trackableId, age);
+        System.arraycopy(track.poses, track.index(age) * PoseMath.POSE_SIZE, result, resultOffset, PoseMath.POSE_SIZE);
+    }
+
+    /**
+     * Computes the linear velocity (units per second) from the two newest samples.
+     *
+     * @return false if there are not enough samples, result is untouched then
+     */
+    public boolean velocity(int trackableId, Vector3 result) {
+        Track track = tracks.get(trackableId);
+        if (track == null || track.size < 2) return false;
+
+        int p1 = track.head * PoseMath.POSE_SIZE, p0 = track.index(1) * PoseMath.POSE_SIZE;
+        float rate = (float) (1.0 / (track.timestamps[track.head] - track.timestamps[track.index(1)]));
+        float[] poses = track.poses;
+        result.set(
+                (poses[p1 + 3] - poses[p0 + 3]) * rate,
+                (poses[p1 + 7] - poses[p0 + 7]) * rate,
+                (poses[p1 + 11] - poses[p0 + 11]) * rate
+        );
+        return true;
+    }
+
+    /**
+     * Computes the angular velocity from the two newest samples: the direction is the
+     * rotation axis, the length is the speed in radians per second.
+     *
+     * @return false if there are not enough samples, result is untouched then
+     */
+    public boolean angularVelocity(int trackableId, Vector3 result) {
+        Track track = tracks.get(trackableId);
+        if (track == null || track.size < 2) return false;
+
+        int p1 = track.head * PoseMath.POSE_SIZE, p0 = track.index(1) * PoseMath.POSE_SIZE;
+        float rate = (float) (1.0 / (track.timestamps[track.head] - track.timestamps[track.index(1)]));
+        float[] poses = track.poses;
+
+        // relative rotation D = R1 * R0^T, D[i][j] is row i of R1 dot row j of R0
+        float d00 = dot(poses, p1, p0), d11 = dot(poses, p1 + 4, p0 + 4), d22 = dot(poses, p1 + 8, p0 + 8);
+        float d01 = dot(poses, p1, p0 + 4), d10 = dot(poses, p1 + 4, p0);
+        float d02 = dot(poses, p1, p0 + 8), d20 = dot(poses, p1 + 8, p0);
+        float d12 = dot(poses, p1 + 4, p0 + 8), d21 = dot(poses, p1 + 8, p0 + 4);
+
+        float cos = Math.max(-1f, Math.min(1f, (d00 + d11 + d22 - 1f) / 2f));
+        float angle = (float) Math.acos(cos);
+        float sin = (float) Math.sin(angle);
+        // skew part of D is axis * sin(angle), for small angles angle / sin(angle) goes to 1
+        float scale = sin < 1e-6f ? 0.5f : angle / (2f * sin);
+        result.set(d21 - d12, d02 - d20, d10 - d01).scl(scale * rate);
+        return true;
+    }
+
+    /**
+     * Checks that the trackable stayed within the given distance and angle of its newest pose
+     * for the given time before the newest sample.
+     *
+     * @param duration time in seconds, the history has to cover all of it
+     * @param maxDistance maximal distance from the newest position
+     * @param maxAngle maximal rotation (in radians) from the newest orientation
+     */
+    public boolean isStationary(int trackableId, double duration, float maxDistance, float maxAngle) {
+        Track track = tracks.get(trackableId);
+        if (track == null || track.size == 0) return false;
+
+        double since = track.timestamps[track.head] - duration;
+        float maxDistance2 = maxDistance * maxDistance;
+        // rotation angle of R_i * R^T is acos((trace - 1) / 2), the trace is a dot product of all elements
+        float minTrace = 1f + 2f * (float) Math.cos(maxAngle);
+        float[] poses = track.poses;
+        int newest = track.head * PoseMath.POSE_SIZE;
+
+        for (int age = 0; age < track.size; age++) {
+            int index = track.index(age);
+            int p = index * PoseMath.POSE_SIZE;
+
+            float dx = poses[p + 3] - poses[newest + 3];
+            float dy = poses[p + 7] - poses[newest + 7];
+            float dz = poses[p + 11] - poses[newest + 11];
+            if (dx * dx + dy * dy + dz * dz > maxDistance2) return false;
+
+            float trace = dot(poses, p, newest) + dot(poses, p + 4, newest + 4) + dot(poses, p + 8, newest + 8);
+            if (trace < minTrace) return false;
+
+            if (track.timestamps[index] <= since) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Forgets the history of the trackable.
+     */
+    public void reset(int trackableId) {
+        tracks.remove(trackableId);
+    }
+
+    private Track track(int trackableId, int age) {
+        Track track = tracks.get(trackableId);
+        int size = track == null ? 0 : track.size;
+        if (age < 0 || age >= size) throw new IndexOutOfBoundsException("Age "+age+", size "+size);
+        return track;
+    }
+
+    private static float dot(float[] poses, int a, int b) {
+        return poses[a] * poses[b] + poses[a + 1] * poses[b + 1] + poses[a + 2] * poses[b + 2];
+    }
+
+    private static class Track {
+        final double[] timestamps;
+        final float[] poses;
+        int head = -1;
+        int size = 0;
+
+        Track(int capacity) {
+            timestamps = new double[capacity];
+            poses = new float[capacity * PoseMath.POSE_SIZE];
+        }
+
+        int index(int age) {
+            int index = head - age;
+            return index < 0 ? index + timestamps.length : index;
+        }
+    }
+}
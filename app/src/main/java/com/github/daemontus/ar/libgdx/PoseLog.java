@@ -0,0 +1,55 @@
+package com.github.daemontus.ar.libgdx;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary format of the pose logs written by {@link PoseLogWriter} and read by {@link PoseLogReader}.
+ *
+ * All values are little endian. The log starts with {@link #MAGIC} and {@link #VERSION} (two ints)
+ * followed by records, each starting with a type byte and ending with a checksum (int, see
+ * {@link #checksum(ByteBuffer, byte, int, int)}) of the type and everything in between:
+ * <ul>
+ *     <li>{@link #RECORD_CAMERA}: reflected flag (byte), GL projection matrix (16 floats) and camera
+ *     intrinsics (image width, height, focal length x, y, principal point x, y as 6 floats), written
+ *     before the first frame and whenever one of them changes</li>
+ *     <li>{@link #RECORD_FRAME}: frame timestamp in seconds (double), number of results (int) and for
+ *     every result its trackable id (int), status (int) and row major 3x4 pose (12 floats)</li>
+ * </ul>
+ * A zero type byte ends the log. The type byte of a record is written last, so a record which is
+ * cut short (the app was killed while recording) still has the zero type byte of the unused tail of
+ * its mapped chunk, and a record with pages lost by the system fails its checksum. Either way the log
+ * stays readable up to its last complete record.
+ */
+final class PoseLog {
+
+    static final int MAGIC = 0x474F4C50;
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 8;
+
+    static final byte RECORD_END = 0;
+    static final byte RECORD_FRAME = 1;
+    static final byte RECORD_CAMERA = 2;
+
+    static final int CHECKSUM_SIZE = 4;
+    static final int INTRINSICS_SIZE = 6;
+    static final int CAMERA_SIZE = 1 + 1 + 16 * 4 + INTRINSICS_SIZE * 4 + CHECKSUM_SIZE;
+    static final int FRAME_HEADER_SIZE = 1 + 8 + 4;
+    static final int RESULT_SIZE = 4 + 4 + PoseMath.POSE_SIZE * 4;
+
+    private static final int FNV_OFFSET = 0x811C9DC5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private PoseLog() {}
+
+    /**
+     * @return 32-bit FNV-1a hash of the type followed by the bytes of the buffer from (inclusive)
+     * to (exclusive), the position of the buffer is untouched
+     */
+    static int checksum(ByteBuffer buffer, byte type, int from, int to) {
+        int hash = (FNV_OFFSET ^ (type & 0xFF)) * FNV_PRIME;
+        for (int i = from; i < to; i++) {
+            hash = (hash ^ (buffer.get(i) & 0xFF)) * FNV_PRIME;
+        }
+        return hash;
+    }
+}
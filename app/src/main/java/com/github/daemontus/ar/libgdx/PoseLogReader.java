@@ -0,0 +1,156 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.github.daemontus.ar.vuforia.CameraIntrinsics;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads the frames of a pose log written by {@link PoseLogWriter}.
+ *
+ * The whole log is mapped into memory and frames are decoded into a {@link FrameResults}
+ * without any allocation. A log which ends with an incomplete record (e.g. the app was killed
+ * while recording) is read up to its last complete record, the first record which isn't complete
+ * or fails its checksum ends the log.
+ */
+public class PoseLogReader implements Closeable {
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+
+    private boolean reflected = false;
+    private boolean cameraChanged = false;
+    private final float[] projection = new float[16];
+    private final float[] intrinsics = new float[PoseLog.INTRINSICS_SIZE];
+    private final float[] pose = new float[PoseMath.POSE_SIZE];
+
+    public PoseLogReader(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        try {
+            long length = this.file.length();
+            if (length > Integer.MAX_VALUE) throw new IOException("Pose log is too large: "+length+" B");
+            if (length < PoseLog.HEADER_SIZE) throw new IOException("Not a pose log: "+file);
+            buffer = this.file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != PoseLog.MAGIC) throw new IOException("Not a pose log: "+file);
+            int version = buffer.getInt();
+            if (version != PoseLog.VERSION) throw new IOException("Unsupported pose log version: "+version);
+        } catch (IOException e) {
+            this.file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the next frame into results.
+     *
+     * @return false at the end of the log, results are untouched then
+     */
+    public boolean next(FrameResults results) {
+        cameraChanged = false;
+        while (buffer.remaining() > 0) {
+            int start = buffer.position();
+            byte type = buffer.get();
+            if (type == PoseLog.RECORD_CAMERA) {
+                if (!isComplete(start, type, PoseLog.CAMERA_SIZE)) return end(start);
+                cameraChanged = true;
+                reflected = buffer.get() != 0;
+                for (int i = 0; i < 16; i++) {
+                    projection[i] = buffer.getFloat();
+                }
+                for (int i = 0; i < PoseLog.INTRINSICS_SIZE; i++) {
+                    intrinsics[i] = buffer.getFloat();
+                }
+                buffer.position(start + PoseLog.CAMERA_SIZE);
+            } else if (type == PoseLog.RECORD_FRAME) {
+                if (buffer.remaining() < PoseLog.FRAME_HEADER_SIZE - 1) return end(start);
+                int size = buffer.getInt(start + 1 + 8);
+                if (size < 0 || size > (buffer.limit() - start) / PoseLog.RESULT_SIZE) return end(start);
+                if (!isComplete(start, type, PoseLog.FRAME_HEADER_SIZE + size * PoseLog.RESULT_SIZE + PoseLog.CHECKSUM_SIZE)) {
+                    return end(start);
+                }
+                results.clear(buffer.getDouble());
+                buffer.getInt();
+                for (int i = 0; i < size; i++) {
+                    int id = buffer.getInt();
+                    int status = buffer.getInt();
+                    for (int j = 0; j < PoseMath.POSE_SIZE; j++) {
+                        pose[j] = buffer.getFloat();
+                    }
+                    results.add(id, status, pose, 0);
+                }
+                buffer.getInt();
+                return true;
+            } else {
+                // end of the log (or garbage after it)
+                return end(start);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the record of the given size starting at start is within the log and its checksum matches
+     */
+    private boolean isComplete(int start, byte type, int size) {
+        if (buffer.limit() - start < size) return false;
+        int end = start + size - PoseLog.CHECKSUM_SIZE;
+        return buffer.getInt(end) == PoseLog.checksum(buffer, type, start + 1, end);
+    }
+
+    private boolean end(int position) {
+        // stay at the end, the log may be read again after rewind()
+        buffer.position(position);
+        return false;
+    }
+
+    /**
+     * Starts reading from the first frame again.
+     */
+    public void rewind() {
+        buffer.position(PoseLog.HEADER_SIZE);
+        reflected = false;
+    }
+
+    /**
+     * @return true if the projection, intrinsics or reflection changed with the last read frame
+     */
+    public boolean isCameraChanged() {
+        return cameraChanged;
+    }
+
+    /**
+     * @return column major GL projection matrix of the last read frame
+     */
+    public float[] getProjectionMatrix() {
+        return projection;
+    }
+
+    /**
+     * @return true if the video background of the last read frame was reflected
+     */
+    public boolean isReflected() {
+        return reflected;
+    }
+
+    /**
+     * Copies the camera intrinsics of the last read frame into result (if they were recorded).
+     *
+     * @return false if the intrinsics weren't known when the frame was recorded
+     */
+    public boolean getCameraIntrinsics(CameraIntrinsics result) {
+        if (intrinsics[0] <= 0 || intrinsics[2] <= 0) return false;
+        result.set(intrinsics[0], intrinsics[1], intrinsics[2], intrinsics[3], intrinsics[4], intrinsics[5]);
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,192 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.github.daemontus.ar.vuforia.CameraIntrinsics;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Appends tracking results to a memory mapped pose log (see {@link PoseLog} for the format).
+ *
+ * The file is mapped in chunks of one megabyte, so writing a frame is only a memory copy and the
+ * rendering thread never waits for the disk (except when a new chunk is mapped). The camera
+ * record is only written when the projection, intrinsics or reflection change.
+ */
+public class PoseLogWriter implements Closeable {
+
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    // file offset of the start of the mapped chunk
+    private long chunkStart = 0;
+    // length of the closed log
+    private long length = 0;
+
+    private boolean hasCamera = false;
+    private boolean reflected;
+    private final float[] projection = new float[16];
+    private final float[] intrinsics = new float[PoseLog.INTRINSICS_SIZE];
+    private final float[] currentIntrinsics = new float[PoseLog.INTRINSICS_SIZE];
+    private int frames = 0;
+
+    /**
+     * Creates the log, an existing file is overwritten.
+     */
+    public PoseLogWriter(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "rw");
+        this.file.setLength(0);
+        channel = this.file.getChannel();
+        map(0, CHUNK_SIZE);
+        buffer.putInt(PoseLog.MAGIC);
+        buffer.putInt(PoseLog.VERSION);
+    }
+
+    /**
+     * Appends the frame together with the camera it was seen by.
+     *
+     * @param projection column major GL projection matrix of the frame
+     * @param intrinsics intrinsics of the camera, null if they are not known
+     * @param reflected true if the video background is reflected (front camera)
+     */
+    public void write(FrameResults results, float[] projection, CameraIntrinsics intrinsics, boolean reflected) throws IOException {
+        checkOpen();
+        if (intrinsics != null) {
+            currentIntrinsics[0] = intrinsics.getWidth();
+            currentIntrinsics[1] = intrinsics.getHeight();
+            currentIntrinsics[2] = intrinsics.getFocalLengthX();
+            currentIntrinsics[3] = intrinsics.getFocalLengthY();
+            currentIntrinsics[4] = intrinsics.getPrincipalPointX();
+            currentIntrinsics[5] = intrinsics.getPrincipalPointY();
+        } else {
+            Arrays.fill(currentIntrinsics, 0f);
+        }
+        if (!hasCamera || reflected != this.reflected || !equals(projection, this.projection, 16)
+                || !equals(currentIntrinsics, this.intrinsics, PoseLog.INTRINSICS_SIZE)) {
+            writeCamera(projection, reflected);
+        }
+
+        int size = results.size();
+        ensure(PoseLog.FRAME_HEADER_SIZE + size * PoseLog.RESULT_SIZE + PoseLog.CHECKSUM_SIZE);
+        int start = begin();
+        buffer.putDouble(results.getTimestamp());
+        buffer.putInt(size);
+        float[] poses = results.getPoses();
+        for (int i = 0; i < size; i++) {
+            buffer.putInt(results.getId(i));
+            buffer.putInt(results.getStatus(i));
+            int offset = results.getPoseOffset(i);
+            for (int j = 0; j < PoseMath.POSE_SIZE; j++) {
+                buffer.putFloat(poses[offset + j]);
+            }
+        }
+        commit(start, PoseLog.RECORD_FRAME);
+        frames++;
+    }
+
+    /**
+     * @return number of frames written so far
+     */
+    public int getFrameCount() {
+        return frames;
+    }
+
+    /**
+     * @return size of the log in bytes
+     */
+    public long getLength() {
+        return buffer == null ? length : chunkStart + buffer.position();
+    }
+
+    /**
+     * Writes the mapped data to the disk.
+     */
+    public void flush() {
+        if (buffer != null) buffer.force();
+    }
+
+    /**
+     * Flushes the log and cuts off the unused part of the last chunk.
+     */
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) return;
+        length = getLength();
+        buffer.force();
+        buffer = null;
+        try {
+            channel.truncate(length);
+        } finally {
+            file.close();
+        }
+    }
+
+    private void writeCamera(float[] projection, boolean reflected) throws IOException {
+        ensure(PoseLog.CAMERA_SIZE);
+        int start = begin();
+        buffer.put((byte) (reflected ? 1 : 0));
+        for (int i = 0; i < 16; i++) {
+            buffer.putFloat(projection[i]);
+        }
+        for (int i = 0; i < PoseLog.INTRINSICS_SIZE; i++) {
+            buffer.putFloat(currentIntrinsics[i]);
+        }
+        commit(start, PoseLog.RECORD_CAMERA);
+        hasCamera = true;
+        this.reflected = reflected;
+        System.arraycopy(projection, 0, this.projection, 0, 16);
+        System.arraycopy(currentIntrinsics, 0, intrinsics, 0, PoseLog.INTRINSICS_SIZE);
+    }
+
+    /**
+     * Skips the type byte of a new record, it stays zero (the end of the log) until the record is complete.
+     *
+     * @return position of the record in the buffer
+     */
+    private int begin() {
+        int start = buffer.position();
+        buffer.put(PoseLog.RECORD_END);
+        return start;
+    }
+
+    /**
+     * Appends the checksum of the record written since start and then its type, which commits it.
+     */
+    private void commit(int start, byte type) {
+        buffer.putInt(PoseLog.checksum(buffer, type, start + 1, buffer.position()));
+        buffer.put(start, type);
+    }
+
+    /**
+     * Maps the next chunk if the current one doesn't have enough space left.
+     */
+    private void ensure(int bytes) throws IOException {
+        // one byte is kept for the end of the log
+        if (buffer.remaining() > bytes) return;
+        map(chunkStart + buffer.position(), Math.max(CHUNK_SIZE, bytes + 1));
+    }
+
+    private void map(long start, int size) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        chunkStart = start;
+    }
+
+    private void checkOpen() throws IOException {
+        if (buffer == null) throw new IOException("Pose log is closed");
+    }
+
+    private static boolean equals(float[] a, float[] b, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[i]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * Conversions of Vuforia poses into libgdx camera and model transforms.
+ *
+ * Poses are rigid transforms in the row major 3x4 layout of {@link com.vuforia.Matrix34F},
+ * so they can be inverted in closed form (transposed rotation, rotated and negated translation)
+ * instead of going through a general 4x4 inverse.
+ */
+public class PoseMath {
+
+    /** Number of floats in one 3x4 pose. */
+    public static final int POSE_SIZE = 12;
+
+    private PoseMath() {}
+
+    /**
+     * Same as {@link com.vuforia.Tool#convertPose2GLMatrix}: writes the column major GL model-view matrix of the pose.
+     */
+    public static void poseToGL(float[] result, int resultOffset, float[] pose, int poseOffset) {
+        for (int col = 0; col < 4; col++) {
+            result[resultOffset + col * 4] = pose[poseOffset + col];
+            result[resultOffset + col * 4 + 1] = pose[poseOffset + 4 + col];
+            result[resultOffset + col * 4 + 2] = pose[poseOffset + 8 + col];
+            result[resultOffset + col * 4 + 3] = 0f;
+        }
+        result[resultOffset + 15] = 1f;
+    }
+
+    /**
+     * Computes the frame of the Vuforia camera (looking along its +z with y pointing down) in the
+     * coordinates of the target with the given pose, i.e. the closed form of inverting the pose:
+     * the position is -R^T * t and the axes are the rows of R.
+     */
+    public static void cameraFrame(float[] pose, int offset, Vector3 position, Vector3 up, Vector3 direction) {
+        float r00 = pose[offset], r01 = pose[offset + 1], r02 = pose[offset + 2], tx = pose[offset + 3];
+        float r10 = pose[offset + 4], r11 = pose[offset + 5], r12 = pose[offset + 6], ty = pose[offset + 7];
+        float r20 = pose[offset + 8], r21 = pose[offset + 9], r22 = pose[offset + 10], tz = pose[offset + 11];
+
+        position.set(
+                -(r00 * tx + r10 * ty + r20 * tz),
+                -(r01 * tx + r11 * ty + r21 * tz),
+                -(r02 * tx + r12 * ty + r22 * tz)
+        );
+        up.set(-r10, -r11, -r12);
+        direction.set(r20, r21, r22);
+    }
+
+    /**
+     * Makes the rotation part of the pose a proper rotation again (e.g. after it has been
+     * filtered component-wise). The first row keeps its direction, the second one is made
+     * perpendicular to it and the third one is their cross product. Translation is kept.
+     */
+    public static void orthonormalize(float[] pose, int offset) {
+        float xx = pose[offset], xy = pose[offset + 1], xz = pose[offset + 2];
+        float yx = pose[offset + 4], yy = pose[offset + 5], yz = pose[offset + 6];
+
+        float len = (float) Math.sqrt(xx * xx + xy * xy + xz * xz);
+        if (len == 0f) return;
+        xx /= len; xy /= len; xz /= len;
+
+        float dot = xx * yx + xy * yy + xz * yz;
+        yx -= dot * xx; yy -= dot * xy; yz -= dot * xz;
+        len = (float) Math.sqrt(yx * yx + yy * yy + yz * yz);
+        if (len == 0f) return;
+        yx /= len; yy /= len; yz /= len;
+
+        pose[offset] = xx; pose[offset + 1] = xy; pose[offset + 2] = xz;
+        pose[offset + 4] = yx; pose[offset + 5] = yy; pose[offset + 6] = yz;
+        pose[offset + 8] = xy * yz - xz * yy;
+        pose[offset + 9] = xz * yx - xx * yz;
+        pose[offset + 10] = xx * yy - xy * yx;
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.math.Quaternion;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.IntMap;
+
+/**
+ * Extrapolates tracked poses from the camera frame time to the time they are rendered at.
+ *
+ * The camera delivers new poses at ~30 fps, while the content is rendered at display rate,
+ * so most rendered frames would show a stale pose. The predictor remembers the last two
+ * camera poses of every trackable and extrapolates them with constant linear and angular
+ * velocity. State is kept per trackable id and nothing is allocated once a trackable has been seen.
+ */
+public class PosePredictor {
+
+    /** Samples further apart than this (in seconds) are not used to estimate velocity. */
+    private static final double MAX_SAMPLE_INTERVAL = 0.2;
+
+    private final float lead;
+    private final float maxHorizon;
+
+    private final IntMap<Track> tracks = new IntMap<Track>();
+
+    private final Quaternion previous = new Quaternion();
+    private final Quaternion delta = new Quaternion();
+    private final Vector3 axis = new Vector3();
+    private final float[] rotation = new float[16];
+
+    public PosePredictor() {
+        this(0f, 0.1f);
+    }
+
+    /**
+     * @param lead extra time (in seconds) to predict ahead, e.g. latency of the display
+     * @param maxHorizon maximal time (in seconds) a pose is extrapolated over
+     */
+    public PosePredictor(float lead, float maxHorizon) {
+        this.lead = lead;
+        this.maxHorizon = maxHorizon;
+    }
+
+    /**
+     * Records the pose if it comes from a new camera frame and replaces it with the pose predicted
+     * for the target time. If there is not enough history, the pose is left unchanged.
+     *
+     * @param sampleTime time (in seconds) of the camera frame the pose comes from
+     * @param targetTime time (in seconds, same clock as sampleTime) the pose is rendered at
+     */
+    public void predict(int trackableId, double sampleTime, double targetTime, float[] pose, int offset) {
+        Track track = tracks.get(trackableId);
+        if (track == null) {
+            track = new Track();
+            tracks.put(trackableId, track);
+        }
+
+        if (track.samples == 0 || sampleTime != track.lastTime) {
+            System.arraycopy(track.last, 0, track.previous, 0, PoseMath.POSE_SIZE);
+            track.previousTime = track.lastTime;
+            System.arraycopy(pose, offset, track.last, 0, PoseMath.POSE_SIZE);
+            track.lastTime = sampleTime;
+            track.samples = Math.min(track.samples + 1, 2);
+        }
+
+        double interval = track.lastTime - track.previousTime;
+        if (track.samples < 2 || interval <= 0 || interval > MAX_SAMPLE_INTERVAL) {
+            System.arraycopy(track.last, 0, pose, offset, PoseMath.POSE_SIZE);
+            return;
+        }
+
+        double horizon = Math.min(Math.max(targetTime + lead - track.lastTime, 0), maxHorizon);
+        float scale = (float) (horizon / interval);
+        float[] p0 = track.previous, p1 = track.last;
+
+        // translation moves with constant velocity
+        pose[offset + 3] = p1[3] + (p1[3] - p0[3]) * scale;
+        pose[offset + 7] = p1[7] + (p1[7] - p0[7]) * scale;
+        pose[offset + 11] = p1[11] + (p1[11] - p0[11]) * scale;
+
+        // rotation turns with constant angular velocity around a fixed axis
+        previous.setFromAxes(p0[0], p0[1], p0[2], p0[4], p0[5], p0[6], p0[8], p0[9], p0[10]);
+        delta.setFromAxes(p1[0], p1[1], p1[2], p1[4], p1[5], p1[6], p1[8], p1[9], p1[10]);
+        delta.mul(previous.conjugate());
+        if (delta.w < 0) {
+            // take the shorter way around
+            delta.set(-delta.x, -delta.y, -delta.z, -delta.w);
+        }
+        float angle = delta.getAxisAngleRad(axis);
+        delta.setFromAxisRad(axis, angle * scale);
+        delta.mul(previous.setFromAxes(p1[0], p1[1], p1[2], p1[4], p1[5], p1[6], p1[8], p1[9], p1[10]));
+        delta.toMatrix(rotation);
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                pose[offset + row * 4 + col] = rotation[col * 4 + row];
+            }
+        }
+    }
+
+    /**
+     * Forgets the history of the trackable.
+     */
+    public void reset(int trackableId) {
+        tracks.remove(trackableId);
+    }
+
+    private static class Track {
+        final float[] previous = new float[PoseMath.POSE_SIZE];
+        final float[] last = new float[PoseMath.POSE_SIZE];
+        double previousTime;
+        double lastTime;
+        int samples = 0;
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.graphics.g3d.Attribute;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * Material attribute of the parts of a quantized mesh, the ranges which map its normalized
+ * unsigned short positions and texture coordinates back to model units.
+ *
+ * A position is positionOffset + positionScale * p and a texture coordinate texCoordOffset +
+ * texCoordScale * t, where p and t are the stored values divided by 65535 (as the GPU reads
+ * normalized shorts). Normals are stored as unsigned bytes, n * 2 - 1 in every mesh, so they need
+ * no range. The attribute makes {@link QuantizedShaderProvider} pick the shader which does this.
+ */
+public class QuantizationAttribute extends Attribute {
+
+    public static final String Alias = "quantization";
+    public static final long Type = register(Alias);
+
+    public final Vector3 positionOffset = new Vector3();
+    public final Vector3 positionScale = new Vector3();
+    public final Vector2 texCoordOffset = new Vector2();
+    public final Vector2 texCoordScale = new Vector2();
+
+    public QuantizationAttribute() {
+        super(Type);
+    }
+
+    public QuantizationAttribute(QuantizationAttribute copyFrom) {
+        this();
+        positionOffset.set(copyFrom.positionOffset);
+        positionScale.set(copyFrom.positionScale);
+        texCoordOffset.set(copyFrom.texCoordOffset);
+        texCoordScale.set(copyFrom.texCoordScale);
+    }
+
+    @Override
+    public Attribute copy() {
+        return new QuantizationAttribute(this);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 953 * result + positionOffset.hashCode();
+        result = 953 * result + positionScale.hashCode();
+        result = 953 * result + texCoordOffset.hashCode();
+        result = 953 * result + texCoordScale.hashCode();
+        return result;
+    }
+
+    @Override
+    public int compareTo(Attribute o) {
+        if (type != o.type) return type < o.type ? -1 : 1;
+        QuantizationAttribute other = (QuantizationAttribute) o;
+        int result = compare(positionOffset.x, other.positionOffset.x);
+        if (result == 0) result = compare(positionOffset.y, other.positionOffset.y);
+        if (result == 0) result = compare(positionOffset.z, other.positionOffset.z);
+        if (result == 0) result = compare(positionScale.x, other.positionScale.x);
+        if (result == 0) result = compare(positionScale.y, other.positionScale.y);
+        if (result == 0) result = compare(positionScale.z, other.positionScale.z);
+        if (result == 0) result = compare(texCoordOffset.x, other.texCoordOffset.x);
+        if (result == 0) result = compare(texCoordOffset.y, other.texCoordOffset.y);
+        if (result == 0) result = compare(texCoordScale.x, other.texCoordScale.x);
+        if (result == 0) result = compare(texCoordScale.y, other.texCoordScale.y);
+        return result;
+    }
+
+    private static int compare(float a, float b) {
+        return a == b ? 0 : a < b ? -1 : 1;
+    }
+}
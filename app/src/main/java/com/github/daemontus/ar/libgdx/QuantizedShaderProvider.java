@@ -0,0 +1,107 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.graphics.g3d.Attributes;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.Shader;
+import com.badlogic.gdx.graphics.g3d.shaders.BaseShader;
+import com.badlogic.gdx.graphics.g3d.shaders.DefaultShader;
+import com.badlogic.gdx.graphics.g3d.utils.DefaultShaderProvider;
+
+/**
+ * Default shaders, except for the parts of quantized meshes (with a {@link QuantizationAttribute}),
+ * which get a copy of the default shader reading their positions, normals and texture coordinates
+ * back from the normalized integers. Everything else (skinning, lighting, textures) stays the same.
+ */
+public class QuantizedShaderProvider extends DefaultShaderProvider {
+
+    public QuantizedShaderProvider() {
+        super();
+    }
+
+    public QuantizedShaderProvider(DefaultShader.Config config) {
+        super(config);
+    }
+
+    @Override
+    protected Shader createShader(Renderable renderable) {
+        if (renderable.material != null && renderable.material.has(QuantizationAttribute.Type)) {
+            return new QuantizedShader(renderable, config);
+        }
+        return super.createShader(renderable);
+    }
+
+    /**
+     * The default shader with the vertex attributes mapped through the ranges of the quantization attribute.
+     */
+    public static class QuantizedShader extends DefaultShader {
+
+        private static final String UNIFORMS = "uniform vec3 u_positionOffset;\n"
+                + "uniform vec3 u_positionScale;\n"
+                + "uniform vec2 u_texCoordOffset;\n"
+                + "uniform vec2 u_texCoordScale;\n";
+
+        private static String vertexShader;
+
+        public final int u_positionOffset;
+        public final int u_positionScale;
+        public final int u_texCoordOffset;
+        public final int u_texCoordScale;
+
+        public QuantizedShader(Renderable renderable, Config config) {
+            super(renderable, config, createPrefix(renderable, config), getQuantizedVertexShader(), getDefaultFragmentShader());
+            u_positionOffset = register(new Uniform("u_positionOffset"), new LocalSetter() {
+                @Override
+                public void set(BaseShader shader, int inputID, Renderable renderable, Attributes combinedAttributes) {
+                    shader.set(inputID, quantization(combinedAttributes).positionOffset);
+                }
+            });
+            u_positionScale = register(new Uniform("u_positionScale"), new LocalSetter() {
+                @Override
+                public void set(BaseShader shader, int inputID, Renderable renderable, Attributes combinedAttributes) {
+                    shader.set(inputID, quantization(combinedAttributes).positionScale);
+                }
+            });
+            u_texCoordOffset = register(new Uniform("u_texCoordOffset"), new LocalSetter() {
+                @Override
+                public void set(BaseShader shader, int inputID, Renderable renderable, Attributes combinedAttributes) {
+                    shader.set(inputID, quantization(combinedAttributes).texCoordOffset);
+                }
+            });
+            u_texCoordScale = register(new Uniform("u_texCoordScale"), new LocalSetter() {
+                @Override
+                public void set(BaseShader shader, int inputID, Renderable renderable, Attributes combinedAttributes) {
+                    shader.set(inputID, quantization(combinedAttributes).texCoordScale);
+                }
+            });
+        }
+
+        private static QuantizationAttribute quantization(Attributes attributes) {
+            return (QuantizationAttribute) attributes.get(QuantizationAttribute.Type);
+        }
+
+        /**
+         * @return the default vertex shader reading quantized attributes
+         */
+        public static synchronized String getQuantizedVertexShader() {
+            if (vertexShader == null) vertexShader = dequantize(getDefaultVertexShader());
+            return vertexShader;
+        }
+
+        /**
+         * Replaces every use of the quantized attributes (not their declarations) by its value in model units.
+         * All texture coordinate units share the range of the quantization attribute.
+         */
+        static String dequantize(String shader) {
+            StringBuilder out = new StringBuilder(UNIFORMS);
+            for (String line : shader.split("\n")) {
+                if (!line.trim().startsWith("attribute ")) {
+                    line = line.replaceAll("\\ba_position\\b", "(u_positionOffset + u_positionScale * a_position)")
+                            .replaceAll("\\ba_normal\\b", "(a_normal * 2.0 - 1.0)")
+                            .replaceAll("\\b(a_texCoord\\d+)\\b", "(u_texCoordOffset + u_texCoordScale * $1)");
+                }
+                out.append(line).append('\n');
+            }
+            return out.toString();
+        }
+    }
+}
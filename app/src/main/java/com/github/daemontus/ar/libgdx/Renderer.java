@@ -1,11 +1,8 @@
 package com.github.daemontus.ar.libgdx;
 
-import android.util.Log;
-
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
-import com.badlogic.gdx.graphics.PerspectiveCamera;
 import com.badlogic.gdx.graphics.g3d.Environment;
 import com.badlogic.gdx.graphics.g3d.ModelBatch;
 import com.badlogic.gdx.graphics.g3d.ModelInstance;
@@ -13,15 +10,10 @@ import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
 import com.badlogic.gdx.graphics.g3d.utils.DefaultTextureBinder;
 import com.badlogic.gdx.graphics.g3d.utils.RenderContext;
 import com.badlogic.gdx.math.Matrix4;
-import com.badlogic.gdx.math.Vector3;
 
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.BufferUtils;
-import com.github.daemontus.ar.vuforia.SampleMath;
-import com.github.daemontus.ar.vuforia.VuforiaRenderer;
-import com.vuforia.Matrix44F;
-import com.vuforia.Tool;
-import com.vuforia.TrackableResult;
-import com.vuforia.VIDEO_BACKGROUND_REFLECTION;
+import com.badlogic.gdx.utils.IntArray;
 
 import java.nio.IntBuffer;
 
@@ -32,30 +24,58 @@ public class Renderer {
 
     private static final String LOG = "RENDERER";
 
+    private static final Trace.Event TEXTURE_UNITS = Trace.event(LOG, Trace.INFO, 0, "Max texture units: %.0f");
+    //camera position in target coordinates, about once a second
+    private static final Trace.Event CAMERA = Trace.event(LOG, Trace.DEBUG, 1000, "Camera: %.1f %.1f %.1f");
+
     private static final float MODEL_SCALE = 8.0f;
 
-    private PerspectiveCamera camera;
+    private ArCamera camera;
     private Environment lights;
     private ModelBatch modelBatch;
-    private VuforiaRenderer vuforiaRenderer;
+    private TrackingSource trackingSource;
+    private PoseFilter poseFilter;
+    private PosePredictor posePredictor;
+    private FrameTimings timings = new FrameTimings();
+
+    //in multi target mode, camera stays in the origin and every target moves its own model instance
+    private final boolean multiTarget;
+    //fixed model transform relative to the target
+    private final Matrix4 modelTransform = new Matrix4();
+    //model instances of the targets in this frame whose models are loaded
+    private final Array<ModelInstance> visible = new Array<ModelInstance>();
+    //pose offsets of the visible model instances, their poses are converted in one batch
+    private final IntArray visibleOffsets = new IntArray();
+    private final PoseBatch poseBatch = new PoseBatch();
+    private float[] packedPoses = new float[0];
+    private float[] modelViews = new float[0];
 
     public Renderer() {
+        this(false);
+    }
+
+    public Renderer(boolean multiTarget) {
+        this.multiTarget = multiTarget;
 
         lights = new Environment();
         lights.set(new ColorAttribute(ColorAttribute.AmbientLight, Color.WHITE));
 
-        camera = new PerspectiveCamera(60, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
-        camera.near = 1.0F;
-        camera.far = 1000.0F;
-        //set camera into "Vuforia - style" direction
-        camera.position.set(new Vector3(0,0,0));
-        camera.lookAt(new Vector3(0,0,1));
+        //projection (with its clipping planes) and view are taken from the tracking source
+        camera = new ArCamera();
+        camera.setIdentity();
 
         IntBuffer buffer = BufferUtils.newIntBuffer(16);
         Gdx.gl.glGetIntegerv(GL20.GL_MAX_TEXTURE_IMAGE_UNITS, buffer);
         int units = buffer.get(0);
-        Log.d("TAG", "Max texture units: "+units);
-        modelBatch = new ModelBatch(new RenderContext(new DefaultTextureBinder(DefaultTextureBinder.WEIGHTED, 0)));
+        Trace.trace(TEXTURE_UNITS, units);
+        //quantized models need their own shaders, the others get the default ones
+        modelBatch = new ModelBatch(new RenderContext(new DefaultTextureBinder(DefaultTextureBinder.WEIGHTED, 0)),
+                new QuantizedShaderProvider());
+
+        //the model is rotated
+        modelTransform.rotate(1.0F, 0.0F, 0.0F, 90.0F);
+        modelTransform.rotate(0.0F, 1.0F, 0.0F, 90.0F);
+        modelTransform.scale(MODEL_SCALE, MODEL_SCALE, MODEL_SCALE);
     }
 
     public void render(Display display, float delta) {
@@ -63,97 +83,141 @@ public class Renderer {
 
         gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
 
-        TrackableResult[] results = null;
+        FrameResults results = null;
 
-        if (vuforiaRenderer != null && vuforiaRenderer.isActive()) {
+        if (trackingSource != null && trackingSource.isActive()) {
             //render camera background and find targets
-            results = vuforiaRenderer.onDrawFrame();
+            results = trackingSource.onDrawFrame();
         }
 
-        gl.glEnable(GL20.GL_DEPTH_TEST);
-        gl.glEnable(GL20.GL_CULL_FACE);
-
-
-        double FOV = 1.0;
-        if (vuforiaRenderer != null) {
-            FOV = Math.toDegrees(vuforiaRenderer.getFieldOfViewRadians());
+        //depth test, culling and blending are set up by the render context of the model batch
+        if (results != null && results.size() > 0) {
+            //any sighting (even with a limited pose) starts loading the models needed next
+            display.prefetch(results);
+            //reflected projection turns counter clockwise faces to clockwise ones, models would be inside out
+            gl.glFrontFace(trackingSource.isReflected() ? GL20.GL_CW : GL20.GL_CCW);
+            //projection comes from Vuforia as it is, including the principal point and screen rotation
+            camera.setProjection(trackingSource.getProjectionMatrix());
+            if (multiTarget) {
+                renderTargets(display, results);
+            } else {
+                renderTarget(display, results);
+            }
         }
-        setProjectionAndCamera(display, results, (float) FOV);
-        modelBatch.begin(camera);
-
-        gl.glDepthMask(true);
-        modelBatch.render(display.modelInstance, lights);
-
-        modelBatch.end();
-
-        gl.glDisable(GL20.GL_CULL_FACE);
-        gl.glDisable(GL20.GL_DEPTH_TEST);
-        gl.glDisable(GL20.GL_BLEND);
     }
 
-    private void setProjectionAndCamera(Display contentProvider, TrackableResult[] trackables, float filedOfView) {
+    private void renderTarget(Display contentProvider, FrameResults trackables) {
+        //until its model is loaded, the target only gets its pose filtered
+        ModelInstance model = contentProvider.getModelInstance(trackables.getId(0));
 
-        ModelInstance model = contentProvider.modelInstance;
+        //the first target is the world origin, camera is placed by its pose
+        timings.start(FrameTimings.STAGE_POSES);
+        int offset = pose(trackables, 0);
+        camera.setPose(trackables.getPoses(), offset);
+        camera.update();
+        if (model != null) model.transform.set(modelTransform);
+        timings.stop(FrameTimings.STAGE_POSES);
 
-        if (trackables != null && trackables.length > 0) {
-            //transform all content
-            TrackableResult trackable = trackables[0];
+        if (Trace.COMPILE_LEVEL >= Trace.DEBUG) {
+            Trace.trace(CAMERA, camera.position.x, camera.position.y, camera.position.z);
+        }
+        if (model == null) return;
 
-            Matrix44F modelViewMatrix = Tool.convertPose2GLMatrix(trackable.getPose());
-            float[] raw = modelViewMatrix.getData();
+        timings.start(FrameTimings.STAGE_MODEL_BATCH);
+        modelBatch.begin(camera);
+        Gdx.gl.glDepthMask(true);
+        modelBatch.render(model, lights);
+        modelBatch.end();
+        timings.stop(FrameTimings.STAGE_MODEL_BATCH);
+    }
 
-            float[] rotated;
-            //switch axis and rotate to compensate coordinates change
-            if (com.vuforia.Renderer.getInstance().getVideoBackgroundConfig().getReflection() == VIDEO_BACKGROUND_REFLECTION.VIDEO_BACKGROUND_REFLECTION_ON) {
-                // Front camera
-                rotated = new float[]{
-                        raw[1], raw[0], raw[2], raw[3],
-                        raw[5], raw[4], raw[6], raw[7],
-                        raw[9], raw[8], raw[10], raw[11],
-                        raw[13], raw[12], raw[14], raw[15]
-                };
-            } else {
-                // Back camera
-                rotated = new float[]{
-                        raw[1], -raw[0], raw[2], raw[3],
-                        raw[5], -raw[4], raw[6], raw[7],
-                        raw[9], -raw[8], raw[10], raw[11],
-                        raw[13], -raw[12], raw[14], raw[15]
-                };
-            }
-            Matrix44F rot = new Matrix44F();
-            rot.setData(rotated);
-            Matrix44F inverse = SampleMath.Matrix44FInverse(rot);
-            Matrix44F transp = SampleMath.Matrix44FTranspose(inverse);
-
-            float[] data = transp.getData();
-            camera.position.set(data[12], data[13], data[14]);
-            camera.up.set(data[4], data[5], data[6]);
-            camera.direction.set(data[8], data[9], data[10]);
-            Log.d("TAG", "Camera: "+data[12]+" "+data[13]+" "+data[14]);
-            //update filed of view
-            camera.fieldOfView = filedOfView;
-
-        } else {
-            camera.position.set(100, 100, 100);
-            camera.lookAt(1000,1000,1000);
+    private void renderTargets(Display contentProvider, FrameResults trackables) {
+        //camera sits in the origin of the Vuforia camera coordinates, every target moves its own model
+        timings.start(FrameTimings.STAGE_POSES);
+        camera.setIdentity();
+        camera.update();
+        visible.clear();
+        visibleOffsets.clear();
+        for (int i = 0; i < trackables.size(); i++) {
+            ModelInstance model = contentProvider.getModelInstance(trackables.getId(i));
+            int offset = pose(trackables, i);
+            if (model == null) continue;
+            visible.add(model);
+            visibleOffsets.add(offset);
+        }
+        int count = visible.size;
+        if (packedPoses.length < count * PoseMath.POSE_SIZE) {
+            packedPoses = new float[count * PoseMath.POSE_SIZE];
+            modelViews = new float[count * 16];
+        }
+        for (int i = 0; i < count; i++) {
+            PoseBatch.pack(packedPoses, count, i, trackables.getPoses(), visibleOffsets.get(i));
         }
+        poseBatch.convert(packedPoses, count, modelViews, null);
+        for (int i = 0; i < count; i++) {
+            Matrix4 transform = visible.get(i).transform;
+            System.arraycopy(modelViews, i * 16, transform.val, 0, 16);
+            transform.mul(modelTransform);
+        }
+        timings.stop(FrameTimings.STAGE_POSES);
+        if (visible.size == 0) return;
 
-        model.transform.set(new Matrix4());
-        //the model is rotated
-        model.transform.rotate(1.0F, 0.0F, 0.0F, 90.0F);
-        model.transform.rotate(0.0F, 1.0F, 0.0F, 90.0F);
-        model.transform.scale(MODEL_SCALE, MODEL_SCALE, MODEL_SCALE);
+        timings.start(FrameTimings.STAGE_MODEL_BATCH);
+        modelBatch.begin(camera);
+        Gdx.gl.glDepthMask(true);
+        for (int i = 0; i < visible.size; i++) {
+            modelBatch.render(visible.get(i), lights);
+        }
+        modelBatch.end();
+        timings.stop(FrameTimings.STAGE_MODEL_BATCH);
+    }
 
-        camera.update();
+    /**
+     * Filters and predicts (if there is a pose filter/predictor) the pose of the index-th result in place.
+     *
+     * @return offset of the pose in the pose array of the results
+     */
+    private int pose(FrameResults trackables, int index) {
+        float[] poses = trackables.getPoses();
+        int offset = trackables.getPoseOffset(index);
+        int id = trackables.getId(index);
+        double timestamp = trackables.getTimestamp();
+        if (poseFilter != null) {
+            poseFilter.filter(id, timestamp, poses, offset);
+        }
+        if (posePredictor != null) {
+            posePredictor.predict(id, timestamp, trackingSource.getRenderTimestamp(), poses, offset);
+        }
+        return offset;
     }
 
     public void dispose() {
         modelBatch.dispose();
     }
 
-    public void setVuforiaRenderer(VuforiaRenderer vuforiaRenderer) {
-        this.vuforiaRenderer = vuforiaRenderer;
+    public void setTrackingSource(TrackingSource trackingSource) {
+        this.trackingSource = trackingSource;
+    }
+
+    /**
+     * @param poseFilter filter applied to every pose before it's used, null to use raw poses
+     */
+    public void setPoseFilter(PoseFilter poseFilter) {
+        this.poseFilter = poseFilter;
+    }
+
+    /**
+     * @param posePredictor predictor extrapolating poses to the render time, null to render the camera frame poses
+     */
+    public void setPosePredictor(PosePredictor posePredictor) {
+        this.posePredictor = posePredictor;
+    }
+
+    /**
+     * @param timings timings the pose and model rendering stages are measured into
+     */
+    public void setFrameTimings(FrameTimings timings) {
+        this.timings = timings;
     }
 
 }
@@ -0,0 +1,94 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.github.daemontus.ar.vuforia.CameraIntrinsics;
+
+/**
+ * Tracking source which replays a recorded pose log (see {@link PoseLogWriter}).
+ *
+ * Every {@link #onDrawFrame()} returns the next recorded camera frame, so the log is replayed
+ * as fast as it can be rendered, and the render time is the time of the frame. Timestamps are
+ * the recorded ones, when the log is looped they jump back to the start which resets the pose
+ * filters and predictors.
+ */
+public class ReplayTrackingSource implements TrackingSource {
+
+    private final PoseLogReader reader;
+    private final boolean loop;
+    private final FrameResults results = new FrameResults();
+    private final CameraIntrinsics intrinsics = new CameraIntrinsics();
+    private boolean active = true;
+    private int frames = 0;
+
+    /**
+     * @param loop start from the beginning at the end of the log, otherwise the source becomes inactive
+     */
+    public ReplayTrackingSource(PoseLogReader reader, boolean loop) {
+        this.reader = reader;
+        this.loop = loop;
+    }
+
+    @Override
+    public boolean isActive() {
+        return active;
+    }
+
+    @Override
+    public FrameResults onDrawFrame() {
+        if (!active) return null;
+        if (!reader.next(results)) {
+            reader.rewind();
+            if (!loop || !reader.next(results)) {
+                // end of the log (or an empty one)
+                active = false;
+                results.clear(results.getTimestamp());
+                return results;
+            }
+        }
+        if (reader.isCameraChanged()) {
+            intrinsics.invalidate();
+            reader.getCameraIntrinsics(intrinsics);
+        }
+        frames++;
+        return results;
+    }
+
+    /**
+     * @return number of frames replayed so far
+     */
+    public int getFrameCount() {
+        return frames;
+    }
+
+    @Override
+    public double getFrameTimestamp() {
+        return results.getTimestamp();
+    }
+
+    @Override
+    public CameraIntrinsics getCameraIntrinsics() {
+        return intrinsics;
+    }
+
+    @Override
+    public boolean isReflected() {
+        return reader.isReflected();
+    }
+
+    @Override
+    public float[] getProjectionMatrix() {
+        return reader.getProjectionMatrix();
+    }
+
+    @Override
+    public double getRenderTimestamp() {
+        return results.getTimestamp();
+    }
+
+    @Override
+    public void onSurfaceCreated() {
+    }
+
+    @Override
+    public void onSurfaceChanged(int width, int height) {
+    }
+}
@@ -0,0 +1,229 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.github.daemontus.ar.vuforia.CameraIntrinsics;
+
+import java.util.Random;
+
+/**
+ * Tracking source without a camera and a tracker, targets move along deterministic paths.
+ *
+ * Every target slowly rotates around its own axis and sways in front of a landscape camera with a
+ * 60 degree horizontal field of view. Camera frames arrive at the camera rate and every
+ * {@link #onDrawFrame()} advances the clock by one display frame, so a camera frame is usually
+ * rendered more than once, like on a device. Measurement noise is added once per camera frame.
+ * The same seed always gives the same sequence of frames.
+ *
+ * {@link #getClock()} follows the display frames, frame timings measured with it see every frame
+ * take exactly one display frame and the camera frames reported by {@link #setFrameTimings(FrameTimings)}
+ * arrive on time, so the expected latency and count of stale frames are known.
+ */
+public class SyntheticTrackingSource implements TrackingSource {
+
+    private static final int STATUS_TRACKED = 3;
+
+    private static final float IMAGE_WIDTH = 1280f;
+    private static final float IMAGE_HEIGHT = 720f;
+    private static final double FIELD_OF_VIEW = Math.toRadians(60);
+
+    // per target: base position, sway amplitude, rotation axis, angular speed, phase, sway speed
+    private static final int MOTION_SIZE = 11;
+
+    private final int targets;
+    private final double cameraFrameTime;
+    private final double displayFrameTime;
+    private final float noise;
+    private final Random random;
+    private final float[] motion;
+
+    private final FrameResults results;
+    private final float[] framePoses;
+    private final CameraIntrinsics intrinsics = new CameraIntrinsics();
+    private final float[] projection = new float[16];
+    private final float focalLength;
+
+    private long displayFrame = 0;
+    private long cameraFrame = -1;
+    private boolean reflected = false;
+    private FrameTimings timings;
+
+    private final Clock clock = new Clock() {
+        @Override
+        public long nanoTime() {
+            return (long) (displayFrame * displayFrameTime * 1e9);
+        }
+    };
+
+    /**
+     * 30 Hz camera rendered at 60 Hz with half a millimeter of noise.
+     */
+    public SyntheticTrackingSource(int targets, long seed) {
+        this(targets, seed, 30.0, 60.0, 0.5f);
+    }
+
+    /**
+     * @param targets number of targets found in every frame
+     * @param cameraRate camera frames per second
+     * @param displayRate display frames per second
+     * @param noise standard deviation of the position noise in millimeters
+     */
+    public SyntheticTrackingSource(int targets, long seed, double cameraRate, double displayRate, float noise) {
+        this.targets = targets;
+        this.cameraFrameTime = 1.0 / cameraRate;
+        this.displayFrameTime = 1.0 / displayRate;
+        this.noise = noise;
+        this.random = new Random(seed);
+
+        results = new FrameResults(targets);
+        framePoses = new float[targets * PoseMath.POSE_SIZE];
+        motion = new float[targets * MOTION_SIZE];
+        for (int t = 0; t < targets; t++) {
+            int m = t * MOTION_SIZE;
+            // spread around the optical axis, 30 to 70 cm away
+            motion[m] = (random.nextFloat() - 0.5f) * 200f;
+            motion[m + 1] = (random.nextFloat() - 0.5f) * 100f;
+            motion[m + 2] = 300f + random.nextFloat() * 400f;
+            motion[m + 3] = 20f + random.nextFloat() * 30f;
+            motion[m + 4] = 10f + random.nextFloat() * 20f;
+            float ax = (float) random.nextGaussian(), ay = (float) random.nextGaussian(), az = (float) random.nextGaussian();
+            float length = (float) Math.sqrt(ax * ax + ay * ay + az * az);
+            motion[m + 5] = ax / length;
+            motion[m + 6] = ay / length;
+            motion[m + 7] = az / length;
+            motion[m + 8] = 0.2f + random.nextFloat() * 0.6f;
+            motion[m + 9] = random.nextFloat() * 6.28f;
+            motion[m + 10] = 0.5f + random.nextFloat();
+        }
+
+        focalLength = (float) (0.5 * IMAGE_WIDTH / Math.tan(FIELD_OF_VIEW / 2));
+        intrinsics.set(IMAGE_WIDTH, IMAGE_HEIGHT, focalLength, focalLength, IMAGE_WIDTH / 2, IMAGE_HEIGHT / 2);
+        updateProjection();
+    }
+
+    @Override
+    public boolean isActive() {
+        return true;
+    }
+
+    @Override
+    public FrameResults onDrawFrame() {
+        double time = displayFrame++ * displayFrameTime;
+        long frame = (long) (time / cameraFrameTime);
+        if (frame != cameraFrame) {
+            cameraFrame = frame;
+            for (int t = 0; t < targets; t++) {
+                pose(t, frame * cameraFrameTime, framePoses, t * PoseMath.POSE_SIZE);
+            }
+        }
+        // the rendering filters the poses in place, so they are copied every time
+        results.clear(getFrameTimestamp());
+        for (int t = 0; t < targets; t++) {
+            results.add(t, STATUS_TRACKED, framePoses, t * PoseMath.POSE_SIZE);
+        }
+        if (timings != null) timings.cameraFrame(getFrameTimestamp());
+        return results;
+    }
+
+    @Override
+    public double getFrameTimestamp() {
+        return Math.max(0, cameraFrame) * cameraFrameTime;
+    }
+
+    @Override
+    public CameraIntrinsics getCameraIntrinsics() {
+        return intrinsics;
+    }
+
+    @Override
+    public boolean isReflected() {
+        return reflected;
+    }
+
+    /**
+     * @param reflected pretend the frames come from a front camera, the projection is mirrored
+     */
+    public void setReflected(boolean reflected) {
+        this.reflected = reflected;
+        updateProjection();
+    }
+
+    /**
+     * @param timings receives the timestamp of the camera frame of every rendered frame, may be null
+     */
+    public void setFrameTimings(FrameTimings timings) {
+        this.timings = timings;
+    }
+
+    /**
+     * @return clock which advances by one display frame with every {@link #onDrawFrame()}
+     */
+    public Clock getClock() {
+        return clock;
+    }
+
+    @Override
+    public float[] getProjectionMatrix() {
+        return projection;
+    }
+
+    @Override
+    public double getRenderTimestamp() {
+        return Math.max(0, displayFrame - 1) * displayFrameTime;
+    }
+
+    @Override
+    public void onSurfaceCreated() {
+    }
+
+    @Override
+    public void onSurfaceChanged(int width, int height) {
+    }
+
+    /**
+     * Computes the noiseless pose of the target at the given time into result.
+     */
+    public void getPose(int target, double time, float[] result, int offset) {
+        int m = target * MOTION_SIZE;
+        float phase = (float) (time * motion[m + 10]) + motion[m + 9];
+        float angle = (float) (time * motion[m + 8]) + motion[m + 9];
+
+        // rotation matrix around the axis (Rodrigues' formula)
+        float x = motion[m + 5], y = motion[m + 6], z = motion[m + 7];
+        float c = (float) Math.cos(angle), s = (float) Math.sin(angle), k = 1f - c;
+        result[offset] = c + x * x * k;
+        result[offset + 1] = x * y * k - z * s;
+        result[offset + 2] = x * z * k + y * s;
+        result[offset + 4] = y * x * k + z * s;
+        result[offset + 5] = c + y * y * k;
+        result[offset + 6] = y * z * k - x * s;
+        result[offset + 8] = z * x * k - y * s;
+        result[offset + 9] = z * y * k + x * s;
+        result[offset + 10] = c + z * z * k;
+
+        result[offset + 3] = motion[m] + motion[m + 3] * (float) Math.sin(phase);
+        result[offset + 7] = motion[m + 1] + motion[m + 4] * (float) Math.cos(phase);
+        result[offset + 11] = motion[m + 2];
+    }
+
+    private void pose(int target, double time, float[] result, int offset) {
+        getPose(target, time, result, offset);
+        if (noise > 0) {
+            result[offset + 3] += (float) random.nextGaussian() * noise;
+            result[offset + 7] += (float) random.nextGaussian() * noise;
+            result[offset + 11] += (float) random.nextGaussian() * noise;
+        }
+    }
+
+    /**
+     * GL projection of the camera coordinates used by Vuforia (x right, y down, z forward),
+     * the principal point is in the middle of the image.
+     */
+    private void updateProjection() {
+        float near = NEAR_PLANE, far = FAR_PLANE;
+        float mirror = reflected ? -1f : 1f;
+        projection[0] = mirror * 2f * focalLength / IMAGE_WIDTH;
+        projection[5] = -2f * focalLength / IMAGE_HEIGHT;
+        projection[10] = (far + near) / (far - near);
+        projection[11] = 1f;
+        projection[14] = -2f * far * near / (far - near);
+    }
+}
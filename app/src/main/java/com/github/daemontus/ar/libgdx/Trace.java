@@ -0,0 +1,240 @@
+package com.github.daemontus.ar.libgdx;
+
+import android.util.Log;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Trace events of the render loop, cheap enough to stay in release builds.
+ *
+ * An {@link Event} is traced with up to three numbers and nothing else, no string is built on the
+ * hot path. Enabled events are stored as binary records into an in-memory ring buffer (the last
+ * {@link #CAPACITY} events, lock free, any thread may trace) and written to the Android log at most
+ * once per the interval of the event, only then the message is formatted.
+ *
+ * Events above {@link #COMPILE_LEVEL} are never enabled; call sites guarded by
+ * {@code if (Trace.COMPILE_LEVEL >= level)} are removed by the compiler. The runtime level can be
+ * changed by {@link #setLevel(int)}.
+ *
+ * GL errors are checked by {@link #checkGLError(Event)} only on the frames selected by
+ * {@link #setGLErrorChecks(int)}, glGetError stalls the GL pipeline.
+ */
+public final class Trace {
+
+    public static final int OFF = 0;
+    public static final int ERROR = 1;
+    public static final int INFO = 2;
+    public static final int DEBUG = 3;
+
+    // events above this level are compiled out
+    public static final int COMPILE_LEVEL = DEBUG;
+
+    public static final int CAPACITY = 1024;
+
+    public static final int GL_CHECKS_OFF = 0;
+    public static final int GL_CHECKS_ALWAYS = 1;
+
+    // ring slot: sequence, time, event id, 3 arguments
+    private static final int SLOT_SIZE = 6;
+    private static final int MAX_EVENTS = 64;
+
+    private static final Event[] events = new Event[MAX_EVENTS];
+    private static int eventCount = 0;
+
+    private static final AtomicLongArray ring = new AtomicLongArray(CAPACITY * SLOT_SIZE);
+    private static final AtomicLong cursor = new AtomicLong();
+
+    private static volatile int level = INFO;
+    private static volatile int glErrorChecks = GL_CHECKS_OFF;
+    private static long frame = 0;
+
+    static {
+        // sequence numbers start at 0, empty slots are marked invalid
+        for (int i = 0; i < CAPACITY; i++) {
+            ring.set(i * SLOT_SIZE, -1);
+        }
+    }
+
+    private Trace() {}
+
+    /**
+     * Kind of a traced event, created once and kept in a static field.
+     */
+    public static final class Event {
+
+        private final int id;
+        private final String tag;
+        private final int level;
+        private final long interval;
+        private final String format;
+        private final AtomicLong lastLogged = new AtomicLong(Long.MIN_VALUE);
+
+        private Event(int id, String tag, int level, long interval, String format) {
+            this.id = id;
+            this.tag = tag;
+            this.level = level;
+            this.interval = interval;
+            this.format = format;
+        }
+
+        public boolean isEnabled() {
+            return level <= COMPILE_LEVEL && level <= Trace.level;
+        }
+
+        @Override
+        public String toString() {
+            return tag;
+        }
+    }
+
+    /**
+     * Creates a new kind of events.
+     *
+     * @param tag tag of the log messages
+     * @param level {@link #ERROR}, {@link #INFO} or {@link #DEBUG}
+     * @param intervalMs the event is logged at most once per this many milliseconds, 0 logs every event
+     * @param format {@link String#format} pattern of the message, gets the three arguments as doubles
+     */
+    public static synchronized Event event(String tag, int level, long intervalMs, String format) {
+        if (eventCount == MAX_EVENTS) throw new IllegalStateException("Too many trace events");
+        Event event = new Event(eventCount, tag, level, intervalMs * 1000000L, format);
+        events[eventCount++] = event;
+        return event;
+    }
+
+    /**
+     * Sets the runtime level, events above it aren't recorded nor logged.
+     */
+    public static void setLevel(int level) {
+        Trace.level = level;
+    }
+
+    public static int getLevel() {
+        return level;
+    }
+
+    public static void trace(Event event) {
+        trace(event, 0, 0, 0);
+    }
+
+    public static void trace(Event event, double a) {
+        trace(event, a, 0, 0);
+    }
+
+    public static void trace(Event event, double a, double b) {
+        trace(event, a, b, 0);
+    }
+
+    /**
+     * Records the event into the ring buffer and logs it if its interval elapsed.
+     */
+    public static void trace(Event event, double a, double b, double c) {
+        if (!event.isEnabled()) return;
+        long time = System.nanoTime();
+        long sequence = cursor.getAndIncrement();
+        int slot = (int) (sequence & (CAPACITY - 1)) * SLOT_SIZE;
+        // invalidate the slot while it's written, readers skip it
+        ring.set(slot, -1);
+        ring.lazySet(slot + 1, time);
+        ring.lazySet(slot + 2, event.id);
+        ring.lazySet(slot + 3, Double.doubleToRawLongBits(a));
+        ring.lazySet(slot + 4, Double.doubleToRawLongBits(b));
+        ring.lazySet(slot + 5, Double.doubleToRawLongBits(c));
+        ring.lazySet(slot, sequence);
+
+        if (event.interval == 0) {
+            log(event, format(event, a, b, c));
+            return;
+        }
+        long last = event.lastLogged.get();
+        // only the thread which moves the last logged time logs the event
+        if ((last == Long.MIN_VALUE || time - last >= event.interval) && event.lastLogged.compareAndSet(last, time)) {
+            log(event, format(event, a, b, c));
+        }
+    }
+
+    /**
+     * @param interval check GL errors every interval-th frame, {@link #GL_CHECKS_OFF} or {@link #GL_CHECKS_ALWAYS}
+     */
+    public static void setGLErrorChecks(int interval) {
+        glErrorChecks = interval;
+    }
+
+    /**
+     * Advances the frame counter used to sample the GL error checks, called by the render loop once per frame.
+     */
+    public static void frame() {
+        frame++;
+    }
+
+    /**
+     * @return true if GL errors should be checked in this frame
+     */
+    public static boolean isGLErrorCheckFrame() {
+        int interval = glErrorChecks;
+        return interval > 0 && frame % interval == 0;
+    }
+
+    /**
+     * Traces all pending GL errors (with the error code as the first argument) if this frame is sampled.
+     *
+     * @return true if an error was found
+     */
+    public static boolean checkGLError(Event event) {
+        if (!isGLErrorCheckFrame()) return false;
+        boolean failed = false;
+        for (int error = Gdx.gl.glGetError(); error != GL20.GL_NO_ERROR; error = Gdx.gl.glGetError()) {
+            trace(event, error);
+            failed = true;
+        }
+        return failed;
+    }
+
+    /**
+     * @return number of events recorded since the start, only the last {@link #CAPACITY} are kept
+     */
+    public static long getRecorded() {
+        return cursor.get();
+    }
+
+    /**
+     * Appends the events in the ring buffer, oldest first, one per line. Events overwritten while
+     * they are read are skipped.
+     */
+    public static StringBuilder dump(StringBuilder out) {
+        long end = cursor.get();
+        for (long sequence = Math.max(0, end - CAPACITY); sequence < end; sequence++) {
+            int slot = (int) (sequence & (CAPACITY - 1)) * SLOT_SIZE;
+            if (ring.get(slot) != sequence) continue;
+            long time = ring.get(slot + 1);
+            int id = (int) ring.get(slot + 2);
+            double a = Double.longBitsToDouble(ring.get(slot + 3));
+            double b = Double.longBitsToDouble(ring.get(slot + 4));
+            double c = Double.longBitsToDouble(ring.get(slot + 5));
+            if (ring.get(slot) != sequence) continue;
+            Event event = events[id];
+            out.append(String.format(Locale.US, "%.3f ms ", time / 1e6)).append(event.tag).append(": ")
+                    .append(format(event, a, b, c)).append('\n');
+        }
+        return out;
+    }
+
+    private static String format(Event event, double a, double b, double c) {
+        return String.format(Locale.US, event.format, a, b, c);
+    }
+
+    private static void log(Event event, String message) {
+        if (event.level == ERROR) {
+            Log.e(event.tag, message);
+        } else if (event.level == INFO) {
+            Log.i(event.tag, message);
+        } else {
+            Log.d(event.tag, message);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.github.daemontus.ar.vuforia.CameraIntrinsics;
+
+/**
+ * Source of the camera frames and tracking results rendered by {@link Engine}.
+ *
+ * {@link com.github.daemontus.ar.vuforia.VuforiaRenderer} is the implementation used on devices,
+ * {@link SyntheticTrackingSource} replaces the camera and tracker with deterministic motion.
+ * The rendering code only depends on this interface so it can also run without Vuforia.
+ */
+public interface TrackingSource {
+
+    // clipping planes of the projection, in the units of the dataset (millimeters)
+    float NEAR_PLANE = 1.0f;
+    float FAR_PLANE = 1000.0f;
+
+    /**
+     * @return false if there is nothing to render (e.g. the camera is not running)
+     */
+    boolean isActive();
+
+    /**
+     * Renders the camera background of the current frame and finds the trackables in it.
+     *
+     * @return trackables found in this frame, the object may be reused by the next frame
+     */
+    FrameResults onDrawFrame();
+
+    /**
+     * @return time (in seconds) of the camera frame the last results come from
+     */
+    double getFrameTimestamp();
+
+    /**
+     * @return intrinsics of the camera the frames come from
+     */
+    CameraIntrinsics getCameraIntrinsics();
+
+    /**
+     * @return true if the camera image is mirrored (front camera), faces of the content are then wound clockwise
+     */
+    boolean isReflected();
+
+    /**
+     * @return column major GL projection matrix of the last rendered frame
+     */
+    float[] getProjectionMatrix();
+
+    /**
+     * @return current time (in seconds) on the clock of {@link FrameResults#getTimestamp()}
+     */
+    double getRenderTimestamp();
+
+    void onSurfaceCreated();
+
+    void onSurfaceChanged(int width, int height);
+}
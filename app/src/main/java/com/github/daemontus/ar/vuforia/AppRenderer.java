@@ -4,7 +4,6 @@ import android.app.Activity;
 import android.content.Context;
 import android.content.res.Configuration;
 import android.graphics.Point;
-import android.opengl.GLES20;
 import android.opengl.Matrix;
 import android.os.Build;
 import android.util.DisplayMetrics;
@@ -12,6 +11,11 @@ import android.util.Log;
 import android.view.Display;
 import android.view.WindowManager;
 
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.github.daemontus.ar.libgdx.FrameResults;
+import com.github.daemontus.ar.libgdx.FrameTimings;
+import com.github.daemontus.ar.libgdx.Trace;
 import com.vuforia.CameraCalibration;
 import com.vuforia.CameraDevice;
 import com.vuforia.Device;
@@ -22,11 +26,9 @@ import com.vuforia.Renderer;
 import com.vuforia.RenderingPrimitives;
 import com.vuforia.State;
 import com.vuforia.Tool;
-import com.vuforia.TrackableResult;
 import com.vuforia.TrackerManager;
 import com.vuforia.VIDEO_BACKGROUND_REFLECTION;
 import com.vuforia.VIEW;
-import com.vuforia.Vec2F;
 import com.vuforia.Vec2I;
 import com.vuforia.Vec4I;
 import com.vuforia.VideoBackgroundConfig;
@@ -39,6 +41,10 @@ public class AppRenderer {
 
     private static final String LOGTAG = "AppRenderer";
 
+    // glGetError stalls the pipeline, it's only checked on the frames sampled by Trace
+    private static final Trace.Event VIDEO_BACKGROUND_GL_ERROR = Trace.event(LOGTAG, Trace.ERROR, 1000,
+            "Rendering of the video background failed: glError %.0f");
+
     private RenderingPrimitives mRenderingPrimitives = null;
     private RendererControl mRenderingInterface = null;
     private WeakReference<Activity> mActivityRef = null;
@@ -59,18 +65,37 @@ public class AppRenderer {
     private int vbTexCoordHandle = 0;
     private int vbProjectionMatrixHandle = 0;
 
+    // Video background mesh of every view uploaded to buffer objects, together with its
+    // projection matrix. Rebuilt only when the rendering primitives change.
+    private final VideoBackgroundMesh[] vbMeshes = new VideoBackgroundMesh[VIEW.VIEW_COUNT];
+    private final float[] vbScaledProjectionMatrix = new float[16];
+    private volatile boolean vbMeshDirty = true;
+
     // Display size of the device:
     private int mScreenWidth = 0;
     private int mScreenHeight = 0;
 
     // Stores orientation
     private boolean mIsPortrait = false;
+    // Video background is reflected (front camera)
+    private boolean mReflected = false;
     private boolean mInitialized = false;
 
+    // Reused every frame
+    private final float[] projectionMatrix = new float[16];
+
+    // Caches the projection matrices until the camera or configuration changes
+    private CameraIntrinsics mCameraIntrinsics = new CameraIntrinsics();
+
+    // Stage durations of every frame, shared with libGDX
+    private FrameTimings mFrameTimings = new FrameTimings();
+
     interface RendererControl {
         // This method has to be implemented by the Renderer class which handles the content rendering
         // of the sample, this one is called from SampleAppRendering class for each view inside a loop
-        TrackableResult[] renderFrame(State state, float[] projectionMatrix);
+        // and fills the results with the trackables found in the state, captured by the camera at
+        // frameTimestamp (seconds, fetched from the state once per frame)
+        void renderFrame(State state, double frameTimestamp, float[] projectionMatrix, FrameResults results);
     }
 
     public AppRenderer(RendererControl renderingInterface, Activity activity, int deviceMode,
@@ -87,6 +112,9 @@ public class AppRenderer {
         mRenderingInterface = renderingInterface;
         mRenderer = Renderer.getInstance();
 
+        for (int view = 0; view < VIEW.VIEW_COUNT; view++)
+            vbMeshes[view] = new VideoBackgroundMesh();
+
         if(farPlane < nearPlane)
         {
             Log.e(LOGTAG, "Far plane should be greater than near plane");
@@ -132,10 +160,36 @@ public class AppRenderer {
     public synchronized void updateRenderingPrimitives()
     {
         mRenderingPrimitives = Device.getInstance().getRenderingPrimitives();
+        mCameraIntrinsics.invalidate();
+        // The mesh is rebuilt on the rendering thread
+        vbMeshDirty = true;
+    }
+
+    public void setCameraIntrinsics(CameraIntrinsics cameraIntrinsics)
+    {
+        mCameraIntrinsics = cameraIntrinsics;
+    }
+
+    public CameraIntrinsics getCameraIntrinsics()
+    {
+        return mCameraIntrinsics;
+    }
+
+    public void setFrameTimings(FrameTimings frameTimings)
+    {
+        mFrameTimings = frameTimings;
+    }
+
+    // True if the video background of the last rendered frame is reflected
+    public boolean isReflected()
+    {
+        return mReflected;
     }
 
     private void initRendering()
     {
+        GL20 gl = Gdx.gl;
+
         vbShaderProgramID = SampleUtils.createProgramFromShaderSrc(BackgroundShader.VB_VERTEX_SHADER,
                 BackgroundShader.VB_FRAGMENT_SHADER);
 
@@ -143,53 +197,65 @@ public class AppRenderer {
         if (vbShaderProgramID > 0)
         {
             // Activate shader:
-            GLES20.glUseProgram(vbShaderProgramID);
+            gl.glUseProgram(vbShaderProgramID);
 
             // Retrieve handler for texture sampler shader uniform variable:
-            vbTexSampler2DHandle = GLES20.glGetUniformLocation(vbShaderProgramID, "texSampler2D");
+            vbTexSampler2DHandle = gl.glGetUniformLocation(vbShaderProgramID, "texSampler2D");
 
             // Retrieve handler for projection matrix shader uniform variable:
-            vbProjectionMatrixHandle = GLES20.glGetUniformLocation(vbShaderProgramID, "projectionMatrix");
+            vbProjectionMatrixHandle = gl.glGetUniformLocation(vbShaderProgramID, "projectionMatrix");
 
-            vbVertexHandle = GLES20.glGetAttribLocation(vbShaderProgramID, "vertexPosition");
-            vbTexCoordHandle = GLES20.glGetAttribLocation(vbShaderProgramID, "vertexTexCoord");
-            vbProjectionMatrixHandle = GLES20.glGetUniformLocation(vbShaderProgramID, "projectionMatrix");
-            vbTexSampler2DHandle = GLES20.glGetUniformLocation(vbShaderProgramID, "texSampler2D");
+            vbVertexHandle = gl.glGetAttribLocation(vbShaderProgramID, "vertexPosition");
+            vbTexCoordHandle = gl.glGetAttribLocation(vbShaderProgramID, "vertexTexCoord");
+            vbProjectionMatrixHandle = gl.glGetUniformLocation(vbShaderProgramID, "projectionMatrix");
+            vbTexSampler2DHandle = gl.glGetUniformLocation(vbShaderProgramID, "texSampler2D");
 
             // Stop using the program
-            GLES20.glUseProgram(0);
+            gl.glUseProgram(0);
         }
 
         videoBackgroundTex = new GLTextureUnit();
+
+        // Buffers of a previous context are gone, new ones are created on the next frame
+        for (int view = 0; view < VIEW.VIEW_COUNT; view++)
+            vbMeshes[view].reset();
     }
 
     // Main rendering method
     // The method setup state for rendering, setup 3D transformations required for AR augmentation
-    // and call any specific rendering method
-    public TrackableResult[] render()
+    // and call any specific rendering method, trackables found in this frame are stored into results
+    public void render(FrameResults results)
     {
-        GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT | GLES20.GL_DEPTH_BUFFER_BIT);
+        // Shared with libGDX, redundant state changes are filtered out (see CachingGL20)
+        GL20 gl = Gdx.gl;
+
+        gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
         State state;
         // Get our current state
+        mFrameTimings.start(FrameTimings.STAGE_UPDATE_STATE);
         state = TrackerManager.getInstance().getStateUpdater().updateState();
+        mFrameTimings.stop(FrameTimings.STAGE_UPDATE_STATE);
+        // Camera frame of this state, for the motion to photon latency, its timestamp is passed on
+        // to the views so that the Frame is fetched only once
+        double frameTimestamp = state.getFrame().getTimeStamp();
+        mFrameTimings.cameraFrame(frameTimestamp);
         mRenderer.begin(state);
 
-        // We must detect if background reflection is active and adjust the
-        // culling direction.
-        // If the reflection is active, this means the post matrix has been
-        // reflected as well,
-        // therefore standard counter clockwise face culling will result in
-        // "inside out" models.
-        if (Renderer.getInstance().getVideoBackgroundConfig().getReflection() == VIDEO_BACKGROUND_REFLECTION.VIDEO_BACKGROUND_REFLECTION_ON)
-            GLES20.glFrontFace(GLES20.GL_CW);  // Front camera
-        else
-            GLES20.glFrontFace(GLES20.GL_CCW);   // Back camera
+        // Recompute the intrinsics if the camera changed since the last frame, the calibration
+        // is only fetched from Vuforia then
+        if (!mCameraIntrinsics.isValid())
+            mCameraIntrinsics.update(state.getCameraCalibration());
+        CameraCalibration calibration = null;
+
+        // We must detect if background reflection is active, the culling direction
+        // of the augmentation is then adjusted by the libGDX renderer
+        mReflected = Renderer.getInstance().getVideoBackgroundConfig().getReflection()
+                == VIDEO_BACKGROUND_REFLECTION.VIDEO_BACKGROUND_REFLECTION_ON;
 
         // We get a list of views which depend on the mode we are working on, for mono we have
         // only one view, in stereo we have three: left, right and postprocess
         ViewList viewList = mRenderingPrimitives.getRenderingViews();
 
-        TrackableResult[] results = null;
         // Cycle through the view list
         for (int v = 0; v < viewList.getNumViews(); v++)
         {
@@ -201,29 +267,40 @@ public class AppRenderer {
             viewport = mRenderingPrimitives.getViewport(viewID);
 
             // Set viewport for current view
-            GLES20.glViewport(viewport.getData()[0], viewport.getData()[1], viewport.getData()[2], viewport.getData()[3]);
+            gl.glViewport(viewport.getData()[0], viewport.getData()[1], viewport.getData()[2], viewport.getData()[3]);
 
             // Set scissor
-            GLES20.glScissor(viewport.getData()[0], viewport.getData()[1], viewport.getData()[2], viewport.getData()[3]);
-
-            // Get projection matrix for the current view.
-            Matrix34F projMatrix = mRenderingPrimitives.getProjectionMatrix(viewID,
-                    state.getCameraCalibration());
-
-            // Create GL matrix setting up the near and far planes
-            float rawProjectionMatrixGL[] = Tool.convertPerspectiveProjection2GLMatrix(
-                    projMatrix,
-                    mNearPlane,
-                    mFarPlane)
-                    .getData();
+            gl.glScissor(viewport.getData()[0], viewport.getData()[1], viewport.getData()[2], viewport.getData()[3]);
 
-            // Apply the appropriate eye adjustment to the raw projection matrix, and assign to the global variable
-            float eyeAdjustmentGL[] = Tool.convert2GLMatrix(mRenderingPrimitives
-                    .getEyeDisplayAdjustmentMatrix(viewID)).getData();
-
-            float projectionMatrix[] = new float[16];
-            // Apply the adjustment to the projection matrix
-            Matrix.multiplyMM(projectionMatrix, 0, rawProjectionMatrixGL, 0, eyeAdjustmentGL, 0);
+            float[] cachedProjection = mCameraIntrinsics.getProjection(viewID);
+            if (cachedProjection != null)
+            {
+                System.arraycopy(cachedProjection, 0, projectionMatrix, 0, 16);
+            }
+            else
+            {
+                // Get projection matrix for the current view, the calibration is fetched at most once
+                // per frame and only until the projections are cached
+                if (calibration == null)
+                    calibration = state.getCameraCalibration();
+                Matrix34F projMatrix = mRenderingPrimitives.getProjectionMatrix(viewID, calibration);
+
+                // Create GL matrix setting up the near and far planes
+                float rawProjectionMatrixGL[] = Tool.convertPerspectiveProjection2GLMatrix(
+                        projMatrix,
+                        mNearPlane,
+                        mFarPlane)
+                        .getData();
+
+                // Apply the appropriate eye adjustment to the raw projection matrix, and assign to the global variable
+                float eyeAdjustmentGL[] = Tool.convert2GLMatrix(mRenderingPrimitives
+                        .getEyeDisplayAdjustmentMatrix(viewID)).getData();
+
+                // Apply the adjustment to the projection matrix
+                Matrix.multiplyMM(projectionMatrix, 0, rawProjectionMatrixGL, 0, eyeAdjustmentGL, 0);
+
+                mCameraIntrinsics.setProjection(viewID, projectionMatrix);
+            }
 
             currentView = viewID;
 
@@ -231,13 +308,11 @@ public class AppRenderer {
             // This will be called for MONO, LEFT and RIGHT views, POSTPROCESS will not render the
             // frame
             if(currentView != VIEW.VIEW_POSTPROCESS) {
-                results = mRenderingInterface.renderFrame(state, projectionMatrix);
+                mRenderingInterface.renderFrame(state, frameTimestamp, projectionMatrix, results);
             }
         }
 
         mRenderer.end();
-
-        return results;
     }
 
     private void setNearFarPlanes(float near, float far)
@@ -248,6 +323,8 @@ public class AppRenderer {
 
     public void renderVideoBackground(State state)
     {
+        GL20 gl = Gdx.gl;
+
         if(currentView == VIEW.VIEW_POSTPROCESS)
             return;
 
@@ -260,64 +337,72 @@ public class AppRenderer {
             return;
         }
 
-        float[] vbProjectionMatrix = Tool.convert2GLMatrix(
-                mRenderingPrimitives.getVideoBackgroundProjectionMatrix(currentView)).getData();
+        if (vbMeshDirty)
+        {
+            vbMeshDirty = false;
+            for (int view = 0; view < VIEW.VIEW_COUNT; view++)
+                vbMeshes[view].invalidate();
+        }
+        VideoBackgroundMesh vbMesh = vbMeshes[currentView];
+        if (!vbMesh.isReady())
+            uploadVideoBackgroundMesh(currentView);
+
+        float[] vbProjectionMatrix = vbMesh.getProjection();
 
         // Apply the scene scale on video see-through eyewear, to scale the video background and augmentation
         // so that the display lines up with the real world
         // This should not be applied on optical see-through devices, as there is no video background,
         // and the calibration ensures that the augmentation matches the real world
         if (Device.getInstance().isViewerActive()) {
-            float sceneScaleFactor = (float)getSceneScaleFactor(state.getCameraCalibration());
-            Matrix.scaleM(vbProjectionMatrix, 0, sceneScaleFactor, sceneScaleFactor, 1.0f);
+            float sceneScaleFactor = (float)getSceneScaleFactor();
+            System.arraycopy(vbProjectionMatrix, 0, vbScaledProjectionMatrix, 0, 16);
+            Matrix.scaleM(vbScaledProjectionMatrix, 0, sceneScaleFactor, sceneScaleFactor, 1.0f);
+            vbProjectionMatrix = vbScaledProjectionMatrix;
         }
 
-        GLES20.glDisable(GLES20.GL_DEPTH_TEST);
-        GLES20.glDisable(GLES20.GL_CULL_FACE);
-        GLES20.glDisable(GLES20.GL_SCISSOR_TEST);
-
-        Mesh vbMesh = mRenderingPrimitives.getVideoBackgroundMesh(currentView);
-        // Load the shader and upload the vertex/texcoord/index data
-        GLES20.glUseProgram(vbShaderProgramID);
-        GLES20.glVertexAttribPointer(vbVertexHandle, 3, GLES20.GL_FLOAT, false, 0, vbMesh.getPositions().asFloatBuffer());
-        GLES20.glVertexAttribPointer(vbTexCoordHandle, 2, GLES20.GL_FLOAT, false, 0, vbMesh.getUVs().asFloatBuffer());
+        gl.glDisable(GL20.GL_DEPTH_TEST);
+        gl.glDisable(GL20.GL_CULL_FACE);
+        gl.glDisable(GL20.GL_SCISSOR_TEST);
 
-        GLES20.glUniform1i(vbTexSampler2DHandle, vbVideoTextureUnit);
+        // Load the shader and pass it the texture unit and the projection matrix
+        gl.glUseProgram(vbShaderProgramID);
+        gl.glUniform1i(vbTexSampler2DHandle, vbVideoTextureUnit);
+        gl.glUniformMatrix4fv(vbProjectionMatrixHandle, 1, false, vbProjectionMatrix, 0);
 
-        // Render the video background with the custom shader
-        // First, we enable the vertex arrays
-        GLES20.glEnableVertexAttribArray(vbVertexHandle);
-        GLES20.glEnableVertexAttribArray(vbTexCoordHandle);
+        // Render the video background from its buffers, nothing stays bound afterwards
+        vbMesh.draw(gl, vbVertexHandle, vbTexCoordHandle);
 
-        // Pass the projection matrix to OpenGL
-        GLES20.glUniformMatrix4fv(vbProjectionMatrixHandle, 1, false, vbProjectionMatrix, 0);
+        Trace.checkGLError(VIDEO_BACKGROUND_GL_ERROR);
+    }
 
-        // Then, we issue the render call
-        GLES20.glDrawElements(GLES20.GL_TRIANGLES, vbMesh.getNumTriangles() * 3, GLES20.GL_UNSIGNED_SHORT,
-                vbMesh.getTriangles().asShortBuffer());
 
-        // Finally, we disable the vertex arrays
-        GLES20.glDisableVertexAttribArray(vbVertexHandle);
-        GLES20.glDisableVertexAttribArray(vbTexCoordHandle);
+    // Uploads the video background mesh of the view into buffer objects and caches its projection
+    private void uploadVideoBackgroundMesh(int view)
+    {
+        Mesh vbMesh = mRenderingPrimitives.getVideoBackgroundMesh(view);
+        float[] projection = Tool.convert2GLMatrix(
+                mRenderingPrimitives.getVideoBackgroundProjectionMatrix(view)).getData();
+        vbMeshes[view].upload(Gdx.gl, vbMesh.getPositions(), vbMesh.getUVs(), vbMesh.getTriangles(),
+                vbMesh.getNumTriangles(), projection);
 
-        SampleUtils.checkGLError("Rendering of the video background failed");
+        SampleUtils.checkGLError("Uploading of the video background mesh failed");
     }
 
 
     private static final float VIRTUAL_FOV_Y_DEGS = 85.0f;
     private static final float M_PI = 3.14159f;
 
-    private double getSceneScaleFactor(CameraCalibration cameraCalib)
+    private double getSceneScaleFactor()
     {
-        if (cameraCalib == null)
+        // The intrinsics are updated at the start of every frame in which they were invalidated
+        if (!mCameraIntrinsics.isValid())
         {
             Log.e(LOGTAG, "Cannot compute scene scale factor, camera calibration is invalid");
             return 0.0;
         }
 
-        // Get the y-dimension of the physical camera field of view
-        Vec2F fovVector = cameraCalib.getFieldOfViewRads();
-        float cameraFovYRads = fovVector.getData()[1];
+        // Get the y-dimension of the physical camera field of view (cached with the intrinsics)
+        float cameraFovYRads = mCameraIntrinsics.getFieldOfViewY();
 
         // Get the y-dimension of the virtual camera field of view
         float virtualFovYRads = VIRTUAL_FOV_Y_DEGS * M_PI / 180;
@@ -384,6 +469,7 @@ public class AppRenderer {
                 + mScreenHeight + "), mSize (" + xSize + " , " + ySize + ")");
 
         Renderer.getInstance().setVideoBackgroundConfig(config);
+        mCameraIntrinsics.invalidate();
 
     }
 
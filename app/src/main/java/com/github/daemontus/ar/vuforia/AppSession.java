@@ -52,6 +52,9 @@ public class AppSession implements UpdateCallbackInterface
     // Holds the camera configuration to use upon resuming
     private int mCamera = CameraDevice.CAMERA_DIRECTION.CAMERA_DIRECTION_DEFAULT;
 
+    // Intrinsics of the running camera, recomputed after every camera start
+    private final CameraIntrinsics mCameraIntrinsics = new CameraIntrinsics();
+
 
     public AppSession(SessionControl sessionControl)
     {
@@ -165,6 +168,7 @@ public class AppSession implements UpdateCallbackInterface
 
         mSessionControlRef.get().doStartTrackers();
 
+        mCameraIntrinsics.invalidate();
         mCameraRunning = true;
     }
 
@@ -692,6 +696,7 @@ public class AppSession implements UpdateCallbackInterface
             mCameraRunning = false;
             CameraDevice.getInstance().stop();
             CameraDevice.getInstance().deinit();
+            mCameraIntrinsics.invalidate();
         }
     }
 
@@ -701,4 +706,10 @@ public class AppSession implements UpdateCallbackInterface
         return mVideoMode;
     }
 
+
+    public CameraIntrinsics getCameraIntrinsics()
+    {
+        return mCameraIntrinsics;
+    }
+
 }
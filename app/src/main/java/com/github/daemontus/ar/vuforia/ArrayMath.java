@@ -0,0 +1,467 @@
+package com.github.daemontus.ar.vuforia;
+
+/**
+ * Allocation free counterpart of {@link SampleMath}.
+ *
+ * Vectors and matrices are plain float arrays addressed by an offset and results are written
+ * into a caller supplied array, in the style of {@link android.opengl.Matrix}. Matrices use the
+ * same element order as {@link com.vuforia.Matrix44F#getData()} and every method evaluates
+ * exactly the same expressions as its {@link SampleMath} twin, so the results are bit-identical.
+ *
+ * Unless stated otherwise, the result may alias any of the inputs.
+ */
+public class ArrayMath
+{
+
+    private ArrayMath() {}
+
+
+    public static void Vec2FSub(float[] result, int resultOffset,
+                                float[] v1, int v1Offset, float[] v2, int v2Offset)
+    {
+        float x = v1[v1Offset] - v2[v2Offset];
+        float y = v1[v1Offset + 1] - v2[v2Offset + 1];
+        result[resultOffset] = x;
+        result[resultOffset + 1] = y;
+    }
+
+
+    public static float Vec2FDist(float[] v1, int v1Offset, float[] v2, int v2Offset)
+    {
+        float dx = v1[v1Offset] - v2[v2Offset];
+        float dy = v1[v1Offset + 1] - v2[v2Offset + 1];
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+
+    public static void Vec3FAdd(float[] result, int resultOffset,
+                                float[] v1, int v1Offset, float[] v2, int v2Offset)
+    {
+        float x = v1[v1Offset] + v2[v2Offset];
+        float y = v1[v1Offset + 1] + v2[v2Offset + 1];
+        float z = v1[v1Offset + 2] + v2[v2Offset + 2];
+        result[resultOffset] = x;
+        result[resultOffset + 1] = y;
+        result[resultOffset + 2] = z;
+    }
+
+
+    public static void Vec3FSub(float[] result, int resultOffset,
+                                float[] v1, int v1Offset, float[] v2, int v2Offset)
+    {
+        float x = v1[v1Offset] - v2[v2Offset];
+        float y = v1[v1Offset + 1] - v2[v2Offset + 1];
+        float z = v1[v1Offset + 2] - v2[v2Offset + 2];
+        result[resultOffset] = x;
+        result[resultOffset + 1] = y;
+        result[resultOffset + 2] = z;
+    }
+
+
+    public static void Vec3FScale(float[] result, int resultOffset,
+                                  float[] v, int vOffset, float s)
+    {
+        result[resultOffset] = v[vOffset] * s;
+        result[resultOffset + 1] = v[vOffset + 1] * s;
+        result[resultOffset + 2] = v[vOffset + 2] * s;
+    }
+
+
+    public static float Vec3FDot(float[] v1, int v1Offset, float[] v2, int v2Offset)
+    {
+        return v1[v1Offset] * v2[v2Offset] + v1[v1Offset + 1]
+                * v2[v2Offset + 1] + v1[v1Offset + 2] * v2[v2Offset + 2];
+    }
+
+
+    public static void Vec3FCross(float[] result, int resultOffset,
+                                  float[] v1, int v1Offset, float[] v2, int v2Offset)
+    {
+        float x = v1[v1Offset + 1] * v2[v2Offset + 2] - v1[v1Offset + 2]
+                * v2[v2Offset + 1];
+        float y = v1[v1Offset + 2] * v2[v2Offset] - v1[v1Offset]
+                * v2[v2Offset + 2];
+        float z = v1[v1Offset] * v2[v2Offset + 1] - v1[v1Offset + 1]
+                * v2[v2Offset];
+        result[resultOffset] = x;
+        result[resultOffset + 1] = y;
+        result[resultOffset + 2] = z;
+    }
+
+
+    public static void Vec3FNormalize(float[] result, int resultOffset, float[] v, int vOffset)
+    {
+        float length = (float) Math
+                .sqrt(v[vOffset] * v[vOffset] + v[vOffset + 1]
+                        * v[vOffset + 1] + v[vOffset + 2] * v[vOffset + 2]);
+        if (length != 0.0f)
+            length = 1.0f / length;
+
+        result[resultOffset] = v[vOffset] * length;
+        result[resultOffset + 1] = v[vOffset + 1] * length;
+        result[resultOffset + 2] = v[vOffset + 2] * length;
+    }
+
+
+    public static void Vec3FTransform(float[] result, int resultOffset,
+                                      float[] v, int vOffset, float[] m, int mOffset)
+    {
+        float v0 = v[vOffset], v1 = v[vOffset + 1], v2 = v[vOffset + 2];
+
+        float lambda;
+        lambda = m[mOffset + 12] * v0 + m[mOffset + 13]
+                * v1 + m[mOffset + 14] * v2
+                + m[mOffset + 15];
+
+        float x = m[mOffset] * v0 + m[mOffset + 1]
+                * v1 + m[mOffset + 2] * v2 + m[mOffset + 3];
+        float y = m[mOffset + 4] * v0 + m[mOffset + 5]
+                * v1 + m[mOffset + 6] * v2 + m[mOffset + 7];
+        float z = m[mOffset + 8] * v0 + m[mOffset + 9]
+                * v1 + m[mOffset + 10] * v2
+                + m[mOffset + 11];
+
+        x /= lambda;
+        y /= lambda;
+        z /= lambda;
+
+        result[resultOffset] = x;
+        result[resultOffset + 1] = y;
+        result[resultOffset + 2] = z;
+    }
+
+
+    public static void Vec3FTransformNormal(float[] result, int resultOffset,
+                                            float[] v, int vOffset, float[] m, int mOffset)
+    {
+        float v0 = v[vOffset], v1 = v[vOffset + 1], v2 = v[vOffset + 2];
+
+        result[resultOffset] = m[mOffset] * v0 + m[mOffset + 1]
+                * v1 + m[mOffset + 2] * v2;
+        result[resultOffset + 1] = m[mOffset + 4] * v0 + m[mOffset + 5]
+                * v1 + m[mOffset + 6] * v2;
+        result[resultOffset + 2] = m[mOffset + 8] * v0 + m[mOffset + 9]
+                * v1 + m[mOffset + 10] * v2;
+    }
+
+
+    public static void Vec4FTransform(float[] result, int resultOffset,
+                                      float[] v, int vOffset, float[] m, int mOffset)
+    {
+        float v0 = v[vOffset], v1 = v[vOffset + 1], v2 = v[vOffset + 2], v3 = v[vOffset + 3];
+
+        float x = m[mOffset] * v0 + m[mOffset + 1]
+                * v1 + m[mOffset + 2] * v2 + m[mOffset + 3]
+                * v3;
+        float y = m[mOffset + 4] * v0 + m[mOffset + 5]
+                * v1 + m[mOffset + 6] * v2 + m[mOffset + 7]
+                * v3;
+        float z = m[mOffset + 8] * v0 + m[mOffset + 9]
+                * v1 + m[mOffset + 10] * v2
+                + m[mOffset + 11] * v3;
+        float w = m[mOffset + 12] * v0 + m[mOffset + 13]
+                * v1 + m[mOffset + 14] * v2
+                + m[mOffset + 15] * v3;
+
+        result[resultOffset] = x;
+        result[resultOffset + 1] = y;
+        result[resultOffset + 2] = z;
+        result[resultOffset + 3] = w;
+    }
+
+
+    public static void Vec4FDiv(float[] result, int resultOffset,
+                                float[] v, int vOffset, float s)
+    {
+        result[resultOffset] = v[vOffset] / s;
+        result[resultOffset + 1] = v[vOffset + 1] / s;
+        result[resultOffset + 2] = v[vOffset + 2] / s;
+        result[resultOffset + 3] = v[vOffset + 3] / s;
+    }
+
+
+    public static void Matrix44FIdentity(float[] result, int resultOffset)
+    {
+        for (int i = 0; i < 16; i++)
+            result[resultOffset + i] = 0.0f;
+
+        result[resultOffset] = 1.0f;
+        result[resultOffset + 5] = 1.0f;
+        result[resultOffset + 10] = 1.0f;
+        result[resultOffset + 15] = 1.0f;
+    }
+
+
+    public static void Matrix44FTranspose(float[] result, int resultOffset, float[] m, int mOffset)
+    {
+        if (result == m && resultOffset == mOffset)
+        {
+            for (int i = 0; i < 4; i++)
+                for (int j = i + 1; j < 4; j++)
+                {
+                    float t = m[mOffset + i * 4 + j];
+                    m[mOffset + i * 4 + j] = m[mOffset + i + 4 * j];
+                    m[mOffset + i + 4 * j] = t;
+                }
+            return;
+        }
+
+        for (int i = 0; i < 4; i++)
+            for (int j = 0; j < 4; j++)
+                result[resultOffset + i * 4 + j] = m[mOffset + i + 4 * j];
+    }
+
+
+    public static float Matrix44FDeterminate(float[] m, int mOffset)
+    {
+        float m0 = m[mOffset];
+        float m1 = m[mOffset + 1];
+        float m2 = m[mOffset + 2];
+        float m3 = m[mOffset + 3];
+        float m4 = m[mOffset + 4];
+        float m5 = m[mOffset + 5];
+        float m6 = m[mOffset + 6];
+        float m7 = m[mOffset + 7];
+        float m8 = m[mOffset + 8];
+        float m9 = m[mOffset + 9];
+        float m10 = m[mOffset + 10];
+        float m11 = m[mOffset + 11];
+        float m12 = m[mOffset + 12];
+        float m13 = m[mOffset + 13];
+        float m14 = m[mOffset + 14];
+        float m15 = m[mOffset + 15];
+
+        return m12 * m9 * m6 * m3
+                - m8 * m13 * m6 * m3
+                - m12 * m5 * m10 * m3
+                + m4 * m13 * m10 * m3
+                + m8 * m5 * m14 * m3
+                - m4 * m9 * m14 * m3
+                - m12 * m9 * m2 * m7
+                + m8 * m13 * m2 * m7
+                + m12 * m1 * m10 * m7
+                - m0 * m13 * m10 * m7
+                - m8 * m1 * m14 * m7
+                + m0 * m9 * m14 * m7
+                + m12 * m5 * m2 * m11
+                - m4 * m13 * m2 * m11
+                - m12 * m1 * m6 * m11
+                + m0 * m13 * m6 * m11
+                + m4 * m1 * m14 * m11
+                - m0 * m5 * m14 * m11
+                - m8 * m5 * m2 * m15
+                + m4 * m9 * m2 * m15
+                + m8 * m1 * m6 * m15
+                - m0 * m9 * m6 * m15
+                - m4 * m1 * m10 * m15
+                + m0 * m5 * m10 * m15;
+    }
+
+
+    /**
+     * Note that, exactly like {@link SampleMath#Matrix44FInverse(com.vuforia.Matrix44F)},
+     * the result is the transposed inverse in the {@link com.vuforia.Matrix44F} element order.
+     */
+    public static void Matrix44FInverse(float[] result, int resultOffset, float[] m, int mOffset)
+    {
+        float det = 1.0f / Matrix44FDeterminate(m, mOffset);
+
+        float m0 = m[mOffset];
+        float m1 = m[mOffset + 1];
+        float m2 = m[mOffset + 2];
+        float m3 = m[mOffset + 3];
+        float m4 = m[mOffset + 4];
+        float m5 = m[mOffset + 5];
+        float m6 = m[mOffset + 6];
+        float m7 = m[mOffset + 7];
+        float m8 = m[mOffset + 8];
+        float m9 = m[mOffset + 9];
+        float m10 = m[mOffset + 10];
+        float m11 = m[mOffset + 11];
+        float m12 = m[mOffset + 12];
+        float m13 = m[mOffset + 13];
+        float m14 = m[mOffset + 14];
+        float m15 = m[mOffset + 15];
+
+        float r0 = m6 * m11 * m13
+                - m7 * m10 * m13
+                + m7 * m9 * m14
+                - m5 * m11 * m14
+                - m6 * m9 * m15
+                + m5 * m10 * m15;
+
+        float r4 = m3 * m10 * m13
+                - m2 * m11 * m13
+                - m3 * m9 * m14
+                + m1 * m11 * m14
+                + m2 * m9 * m15
+                - m1 * m10 * m15;
+
+        float r8 = m2 * m7 * m13
+                - m3 * m6 * m13
+                + m3 * m5 * m14
+                - m1 * m7 * m14
+                - m2 * m5 * m15
+                + m1 * m6 * m15;
+
+        float r12 = m3 * m6 * m9
+                - m2 * m7 * m9
+                - m3 * m5 * m10
+                + m1 * m7 * m10
+                + m2 * m5 * m11
+                - m1 * m6 * m11;
+
+        float r1 = m7 * m10 * m12
+                - m6 * m11 * m12
+                - m7 * m8 * m14
+                + m4 * m11 * m14
+                + m6 * m8 * m15
+                - m4 * m10 * m15;
+
+        float r5 = m2 * m11 * m12
+                - m3 * m10 * m12
+                + m3 * m8 * m14
+                - m0 * m11 * m14
+                - m2 * m8 * m15
+                + m0 * m10 * m15;
+
+        float r9 = m3 * m6 * m12
+                - m2 * m7 * m12
+                - m3 * m4 * m14
+                + m0 * m7 * m14
+                + m2 * m4 * m15
+                - m0 * m6 * m15;
+
+        float r13 = m2 * m7 * m8
+                - m3 * m6 * m8
+                + m3 * m4 * m10
+                - m0 * m7 * m10
+                - m2 * m4 * m11
+                + m0 * m6 * m11;
+
+        float r2 = m5 * m11 * m12
+                - m7 * m9 * m12
+                + m7 * m8 * m13
+                - m4 * m11 * m13
+                - m5 * m8 * m15
+                + m4 * m9 * m15;
+
+        float r6 = m3 * m9 * m12
+                - m1 * m11 * m12
+                - m3 * m8 * m13
+                + m0 * m11 * m13
+                + m1 * m8 * m15
+                - m0 * m9 * m15;
+
+        float r10 = m1 * m7 * m12
+                - m3 * m5 * m12
+                + m3 * m4 * m13
+                - m0 * m7 * m13
+                - m1 * m4 * m15
+                + m0 * m5 * m15;
+
+        float r14 = m3 * m5 * m8
+                - m1 * m7 * m8
+                - m3 * m4 * m9
+                + m0 * m7 * m9
+                + m1 * m4 * m11
+                - m0 * m5 * m11;
+
+        float r3 = m6 * m9 * m12
+                - m5 * m10 * m12
+                - m6 * m8 * m13
+                + m4 * m10 * m13
+                + m5 * m8 * m14
+                - m4 * m9 * m14;
+
+        float r7 = m1 * m10 * m12
+                - m2 * m9 * m12
+                + m2 * m8 * m13
+                - m0 * m10 * m13
+                - m1 * m8 * m14
+                + m0 * m9 * m14;
+
+        float r11 = m2 * m5 * m12
+                - m1 * m6 * m12
+                - m2 * m4 * m13
+                + m0 * m6 * m13
+                + m1 * m4 * m14
+                - m0 * m5 * m14;
+
+        float r15 = m1 * m6 * m8
+                - m2 * m5 * m8
+                + m2 * m4 * m9
+                - m0 * m6 * m9
+                - m1 * m4 * m10
+                + m0 * m5 * m10;
+
+        result[resultOffset] = r0 * det;
+        result[resultOffset + 1] = r1 * det;
+        result[resultOffset + 2] = r2 * det;
+        result[resultOffset + 3] = r3 * det;
+        result[resultOffset + 4] = r4 * det;
+        result[resultOffset + 5] = r5 * det;
+        result[resultOffset + 6] = r6 * det;
+        result[resultOffset + 7] = r7 * det;
+        result[resultOffset + 8] = r8 * det;
+        result[resultOffset + 9] = r9 * det;
+        result[resultOffset + 10] = r10 * det;
+        result[resultOffset + 11] = r11 * det;
+        result[resultOffset + 12] = r12 * det;
+        result[resultOffset + 13] = r13 * det;
+        result[resultOffset + 14] = r14 * det;
+        result[resultOffset + 15] = r15 * det;
+    }
+
+
+    /**
+     * Writes the intersection into result and returns true, or returns false (leaving result
+     * untouched) when the line is parallel to the plane.
+     */
+    public static boolean linePlaneIntersection(float[] result, int resultOffset,
+                                                float[] lineStart, int lineStartOffset,
+                                                float[] lineEnd, int lineEndOffset,
+                                                float[] pointOnPlane, int pointOnPlaneOffset,
+                                                float[] planeNormal, int planeNormalOffset)
+    {
+        float dx = lineEnd[lineEndOffset] - lineStart[lineStartOffset];
+        float dy = lineEnd[lineEndOffset + 1] - lineStart[lineStartOffset + 1];
+        float dz = lineEnd[lineEndOffset + 2] - lineStart[lineStartOffset + 2];
+
+        float length = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (length != 0.0f)
+            length = 1.0f / length;
+
+        dx = dx * length;
+        dy = dy * length;
+        dz = dz * length;
+
+        float px = pointOnPlane[pointOnPlaneOffset] - lineStart[lineStartOffset];
+        float py = pointOnPlane[pointOnPlaneOffset + 1] - lineStart[lineStartOffset + 1];
+        float pz = pointOnPlane[pointOnPlaneOffset + 2] - lineStart[lineStartOffset + 2];
+
+        float nx = planeNormal[planeNormalOffset];
+        float ny = planeNormal[planeNormalOffset + 1];
+        float nz = planeNormal[planeNormalOffset + 2];
+
+        float n = nx * px + ny * py + nz * pz;
+        float d = nx * dx + ny * dy + nz * dz;
+
+        if (Math.abs(d) < 0.00001)
+        {
+            // Line is parallel to plane
+            return false;
+        }
+
+        float dist = n / d;
+
+        float ox = dx * dist;
+        float oy = dy * dist;
+        float oz = dz * dist;
+
+        result[resultOffset] = lineStart[lineStartOffset] + ox;
+        result[resultOffset + 1] = lineStart[lineStartOffset + 1] + oy;
+        result[resultOffset + 2] = lineStart[lineStartOffset + 2] + oz;
+        return true;
+    }
+}
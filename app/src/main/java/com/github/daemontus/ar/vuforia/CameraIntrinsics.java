@@ -0,0 +1,165 @@
+package com.github.daemontus.ar.vuforia;
+
+import com.vuforia.CameraCalibration;
+import com.vuforia.VIEW;
+
+/**
+ * Cache of the camera intrinsics and of everything derived from them (field of view, projection matrices).
+ *
+ * The calibration only changes when the camera is (re)started or the video background is reconfigured,
+ * so the values are computed once and reused until {@link #invalidate()} is called. Invalidation is
+ * safe from any thread, updates and reads are expected on the rendering thread.
+ */
+public class CameraIntrinsics {
+
+    private int invalidations = 0;
+    private int computedFor = -1;
+
+    private float width, height;
+    private float focalLengthX, focalLengthY;
+    private float principalPointX, principalPointY;
+    private float fieldOfViewX, fieldOfViewY;
+    private float fieldOfViewXDegrees, fieldOfViewYDegrees;
+
+    // GL projection matrix of every view, valid if hasProjection is set
+    private final float[][] projections = new float[VIEW.VIEW_COUNT][16];
+    private final boolean[] hasProjection = new boolean[VIEW.VIEW_COUNT];
+
+    /**
+     * Marks all cached values as stale, they are recomputed by the next {@link #update}.
+     */
+    public synchronized void invalidate() {
+        invalidations++;
+    }
+
+    public synchronized boolean isValid() {
+        return computedFor == invalidations;
+    }
+
+    /**
+     * Recomputes the cached values from the calibration if they are stale.
+     *
+     * @return false if the calibration isn't available (e.g. the camera is not running yet)
+     */
+    public boolean update(CameraCalibration calibration) {
+        int current;
+        synchronized (this) {
+            current = invalidations;
+            if (computedFor == current) return true;
+        }
+        if (calibration == null) return false;
+
+        float[] size = calibration.getSize().getData();
+        float[] focalLength = calibration.getFocalLength().getData();
+        float[] principalPoint = calibration.getPrincipalPoint().getData();
+        if (size[0] <= 0 || size[1] <= 0 || focalLength[0] <= 0 || focalLength[1] <= 0) return false;
+
+        return compute(current, size[0], size[1], focalLength[0], focalLength[1], principalPoint[0], principalPoint[1]);
+    }
+
+    /**
+     * Sets the intrinsics of a camera which isn't calibrated by Vuforia (e.g. a synthetic one).
+     *
+     * @return false if the values were invalidated while they were being set
+     */
+    public boolean set(float width, float height, float focalLengthX, float focalLengthY,
+                       float principalPointX, float principalPointY) {
+        int current;
+        synchronized (this) {
+            current = invalidations;
+        }
+        return compute(current, width, height, focalLengthX, focalLengthY, principalPointX, principalPointY);
+    }
+
+    private boolean compute(int current, float width, float height, float focalLengthX, float focalLengthY,
+                            float principalPointX, float principalPointY) {
+        this.width = width;
+        this.height = height;
+        this.focalLengthX = focalLengthX;
+        this.focalLengthY = focalLengthY;
+        this.principalPointX = principalPointX;
+        this.principalPointY = principalPointY;
+        fieldOfViewX = (float) (2 * Math.atan(0.5f * width / focalLengthX));
+        fieldOfViewY = (float) (2 * Math.atan(0.5f * height / focalLengthY));
+        fieldOfViewXDegrees = (float) Math.toDegrees(fieldOfViewX);
+        fieldOfViewYDegrees = (float) Math.toDegrees(fieldOfViewY);
+        for (int i = 0; i < hasProjection.length; i++) {
+            hasProjection[i] = false;
+        }
+
+        synchronized (this) {
+            computedFor = current;
+            // an invalidation during the update leaves the values stale
+            return computedFor == invalidations;
+        }
+    }
+
+    /**
+     * @return cached GL projection matrix of the view or null if it has to be computed
+     */
+    public float[] getProjection(int view) {
+        if (view < 0 || view >= projections.length || !hasProjection[view] || !isValid()) return null;
+        return projections[view];
+    }
+
+    /**
+     * Stores the GL projection matrix of the view, ignored while the intrinsics are stale.
+     */
+    public void setProjection(int view, float[] projection) {
+        if (view < 0 || view >= projections.length || !isValid()) return;
+        System.arraycopy(projection, 0, projections[view], 0, 16);
+        hasProjection[view] = true;
+    }
+
+    /**
+     * @return width of the camera image in pixels
+     */
+    public float getWidth() {
+        return width;
+    }
+
+    /**
+     * @return height of the camera image in pixels
+     */
+    public float getHeight() {
+        return height;
+    }
+
+    public float getFocalLengthX() {
+        return focalLengthX;
+    }
+
+    public float getFocalLengthY() {
+        return focalLengthY;
+    }
+
+    public float getPrincipalPointX() {
+        return principalPointX;
+    }
+
+    public float getPrincipalPointY() {
+        return principalPointY;
+    }
+
+    /**
+     * @return field of view along the x axis of the camera image in radians
+     */
+    public float getFieldOfViewX() {
+        return fieldOfViewX;
+    }
+
+    /**
+     * @return field of view along the y axis of the camera image in radians
+     */
+    public float getFieldOfViewY() {
+        return fieldOfViewY;
+    }
+
+    public float getFieldOfViewXDegrees() {
+        return fieldOfViewXDegrees;
+    }
+
+    public float getFieldOfViewYDegrees() {
+        return fieldOfViewYDegrees;
+    }
+}
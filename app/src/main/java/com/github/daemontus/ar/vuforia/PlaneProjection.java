@@ -0,0 +1,90 @@
+package com.github.daemontus.ar.vuforia;
+
+/**
+ * Re-entrant version of the screen point to plane projection from {@link SampleMath}.
+ *
+ * All scratch state lives in the instance, so every thread (or any other caller that
+ * can't share) simply uses its own projection object. The results are bit-identical
+ * to the {@link SampleMath} methods and stay valid until the next {@link #project} call.
+ */
+public class PlaneProjection
+{
+
+    private final float[] ndc = new float[4];
+    private final float[] pointOnNearPlane = new float[4];
+    private final float[] pointOnFarPlane = new float[4];
+    private final float[] inverseModelView = new float[16];
+    private final float[] nearWorld = new float[4];
+    private final float[] farWorld = new float[4];
+
+    private final float[] lineStart = new float[3];
+    private final float[] lineEnd = new float[3];
+    private final float[] intersection = new float[3];
+
+    private boolean hasIntersection = false;
+
+    /**
+     * Casts a ray through the given screen point and intersects it with a plane.
+     *
+     * Matrices use the {@link com.vuforia.Matrix44F} element order, viewport size is the size
+     * of the video background (see {@link com.vuforia.VideoBackgroundConfig#getSize()}).
+     *
+     * @return true if the ray intersects the plane
+     */
+    public boolean project(float[] inverseProjMatrix, float[] modelViewMatrix,
+                           float screenWidth, float screenHeight,
+                           float viewportWidth, float viewportHeight,
+                           float pointX, float pointY,
+                           float[] planeCenter, float[] planeNormal)
+    {
+        // Window Coordinates to Normalized Device Coordinates
+        float halfScreenWidth = screenWidth / 2.0f;
+        float halfScreenHeight = screenHeight / 2.0f;
+
+        float halfViewportWidth = viewportWidth / 2.0f;
+        float halfViewportHeight = viewportHeight / 2.0f;
+
+        float x = (pointX - halfScreenWidth) / halfViewportWidth;
+        float y = (pointY - halfScreenHeight) / halfViewportHeight
+                * -1;
+
+        // Normalized Device Coordinates to Eye Coordinates
+        ndc[0] = x; ndc[1] = y; ndc[2] = -1; ndc[3] = 1;
+        ArrayMath.Vec4FTransform(pointOnNearPlane, 0, ndc, 0, inverseProjMatrix, 0);
+        ndc[2] = 1;
+        ArrayMath.Vec4FTransform(pointOnFarPlane, 0, ndc, 0, inverseProjMatrix, 0);
+        ArrayMath.Vec4FDiv(pointOnNearPlane, 0, pointOnNearPlane, 0, pointOnNearPlane[3]);
+        ArrayMath.Vec4FDiv(pointOnFarPlane, 0, pointOnFarPlane, 0, pointOnFarPlane[3]);
+
+        // Eye Coordinates to Object Coordinates
+        ArrayMath.Matrix44FInverse(inverseModelView, 0, modelViewMatrix, 0);
+
+        ArrayMath.Vec4FTransform(nearWorld, 0, pointOnNearPlane, 0, inverseModelView, 0);
+        ArrayMath.Vec4FTransform(farWorld, 0, pointOnFarPlane, 0, inverseModelView, 0);
+
+        System.arraycopy(nearWorld, 0, lineStart, 0, 3);
+        System.arraycopy(farWorld, 0, lineEnd, 0, 3);
+
+        hasIntersection = ArrayMath.linePlaneIntersection(intersection, 0, lineStart, 0, lineEnd, 0,
+                planeCenter, 0, planeNormal, 0);
+        return hasIntersection;
+    }
+
+    public float[] getLineStart()
+    {
+        return lineStart;
+    }
+
+    public float[] getLineEnd()
+    {
+        return lineEnd;
+    }
+
+    /**
+     * @return the intersection found by the last projection or null if there was none
+     */
+    public float[] getIntersection()
+    {
+        return hasIntersection ? intersection : null;
+    }
+}
@@ -19,151 +19,106 @@ public class SampleMath
 
     private static final String LOGTAG = "SampleMath";
 
-    private static float temp[] = new float[16];
-    private static Vec3F mLineStart = new Vec3F();
-    private static Vec3F mLineEnd = new Vec3F();
-    private static Vec3F mIntersection = new Vec3F();
+    // The SWIG wrappers are allocated per call anyway, so all scratch data is kept
+    // local (or per thread for the plane projection) to make the class re-entrant.
+    private static final ThreadLocal<PlaneProjection> mProjection = new ThreadLocal<PlaneProjection>()
+    {
+        @Override
+        protected PlaneProjection initialValue()
+        {
+            return new PlaneProjection();
+        }
+    };
 
 
     public static Vec2F Vec2FSub(Vec2F v1, Vec2F v2)
     {
-        temp[0] = v1.getData()[0] - v2.getData()[0];
-        temp[1] = v1.getData()[1] - v2.getData()[1];
+        float[] temp = v1.getData();
+        ArrayMath.Vec2FSub(temp, 0, temp, 0, v2.getData(), 0);
         return new Vec2F(temp[0], temp[1]);
     }
 
 
     public static float Vec2FDist(Vec2F v1, Vec2F v2)
     {
-        float dx = v1.getData()[0] - v2.getData()[0];
-        float dy = v1.getData()[1] - v2.getData()[1];
-        return (float) Math.sqrt(dx * dx + dy * dy);
+        return ArrayMath.Vec2FDist(v1.getData(), 0, v2.getData(), 0);
     }
 
 
     public static Vec3F Vec3FAdd(Vec3F v1, Vec3F v2)
     {
-        temp[0] = v1.getData()[0] + v2.getData()[0];
-        temp[1] = v1.getData()[1] + v2.getData()[1];
-        temp[2] = v1.getData()[2] + v2.getData()[2];
+        float[] temp = v1.getData();
+        ArrayMath.Vec3FAdd(temp, 0, temp, 0, v2.getData(), 0);
         return new Vec3F(temp[0], temp[1], temp[2]);
     }
 
 
     public static Vec3F Vec3FSub(Vec3F v1, Vec3F v2)
     {
-        temp[0] = v1.getData()[0] - v2.getData()[0];
-        temp[1] = v1.getData()[1] - v2.getData()[1];
-        temp[2] = v1.getData()[2] - v2.getData()[2];
+        float[] temp = v1.getData();
+        ArrayMath.Vec3FSub(temp, 0, temp, 0, v2.getData(), 0);
         return new Vec3F(temp[0], temp[1], temp[2]);
     }
 
 
     public static Vec3F Vec3FScale(Vec3F v, float s)
     {
-        temp[0] = v.getData()[0] * s;
-        temp[1] = v.getData()[1] * s;
-        temp[2] = v.getData()[2] * s;
+        float[] temp = v.getData();
+        ArrayMath.Vec3FScale(temp, 0, temp, 0, s);
         return new Vec3F(temp[0], temp[1], temp[2]);
     }
 
 
     public static float Vec3FDot(Vec3F v1, Vec3F v2)
     {
-        return v1.getData()[0] * v2.getData()[0] + v1.getData()[1]
-                * v2.getData()[1] + v1.getData()[2] * v2.getData()[2];
+        return ArrayMath.Vec3FDot(v1.getData(), 0, v2.getData(), 0);
     }
 
 
     public static Vec3F Vec3FCross(Vec3F v1, Vec3F v2)
     {
-        temp[0] = v1.getData()[1] * v2.getData()[2] - v1.getData()[2]
-                * v2.getData()[1];
-        temp[1] = v1.getData()[2] * v2.getData()[0] - v1.getData()[0]
-                * v2.getData()[2];
-        temp[2] = v1.getData()[0] * v2.getData()[1] - v1.getData()[1]
-                * v2.getData()[0];
+        float[] temp = v1.getData();
+        ArrayMath.Vec3FCross(temp, 0, temp, 0, v2.getData(), 0);
         return new Vec3F(temp[0], temp[1], temp[2]);
     }
 
 
     public static Vec3F Vec3FNormalize(Vec3F v)
     {
-        float length = (float) Math
-                .sqrt(v.getData()[0] * v.getData()[0] + v.getData()[1]
-                        * v.getData()[1] + v.getData()[2] * v.getData()[2]);
-        if (length != 0.0f)
-            length = 1.0f / length;
-
-        temp[0] = v.getData()[0] * length;
-        temp[1] = v.getData()[1] * length;
-        temp[2] = v.getData()[2] * length;
-
+        float[] temp = v.getData();
+        ArrayMath.Vec3FNormalize(temp, 0, temp, 0);
         return new Vec3F(temp[0], temp[1], temp[2]);
     }
 
 
     public static Vec3F Vec3FTransform(Vec3F v, Matrix44F m)
     {
-        float lambda;
-        lambda = m.getData()[12] * v.getData()[0] + m.getData()[13]
-                * v.getData()[1] + m.getData()[14] * v.getData()[2]
-                + m.getData()[15];
-
-        temp[0] = m.getData()[0] * v.getData()[0] + m.getData()[1]
-                * v.getData()[1] + m.getData()[2] * v.getData()[2] + m.getData()[3];
-        temp[1] = m.getData()[4] * v.getData()[0] + m.getData()[5]
-                * v.getData()[1] + m.getData()[6] * v.getData()[2] + m.getData()[7];
-        temp[2] = m.getData()[8] * v.getData()[0] + m.getData()[9]
-                * v.getData()[1] + m.getData()[10] * v.getData()[2]
-                + m.getData()[11];
-
-        temp[0] /= lambda;
-        temp[1] /= lambda;
-        temp[2] /= lambda;
-
+        float[] temp = v.getData();
+        ArrayMath.Vec3FTransform(temp, 0, temp, 0, m.getData(), 0);
         return new Vec3F(temp[0], temp[1], temp[2]);
     }
 
 
     public static Vec3F Vec3FTransformNormal(Vec3F v, Matrix44F m)
     {
-        temp[0] = m.getData()[0] * v.getData()[0] + m.getData()[1]
-                * v.getData()[1] + m.getData()[2] * v.getData()[2];
-        temp[1] = m.getData()[4] * v.getData()[0] + m.getData()[5]
-                * v.getData()[1] + m.getData()[6] * v.getData()[2];
-        temp[2] = m.getData()[8] * v.getData()[0] + m.getData()[9]
-                * v.getData()[1] + m.getData()[10] * v.getData()[2];
-
+        float[] temp = v.getData();
+        ArrayMath.Vec3FTransformNormal(temp, 0, temp, 0, m.getData(), 0);
         return new Vec3F(temp[0], temp[1], temp[2]);
     }
 
 
     public static Vec4F Vec4FTransform(Vec4F v, Matrix44F m)
     {
-        temp[0] = m.getData()[0] * v.getData()[0] + m.getData()[1]
-                * v.getData()[1] + m.getData()[2] * v.getData()[2] + m.getData()[3]
-                * v.getData()[3];
-        temp[1] = m.getData()[4] * v.getData()[0] + m.getData()[5]
-                * v.getData()[1] + m.getData()[6] * v.getData()[2] + m.getData()[7]
-                * v.getData()[3];
-        temp[2] = m.getData()[8] * v.getData()[0] + m.getData()[9]
-                * v.getData()[1] + m.getData()[10] * v.getData()[2]
-                + m.getData()[11] * v.getData()[3];
-        temp[3] = m.getData()[12] * v.getData()[0] + m.getData()[13]
-                * v.getData()[1] + m.getData()[14] * v.getData()[2]
-                + m.getData()[15] * v.getData()[3];
-
+        float[] temp = v.getData();
+        ArrayMath.Vec4FTransform(temp, 0, temp, 0, m.getData(), 0);
         return new Vec4F(temp[0], temp[1], temp[2], temp[3]);
     }
 
 
     public static Vec4F Vec4FDiv(Vec4F v, float s)
     {
-        temp[0] = v.getData()[0] / s;
-        temp[1] = v.getData()[1] / s;
-        temp[2] = v.getData()[2] / s;
-        temp[3] = v.getData()[3] / s;
+        float[] temp = v.getData();
+        ArrayMath.Vec4FDiv(temp, 0, temp, 0, s);
         return new Vec4F(temp[0], temp[1], temp[2], temp[3]);
     }
 
@@ -172,13 +127,8 @@ public class SampleMath
     {
         Matrix44F r = new Matrix44F();
 
-        for (int i = 0; i < 16; i++)
-            temp[i] = 0.0f;
-
-        temp[0] = 1.0f;
-        temp[5] = 1.0f;
-        temp[10] = 1.0f;
-        temp[15] = 1.0f;
+        float[] temp = new float[16];
+        ArrayMath.Matrix44FIdentity(temp, 0);
 
         r.setData(temp);
 
@@ -189,9 +139,9 @@ public class SampleMath
     public static Matrix44F Matrix44FTranspose(Matrix44F m)
     {
         Matrix44F r = new Matrix44F();
-        for (int i = 0; i < 4; i++)
-            for (int j = 0; j < 4; j++)
-                temp[i * 4 + j] = m.getData()[i + 4 * j];
+
+        float[] temp = m.getData();
+        ArrayMath.Matrix44FTranspose(temp, 0, temp, 0);
 
         r.setData(temp);
         return r;
@@ -200,38 +150,7 @@ public class SampleMath
 
     public static float Matrix44FDeterminate(Matrix44F m)
     {
-        return m.getData()[12] * m.getData()[9] * m.getData()[6]
-                * m.getData()[3] - m.getData()[8] * m.getData()[13]
-                * m.getData()[6] * m.getData()[3] - m.getData()[12]
-                * m.getData()[5] * m.getData()[10] * m.getData()[3]
-                + m.getData()[4] * m.getData()[13] * m.getData()[10]
-                * m.getData()[3] + m.getData()[8] * m.getData()[5]
-                * m.getData()[14] * m.getData()[3] - m.getData()[4]
-                * m.getData()[9] * m.getData()[14] * m.getData()[3]
-                - m.getData()[12] * m.getData()[9] * m.getData()[2]
-                * m.getData()[7] + m.getData()[8] * m.getData()[13]
-                * m.getData()[2] * m.getData()[7] + m.getData()[12]
-                * m.getData()[1] * m.getData()[10] * m.getData()[7]
-                - m.getData()[0] * m.getData()[13] * m.getData()[10]
-                * m.getData()[7] - m.getData()[8] * m.getData()[1]
-                * m.getData()[14] * m.getData()[7] + m.getData()[0]
-                * m.getData()[9] * m.getData()[14] * m.getData()[7]
-                + m.getData()[12] * m.getData()[5] * m.getData()[2]
-                * m.getData()[11] - m.getData()[4] * m.getData()[13]
-                * m.getData()[2] * m.getData()[11] - m.getData()[12]
-                * m.getData()[1] * m.getData()[6] * m.getData()[11]
-                + m.getData()[0] * m.getData()[13] * m.getData()[6]
-                * m.getData()[11] + m.getData()[4] * m.getData()[1]
-                * m.getData()[14] * m.getData()[11] - m.getData()[0]
-                * m.getData()[5] * m.getData()[14] * m.getData()[11]
-                - m.getData()[8] * m.getData()[5] * m.getData()[2]
-                * m.getData()[15] + m.getData()[4] * m.getData()[9]
-                * m.getData()[2] * m.getData()[15] + m.getData()[8]
-                * m.getData()[1] * m.getData()[6] * m.getData()[15]
-                - m.getData()[0] * m.getData()[9] * m.getData()[6]
-                * m.getData()[15] - m.getData()[4] * m.getData()[1]
-                * m.getData()[10] * m.getData()[15] + m.getData()[0]
-                * m.getData()[5] * m.getData()[10] * m.getData()[15];
+        return ArrayMath.Matrix44FDeterminate(m.getData(), 0);
     }
 
 
@@ -239,122 +158,8 @@ public class SampleMath
     {
         Matrix44F r = new Matrix44F();
 
-        float det = 1.0f / Matrix44FDeterminate(m);
-
-        temp[0] = m.getData()[6] * m.getData()[11] * m.getData()[13]
-                - m.getData()[7] * m.getData()[10] * m.getData()[13]
-                + m.getData()[7] * m.getData()[9] * m.getData()[14]
-                - m.getData()[5] * m.getData()[11] * m.getData()[14]
-                - m.getData()[6] * m.getData()[9] * m.getData()[15]
-                + m.getData()[5] * m.getData()[10] * m.getData()[15];
-
-        temp[4] = m.getData()[3] * m.getData()[10] * m.getData()[13]
-                - m.getData()[2] * m.getData()[11] * m.getData()[13]
-                - m.getData()[3] * m.getData()[9] * m.getData()[14]
-                + m.getData()[1] * m.getData()[11] * m.getData()[14]
-                + m.getData()[2] * m.getData()[9] * m.getData()[15]
-                - m.getData()[1] * m.getData()[10] * m.getData()[15];
-
-        temp[8] = m.getData()[2] * m.getData()[7] * m.getData()[13]
-                - m.getData()[3] * m.getData()[6] * m.getData()[13]
-                + m.getData()[3] * m.getData()[5] * m.getData()[14]
-                - m.getData()[1] * m.getData()[7] * m.getData()[14]
-                - m.getData()[2] * m.getData()[5] * m.getData()[15]
-                + m.getData()[1] * m.getData()[6] * m.getData()[15];
-
-        temp[12] = m.getData()[3] * m.getData()[6] * m.getData()[9]
-                - m.getData()[2] * m.getData()[7] * m.getData()[9] - m.getData()[3]
-                * m.getData()[5] * m.getData()[10] + m.getData()[1]
-                * m.getData()[7] * m.getData()[10] + m.getData()[2]
-                * m.getData()[5] * m.getData()[11] - m.getData()[1]
-                * m.getData()[6] * m.getData()[11];
-
-        temp[1] = m.getData()[7] * m.getData()[10] * m.getData()[12]
-                - m.getData()[6] * m.getData()[11] * m.getData()[12]
-                - m.getData()[7] * m.getData()[8] * m.getData()[14]
-                + m.getData()[4] * m.getData()[11] * m.getData()[14]
-                + m.getData()[6] * m.getData()[8] * m.getData()[15]
-                - m.getData()[4] * m.getData()[10] * m.getData()[15];
-
-        temp[5] = m.getData()[2] * m.getData()[11] * m.getData()[12]
-                - m.getData()[3] * m.getData()[10] * m.getData()[12]
-                + m.getData()[3] * m.getData()[8] * m.getData()[14]
-                - m.getData()[0] * m.getData()[11] * m.getData()[14]
-                - m.getData()[2] * m.getData()[8] * m.getData()[15]
-                + m.getData()[0] * m.getData()[10] * m.getData()[15];
-
-        temp[9] = m.getData()[3] * m.getData()[6] * m.getData()[12]
-                - m.getData()[2] * m.getData()[7] * m.getData()[12]
-                - m.getData()[3] * m.getData()[4] * m.getData()[14]
-                + m.getData()[0] * m.getData()[7] * m.getData()[14]
-                + m.getData()[2] * m.getData()[4] * m.getData()[15]
-                - m.getData()[0] * m.getData()[6] * m.getData()[15];
-
-        temp[13] = m.getData()[2] * m.getData()[7] * m.getData()[8]
-                - m.getData()[3] * m.getData()[6] * m.getData()[8] + m.getData()[3]
-                * m.getData()[4] * m.getData()[10] - m.getData()[0]
-                * m.getData()[7] * m.getData()[10] - m.getData()[2]
-                * m.getData()[4] * m.getData()[11] + m.getData()[0]
-                * m.getData()[6] * m.getData()[11];
-
-        temp[2] = m.getData()[5] * m.getData()[11] * m.getData()[12]
-                - m.getData()[7] * m.getData()[9] * m.getData()[12]
-                + m.getData()[7] * m.getData()[8] * m.getData()[13]
-                - m.getData()[4] * m.getData()[11] * m.getData()[13]
-                - m.getData()[5] * m.getData()[8] * m.getData()[15]
-                + m.getData()[4] * m.getData()[9] * m.getData()[15];
-
-        temp[6] = m.getData()[3] * m.getData()[9] * m.getData()[12]
-                - m.getData()[1] * m.getData()[11] * m.getData()[12]
-                - m.getData()[3] * m.getData()[8] * m.getData()[13]
-                + m.getData()[0] * m.getData()[11] * m.getData()[13]
-                + m.getData()[1] * m.getData()[8] * m.getData()[15]
-                - m.getData()[0] * m.getData()[9] * m.getData()[15];
-
-        temp[10] = m.getData()[1] * m.getData()[7] * m.getData()[12]
-                - m.getData()[3] * m.getData()[5] * m.getData()[12]
-                + m.getData()[3] * m.getData()[4] * m.getData()[13]
-                - m.getData()[0] * m.getData()[7] * m.getData()[13]
-                - m.getData()[1] * m.getData()[4] * m.getData()[15]
-                + m.getData()[0] * m.getData()[5] * m.getData()[15];
-
-        temp[14] = m.getData()[3] * m.getData()[5] * m.getData()[8]
-                - m.getData()[1] * m.getData()[7] * m.getData()[8] - m.getData()[3]
-                * m.getData()[4] * m.getData()[9] + m.getData()[0] * m.getData()[7]
-                * m.getData()[9] + m.getData()[1] * m.getData()[4]
-                * m.getData()[11] - m.getData()[0] * m.getData()[5]
-                * m.getData()[11];
-
-        temp[3] = m.getData()[6] * m.getData()[9] * m.getData()[12]
-                - m.getData()[5] * m.getData()[10] * m.getData()[12]
-                - m.getData()[6] * m.getData()[8] * m.getData()[13]
-                + m.getData()[4] * m.getData()[10] * m.getData()[13]
-                + m.getData()[5] * m.getData()[8] * m.getData()[14]
-                - m.getData()[4] * m.getData()[9] * m.getData()[14];
-
-        temp[7] = m.getData()[1] * m.getData()[10] * m.getData()[12]
-                - m.getData()[2] * m.getData()[9] * m.getData()[12]
-                + m.getData()[2] * m.getData()[8] * m.getData()[13]
-                - m.getData()[0] * m.getData()[10] * m.getData()[13]
-                - m.getData()[1] * m.getData()[8] * m.getData()[14]
-                + m.getData()[0] * m.getData()[9] * m.getData()[14];
-
-        temp[11] = m.getData()[2] * m.getData()[5] * m.getData()[12]
-                - m.getData()[1] * m.getData()[6] * m.getData()[12]
-                - m.getData()[2] * m.getData()[4] * m.getData()[13]
-                + m.getData()[0] * m.getData()[6] * m.getData()[13]
-                + m.getData()[1] * m.getData()[4] * m.getData()[14]
-                - m.getData()[0] * m.getData()[5] * m.getData()[14];
-
-        temp[15] = m.getData()[1] * m.getData()[6] * m.getData()[8]
-                - m.getData()[2] * m.getData()[5] * m.getData()[8] + m.getData()[2]
-                * m.getData()[4] * m.getData()[9] - m.getData()[0] * m.getData()[6]
-                * m.getData()[9] - m.getData()[1] * m.getData()[4]
-                * m.getData()[10] + m.getData()[0] * m.getData()[5]
-                * m.getData()[10];
-
-        for (int i = 0; i < 16; i++)
-            temp[i] *= det;
+        float[] temp = m.getData();
+        ArrayMath.Matrix44FInverse(temp, 0, temp, 0);
 
         r.setData(temp);
         return r;
@@ -364,29 +169,19 @@ public class SampleMath
     public static Vec3F linePlaneIntersection(Vec3F lineStart, Vec3F lineEnd,
                                               Vec3F pointOnPlane, Vec3F planeNormal)
     {
-        Vec3F lineDir = Vec3FSub(lineEnd, lineStart);
-        lineDir = Vec3FNormalize(lineDir);
-
-        Vec3F planeDir = Vec3FSub(pointOnPlane, lineStart);
-
-        float n = Vec3FDot(planeNormal, planeDir);
-        float d = Vec3FDot(planeNormal, lineDir);
-
-        if (Math.abs(d) < 0.00001)
+        float[] temp = new float[3];
+        if (!ArrayMath.linePlaneIntersection(temp, 0, lineStart.getData(), 0, lineEnd.getData(), 0,
+                pointOnPlane.getData(), 0, planeNormal.getData(), 0))
         {
             // Line is parallel to plane
             return null;
         }
 
-        float dist = n / d;
-
-        Vec3F offset = Vec3FScale(lineDir, dist);
-
-        return Vec3FAdd(lineStart, offset);
+        return new Vec3F(temp[0], temp[1], temp[2]);
     }
 
 
-    private static void projectScreenPointToPlane(Matrix44F inverseProjMatrix,
+    private static PlaneProjection projectScreenPointToPlane(Matrix44F inverseProjMatrix,
                                                   Matrix44F modelViewMatrix, float screenWidth, float screenHeight,
                                                   Vec2F point, Vec3F planeCenter, Vec3F planeNormal)
     {
@@ -394,43 +189,16 @@ public class SampleMath
         VideoBackgroundConfig config = Renderer.getInstance()
                 .getVideoBackgroundConfig();
 
-        float halfScreenWidth = screenWidth / 2.0f;
-        float halfScreenHeight = screenHeight / 2.0f;
-
-        float halfViewportWidth = config.getSize().getData()[0] / 2.0f;
-        float halfViewportHeight = config.getSize().getData()[1] / 2.0f;
-
-        float x = (point.getData()[0] - halfScreenWidth) / halfViewportWidth;
-        float y = (point.getData()[1] - halfScreenHeight) / halfViewportHeight
-                * -1;
-
-        Vec4F ndcNear = new Vec4F(x, y, -1, 1);
-        Vec4F ndcFar = new Vec4F(x, y, 1, 1);
+        int[] viewport = config.getSize().getData();
+        float[] screenPoint = point.getData();
 
-        // Normalized Device Coordinates to Eye Coordinates
-        Vec4F pointOnNearPlane = Vec4FTransform(ndcNear, inverseProjMatrix);
-        Vec4F pointOnFarPlane = Vec4FTransform(ndcFar, inverseProjMatrix);
-        pointOnNearPlane = Vec4FDiv(pointOnNearPlane,
-                pointOnNearPlane.getData()[3]);
-        pointOnFarPlane = Vec4FDiv(pointOnFarPlane,
-                pointOnFarPlane.getData()[3]);
-
-        // Eye Coordinates to Object Coordinates
-        Matrix44F inverseModelViewMatrix = Matrix44FInverse(modelViewMatrix);
-
-        Vec4F nearWorld = Vec4FTransform(pointOnNearPlane,
-                inverseModelViewMatrix);
-        Vec4F farWorld = Vec4FTransform(pointOnFarPlane, inverseModelViewMatrix);
-
-        mLineStart = new Vec3F(nearWorld.getData()[0], nearWorld.getData()[1],
-                nearWorld.getData()[2]);
-        mLineEnd = new Vec3F(farWorld.getData()[0], farWorld.getData()[1],
-                farWorld.getData()[2]);
-        mIntersection = linePlaneIntersection(mLineStart, mLineEnd,
-                planeCenter, planeNormal);
-
-        if (mIntersection == null)
+        PlaneProjection projection = mProjection.get();
+        if (!projection.project(inverseProjMatrix.getData(), modelViewMatrix.getData(),
+                screenWidth, screenHeight, viewport[0], viewport[1],
+                screenPoint[0], screenPoint[1], planeCenter.getData(), planeNormal.getData()))
             Log.e(LOGTAG, "No intersection with the plane");
+
+        return projection;
     }
 
 
@@ -439,9 +207,9 @@ public class SampleMath
             float screenWidth, float screenHeight, Vec2F point, Vec3F planeCenter,
             Vec3F planeNormal)
     {
-        projectScreenPointToPlane(inverseProjMatrix, modelViewMatrix,
-                screenWidth, screenHeight, point, planeCenter, planeNormal);
-        return mIntersection;
+        float[] intersection = projectScreenPointToPlane(inverseProjMatrix, modelViewMatrix,
+                screenWidth, screenHeight, point, planeCenter, planeNormal).getIntersection();
+        return intersection == null ? null : new Vec3F(intersection[0], intersection[1], intersection[2]);
     }
 
 
@@ -449,9 +217,9 @@ public class SampleMath
                                                  Matrix44F modelViewMatrix, float screenWidth, float screenHeight,
                                                  Vec2F point, Vec3F planeCenter, Vec3F planeNormal)
     {
-        projectScreenPointToPlane(inverseProjMatrix, modelViewMatrix,
-                screenWidth, screenHeight, point, planeCenter, planeNormal);
-        return mLineStart;
+        float[] lineStart = projectScreenPointToPlane(inverseProjMatrix, modelViewMatrix,
+                screenWidth, screenHeight, point, planeCenter, planeNormal).getLineStart();
+        return new Vec3F(lineStart[0], lineStart[1], lineStart[2]);
     }
 
 
@@ -459,9 +227,8 @@ public class SampleMath
                                                Matrix44F modelViewMatrix, float screenWidth, float screenHeight,
                                                Vec2F point, Vec3F planeCenter, Vec3F planeNormal)
     {
-        projectScreenPointToPlane(inverseProjMatrix, modelViewMatrix,
-                screenWidth, screenHeight, point, planeCenter, planeNormal);
-        return mLineEnd;
+        float[] lineEnd = projectScreenPointToPlane(inverseProjMatrix, modelViewMatrix,
+                screenWidth, screenHeight, point, planeCenter, planeNormal).getLineEnd();
+        return new Vec3F(lineEnd[0], lineEnd[1], lineEnd[2]);
     }
 }
-
@@ -0,0 +1,104 @@
+package com.github.daemontus.ar.vuforia;
+
+import com.badlogic.gdx.graphics.GL20;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Video background mesh of one view stored in GL buffer objects.
+ *
+ * The mesh only changes when the video background is reconfigured, so it's uploaded once and
+ * every frame after that only binds the buffers and draws. The mesh uses float positions (3),
+ * float texture coordinates (2) and unsigned short triangle indices.
+ */
+public class VideoBackgroundMesh {
+
+    // positions, texture coordinates and indices
+    private final int[] buffers = new int[3];
+    private final float[] projection = new float[16];
+    private int indexCount = 0;
+    private boolean ready = false;
+
+    /**
+     * @return true if the mesh has been uploaded since the last {@link #invalidate()}
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Marks the mesh as changed, it has to be uploaded again before it's drawn.
+     */
+    public void invalidate() {
+        ready = false;
+    }
+
+    /**
+     * Forgets the buffer objects of a lost GL context, new ones are created by the next upload.
+     */
+    public void reset() {
+        ready = false;
+        buffers[0] = buffers[1] = buffers[2] = 0;
+    }
+
+    /**
+     * Uploads the mesh into the buffer objects (created with the first upload) and keeps its projection.
+     *
+     * @param triangleCount number of triangles in the index buffer
+     * @param projection column major GL projection matrix of the video background
+     */
+    public void upload(GL20 gl, ByteBuffer positions, ByteBuffer texCoords, ByteBuffer triangles,
+                       int triangleCount, float[] projection) {
+        if (buffers[0] == 0) {
+            buffers[0] = gl.glGenBuffer();
+            buffers[1] = gl.glGenBuffer();
+            buffers[2] = gl.glGenBuffer();
+        }
+
+        gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, buffers[0]);
+        gl.glBufferData(GL20.GL_ARRAY_BUFFER, positions.remaining(), positions, GL20.GL_STATIC_DRAW);
+        gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, buffers[1]);
+        gl.glBufferData(GL20.GL_ARRAY_BUFFER, texCoords.remaining(), texCoords, GL20.GL_STATIC_DRAW);
+        gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, 0);
+
+        gl.glBindBuffer(GL20.GL_ELEMENT_ARRAY_BUFFER, buffers[2]);
+        gl.glBufferData(GL20.GL_ELEMENT_ARRAY_BUFFER, triangles.remaining(), triangles, GL20.GL_STATIC_DRAW);
+        gl.glBindBuffer(GL20.GL_ELEMENT_ARRAY_BUFFER, 0);
+
+        indexCount = triangleCount * 3;
+        System.arraycopy(projection, 0, this.projection, 0, 16);
+        ready = true;
+    }
+
+    /**
+     * @return projection of the video background kept with the last upload
+     */
+    public float[] getProjection() {
+        return projection;
+    }
+
+    /**
+     * Draws the uploaded mesh with the currently used program and leaves no buffer bound
+     * and no vertex array enabled (libGDX expects nothing bound).
+     *
+     * @param positionHandle location of the position attribute
+     * @param texCoordHandle location of the texture coordinate attribute
+     */
+    public void draw(GL20 gl, int positionHandle, int texCoordHandle) {
+        gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, buffers[0]);
+        gl.glVertexAttribPointer(positionHandle, 3, GL20.GL_FLOAT, false, 0, 0);
+        gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, buffers[1]);
+        gl.glVertexAttribPointer(texCoordHandle, 2, GL20.GL_FLOAT, false, 0, 0);
+        gl.glBindBuffer(GL20.GL_ELEMENT_ARRAY_BUFFER, buffers[2]);
+
+        gl.glEnableVertexAttribArray(positionHandle);
+        gl.glEnableVertexAttribArray(texCoordHandle);
+
+        gl.glDrawElements(GL20.GL_TRIANGLES, indexCount, GL20.GL_UNSIGNED_SHORT, 0);
+
+        gl.glDisableVertexAttribArray(positionHandle);
+        gl.glDisableVertexAttribArray(texCoordHandle);
+        gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, 0);
+        gl.glBindBuffer(GL20.GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+}
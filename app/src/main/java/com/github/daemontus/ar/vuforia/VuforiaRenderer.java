@@ -1,30 +1,49 @@
 package com.github.daemontus.ar.vuforia;
 
-import android.opengl.GLES20;
 import android.util.Log;
+import android.util.SparseArray;
 
+import com.badlogic.gdx.Gdx;
+import com.github.daemontus.ar.libgdx.FrameResults;
+import com.github.daemontus.ar.libgdx.FrameTimings;
+import com.github.daemontus.ar.libgdx.PoseHistory;
+import com.github.daemontus.ar.libgdx.PoseLogWriter;
+import com.github.daemontus.ar.libgdx.TrackingSource;
 import com.github.daemontus.renderer.ArActivity;
-import com.vuforia.CameraCalibration;
-import com.vuforia.CameraDevice;
 import com.vuforia.Device;
 import com.vuforia.State;
+import com.vuforia.Trackable;
 import com.vuforia.TrackableResult;
-import com.vuforia.Vec2F;
 import com.vuforia.Vuforia;
 
+import java.io.File;
+import java.io.IOException;
+
 /**
  * Vuforia renderer, responsible for video background rendering, tracking and position calculations
  */
-public class VuforiaRenderer implements AppRenderer.RendererControl {
+public class VuforiaRenderer implements AppRenderer.RendererControl, TrackingSource {
 
     private static final String LOGTAG = "VuforiaRenderer";
 
+    // about one second of camera frames
+    private static final int POSE_HISTORY_SIZE = 32;
+
     private final AppSession vuforiaAppSession;
     private final AppRenderer mSampleAppRenderer;
 
     private boolean mIsActive = false;
-    private float fieldOfViewRadians = 0.0f;
-    private String lastTrackableName = null;
+    private int lastTrackableId = -1;
+    // names are fetched only once per trackable, getName() allocates a new string every time
+    private final SparseArray<String> trackableNames = new SparseArray<>();
+    private double frameTimestamp = 0.0;
+    private long frameArrivalNanos = 0;
+    private final PoseHistory poseHistory = new PoseHistory(POSE_HISTORY_SIZE);
+    private final FrameResults frameResults = new FrameResults();
+    private final float[] projectionMatrix = new float[16];
+    private FrameTimings frameTimings = new FrameTimings();
+    // guarded by this, written on the rendering thread, opened and closed from any thread
+    private PoseLogWriter poseLog;
 
     public VuforiaRenderer(ArActivity activity, AppSession session)
     {
@@ -32,18 +51,25 @@ public class VuforiaRenderer implements AppRenderer.RendererControl {
         // SampleAppRenderer used to encapsulate the use of RenderingPrimitives setting
         // the device mode AR/VR and stereo mode
         mSampleAppRenderer = new AppRenderer(this, activity, Device.MODE.MODE_AR,
-                false, 0.01f , 5f);
+                false, NEAR_PLANE, FAR_PLANE);
+        mSampleAppRenderer.setCameraIntrinsics(session.getCameraIntrinsics());
     }
 
-    public TrackableResult[] onDrawFrame()
+    /**
+     * @return trackables found in this frame, the object is reused by the next frame
+     */
+    @Override
+    public FrameResults onDrawFrame()
     {
         if (!mIsActive)
             return null;
 
         // Call our function to render content from SampleAppRenderer class
-        return mSampleAppRenderer.render();
+        mSampleAppRenderer.render(frameResults);
+        return frameResults;
     }
 
+    @Override
     public void onSurfaceCreated()
     {
         Log.d(LOGTAG, "GLRenderer.onSurfaceCreated");
@@ -55,6 +81,7 @@ public class VuforiaRenderer implements AppRenderer.RendererControl {
         mSampleAppRenderer.onSurfaceCreated();
     }
 
+    @Override
     public void onSurfaceChanged(int width, int height) {
         Log.d(LOGTAG, "GLRenderer.onSurfaceChanged");
 
@@ -64,7 +91,7 @@ public class VuforiaRenderer implements AppRenderer.RendererControl {
         // RenderingPrimitives to be updated when some rendering change is done
         mSampleAppRenderer.onConfigurationChanged(mIsActive);
 
-        GLES20.glClearColor(0.0f, 0.0f, 0.0f, Vuforia.requiresAlpha() ? 0.0f : 1.0f);
+        Gdx.gl.glClearColor(0.0f, 0.0f, 0.0f, Vuforia.requiresAlpha() ? 0.0f : 1.0f);
     }
 
     public void updateConfiguration() {
@@ -72,35 +99,102 @@ public class VuforiaRenderer implements AppRenderer.RendererControl {
     }
 
     @Override
-    public TrackableResult[] renderFrame(State state, float[] projectionMatrix) {
-        if (!mIsActive)
-            return null;
+    public void renderFrame(State state, double timestamp, float[] projectionMatrix, FrameResults results) {
+        if (!mIsActive) {
+            results.clear(frameTimestamp);
+            return;
+        }
+
+        System.arraycopy(projectionMatrix, 0, this.projectionMatrix, 0, 16);
 
+        frameTimings.start(FrameTimings.STAGE_VIDEO_BACKGROUND);
         mSampleAppRenderer.renderVideoBackground(state);
+        frameTimings.stop(FrameTimings.STAGE_VIDEO_BACKGROUND);
+
+        boolean newFrame = timestamp != frameTimestamp;
+        if (newFrame) {
+            frameTimestamp = timestamp;
+            frameArrivalNanos = System.nanoTime();
+        }
 
         // did we find any trackables this frame?
-        TrackableResult[] results = new TrackableResult[state.getNumTrackableResults()];
-        for (int tIdx = 0; tIdx < state.getNumTrackableResults(); tIdx++)
+        results.clear(frameTimestamp);
+        int count = state.getNumTrackableResults();
+        for (int tIdx = 0; tIdx < count; tIdx++)
         {
             //remember trackable
             TrackableResult result = state.getTrackableResult(tIdx);
-            lastTrackableName = result.getTrackable().getName();
-            results[tIdx] = result;
-
-            //calculate filed of view
-            CameraCalibration calibration = CameraDevice.getInstance().getCameraCalibration();
-            Vec2F size = calibration.getSize();
-            Vec2F focalLength = calibration.getFocalLength();
-            fieldOfViewRadians = (float) (2 * Math.atan(0.5f * size.getData()[0] / focalLength.getData()[0]));
+            Trackable trackable = result.getTrackable();
+            int id = trackable.getId();
+            if (trackableNames.get(id) == null) {
+                trackableNames.put(id, trackable.getName());
+            }
+            lastTrackableId = id;
+
+            //like the result and the trackable, the pose and its array are SWIG wrappers allocated by the Vuforia
+            //API, which can't read a pose into a given array; the results and the history only copy it
+            float[] pose = result.getPose().getData();
+            results.add(id, result.getStatus(), pose, 0);
+            poseHistory.add(id, frameTimestamp, pose, 0);
         }
 
-        return results;
+        // the same camera frame may be rendered more than once, it's recorded only the first time
+        if (newFrame) {
+            record(results);
+        }
+    }
+
+    /**
+     * Starts recording the results of every camera frame into a pose log (see {@link PoseLogWriter}),
+     * a running recording is stopped first.
+     */
+    public synchronized void startRecording(File file) throws IOException {
+        stopRecording();
+        poseLog = new PoseLogWriter(file);
+        Log.d(LOGTAG, "Recording poses to "+file);
+    }
+
+    /**
+     * Stops the recording started by {@link #startRecording(File)}, does nothing if there is none.
+     */
+    public synchronized void stopRecording() {
+        if (poseLog == null) return;
+        try {
+            poseLog.close();
+            Log.d(LOGTAG, "Recorded "+poseLog.getFrameCount()+" frames");
+        } catch (IOException e) {
+            Log.e(LOGTAG, "Unable to close the pose log", e);
+        }
+        poseLog = null;
+    }
+
+    public synchronized boolean isRecording() {
+        return poseLog != null;
+    }
+
+    private synchronized void record(FrameResults results) {
+        if (poseLog == null) return;
+        try {
+            poseLog.write(results, projectionMatrix, getCameraIntrinsics(), isReflected());
+        } catch (IOException e) {
+            Log.e(LOGTAG, "Unable to write the pose log, recording stopped", e);
+            stopRecording();
+        }
     }
 
+    @Override
     public boolean isActive() {
         return mIsActive;
     }
 
+    /**
+     * @param frameTimings timings the state update and video background stages are measured into
+     */
+    public void setFrameTimings(FrameTimings frameTimings) {
+        this.frameTimings = frameTimings;
+        mSampleAppRenderer.setFrameTimings(frameTimings);
+    }
+
     public void setActive(boolean active)
     {
         mIsActive = active;
@@ -109,11 +203,65 @@ public class VuforiaRenderer implements AppRenderer.RendererControl {
             mSampleAppRenderer.configureVideoBackground();
     }
 
+    /**
+     * @return intrinsics of the running camera, recomputed only when the camera or configuration changes
+     */
+    @Override
+    public CameraIntrinsics getCameraIntrinsics() {
+        return vuforiaAppSession.getCameraIntrinsics();
+    }
+
+    /**
+     * @return column major GL projection matrix of the last rendered view
+     */
+    @Override
+    public float[] getProjectionMatrix() {
+        return projectionMatrix;
+    }
+
+    @Override
+    public boolean isReflected() {
+        return mSampleAppRenderer.isReflected();
+    }
+
     public float getFieldOfViewRadians() {
-        return fieldOfViewRadians;
+        return getCameraIntrinsics().getFieldOfViewX();
+    }
+
+    /**
+     * @return time (in seconds) of the camera frame the last results come from
+     */
+    @Override
+    public double getFrameTimestamp() {
+        return frameTimestamp;
+    }
+
+    /**
+     * Camera frames arrive slower than the display refreshes, so the current time is estimated
+     * as the frame time plus the time elapsed since the frame arrived.
+     *
+     * @return current time (in seconds) on the clock of {@link #getFrameTimestamp()}
+     */
+    @Override
+    public double getRenderTimestamp() {
+        return frameTimestamp + (System.nanoTime() - frameArrivalNanos) / 1e9;
+    }
+
+    /**
+     * @return recent poses of all trackables, only valid on the rendering thread
+     */
+    public PoseHistory getPoseHistory() {
+        return poseHistory;
     }
 
     public String getLastTrackableName() {
-        return lastTrackableName;
+        return getTrackableName(lastTrackableId);
+    }
+
+    /**
+     * @return name of a trackable seen by this renderer or null if it wasn't seen yet
+     */
+    public String getTrackableName(int trackableId) {
+        return trackableNames.get(trackableId);
     }
 }
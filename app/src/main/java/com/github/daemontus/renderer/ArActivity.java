@@ -11,7 +11,11 @@ import android.widget.Toast;
 import com.badlogic.gdx.backends.android.AndroidApplication;
 import com.badlogic.gdx.backends.android.AndroidApplicationConfiguration;
 
+import com.github.daemontus.ar.libgdx.ContentRegistry;
 import com.github.daemontus.ar.libgdx.Engine;
+import com.github.daemontus.ar.libgdx.OneEuroPoseFilter;
+import com.github.daemontus.ar.libgdx.PosePredictor;
+import com.github.daemontus.ar.libgdx.Trace;
 import com.github.daemontus.ar.vuforia.AppSession;
 import com.github.daemontus.ar.vuforia.SessionControl;
 import com.github.daemontus.ar.vuforia.VuforiaException;
@@ -22,28 +26,55 @@ import com.vuforia.HINT;
 import com.vuforia.ObjectTracker;
 import com.vuforia.STORAGE_TYPE;
 import com.vuforia.State;
+import com.vuforia.Trackable;
 import com.vuforia.Tracker;
 import com.vuforia.TrackerManager;
 import com.vuforia.Vuforia;
 
+import java.io.File;
+import java.io.IOException;
+
 
 public class ArActivity extends AndroidApplication implements SessionControl {
 
     private static final String LOGTAG = "MAIN";
 
+    // Number of targets from the data set which can be tracked (and rendered) at the same time
+    private static final int MAX_SIMULTANEOUS_TARGETS = 2;
+
+    // Records the tracked poses into the app files directory, they can be replayed on a desktop
+    private static final boolean RECORD_POSES = false;
+    private static final String POSE_LOG = "poses.log";
+
+    // Debug builds check GL errors once a second at 60 fps, release builds never
+    private static final int GL_ERROR_CHECKS = BuildConfig.DEBUG ? 60 : Trace.GL_CHECKS_OFF;
+
     private AppSession session;
 
     private DataSet posterDataSet;
     private Engine mEngine;
+    // Models of the targets, every target shows the jet unless it has its own model registered
+    private final ContentRegistry mContent = createContent();
 
     VuforiaRenderer mRenderer;
 
 
+    private static ContentRegistry createContent() {
+        ContentRegistry content = new ContentRegistry("jet.g3dc");
+        // The two targets of the data set are usually next to each other,
+        // when one of them is seen, the model of the other one is prefetched
+        content.link("stones", "chips");
+        content.link("chips", "stones");
+        return content;
+    }
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_ar);
         Log.d(LOGTAG, "onCreate");
+        Trace.setLevel(BuildConfig.DEBUG ? Trace.DEBUG : Trace.INFO);
+        Trace.setGLErrorChecks(GL_ERROR_CHECKS);
 
         session = new AppSession(this);
         session.initAR(this, ActivityInfo.SCREEN_ORIENTATION_PORTRAIT);
@@ -55,7 +86,10 @@ public class ArActivity extends AndroidApplication implements SessionControl {
         config.useCompass = false;
         //config.useGL20 = true;
 
-        mEngine = new Engine();
+        mEngine = new Engine(MAX_SIMULTANEOUS_TARGETS > 1);
+        mEngine.setPoseFilter(new OneEuroPoseFilter());
+        mEngine.setPosePredictor(new PosePredictor());
+        mEngine.setContentRegistry(mContent);
         // The game engine has to be initialized here. However, we don't have the renderer yet.
         View glView = initializeForView(mEngine, config);
 
@@ -91,9 +125,18 @@ public class ArActivity extends AndroidApplication implements SessionControl {
     public void onInitARDone(VuforiaException exception) {
         if (exception == null) {
             mRenderer = new VuforiaRenderer(this, session);
-            mEngine.setVuforiaRenderer(mRenderer);
+            mRenderer.setFrameTimings(mEngine.getFrameTimings());
+            mEngine.setTrackingSource(mRenderer);
             mRenderer.setActive(true);
 
+            if (RECORD_POSES) {
+                try {
+                    mRenderer.startRecording(new File(getExternalFilesDir(null), POSE_LOG));
+                } catch (IOException e) {
+                    Log.e(LOGTAG, "Unable to record poses", e);
+                }
+            }
+
             session.startAR(CameraDevice.CAMERA_DIRECTION.CAMERA_DIRECTION_DEFAULT);
 
             boolean result = CameraDevice.getInstance().setFocusMode(CameraDevice.FOCUS_MODE.FOCUS_MODE_CONTINUOUSAUTO);
@@ -121,6 +164,10 @@ public class ArActivity extends AndroidApplication implements SessionControl {
         Log.d(LOGTAG, "onDestroy");
         super.onDestroy();
 
+        if (mRenderer != null) {
+            mRenderer.stopRecording();
+        }
+
         try {
             session.stopAR();
         } catch (VuforiaException e) {
@@ -179,6 +226,12 @@ public class ArActivity extends AndroidApplication implements SessionControl {
             return false;
         }
 
+        // Models can be registered by target name, the ids are only known now
+        for (int i = 0; i < posterDataSet.getNumTrackables(); i++) {
+            Trackable trackable = posterDataSet.getTrackable(i);
+            mContent.bind(trackable.getId(), trackable.getName());
+        }
+
         Log.d(LOGTAG, "Successfully loaded and activated data set.");
         return true;
     }
@@ -193,7 +246,7 @@ public class ArActivity extends AndroidApplication implements SessionControl {
                 ObjectTracker.getClassType());
         if (imageTracker != null) {
             imageTracker.start();
-            Vuforia.setHint(HINT.HINT_MAX_SIMULTANEOUS_IMAGE_TARGETS, 1);
+            Vuforia.setHint(HINT.HINT_MAX_SIMULTANEOUS_IMAGE_TARGETS, MAX_SIMULTANEOUS_TARGETS);
         } else
             result = false;
 
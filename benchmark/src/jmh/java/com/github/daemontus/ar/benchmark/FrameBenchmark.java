@@ -0,0 +1,39 @@
+package com.github.daemontus.ar.benchmark;
+
+import com.github.daemontus.ar.libgdx.SyntheticTrackingSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * CPU time of one frame of the whole pipeline, from synthetic poses through the pose filter and
+ * predictor to the libgdx rendering (GL calls are only recorded).
+ */
+@State(Scope.Thread)
+public class FrameBenchmark {
+
+    @Param({"1", "4", "16"})
+    public int targets;
+
+    private HeadlessEngine engine;
+
+    @Setup
+    public void setup() {
+        engine = new HeadlessEngine(targets > 1, new SyntheticTrackingSource(targets, 42));
+    }
+
+    @Benchmark
+    public int frame() {
+        engine.frame();
+        return engine.getGL().getCalls();
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.dispose();
+    }
+}
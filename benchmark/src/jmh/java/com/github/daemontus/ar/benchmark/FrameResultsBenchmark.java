@@ -0,0 +1,45 @@
+package com.github.daemontus.ar.benchmark;
+
+import com.github.daemontus.ar.libgdx.FrameResults;
+import com.github.daemontus.ar.libgdx.PoseMath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Steady state refill of the per-frame results, run with the gc profiler to see the allocation rate.
+ */
+@State(Scope.Thread)
+public class FrameResultsBenchmark {
+
+    @Param({"1", "4", "16"})
+    public int targets;
+
+    private float[] poses;
+    private FrameResults results;
+    private long frame;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        poses = new float[targets * PoseMath.POSE_SIZE];
+        for (int i = 0; i < targets; i++) {
+            System.arraycopy(Poses.randomPose(random), 0, poses, i * PoseMath.POSE_SIZE, PoseMath.POSE_SIZE);
+        }
+        results = new FrameResults();
+    }
+
+    @Benchmark
+    public FrameResults fill() {
+        results.clear(frame++ / 30.0);
+        for (int i = 0; i < targets; i++) {
+            results.add(i, 3, poses, i * PoseMath.POSE_SIZE);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.daemontus.ar.benchmark;
+
+import com.github.daemontus.ar.libgdx.FrameTimings;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Overhead of timing all stages of one frame.
+ */
+@State(Scope.Thread)
+public class FrameTimingsBenchmark {
+
+    private FrameTimings timings;
+
+    @Setup
+    public void setup() {
+        timings = new FrameTimings();
+    }
+
+    @Benchmark
+    public FrameTimings frame() {
+        for (int stage = 0; stage < FrameTimings.STAGE_SWAP; stage++) {
+            timings.start(stage);
+            timings.stop(stage);
+        }
+        timings.add(FrameTimings.STAGE_SWAP, 4000000);
+        timings.add(FrameTimings.STAGE_FRAME, 12000000);
+        timings.endFrame();
+        return timings;
+    }
+}
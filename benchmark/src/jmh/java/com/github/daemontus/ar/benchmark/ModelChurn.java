@@ -0,0 +1,114 @@
+package com.github.daemontus.ar.benchmark;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.github.daemontus.ar.libgdx.ModelCache;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Simulates target churn on a {@link ModelCache}: a catalogue of targets, each with its own model,
+ * a few of them visible at a time and the visible set changing every two seconds (at 60 fps), popular
+ * targets more often than the others. The loading gets 4 ms of every frame, like in the app.
+ *
+ * Half of the time the next visible targets are the ones after the current ones (like pages of a
+ * catalogue), the simulation runs once without and once with prefetching of the next targets.
+ *
+ * Every target model is a copy of the jet (its file name is resolved to jet.g3dc), the cache budget
+ * fits a few of them. Prints the hit rate, evictions, prefetches and the number of frames targets are
+ * visible without their models, the behaviour of the cache itself is checked by ModelChurnTest.
+ *
+ * With 100 targets over 12000 frames (the modelChurn task) prefetching cuts the 24000 target frames
+ * without a model from about 480-660 to about 360-410. The numbers vary from run to run, the loading
+ * runs on the wall clock.
+ *
+ * Usage: [targets] [frames]
+ */
+public class ModelChurn {
+
+    private static final String MODEL = "jet.g3dc";
+    private static final int VISIBLE = 2;
+    private static final int FRAMES_PER_SET = 120;
+    private static final int CACHED_MODELS = 6;
+
+    public static void main(String[] args) {
+        int targets = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 12000;
+
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = -1;
+        new HeadlessApplication(new ApplicationAdapter() {}, config);
+        Gdx.gl = Gdx.gl20 = new RecordingGL20();
+
+        run(targets, frames, false);
+        run(targets, frames, true);
+        System.exit(0);
+    }
+
+    private static void run(int targets, int frames, boolean prefetch) {
+        AssetManager assets = new AssetManager(new FileHandleResolver() {
+            @Override
+            public FileHandle resolve(String fileName) {
+                return Gdx.files.internal(fileName.startsWith("target") ? MODEL : fileName);
+            }
+        });
+        // the budget is set from the size of one model
+        ModelCache probe = new ModelCache(Long.MAX_VALUE, Long.MAX_VALUE);
+        probe.load(MODEL);
+        probe.update(0);
+        long gpuBudget = probe.getGpuBytes() * CACHED_MODELS;
+        long heapBudget = probe.getHeapBytes() * CACHED_MODELS;
+        probe.dispose();
+
+        ModelCache cache = new ModelCache(assets, gpuBudget, heapBudget);
+        Random random = new Random(42);
+        int[] visible = new int[VISIBLE];
+        int missingFrames = 0;
+        long shownFrames = 0;
+
+        for (int frame = 0; frame < frames; frame++) {
+            if (frame % FRAMES_PER_SET == 0) {
+                boolean next = frame > 0 && random.nextBoolean();
+                for (int i = 0; i < VISIBLE; i++) {
+                    if (next) {
+                        visible[i] = (visible[i] + 1) % targets;
+                    } else {
+                        // popularity falls with the square of the rank
+                        double r = random.nextDouble();
+                        visible[i] = (int) (r * r * targets);
+                    }
+                }
+            }
+            cache.beginFrame();
+            cache.update(4);
+            for (int i = 0; i < VISIBLE; i++) {
+                if (prefetch) {
+                    cache.prefetch("target"+((visible[i] + 1) % targets)+".g3dc");
+                }
+                Model model = cache.get("target"+visible[i]+".g3dc");
+                if (model == null) {
+                    missingFrames++;
+                } else {
+                    shownFrames++;
+                }
+            }
+        }
+
+        long lookups = cache.getHits() + cache.getMisses();
+        System.out.println((prefetch ? "With" : "Without")+" prefetching, targets: "+targets+", frames: "+frames
+                +", models in cache: "+cache.size()+" ("+(cache.getGpuBytes() >> 10)+" of "+(gpuBudget >> 10)+" KB GPU, "
+                +(cache.getHeapBytes() >> 10)+" of "+(heapBudget >> 10)+" KB heap)");
+        System.out.println("Hits: "+cache.getHits()+", misses: "+cache.getMisses()+" ("
+                +String.format(Locale.US, "%.2f", 100.0 * cache.getMisses() / lookups)+" %), evictions: "+cache.getEvictions()
+                +", prefetches: "+cache.getPrefetches()+" (used: "+cache.getPrefetchHits()+")"
+                +", frames without a model: "+missingFrames+" of "+(shownFrames + missingFrames));
+        cache.dispose();
+    }
+}
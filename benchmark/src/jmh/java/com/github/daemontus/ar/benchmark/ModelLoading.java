@@ -0,0 +1,141 @@
+package com.github.daemontus.ar.benchmark;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.loader.G3dModelLoader;
+import com.badlogic.gdx.graphics.g3d.utils.TextureProvider;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.UBJsonReader;
+import com.github.daemontus.ar.libgdx.CompactModelLoader;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * Loads the jet from the g3db file and from the compact format on the headless backend (GL calls
+ * are only recorded, all textures are one pixel).
+ *
+ * Prints the load time, allocated bytes and the peak heap of loading the g3db file and the (quantized)
+ * compact file of the app. The heap of the JVM is only a rough picture of the heap on a device. That
+ * the compact format loses nothing is checked by CompactModelRoundTripTest.
+ *
+ * Usage: [loads]
+ */
+public class ModelLoading {
+
+    private static final String G3DB = "jet.g3db";
+    private static final String G3DC = "jet.g3dc";
+
+    private final Texture texture;
+    private final TextureProvider textures;
+    private final G3dModelLoader g3dbLoader = new G3dModelLoader(new UBJsonReader());
+    private final CompactModelLoader compactLoader = new CompactModelLoader(null);
+
+    public ModelLoading() {
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = -1;
+        new HeadlessApplication(new ApplicationAdapter() {}, config);
+        Gdx.gl = Gdx.gl20 = new RecordingGL20();
+
+        Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
+        texture = new Texture(pixmap);
+        pixmap.dispose();
+        textures = new TextureProvider() {
+            @Override
+            public Texture load(String fileName) {
+                return texture;
+            }
+        };
+    }
+
+    public Model loadG3db() {
+        return g3dbLoader.loadModel(Gdx.files.internal(G3DB), textures);
+    }
+
+    public Model loadCompact() {
+        return compactLoader.loadModel(Gdx.files.internal(G3DC), textures);
+    }
+
+    /**
+     * Disposes the meshes of the model, the shared texture is kept.
+     */
+    public void dispose(Model model) {
+        Iterator<Disposable> disposables = model.getManagedDisposables().iterator();
+        while (disposables.hasNext()) {
+            if (disposables.next() instanceof Texture) disposables.remove();
+        }
+        model.dispose();
+    }
+
+    public void dispose() {
+        texture.dispose();
+    }
+
+    public static void main(String[] args) {
+        int loads = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        ModelLoading loading = new ModelLoading();
+
+        for (int format = 0; format < 2; format++) {
+            boolean isCompact = format == 1;
+            // warm up, then measure
+            for (int i = 0; i < loads; i++) {
+                loading.dispose(isCompact ? loading.loadCompact() : loading.loadG3db());
+            }
+            System.gc();
+            long used = heapUsed();
+            resetPeaks();
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            Model model = isCompact ? loading.loadCompact() : loading.loadG3db();
+            long time = System.nanoTime() - start;
+            allocated = allocatedBytes() - allocated;
+            long peak = heapPeak() - used;
+            loading.dispose(model);
+
+            start = System.nanoTime();
+            for (int i = 0; i < loads; i++) {
+                loading.dispose(isCompact ? loading.loadCompact() : loading.loadG3db());
+            }
+            double average = (System.nanoTime() - start) / 1e6 / loads;
+            System.out.println(String.format(Locale.US, "%s: %.2f ms (%d loads), first measured %.2f ms, allocated %d KB, peak heap +%d KB",
+                    isCompact ? G3DC : G3DB, average, loads, time / 1e6, allocated >> 10, peak >> 10));
+        }
+        loading.dispose();
+        System.exit(0);
+    }
+
+    private static long heapUsed() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) used += pool.getUsage().getUsed();
+        }
+        return used;
+    }
+
+    private static void resetPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+        }
+    }
+
+    private static long heapPeak() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.daemontus.ar.benchmark;
+
+import com.badlogic.gdx.graphics.g3d.Model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Time (and with the gc profiler, allocated bytes) of loading the jet from the g3db file and from
+ * the compact format, up to the meshes ready for their upload. Textures aren't loaded, see {@link ModelLoading}.
+ */
+@State(Scope.Thread)
+public class ModelLoadingBenchmark {
+
+    @Param({"g3db", "g3dc"})
+    public String format;
+
+    private ModelLoading loading;
+
+    @Setup
+    public void setup() {
+        loading = new ModelLoading();
+    }
+
+    @Benchmark
+    public int load() {
+        Model model = "g3dc".equals(format) ? loading.loadCompact() : loading.loadG3db();
+        int vertices = model.meshes.get(0).getNumVertices();
+        loading.dispose(model);
+        return vertices;
+    }
+
+    @TearDown
+    public void tearDown() {
+        loading.dispose();
+    }
+}
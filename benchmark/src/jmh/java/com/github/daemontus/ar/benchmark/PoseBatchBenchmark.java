@@ -0,0 +1,87 @@
+package com.github.daemontus.ar.benchmark;
+
+import com.badlogic.gdx.math.Vector3;
+import com.github.daemontus.ar.libgdx.PoseBatch;
+import com.github.daemontus.ar.libgdx.PoseMath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Batched versus per-pose conversion of N simultaneously tracked targets.
+ */
+@State(Scope.Thread)
+public class PoseBatchBenchmark {
+
+    @Param({"1", "2", "4", "8", "16", "32", "64", "128", "256"})
+    public int targets;
+
+    private final Vector3 position = new Vector3();
+    private final Vector3 up = new Vector3();
+    private final Vector3 direction = new Vector3();
+
+    private float[] poses;      // row major 3x4 poses, one after another
+    private float[] packed;     // the same poses in the batch layout
+    private float[] modelViews;
+    private float[] cameraFrames;
+
+    private ForkJoinPool pool;
+    private PoseBatch sequential;
+    private PoseBatch parallel;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        poses = new float[targets * PoseMath.POSE_SIZE];
+        packed = new float[targets * PoseMath.POSE_SIZE];
+        for (int i = 0; i < targets; i++) {
+            System.arraycopy(Poses.randomPose(random), 0, poses, i * PoseMath.POSE_SIZE, PoseMath.POSE_SIZE);
+            PoseBatch.pack(packed, targets, i, poses, i * PoseMath.POSE_SIZE);
+        }
+        modelViews = new float[targets * 16];
+        cameraFrames = new float[targets * PoseBatch.FRAME_SIZE];
+
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(parallelism);
+        sequential = new PoseBatch();
+        parallel = new PoseBatch(pool, 0, parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public float[] perPose() {
+        for (int i = 0; i < targets; i++) {
+            int offset = i * PoseMath.POSE_SIZE;
+            PoseMath.poseToGL(modelViews, i * 16, poses, offset);
+            PoseMath.cameraFrame(poses, offset, position, up, direction);
+            int f = i * PoseBatch.FRAME_SIZE;
+            cameraFrames[f] = position.x; cameraFrames[f + 1] = position.y; cameraFrames[f + 2] = position.z;
+            cameraFrames[f + 3] = up.x; cameraFrames[f + 4] = up.y; cameraFrames[f + 5] = up.z;
+            cameraFrames[f + 6] = direction.x; cameraFrames[f + 7] = direction.y; cameraFrames[f + 8] = direction.z;
+        }
+        return cameraFrames;
+    }
+
+    @Benchmark
+    public float[] batch() {
+        sequential.convert(packed, targets, modelViews, cameraFrames);
+        return cameraFrames;
+    }
+
+    @Benchmark
+    public float[] batchParallel() {
+        parallel.convert(packed, targets, modelViews, cameraFrames);
+        return cameraFrames;
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.daemontus.ar.benchmark;
+
+import com.badlogic.gdx.math.Vector3;
+import com.github.daemontus.ar.libgdx.PoseHistory;
+import com.github.daemontus.ar.libgdx.PoseMath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * One 60 Hz frame of 64 tracked targets: recording their poses and querying their motion.
+ */
+@State(Scope.Thread)
+public class PoseHistoryBenchmark {
+
+    private static final int TARGETS = 64;
+    private static final int FRAMES = 120;
+    private static final double FRAME_TIME = 1.0 / 60;
+    // one second of history at 60 Hz
+    private static final int CAPACITY = 60;
+
+    private final Vector3 velocity = new Vector3();
+    private final Vector3 angularVelocity = new Vector3();
+
+    private float[][] frames;   // poses of all targets in every frame, every other target moves
+    private PoseHistory history;
+    private long frame;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        frames = new float[FRAMES][TARGETS * PoseMath.POSE_SIZE];
+        for (int t = 0; t < TARGETS; t++) {
+            float[] pose = Poses.randomPose(random);
+            for (int f = 0; f < FRAMES; f++) {
+                int offset = t * PoseMath.POSE_SIZE;
+                System.arraycopy(pose, 0, frames[f], offset, PoseMath.POSE_SIZE);
+                if (t % 2 == 1) {
+                    frames[f][offset + 3] += f;
+                    frames[f][offset + 7] -= f;
+                }
+            }
+        }
+        history = new PoseHistory(CAPACITY);
+        // start with full buffers
+        for (int f = 0; f < CAPACITY; f++) {
+            record();
+        }
+    }
+
+    @Benchmark
+    public PoseHistory record() {
+        float[] poses = frames[(int) (frame % FRAMES)];
+        double timestamp = frame * FRAME_TIME;
+        for (int t = 0; t < TARGETS; t++) {
+            history.add(t, timestamp, poses, t * PoseMath.POSE_SIZE);
+        }
+        frame++;
+        return history;
+    }
+
+    @Benchmark
+    public int recordAndQuery() {
+        record();
+        int stationary = 0;
+        for (int t = 0; t < TARGETS; t++) {
+            history.velocity(t, velocity);
+            history.angularVelocity(t, angularVelocity);
+            if (history.isStationary(t, 0.5, 1f, 0.02f)) stationary++;
+        }
+        return stationary;
+    }
+}
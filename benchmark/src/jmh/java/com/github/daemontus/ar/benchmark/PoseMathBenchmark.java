@@ -0,0 +1,168 @@
+package com.github.daemontus.ar.benchmark;
+
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.github.daemontus.ar.libgdx.PoseMath;
+import com.github.daemontus.ar.vuforia.ArrayMath;
+import com.github.daemontus.ar.vuforia.SampleMath;
+import com.vuforia.Matrix44F;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Cost of the matrix operations used to turn a Vuforia pose into the libgdx camera.
+ *
+ * The SampleMath benchmarks run against the JVM stand-ins of the SWIG wrappers,
+ * so they show the Java side cost (allocations and array copies) but not the JNI calls.
+ */
+@State(Scope.Thread)
+public class PoseMathBenchmark {
+
+    private final Vector3 position = new Vector3();
+    private final Vector3 up = new Vector3();
+    private final Vector3 direction = new Vector3();
+
+    private final float[] scratch = new float[16];
+    private final float[] result = new float[16];
+    private final Matrix4 gdxMatrix = new Matrix4();
+
+    private float[] pose34;
+    private float[] raw;
+    private Matrix44F pose;
+
+    @Setup
+    public void setup() {
+        GdxNativesLoader.load();
+        pose34 = Poses.randomPose(new Random(42));
+        raw = Poses.toGL(pose34);
+        pose = new Matrix44F();
+        pose.setData(raw);
+    }
+
+    @Benchmark
+    public float sampleMathDeterminate() {
+        return SampleMath.Matrix44FDeterminate(pose);
+    }
+
+    @Benchmark
+    public Matrix44F sampleMathInverse() {
+        return SampleMath.Matrix44FInverse(pose);
+    }
+
+    @Benchmark
+    public Matrix44F sampleMathTranspose() {
+        return SampleMath.Matrix44FTranspose(pose);
+    }
+
+    @Benchmark
+    public float arrayMathDeterminate() {
+        return ArrayMath.Matrix44FDeterminate(raw, 0);
+    }
+
+    @Benchmark
+    public float[] arrayMathInverse() {
+        ArrayMath.Matrix44FInverse(result, 0, raw, 0);
+        return result;
+    }
+
+    @Benchmark
+    public float[] arrayMathTranspose() {
+        ArrayMath.Matrix44FTranspose(result, 0, raw, 0);
+        return result;
+    }
+
+    @Benchmark
+    public float gdxDeterminate() {
+        return gdxMatrix.set(raw).det();
+    }
+
+    @Benchmark
+    public Matrix4 gdxInverse() {
+        return gdxMatrix.set(raw).inv();
+    }
+
+    @Benchmark
+    public Matrix4 gdxTranspose() {
+        return gdxMatrix.set(raw).tra();
+    }
+
+    /**
+     * The sequence performed by Renderer.setProjectionAndCamera (back camera branch).
+     */
+    @Benchmark
+    public Vector3 rendererCameraSampleMath() {
+        float[] rotated = new float[]{
+                raw[1], -raw[0], raw[2], raw[3],
+                raw[5], -raw[4], raw[6], raw[7],
+                raw[9], -raw[8], raw[10], raw[11],
+                raw[13], -raw[12], raw[14], raw[15]
+        };
+        Matrix44F rot = new Matrix44F();
+        rot.setData(rotated);
+        Matrix44F inverse = SampleMath.Matrix44FInverse(rot);
+        Matrix44F transp = SampleMath.Matrix44FTranspose(inverse);
+
+        float[] data = transp.getData();
+        position.set(data[12], data[13], data[14]);
+        up.set(data[4], data[5], data[6]);
+        direction.set(data[8], data[9], data[10]);
+        return position;
+    }
+
+    /**
+     * The same sequence on reused primitive arrays.
+     */
+    @Benchmark
+    public Vector3 rendererCameraArrayMath() {
+        float[] rotated = scratch;
+        for (int i = 0; i < 16; i += 4) {
+            rotated[i] = raw[i + 1];
+            rotated[i + 1] = -raw[i];
+            rotated[i + 2] = raw[i + 2];
+            rotated[i + 3] = raw[i + 3];
+        }
+        ArrayMath.Matrix44FInverse(result, 0, rotated, 0);
+        ArrayMath.Matrix44FTranspose(result, 0, result, 0);
+
+        position.set(result[12], result[13], result[14]);
+        up.set(result[4], result[5], result[6]);
+        direction.set(result[8], result[9], result[10]);
+        return position;
+    }
+
+    /**
+     * The same sequence using libgdx matrices, whose element order matches the GL pose directly.
+     */
+    @Benchmark
+    public Vector3 rendererCameraGdx() {
+        float[] rotated = scratch;
+        for (int i = 0; i < 16; i += 4) {
+            rotated[i] = raw[i + 1];
+            rotated[i + 1] = -raw[i];
+            rotated[i + 2] = raw[i + 2];
+            rotated[i + 3] = raw[i + 3];
+        }
+        float[] data = gdxMatrix.set(rotated).inv().val;
+
+        position.set(data[12], data[13], data[14]);
+        up.set(data[4], data[5], data[6]);
+        direction.set(data[8], data[9], data[10]);
+        return position;
+    }
+
+    /**
+     * Closed form rigid inverse straight from the 3x4 pose, as used by ArCamera now (which needs
+     * no axis swap, the screen rotation is part of the Vuforia projection).
+     */
+    @Benchmark
+    public Vector3 rendererCameraRigid() {
+        PoseMath.cameraFrame(pose34, 0, position, up, direction);
+        return position;
+    }
+}
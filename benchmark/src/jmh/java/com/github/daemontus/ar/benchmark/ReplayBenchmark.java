@@ -0,0 +1,81 @@
+package com.github.daemontus.ar.benchmark;
+
+import com.github.daemontus.ar.libgdx.FrameResults;
+import com.github.daemontus.ar.libgdx.PoseLogReader;
+import com.github.daemontus.ar.libgdx.PoseLogWriter;
+import com.github.daemontus.ar.libgdx.ReplayTrackingSource;
+import com.github.daemontus.ar.libgdx.SyntheticTrackingSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Recording a frame into a pose log and replaying a recorded session through the whole pipeline.
+ */
+@State(Scope.Thread)
+public class ReplayBenchmark {
+
+    // one minute of a 30 Hz camera
+    private static final int FRAMES = 1800;
+
+    @Param({"1", "4"})
+    public int targets;
+
+    private File log;
+    private File recording;
+    private PoseLogReader reader;
+    private HeadlessEngine engine;
+    private FrameResults results;
+    private SyntheticTrackingSource source;
+    private PoseLogWriter writer;
+
+    @Setup
+    public void setup() throws IOException {
+        log = File.createTempFile("poses", ".log");
+        source = new SyntheticTrackingSource(targets, 42, 30.0, 30.0, 0.5f);
+        PoseLogWriter session = new PoseLogWriter(log);
+        for (int i = 0; i < FRAMES; i++) {
+            session.write(source.onDrawFrame(), source.getProjectionMatrix(), source.getCameraIntrinsics(), source.isReflected());
+        }
+        session.close();
+
+        reader = new PoseLogReader(log);
+        engine = new HeadlessEngine(targets > 1, new ReplayTrackingSource(reader, true));
+        results = source.onDrawFrame();
+        recording = File.createTempFile("poses", ".log");
+        writer = new PoseLogWriter(recording);
+    }
+
+    @Benchmark
+    public long record() throws IOException {
+        // start a new session every minute, so the log doesn't grow without limits
+        if (writer.getFrameCount() == FRAMES) {
+            writer.close();
+            writer = new PoseLogWriter(recording);
+        }
+        writer.write(results, source.getProjectionMatrix(), source.getCameraIntrinsics(), source.isReflected());
+        return writer.getLength();
+    }
+
+    @Benchmark
+    public int replay() {
+        engine.frame();
+        return engine.getGL().getDrawCalls();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        engine.dispose();
+        reader.close();
+        writer.close();
+        log.delete();
+        recording.delete();
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.daemontus.ar.benchmark;
+
+import com.github.daemontus.ar.libgdx.Trace;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of tracing an event in the render loop, with the event disabled and recorded into the ring
+ * buffer (it's logged only once per hour, as a rate limited event is almost always just recorded).
+ */
+@State(Scope.Thread)
+public class TraceBenchmark {
+
+    private static final Trace.Event EVENT = Trace.event("BENCHMARK", Trace.DEBUG, 3600000, "Camera: %.1f %.1f %.1f");
+
+    @Param({"INFO", "DEBUG"})
+    public String level;
+
+    private float x = 1f;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Trace.setLevel("DEBUG".equals(level) ? Trace.DEBUG : Trace.INFO);
+    }
+
+    @Benchmark
+    public void trace() {
+        x += 1f;
+        Trace.trace(EVENT, x, 2f, 3f);
+    }
+}
@@ -0,0 +1,26 @@
+package android.util;
+
+/**
+ * Desktop stand-in for the Android logger, prints to the standard error output.
+ */
+public final class Log {
+
+    private Log() {}
+
+    public static int d(String tag, String msg) {
+        return println("D", tag, msg);
+    }
+
+    public static int i(String tag, String msg) {
+        return println("I", tag, msg);
+    }
+
+    public static int e(String tag, String msg) {
+        return println("E", tag, msg);
+    }
+
+    private static int println(String level, String tag, String msg) {
+        System.err.println(level + "/" + tag + ": " + msg);
+        return 0;
+    }
+}
@@ -0,0 +1,445 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g3d.loader.G3dModelLoader;
+import com.badlogic.gdx.graphics.g3d.model.data.ModelAnimation;
+import com.badlogic.gdx.graphics.g3d.model.data.ModelData;
+import com.badlogic.gdx.graphics.g3d.model.data.ModelMaterial;
+import com.badlogic.gdx.graphics.g3d.model.data.ModelMesh;
+import com.badlogic.gdx.graphics.g3d.model.data.ModelMeshPart;
+import com.badlogic.gdx.graphics.g3d.model.data.ModelNode;
+import com.badlogic.gdx.graphics.g3d.model.data.ModelNodeAnimation;
+import com.badlogic.gdx.graphics.g3d.model.data.ModelNodeKeyframe;
+import com.badlogic.gdx.graphics.g3d.model.data.ModelNodePart;
+import com.badlogic.gdx.graphics.g3d.model.data.ModelTexture;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Quaternion;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.UBJsonReader;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Converts models to the compact format loaded by {@link CompactModelLoader}, offline.
+ *
+ * All numbers are little endian and 4 byte aligned. The file starts with the magic number and the
+ * version, then come the meshes (vertex attributes, quantization ranges, parts with their bounds, the
+ * interleaved vertex buffer and the index buffer of all parts), materials, the node tree (transforms,
+ * parts with their bone transforms) and animations. Strings are stored with their length, -1 for
+ * null, optional values with a flag. What {@link com.badlogic.gdx.graphics.g3d.Model} ignores (mesh
+ * ids of nodes, uv mappings) isn't stored.
+ *
+ * Quantized meshes store positions and texture coordinates as normalized unsigned shorts over the
+ * range of the mesh (positions padded to four shorts), normals as normalized unsigned bytes (n * 2 - 1,
+ * padded to four bytes) and unpacked colors as normalized unsigned bytes. The jet takes 56 instead
+ * of 88 bytes per vertex. A position is off by at most half of its step, range / 131070, a normal
+ * component by 1 / 255 before it's normalized. Bone weights and other attributes stay floats.
+ *
+ * Usage: [--quantize] model.g3db|model.g3dj... - writes model.g3dc next to every model, the assets
+ * of the app are converted by the compactModels task. It isn't part of the app.
+ */
+public class CompactModelWriter {
+
+    private ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+    private final boolean quantize;
+
+    private CompactModelWriter(boolean quantize) {
+        this.quantize = quantize;
+    }
+
+    public static void main(String[] args) {
+        GdxNativesLoader.load();
+        boolean quantize = false;
+        for (String path : args) {
+            if (path.equals("--quantize")) {
+                quantize = true;
+                continue;
+            }
+            FileHandle source = new FileHandle(path);
+            FileHandle target = source.sibling(source.nameWithoutExtension() + CompactModelLoader.SUFFIX);
+            G3dModelLoader loader = new G3dModelLoader(source.extension().equals("g3dj") ? new JsonReader() : new UBJsonReader());
+            byte[] bytes = write(loader.loadModelData(source), source.parent().path(), quantize);
+            target.writeBytes(bytes, false);
+            System.out.println(source.name()+" ("+(source.length() >> 10)+" KB) -> "+target.name()+" ("+(bytes.length >> 10)+" KB)");
+        }
+    }
+
+    /**
+     * @param textureDir directory of the texture file names in the data, they are stored relative to it
+     * @param quantize true to quantize the positions, normals, texture coordinates and colors of the meshes
+     * @return the model in the compact format
+     */
+    public static byte[] write(ModelData data, String textureDir, boolean quantize) {
+        CompactModelWriter writer = new CompactModelWriter(quantize);
+        writer.writeModel(data, textureDir);
+        ByteBuffer buffer = writer.buffer;
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip();
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private void writeModel(ModelData data, String textureDir) {
+        String prefix = textureDir.length() == 0 || textureDir.endsWith("/") ? textureDir : textureDir + "/";
+        putInt(CompactModelLoader.MAGIC);
+        putInt(CompactModelLoader.VERSION);
+        putString(data.id);
+        putInt(data.meshes.size);
+        for (ModelMesh mesh : data.meshes) {
+            writeMesh(mesh);
+        }
+        putInt(data.materials.size);
+        for (ModelMaterial material : data.materials) {
+            writeMaterial(material, prefix);
+        }
+        putInt(data.nodes.size);
+        for (ModelNode node : data.nodes) {
+            writeNode(node);
+        }
+        putInt(data.animations.size);
+        for (ModelAnimation animation : data.animations) {
+            writeAnimation(animation);
+        }
+    }
+
+    private void writeMesh(ModelMesh mesh) {
+        //sets the offsets of the attributes
+        int stride = new VertexAttributes(mesh.attributes).vertexSize / 4;
+        int vertices = mesh.vertices.length / stride;
+        VertexAttribute position = null;
+        for (VertexAttribute attribute : mesh.attributes) {
+            if (attribute.usage == VertexAttributes.Usage.Position) position = attribute;
+        }
+        if (position == null || position.numComponents != 3 || position.type != GL20.GL_FLOAT) {
+            throw new GdxRuntimeException("Mesh "+mesh.id+" doesn't have 3D float positions");
+        }
+
+        putInt(mesh.attributes.length);
+        for (VertexAttribute attribute : mesh.attributes) {
+            VertexAttribute stored = quantize ? quantized(attribute) : attribute;
+            putInt(stored.usage);
+            putInt(stored.numComponents);
+            putInt(stored.type);
+            putInt(stored.normalized ? 1 : 0);
+            putString(stored.alias);
+            putInt(stored.unit);
+        }
+
+        //ranges of the positions and texture coordinates, offset and scale
+        float[] positions = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        float[] texCoords = {Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        putInt(quantize ? 1 : 0);
+        if (quantize) {
+            for (VertexAttribute attribute : mesh.attributes) {
+                if (attribute.usage == VertexAttributes.Usage.Position) {
+                    range(mesh.vertices, stride, attribute.offset / 4, 3, positions);
+                } else if (attribute.usage == VertexAttributes.Usage.TextureCoordinates) {
+                    range(mesh.vertices, stride, attribute.offset / 4, 2, texCoords);
+                }
+            }
+            if (texCoords[0] > texCoords[2]) {
+                texCoords = new float[] {0f, 0f, 1f, 1f};
+            }
+            for (int i = 0; i < 3; i++) {
+                putFloat(positions[i]);
+            }
+            for (int i = 0; i < 3; i++) {
+                positions[3 + i] -= positions[i];
+                putFloat(positions[3 + i]);
+            }
+            texCoords[2] -= texCoords[0];
+            texCoords[3] -= texCoords[1];
+            for (int i = 0; i < 4; i++) {
+                putFloat(texCoords[i]);
+            }
+        }
+
+        int indices = 0;
+        BoundingBox bounds = new BoundingBox();
+        Vector3 center = new Vector3();
+        Vector3 halfExtents = new Vector3();
+        putInt(mesh.parts.length);
+        for (ModelMeshPart part : mesh.parts) {
+            putString(part.id);
+            putInt(part.primitiveType);
+            putInt(part.indices.length);
+            indices += part.indices.length;
+            //the same bounds as MeshPart.update() computes from the original vertices
+            bounds.inf();
+            for (short index : part.indices) {
+                int i = (index & 0xFFFF) * stride + position.offset / 4;
+                bounds.ext(mesh.vertices[i], mesh.vertices[i + 1], mesh.vertices[i + 2]);
+            }
+            bounds.getCenter(center);
+            bounds.getDimensions(halfExtents).scl(0.5f);
+            putFloat(center.x);
+            putFloat(center.y);
+            putFloat(center.z);
+            putFloat(halfExtents.x);
+            putFloat(halfExtents.y);
+            putFloat(halfExtents.z);
+        }
+
+        int vertexBytes = quantize ? vertices * quantizedSize(mesh.attributes) : mesh.vertices.length * 4;
+        putInt(vertexBytes);
+        putInt(indices * 2);
+        ensure(CompactModelLoader.align(vertexBytes));
+        if (quantize) {
+            for (int v = 0; v < vertices; v++) {
+                for (VertexAttribute attribute : mesh.attributes) {
+                    putQuantized(mesh.vertices, v * stride + attribute.offset / 4, attribute, positions, texCoords);
+                }
+            }
+        } else {
+            buffer.asFloatBuffer().put(mesh.vertices);
+            buffer.position(buffer.position() + vertexBytes);
+        }
+        pad();
+        ensure(CompactModelLoader.align(indices * 2));
+        for (ModelMeshPart part : mesh.parts) {
+            buffer.asShortBuffer().put(part.indices);
+            buffer.position(buffer.position() + part.indices.length * 2);
+        }
+        pad();
+    }
+
+    /**
+     * Extends the range (minimums, then maximums) by the components of an attribute of all vertices.
+     */
+    private static void range(float[] vertices, int stride, int offset, int components, float[] range) {
+        for (int i = offset; i < vertices.length; i += stride) {
+            for (int c = 0; c < components; c++) {
+                range[c] = Math.min(range[c], vertices[i + c]);
+                range[components + c] = Math.max(range[components + c], vertices[i + c]);
+            }
+        }
+    }
+
+    private static VertexAttribute quantized(VertexAttribute attribute) {
+        switch (attribute.usage) {
+            case VertexAttributes.Usage.Position:
+                return new VertexAttribute(attribute.usage, 4, GL20.GL_UNSIGNED_SHORT, true, attribute.alias, attribute.unit);
+            case VertexAttributes.Usage.TextureCoordinates:
+                if (attribute.numComponents != 2) break;
+                return new VertexAttribute(attribute.usage, 2, GL20.GL_UNSIGNED_SHORT, true, attribute.alias, attribute.unit);
+            case VertexAttributes.Usage.Normal:
+                if (attribute.numComponents != 3) break;
+                return new VertexAttribute(attribute.usage, 4, GL20.GL_UNSIGNED_BYTE, true, attribute.alias, attribute.unit);
+            case VertexAttributes.Usage.ColorUnpacked:
+                if (attribute.numComponents != 4) break;
+                return new VertexAttribute(attribute.usage, 4, GL20.GL_UNSIGNED_BYTE, true, attribute.alias, attribute.unit);
+        }
+        return attribute;
+    }
+
+    private static int quantizedSize(VertexAttribute[] attributes) {
+        int size = 0;
+        for (VertexAttribute attribute : attributes) {
+            size += quantized(attribute).getSizeInBytes();
+        }
+        return size;
+    }
+
+    private void putQuantized(float[] vertices, int i, VertexAttribute attribute, float[] positions, float[] texCoords) {
+        VertexAttribute stored = quantized(attribute);
+        if (stored == attribute) {
+            for (int c = 0; c < attribute.numComponents; c++) {
+                buffer.putFloat(vertices[i + c]);
+            }
+        } else if (attribute.usage == VertexAttributes.Usage.Position) {
+            for (int c = 0; c < 3; c++) {
+                buffer.putShort((short) quantize(vertices[i + c], positions[c], positions[3 + c], 65535));
+            }
+            buffer.putShort((short) 0);
+        } else if (attribute.usage == VertexAttributes.Usage.TextureCoordinates) {
+            for (int c = 0; c < 2; c++) {
+                buffer.putShort((short) quantize(vertices[i + c], texCoords[c], texCoords[2 + c], 65535));
+            }
+        } else if (attribute.usage == VertexAttributes.Usage.Normal) {
+            for (int c = 0; c < 3; c++) {
+                buffer.put((byte) quantize(vertices[i + c], -1f, 2f, 255));
+            }
+            buffer.put((byte) 0);
+        } else {
+            for (int c = 0; c < 4; c++) {
+                buffer.put((byte) quantize(vertices[i + c], 0f, 1f, 255));
+            }
+        }
+    }
+
+    /**
+     * @return the nearest of the steps from offset to offset + scale, clamped to the range
+     */
+    static int quantize(float value, float offset, float scale, int steps) {
+        if (scale == 0f) return 0;
+        long step = Math.round((value - offset) / (double) scale * steps);
+        return (int) Math.max(0, Math.min(steps, step));
+    }
+
+    private void writeMaterial(ModelMaterial material, String textureDir) {
+        putString(material.id);
+        putColor(material.ambient);
+        putColor(material.diffuse);
+        putColor(material.specular);
+        putColor(material.emissive);
+        putColor(material.reflection);
+        putFloat(material.shininess);
+        putFloat(material.opacity);
+        Array<ModelTexture> textures = material.textures;
+        putInt(textures == null ? 0 : textures.size);
+        if (textures == null) return;
+        for (ModelTexture texture : textures) {
+            if (!texture.fileName.startsWith(textureDir)) {
+                throw new GdxRuntimeException("Texture "+texture.fileName+" isn't in "+textureDir);
+            }
+            putString(texture.id);
+            putString(texture.fileName.substring(textureDir.length()));
+            putInt(texture.usage);
+            putVector(texture.uvTranslation);
+            putVector(texture.uvScaling);
+        }
+    }
+
+    private void writeNode(ModelNode node) {
+        putString(node.id);
+        putVector(node.translation);
+        putQuaternion(node.rotation);
+        putVector(node.scale);
+        putInt(node.parts == null ? 0 : node.parts.length);
+        if (node.parts != null) {
+            for (ModelNodePart part : node.parts) {
+                putString(part.meshPartId);
+                putString(part.materialId);
+                putInt(part.bones == null ? 0 : part.bones.size);
+                if (part.bones == null) continue;
+                for (ObjectMap.Entry<String, Matrix4> bone : part.bones) {
+                    putString(bone.key);
+                    for (float value : bone.value.val) {
+                        putFloat(value);
+                    }
+                }
+            }
+        }
+        putInt(node.children == null ? 0 : node.children.length);
+        if (node.children != null) {
+            for (ModelNode child : node.children) {
+                writeNode(child);
+            }
+        }
+    }
+
+    private void writeAnimation(ModelAnimation animation) {
+        putString(animation.id);
+        putInt(animation.nodeAnimations.size);
+        for (ModelNodeAnimation node : animation.nodeAnimations) {
+            putString(node.nodeId);
+            writeVectorKeyframes(node.translation);
+            putInt(node.rotation == null ? -1 : node.rotation.size);
+            if (node.rotation != null) {
+                for (ModelNodeKeyframe<Quaternion> keyframe : node.rotation) {
+                    putFloat(keyframe.keytime);
+                    putQuaternion(keyframe.value);
+                }
+            }
+            writeVectorKeyframes(node.scaling);
+        }
+    }
+
+    private void writeVectorKeyframes(Array<ModelNodeKeyframe<Vector3>> keyframes) {
+        putInt(keyframes == null ? -1 : keyframes.size);
+        if (keyframes == null) return;
+        for (ModelNodeKeyframe<Vector3> keyframe : keyframes) {
+            putFloat(keyframe.keytime);
+            putVector(keyframe.value);
+        }
+    }
+
+    private void putColor(Color color) {
+        putInt(color == null ? 0 : 1);
+        if (color == null) return;
+        putFloat(color.r);
+        putFloat(color.g);
+        putFloat(color.b);
+        putFloat(color.a);
+    }
+
+    private void putVector(Vector2 vector) {
+        putInt(vector == null ? 0 : 1);
+        if (vector == null) return;
+        putFloat(vector.x);
+        putFloat(vector.y);
+    }
+
+    private void putVector(Vector3 vector) {
+        putInt(vector == null ? 0 : 1);
+        if (vector == null) return;
+        putFloat(vector.x);
+        putFloat(vector.y);
+        putFloat(vector.z);
+    }
+
+    private void putQuaternion(Quaternion quaternion) {
+        putInt(quaternion == null ? 0 : 1);
+        if (quaternion == null) return;
+        putFloat(quaternion.x);
+        putFloat(quaternion.y);
+        putFloat(quaternion.z);
+        putFloat(quaternion.w);
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            putInt(-1);
+            return;
+        }
+        byte[] bytes;
+        try {
+            bytes = value.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new GdxRuntimeException(e);
+        }
+        putInt(bytes.length);
+        ensure(CompactModelLoader.align(bytes.length));
+        buffer.put(bytes);
+        pad();
+    }
+
+    private void putInt(int value) {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    private void putFloat(float value) {
+        ensure(4);
+        buffer.putFloat(value);
+    }
+
+    private void pad() {
+        while ((buffer.position() & 3) != 0) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() >= bytes) return;
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.flip();
+        larger.put(buffer);
+        buffer = larger;
+    }
+}
@@ -0,0 +1,23 @@
+package com.vuforia;
+
+/**
+ * Desktop stand-in for the Vuforia SWIG wrapper, see {@link SwigData}.
+ */
+public class CameraCalibration {
+
+    private final Vec2F size = new Vec2F();
+    private final Vec2F focalLength = new Vec2F();
+    private final Vec2F principalPoint = new Vec2F();
+
+    public Vec2F getSize() {
+        return size;
+    }
+
+    public Vec2F getFocalLength() {
+        return focalLength;
+    }
+
+    public Vec2F getPrincipalPoint() {
+        return principalPoint;
+    }
+}
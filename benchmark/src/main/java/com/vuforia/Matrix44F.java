@@ -0,0 +1,11 @@
+package com.vuforia;
+
+/**
+ * Desktop stand-in for the Vuforia SWIG wrapper, see {@link SwigData}.
+ */
+public class Matrix44F extends SwigData {
+
+    public Matrix44F() {
+        super(16);
+    }
+}
@@ -0,0 +1,23 @@
+package com.vuforia;
+
+/**
+ * Desktop stand-in for the Vuforia renderer singleton, only holds the video background configuration.
+ */
+public class Renderer {
+
+    private static final Renderer INSTANCE = new Renderer();
+
+    private VideoBackgroundConfig config = new VideoBackgroundConfig();
+
+    public static Renderer getInstance() {
+        return INSTANCE;
+    }
+
+    public VideoBackgroundConfig getVideoBackgroundConfig() {
+        return config;
+    }
+
+    public void setVideoBackgroundConfig(VideoBackgroundConfig config) {
+        this.config = config;
+    }
+}
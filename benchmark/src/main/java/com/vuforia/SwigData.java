@@ -0,0 +1,31 @@
+package com.vuforia;
+
+/**
+ * Common base of the desktop stand-ins for Vuforia's SWIG wrappers.
+ *
+ * The real wrappers own native memory, copy the whole array across JNI on every
+ * getData() call and release the native memory in a finalizer. The stand-ins keep
+ * the copy and the finalizer so that allocation counts and GC pressure stay
+ * representative, but naturally can't model the JNI transition itself.
+ */
+abstract class SwigData {
+
+    final float[] data;
+
+    SwigData(int size) {
+        data = new float[size];
+    }
+
+    public float[] getData() {
+        return data.clone();
+    }
+
+    public void setData(float[] data) {
+        System.arraycopy(data, 0, this.data, 0, this.data.length);
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        super.finalize();
+    }
+}
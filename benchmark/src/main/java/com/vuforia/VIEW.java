@@ -0,0 +1,15 @@
+package com.vuforia;
+
+/**
+ * Desktop stand-in for the Vuforia view identifiers.
+ */
+public final class VIEW {
+
+    public static final int VIEW_SINGULAR = 0;
+    public static final int VIEW_LEFTEYE = 1;
+    public static final int VIEW_RIGHTEYE = 2;
+    public static final int VIEW_POSTPROCESS = 3;
+    public static final int VIEW_COUNT = 4;
+
+    private VIEW() {}
+}
@@ -0,0 +1,17 @@
+package com.vuforia;
+
+/**
+ * Desktop stand-in for the Vuforia SWIG wrapper, see {@link SwigData}.
+ */
+public class Vec2F extends SwigData {
+
+    public Vec2F() {
+        super(2);
+    }
+
+    public Vec2F(float v0, float v1) {
+        super(2);
+        data[0] = v0;
+        data[1] = v1;
+    }
+}
@@ -0,0 +1,21 @@
+package com.vuforia;
+
+/**
+ * Desktop stand-in for the Vuforia SWIG wrapper.
+ */
+public class Vec2I {
+
+    private final int[] data = new int[2];
+
+    public Vec2I() {
+    }
+
+    public Vec2I(int v0, int v1) {
+        data[0] = v0;
+        data[1] = v1;
+    }
+
+    public int[] getData() {
+        return data.clone();
+    }
+}
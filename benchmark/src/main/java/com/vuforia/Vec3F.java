@@ -0,0 +1,18 @@
+package com.vuforia;
+
+/**
+ * Desktop stand-in for the Vuforia SWIG wrapper, see {@link SwigData}.
+ */
+public class Vec3F extends SwigData {
+
+    public Vec3F() {
+        super(3);
+    }
+
+    public Vec3F(float v0, float v1, float v2) {
+        super(3);
+        data[0] = v0;
+        data[1] = v1;
+        data[2] = v2;
+    }
+}
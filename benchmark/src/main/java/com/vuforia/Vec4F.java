@@ -0,0 +1,19 @@
+package com.vuforia;
+
+/**
+ * Desktop stand-in for the Vuforia SWIG wrapper, see {@link SwigData}.
+ */
+public class Vec4F extends SwigData {
+
+    public Vec4F() {
+        super(4);
+    }
+
+    public Vec4F(float v0, float v1, float v2, float v3) {
+        super(4);
+        data[0] = v0;
+        data[1] = v1;
+        data[2] = v2;
+        data[3] = v3;
+    }
+}
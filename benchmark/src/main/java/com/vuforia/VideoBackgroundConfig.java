@@ -0,0 +1,17 @@
+package com.vuforia;
+
+/**
+ * Desktop stand-in for the Vuforia SWIG wrapper.
+ */
+public class VideoBackgroundConfig {
+
+    private Vec2I size = new Vec2I();
+
+    public Vec2I getSize() {
+        return size;
+    }
+
+    public void setSize(Vec2I size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,87 @@
+package com.github.daemontus.ar.benchmark;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Counts the GL calls per GL function, in front of another GL20 (e.g. a {@link RecordingGL20}).
+ *
+ * Calls go through a reflective proxy, so this is meant for tests which explain a frame, not
+ * for measuring its time.
+ */
+public final class GLCallBreakdown implements InvocationHandler {
+
+    private final GL20 gl;
+    private final GL20 proxy;
+    private final ObjectIntMap<String> calls = new ObjectIntMap<String>();
+
+    public GLCallBreakdown(GL20 gl) {
+        this.gl = gl;
+        proxy = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[]{GL20.class}, this);
+    }
+
+    /**
+     * @return GL20 which counts the calls and passes them to the wrapped GL
+     */
+    public GL20 getGL() {
+        return proxy;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) return method.invoke(this, args);
+        calls.getAndIncrement(method.getName(), 0, 1);
+        try {
+            return method.invoke(gl, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @return number of calls of the GL function since the last {@link #reset()}
+     */
+    public int get(String function) {
+        return calls.get(function, 0);
+    }
+
+    /**
+     * @return number of calls of all GL functions since the last {@link #reset()}
+     */
+    public int getTotal() {
+        int total = 0;
+        for (ObjectIntMap.Entry<String> entry : calls) {
+            total += entry.value;
+        }
+        return total;
+    }
+
+    public void reset() {
+        calls.clear();
+    }
+
+    /**
+     * @return the called functions with their counts, most called first
+     */
+    @Override
+    public String toString() {
+        List<String> lines = new ArrayList<String>();
+        for (ObjectIntMap.Entry<String> entry : calls) {
+            lines.add(String.format("%5d %s", entry.value, entry.key));
+        }
+        Collections.sort(lines, Collections.reverseOrder());
+        StringBuilder result = new StringBuilder();
+        for (String line : lines) {
+            result.append(line).append('\n');
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.daemontus.ar.benchmark;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.github.daemontus.ar.libgdx.Display;
+import com.github.daemontus.ar.libgdx.Engine;
+import com.github.daemontus.ar.libgdx.FrameTimings;
+import com.github.daemontus.ar.libgdx.OneEuroPoseFilter;
+import com.github.daemontus.ar.libgdx.PosePredictor;
+import com.github.daemontus.ar.libgdx.SyntheticTrackingSource;
+import com.github.daemontus.ar.libgdx.TrackingSource;
+
+import java.util.Locale;
+
+/**
+ * Runs {@link Engine} on the libgdx headless backend with a {@link RecordingGL20}, so the CPU side
+ * of the rendering can be measured and its GL usage checked on a plain JVM.
+ *
+ * The headless application only provides files, graphics and the other backend modules, frames
+ * are rendered by {@link #frame()} on the calling thread. Assets are read from the classpath.
+ * Poses go through the same filter and predictor as in the app. A {@link GLCallBreakdown} can
+ * be put in front of the recording GL to see which functions a frame calls.
+ */
+public class HeadlessEngine {
+
+    private final RecordingGL20 gl = new RecordingGL20();
+    private final GLCallBreakdown breakdown;
+    private final Engine engine;
+
+    public HeadlessEngine(boolean multiTarget, TrackingSource source) {
+        this(multiTarget, source, new FrameTimings());
+    }
+
+    /**
+     * @param timings timings of the frames, e.g. on the clock of a {@link SyntheticTrackingSource}
+     */
+    public HeadlessEngine(boolean multiTarget, TrackingSource source, FrameTimings timings) {
+        this(multiTarget, source, timings, false);
+    }
+
+    /**
+     * @param breakdown count the calls of every GL function, see {@link #getBreakdown()}
+     */
+    public HeadlessEngine(boolean multiTarget, TrackingSource source, FrameTimings timings, boolean breakdown) {
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        // the main loop of the backend must not render, frames are driven by the caller
+        config.renderInterval = -1;
+        new HeadlessApplication(new ApplicationAdapter() {}, config);
+        this.breakdown = breakdown ? new GLCallBreakdown(gl) : null;
+        Gdx.gl = Gdx.gl20 = breakdown ? this.breakdown.getGL() : gl;
+
+        engine = new Engine(multiTarget, timings);
+        engine.setPoseFilter(new OneEuroPoseFilter());
+        engine.setPosePredictor(new PosePredictor());
+        engine.create();
+        engine.setTrackingSource(source);
+        engine.resize(1080, 1920);
+        // the model is streamed, measurements start once it's rendered
+        while (!engine.getDisplay().isLoaded()) {
+            engine.render();
+        }
+        gl.reset();
+        if (this.breakdown != null) this.breakdown.reset();
+    }
+
+    /**
+     * Renders one frame, {@link #getGL()} (and the breakdown) then holds the counts of this frame only.
+     */
+    public void frame() {
+        gl.reset();
+        if (breakdown != null) breakdown.reset();
+        engine.render();
+    }
+
+    public RecordingGL20 getGL() {
+        return gl;
+    }
+
+    /**
+     * @return calls of every GL function in the last frame, null unless it was requested
+     */
+    public GLCallBreakdown getBreakdown() {
+        return breakdown;
+    }
+
+    public Display getDisplay() {
+        return engine.getDisplay();
+    }
+
+    public FrameTimings getFrameTimings() {
+        return engine.getFrameTimings();
+    }
+
+    public void dispose() {
+        engine.dispose();
+    }
+
+    /**
+     * Renders steady state frames and prints their timings, GL usage and the calls of the last
+     * frame by GL function (the budget is checked by FrameBudgetTest).
+     *
+     * Usage: [targets]
+     */
+    public static void main(String[] args) {
+        int targets = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+
+        HeadlessEngine harness = new HeadlessEngine(targets > 1, new SyntheticTrackingSource(targets, 42),
+                new FrameTimings(), true);
+        Display display = harness.getDisplay();
+        System.out.println(String.format(Locale.US, "First frame after %.1f ms, model loaded after %.1f ms in %d frames",
+                display.getTimeToFirstFrame() / 1e6, display.getLoadTime() / 1e6, display.getLoadingFrames()));
+        // the first frames create shaders and upload meshes
+        for (int i = 0; i < 10; i++) {
+            harness.frame();
+        }
+        harness.getFrameTimings().reset();
+        for (int i = 0; i < 100; i++) {
+            harness.frame();
+        }
+        System.out.println(harness.getFrameTimings());
+        RecordingGL20 gl = harness.getGL();
+        System.out.println("Targets: "+targets+", GL calls: "+gl.getCalls()+", state changes: "+gl.getStateChanges()
+                +", buffer uploads: "+gl.getBufferUploads()+" ("+gl.getUploadedBytes()+" B), draw calls: "+gl.getDrawCalls());
+        System.out.print(harness.getBreakdown());
+        harness.dispose();
+        System.exit(0);
+    }
+}
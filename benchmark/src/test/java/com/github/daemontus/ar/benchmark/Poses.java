@@ -0,0 +1,44 @@
+package com.github.daemontus.ar.benchmark;
+
+import java.util.Random;
+
+/**
+ * Generators of synthetic, but realistic, tracking poses, shared by the tests and benchmarks.
+ */
+public final class Poses {
+
+    private Poses() {}
+
+    /**
+     * The pose in the layout produced by Tool.convertPose2GLMatrix (column major 4x4).
+     */
+    public static float[] toGL(float[] pose) {
+        float[] gl = new float[16];
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 4; col++) {
+                gl[col * 4 + row] = pose[row * 4 + col];
+            }
+        }
+        gl[15] = 1f;
+        return gl;
+    }
+
+    /**
+     * Random rigid transform in the row major 3x4 layout of Matrix34F
+     * (target roughly half a meter in front of the camera).
+     */
+    public static float[] randomPose(Random random) {
+        // rotation from a random unit quaternion
+        double x = random.nextGaussian(), y = random.nextGaussian(), z = random.nextGaussian(), w = random.nextGaussian();
+        double n = Math.sqrt(x * x + y * y + z * z + w * w);
+        x /= n; y /= n; z /= n; w /= n;
+        return new float[]{
+                (float) (1 - 2 * (y * y + z * z)), (float) (2 * (x * y - z * w)), (float) (2 * (x * z + y * w)),
+                (float) ((random.nextDouble() - 0.5) * 200),
+                (float) (2 * (x * y + z * w)), (float) (1 - 2 * (x * x + z * z)), (float) (2 * (y * z - x * w)),
+                (float) ((random.nextDouble() - 0.5) * 200),
+                (float) (2 * (x * z - y * w)), (float) (2 * (y * z + x * w)), (float) (1 - 2 * (x * x + y * y)),
+                (float) (300 + random.nextDouble() * 400)
+        };
+    }
+}
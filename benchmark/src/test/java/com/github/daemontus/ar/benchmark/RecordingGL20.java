@@ -0,0 +1,1098 @@
+package com.github.daemontus.ar.benchmark;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.IntSet;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * GL20 which doesn't render anything, it only counts what the rendering code asks for.
+ *
+ * Calls are counted in total and split into state changes (capabilities, blending, depth, bindings,
+ * programs, viewport...), buffer uploads (buffer and texture data) and draw calls. Objects get
+ * increasing names, shaders always compile and every attribute and uniform declared in the shader
+ * sources is reported as active, so libgdx shaders, meshes and textures can be created and used
+ * on a JVM without a GL context.
+ */
+public class RecordingGL20 implements GL20 {
+
+    private static final Pattern DECLARATION = Pattern.compile(
+            "\\b(attribute|uniform)\\s+(?:(?:lowp|mediump|highp)\\s+)?(\\w+)\\s+(\\w+)\\s*(?:\\[\\s*(\\w+)\\s*\\])?\\s*;");
+
+    private int calls = 0;
+    private int stateChanges = 0;
+    private int bufferUploads = 0;
+    private long uploadedBytes = 0;
+    private int drawCalls = 0;
+
+    private int nextName = 1;
+    private final IntSet enabled = new IntSet();
+    private final IntMap<String> shaderSources = new IntMap<String>();
+    private final IntMap<Program> programs = new IntMap<Program>();
+
+    /**
+     * @return number of GL calls since the last {@link #reset()}
+     */
+    public int getCalls() {
+        return calls;
+    }
+
+    /**
+     * @return number of calls which change the GL state since the last {@link #reset()}
+     */
+    public int getStateChanges() {
+        return stateChanges;
+    }
+
+    /**
+     * @return number of buffer and texture uploads since the last {@link #reset()}
+     */
+    public int getBufferUploads() {
+        return bufferUploads;
+    }
+
+    /**
+     * @return bytes uploaded by the buffer and texture uploads since the last {@link #reset()}
+     */
+    public long getUploadedBytes() {
+        return uploadedBytes;
+    }
+
+    /**
+     * @return number of draw calls since the last {@link #reset()}
+     */
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * Resets the counters, GL objects and state are kept.
+     */
+    public void reset() {
+        calls = 0;
+        stateChanges = 0;
+        bufferUploads = 0;
+        uploadedBytes = 0;
+        drawCalls = 0;
+    }
+
+    private void upload(long bytes) {
+        bufferUploads++;
+        uploadedBytes += bytes;
+    }
+
+    private void generate(int n, IntBuffer names) {
+        for (int i = 0; i < n; i++) {
+            names.put(names.position() + i, nextName++);
+        }
+    }
+
+    private static long bytes(Buffer data) {
+        if (data == null) return 0;
+        if (data instanceof ByteBuffer) return data.remaining();
+        if (data instanceof ShortBuffer) return 2L * data.remaining();
+        return 4L * data.remaining();
+    }
+
+    private static int type(String glslType) {
+        if ("vec2".equals(glslType)) return GL_FLOAT_VEC2;
+        if ("vec3".equals(glslType)) return GL_FLOAT_VEC3;
+        if ("vec4".equals(glslType)) return GL_FLOAT_VEC4;
+        if ("mat3".equals(glslType)) return GL_FLOAT_MAT3;
+        if ("mat4".equals(glslType)) return GL_FLOAT_MAT4;
+        if ("int".equals(glslType)) return GL_INT;
+        if ("sampler2D".equals(glslType)) return GL_SAMPLER_2D;
+        if ("samplerCube".equals(glslType)) return GL_SAMPLER_CUBE;
+        return GL_FLOAT;
+    }
+
+    private static class Program {
+        final IntArray shaders = new IntArray();
+        final Array<String> attributes = new Array<String>();
+        final IntArray attributeTypes = new IntArray();
+        final Array<String> uniforms = new Array<String>();
+        final IntArray uniformTypes = new IntArray();
+        final IntArray uniformSizes = new IntArray();
+        // every name the program was asked for, including array elements and struct members
+        final ObjectIntMap<String> locations = new ObjectIntMap<String>();
+        int nextLocation = 0;
+
+        void declare(String source) {
+            Matcher matcher = DECLARATION.matcher(source);
+            while (matcher.find()) {
+                String name = matcher.group(3);
+                if ("attribute".equals(matcher.group(1))) {
+                    if (attributes.contains(name, false)) continue;
+                    attributes.add(name);
+                    attributeTypes.add(type(matcher.group(2)));
+                } else {
+                    String length = matcher.group(4);
+                    if (length != null) name += "[0]";
+                    if (uniforms.contains(name, false)) continue;
+                    uniforms.add(name);
+                    uniformTypes.add(type(matcher.group(2)));
+                    // array lengths given by a preprocessor constant are not resolved
+                    uniformSizes.add(length != null && length.matches("\\d+") ? Integer.parseInt(length) : 1);
+                    locations.put(name, nextLocation++);
+                }
+            }
+        }
+
+        int uniformLocation(String name) {
+            int location = locations.get(name, -1);
+            if (location >= 0) return location;
+            // elements of declared arrays and members of declared structs
+            int end = 0;
+            while (end < name.length() && Character.isJavaIdentifierPart(name.charAt(end))) end++;
+            String base = name.substring(0, end);
+            if (!uniforms.contains(base, false) && !uniforms.contains(base + "[0]", false)) return -1;
+            location = nextLocation++;
+            locations.put(name, location);
+            return location;
+        }
+    }
+
+    @Override
+    public void glActiveTexture(int texture) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glBindTexture(int target, int texture) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glBlendFunc(int sfactor, int dfactor) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glClear(int mask) {
+        calls++;
+    }
+
+    @Override
+    public void glClearColor(float red, float green, float blue, float alpha) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glClearDepthf(float depth) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glClearStencil(int s) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glCompressedTexImage2D(int target, int level, int internalformat, int width, int height, int border, int imageSize, Buffer data) {
+        calls++;
+        upload(imageSize);
+    }
+
+    @Override
+    public void glCompressedTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int imageSize, Buffer data) {
+        calls++;
+        upload(imageSize);
+    }
+
+    @Override
+    public void glCopyTexImage2D(int target, int level, int internalformat, int x, int y, int width, int height, int border) {
+        calls++;
+    }
+
+    @Override
+    public void glCopyTexSubImage2D(int target, int level, int xoffset, int yoffset, int x, int y, int width, int height) {
+        calls++;
+    }
+
+    @Override
+    public void glCullFace(int mode) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glDeleteTextures(int n, IntBuffer textures) {
+        calls++;
+    }
+
+    @Override
+    public void glDeleteTexture(int texture) {
+        calls++;
+    }
+
+    @Override
+    public void glDepthFunc(int func) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glDepthMask(boolean flag) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glDepthRangef(float zNear, float zFar) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glDisable(int cap) {
+        calls++;
+        stateChanges++;
+        enabled.remove(cap);
+    }
+
+    @Override
+    public void glDrawArrays(int mode, int first, int count) {
+        calls++;
+        drawCalls++;
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, Buffer indices) {
+        calls++;
+        drawCalls++;
+    }
+
+    @Override
+    public void glEnable(int cap) {
+        calls++;
+        stateChanges++;
+        enabled.add(cap);
+    }
+
+    @Override
+    public void glFinish() {
+        calls++;
+    }
+
+    @Override
+    public void glFlush() {
+        calls++;
+    }
+
+    @Override
+    public void glFrontFace(int mode) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glGenTextures(int n, IntBuffer textures) {
+        calls++;
+        generate(n, textures);
+    }
+
+    @Override
+    public int glGenTexture() {
+        calls++;
+        return nextName++;
+    }
+
+    @Override
+    public int glGetError() {
+        calls++;
+        return GL_NO_ERROR;
+    }
+
+    @Override
+    public void glGetIntegerv(int pname, IntBuffer params) {
+        calls++;
+        switch (pname) {
+            case GL_MAX_TEXTURE_IMAGE_UNITS:
+            case GL_MAX_COMBINED_TEXTURE_IMAGE_UNITS:
+            case GL_MAX_VERTEX_ATTRIBS:
+                params.put(0, 16);
+                break;
+            case GL_MAX_TEXTURE_SIZE:
+                params.put(0, 4096);
+                break;
+            default:
+                params.put(0, 0);
+        }
+    }
+
+    @Override
+    public String glGetString(int name) {
+        calls++;
+        return name == GL_VERSION ? "OpenGL ES 2.0" : "";
+    }
+
+    @Override
+    public void glHint(int target, int mode) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glLineWidth(float width) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glPixelStorei(int pname, int param) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glPolygonOffset(float factor, float units) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glReadPixels(int x, int y, int width, int height, int format, int type, Buffer pixels) {
+        calls++;
+    }
+
+    @Override
+    public void glScissor(int x, int y, int width, int height) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glStencilFunc(int func, int ref, int mask) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glStencilMask(int mask) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glStencilOp(int fail, int zfail, int zpass) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, Buffer pixels) {
+        calls++;
+        upload(bytes(pixels));
+    }
+
+    @Override
+    public void glTexParameterf(int target, int pname, float param) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels) {
+        calls++;
+        upload(bytes(pixels));
+    }
+
+    @Override
+    public void glViewport(int x, int y, int width, int height) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glAttachShader(int program, int shader) {
+        calls++;
+        Program p = programs.get(program);
+        if (p != null) p.shaders.add(shader);
+    }
+
+    @Override
+    public void glBindAttribLocation(int program, int index, String name) {
+        calls++;
+    }
+
+    @Override
+    public void glBindBuffer(int target, int buffer) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glBindFramebuffer(int target, int framebuffer) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glBindRenderbuffer(int target, int renderbuffer) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glBlendColor(float red, float green, float blue, float alpha) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glBlendEquation(int mode) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glBlendEquationSeparate(int modeRGB, int modeAlpha) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glBlendFuncSeparate(int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glBufferData(int target, int size, Buffer data, int usage) {
+        calls++;
+        upload(size);
+    }
+
+    @Override
+    public void glBufferSubData(int target, int offset, int size, Buffer data) {
+        calls++;
+        upload(size);
+    }
+
+    @Override
+    public int glCheckFramebufferStatus(int target) {
+        calls++;
+        return GL_FRAMEBUFFER_COMPLETE;
+    }
+
+    @Override
+    public void glCompileShader(int shader) {
+        calls++;
+    }
+
+    @Override
+    public int glCreateProgram() {
+        calls++;
+        int program = nextName++;
+        programs.put(program, new Program());
+        return program;
+    }
+
+    @Override
+    public int glCreateShader(int type) {
+        calls++;
+        return nextName++;
+    }
+
+    @Override
+    public void glDeleteBuffer(int buffer) {
+        calls++;
+    }
+
+    @Override
+    public void glDeleteBuffers(int n, IntBuffer buffers) {
+        calls++;
+    }
+
+    @Override
+    public void glDeleteFramebuffer(int framebuffer) {
+        calls++;
+    }
+
+    @Override
+    public void glDeleteFramebuffers(int n, IntBuffer framebuffers) {
+        calls++;
+    }
+
+    @Override
+    public void glDeleteProgram(int program) {
+        calls++;
+        programs.remove(program);
+    }
+
+    @Override
+    public void glDeleteRenderbuffer(int renderbuffer) {
+        calls++;
+    }
+
+    @Override
+    public void glDeleteRenderbuffers(int n, IntBuffer renderbuffers) {
+        calls++;
+    }
+
+    @Override
+    public void glDeleteShader(int shader) {
+        calls++;
+        shaderSources.remove(shader);
+    }
+
+    @Override
+    public void glDetachShader(int program, int shader) {
+        calls++;
+    }
+
+    @Override
+    public void glDisableVertexAttribArray(int index) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, int indices) {
+        calls++;
+        drawCalls++;
+    }
+
+    @Override
+    public void glEnableVertexAttribArray(int index) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glFramebufferRenderbuffer(int target, int attachment, int renderbuffertarget, int renderbuffer) {
+        calls++;
+    }
+
+    @Override
+    public void glFramebufferTexture2D(int target, int attachment, int textarget, int texture, int level) {
+        calls++;
+    }
+
+    @Override
+    public int glGenBuffer() {
+        calls++;
+        return nextName++;
+    }
+
+    @Override
+    public void glGenBuffers(int n, IntBuffer buffers) {
+        calls++;
+        generate(n, buffers);
+    }
+
+    @Override
+    public void glGenerateMipmap(int target) {
+        calls++;
+    }
+
+    @Override
+    public int glGenFramebuffer() {
+        calls++;
+        return nextName++;
+    }
+
+    @Override
+    public void glGenFramebuffers(int n, IntBuffer framebuffers) {
+        calls++;
+        generate(n, framebuffers);
+    }
+
+    @Override
+    public int glGenRenderbuffer() {
+        calls++;
+        return nextName++;
+    }
+
+    @Override
+    public void glGenRenderbuffers(int n, IntBuffer renderbuffers) {
+        calls++;
+        generate(n, renderbuffers);
+    }
+
+    @Override
+    public String glGetActiveAttrib(int program, int index, IntBuffer size, Buffer type) {
+        calls++;
+        Program p = programs.get(program);
+        size.put(0, 1);
+        if (type instanceof IntBuffer) ((IntBuffer) type).put(0, p.attributeTypes.get(index));
+        return p.attributes.get(index);
+    }
+
+    @Override
+    public String glGetActiveUniform(int program, int index, IntBuffer size, Buffer type) {
+        calls++;
+        Program p = programs.get(program);
+        size.put(0, p.uniformSizes.get(index));
+        if (type instanceof IntBuffer) ((IntBuffer) type).put(0, p.uniformTypes.get(index));
+        return p.uniforms.get(index);
+    }
+
+    @Override
+    public void glGetAttachedShaders(int program, int maxcount, Buffer count, IntBuffer shaders) {
+        calls++;
+    }
+
+    @Override
+    public int glGetAttribLocation(int program, String name) {
+        calls++;
+        Program p = programs.get(program);
+        return p == null ? -1 : p.attributes.indexOf(name, false);
+    }
+
+    @Override
+    public void glGetBooleanv(int pname, Buffer params) {
+        calls++;
+    }
+
+    @Override
+    public void glGetBufferParameteriv(int target, int pname, IntBuffer params) {
+        calls++;
+    }
+
+    @Override
+    public void glGetFloatv(int pname, FloatBuffer params) {
+        calls++;
+    }
+
+    @Override
+    public void glGetFramebufferAttachmentParameteriv(int target, int attachment, int pname, IntBuffer params) {
+        calls++;
+    }
+
+    @Override
+    public void glGetProgramiv(int program, int pname, IntBuffer params) {
+        calls++;
+        Program p = programs.get(program);
+        int value = 0;
+        if (pname == GL_LINK_STATUS) {
+            value = p != null ? GL_TRUE : GL_FALSE;
+        } else if (pname == GL_ACTIVE_ATTRIBUTES && p != null) {
+            value = p.attributes.size;
+        } else if (pname == GL_ACTIVE_UNIFORMS && p != null) {
+            value = p.uniforms.size;
+        }
+        params.put(0, value);
+    }
+
+    @Override
+    public String glGetProgramInfoLog(int program) {
+        calls++;
+        return "";
+    }
+
+    @Override
+    public void glGetRenderbufferParameteriv(int target, int pname, IntBuffer params) {
+        calls++;
+    }
+
+    @Override
+    public void glGetShaderiv(int shader, int pname, IntBuffer params) {
+        calls++;
+        params.put(0, pname == GL_COMPILE_STATUS ? GL_TRUE : 0);
+    }
+
+    @Override
+    public String glGetShaderInfoLog(int shader) {
+        calls++;
+        return "";
+    }
+
+    @Override
+    public void glGetShaderPrecisionFormat(int shadertype, int precisiontype, IntBuffer range, IntBuffer precision) {
+        calls++;
+    }
+
+    @Override
+    public void glGetTexParameterfv(int target, int pname, FloatBuffer params) {
+        calls++;
+    }
+
+    @Override
+    public void glGetTexParameteriv(int target, int pname, IntBuffer params) {
+        calls++;
+    }
+
+    @Override
+    public void glGetUniformfv(int program, int location, FloatBuffer params) {
+        calls++;
+    }
+
+    @Override
+    public void glGetUniformiv(int program, int location, IntBuffer params) {
+        calls++;
+    }
+
+    @Override
+    public int glGetUniformLocation(int program, String name) {
+        calls++;
+        Program p = programs.get(program);
+        return p == null ? -1 : p.uniformLocation(name);
+    }
+
+    @Override
+    public void glGetVertexAttribfv(int index, int pname, FloatBuffer params) {
+        calls++;
+    }
+
+    @Override
+    public void glGetVertexAttribiv(int index, int pname, IntBuffer params) {
+        calls++;
+    }
+
+    @Override
+    public void glGetVertexAttribPointerv(int index, int pname, Buffer pointer) {
+        calls++;
+    }
+
+    @Override
+    public boolean glIsBuffer(int buffer) {
+        calls++;
+        return false;
+    }
+
+    @Override
+    public boolean glIsEnabled(int cap) {
+        calls++;
+        return enabled.contains(cap);
+    }
+
+    @Override
+    public boolean glIsFramebuffer(int framebuffer) {
+        calls++;
+        return false;
+    }
+
+    @Override
+    public boolean glIsProgram(int program) {
+        calls++;
+        return programs.containsKey(program);
+    }
+
+    @Override
+    public boolean glIsRenderbuffer(int renderbuffer) {
+        calls++;
+        return false;
+    }
+
+    @Override
+    public boolean glIsShader(int shader) {
+        calls++;
+        return shaderSources.containsKey(shader);
+    }
+
+    @Override
+    public boolean glIsTexture(int texture) {
+        calls++;
+        return false;
+    }
+
+    @Override
+    public void glLinkProgram(int program) {
+        calls++;
+        Program p = programs.get(program);
+        if (p == null) return;
+        for (int i = 0; i < p.shaders.size; i++) {
+            String source = shaderSources.get(p.shaders.get(i));
+            if (source != null) p.declare(source);
+        }
+    }
+
+    @Override
+    public void glReleaseShaderCompiler() {
+        calls++;
+    }
+
+    @Override
+    public void glRenderbufferStorage(int target, int internalformat, int width, int height) {
+        calls++;
+    }
+
+    @Override
+    public void glSampleCoverage(float value, boolean invert) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glShaderBinary(int n, IntBuffer shaders, int binaryformat, Buffer binary, int length) {
+        calls++;
+    }
+
+    @Override
+    public void glShaderSource(int shader, String string) {
+        calls++;
+        shaderSources.put(shader, string);
+    }
+
+    @Override
+    public void glStencilFuncSeparate(int face, int func, int ref, int mask) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glStencilMaskSeparate(int face, int mask) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glStencilOpSeparate(int face, int fail, int zfail, int zpass) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glTexParameterfv(int target, int pname, FloatBuffer params) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glTexParameteri(int target, int pname, int param) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glTexParameteriv(int target, int pname, IntBuffer params) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glUniform1f(int location, float x) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform1fv(int location, int count, FloatBuffer v) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform1fv(int location, int count, float[] v, int offset) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform1i(int location, int x) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform1iv(int location, int count, IntBuffer v) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform1iv(int location, int count, int[] v, int offset) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform2f(int location, float x, float y) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform2fv(int location, int count, FloatBuffer v) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform2fv(int location, int count, float[] v, int offset) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform2i(int location, int x, int y) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform2iv(int location, int count, IntBuffer v) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform2iv(int location, int count, int[] v, int offset) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform3f(int location, float x, float y, float z) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform3fv(int location, int count, FloatBuffer v) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform3fv(int location, int count, float[] v, int offset) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform3i(int location, int x, int y, int z) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform3iv(int location, int count, IntBuffer v) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform3iv(int location, int count, int[] v, int offset) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform4f(int location, float x, float y, float z, float w) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform4fv(int location, int count, FloatBuffer v) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform4fv(int location, int count, float[] v, int offset) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform4i(int location, int x, int y, int z, int w) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform4iv(int location, int count, IntBuffer v) {
+        calls++;
+    }
+
+    @Override
+    public void glUniform4iv(int location, int count, int[] v, int offset) {
+        calls++;
+    }
+
+    @Override
+    public void glUniformMatrix2fv(int location, int count, boolean transpose, FloatBuffer value) {
+        calls++;
+    }
+
+    @Override
+    public void glUniformMatrix2fv(int location, int count, boolean transpose, float[] value, int offset) {
+        calls++;
+    }
+
+    @Override
+    public void glUniformMatrix3fv(int location, int count, boolean transpose, FloatBuffer value) {
+        calls++;
+    }
+
+    @Override
+    public void glUniformMatrix3fv(int location, int count, boolean transpose, float[] value, int offset) {
+        calls++;
+    }
+
+    @Override
+    public void glUniformMatrix4fv(int location, int count, boolean transpose, FloatBuffer value) {
+        calls++;
+    }
+
+    @Override
+    public void glUniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset) {
+        calls++;
+    }
+
+    @Override
+    public void glUseProgram(int program) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glValidateProgram(int program) {
+        calls++;
+    }
+
+    @Override
+    public void glVertexAttrib1f(int indx, float x) {
+        calls++;
+    }
+
+    @Override
+    public void glVertexAttrib1fv(int indx, FloatBuffer values) {
+        calls++;
+    }
+
+    @Override
+    public void glVertexAttrib2f(int indx, float x, float y) {
+        calls++;
+    }
+
+    @Override
+    public void glVertexAttrib2fv(int indx, FloatBuffer values) {
+        calls++;
+    }
+
+    @Override
+    public void glVertexAttrib3f(int indx, float x, float y, float z) {
+        calls++;
+    }
+
+    @Override
+    public void glVertexAttrib3fv(int indx, FloatBuffer values) {
+        calls++;
+    }
+
+    @Override
+    public void glVertexAttrib4f(int indx, float x, float y, float z, float w) {
+        calls++;
+    }
+
+    @Override
+    public void glVertexAttrib4fv(int indx, FloatBuffer values) {
+        calls++;
+    }
+
+    @Override
+    public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, Buffer ptr) {
+        calls++;
+        stateChanges++;
+    }
+
+    @Override
+    public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, int ptr) {
+        calls++;
+        stateChanges++;
+    }
+}
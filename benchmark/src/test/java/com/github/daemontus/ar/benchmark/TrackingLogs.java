@@ -0,0 +1,33 @@
+package com.github.daemontus.ar.benchmark;
+
+import com.github.daemontus.ar.libgdx.FrameResults;
+import com.github.daemontus.ar.libgdx.PoseLogWriter;
+import com.github.daemontus.ar.libgdx.SyntheticTrackingSource;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Records sessions of a {@link SyntheticTrackingSource} as pose logs, so the tests can replay
+ * them like a recording from a device while knowing the true poses.
+ */
+public final class TrackingLogs {
+
+    private TrackingLogs() {}
+
+    /**
+     * Writes the given number of display frames of the source into the log file (a camera
+     * frame shown on more display frames is recorded every time, like on a device).
+     */
+    public static void record(SyntheticTrackingSource source, int frames, File file) throws IOException {
+        PoseLogWriter writer = new PoseLogWriter(file);
+        try {
+            for (int i = 0; i < frames; i++) {
+                FrameResults results = source.onDrawFrame();
+                writer.write(results, source.getProjectionMatrix(), source.getCameraIntrinsics(), source.isReflected());
+            }
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.github.daemontus.ar.benchmark.Poses;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that {@link ArCamera} projects target points exactly like the Vuforia projection times
+ * the pose, in both the single target (pose as the view) and the multi target (pose as the model
+ * transform) setup, and that its frame and frustum agree with that projection.
+ */
+public class ArCameraTest {
+
+    private static final int RUNS = 500;
+
+    // camera image of 1280x720 pixels shown on a portrait screen
+    private static final float WIDTH = 1280, HEIGHT = 720;
+    private static final float FOCAL_LENGTH_X = 1100, FOCAL_LENGTH_Y = 1105;
+    private static final float PRINCIPAL_X = 655, PRINCIPAL_Y = 350;
+
+    private final Random random = new Random(42);
+
+    @BeforeClass
+    public static void loadNatives() {
+        GdxNativesLoader.load();
+    }
+
+    @Test
+    public void projectsLikeVuforia() {
+        for (boolean reflected : new boolean[]{false, true}) {
+            float[] projection = projection(reflected);
+            ArCamera camera = new ArCamera();
+            camera.setProjection(projection);
+            int inside = 0;
+            for (int run = 0; run < RUNS; run++) {
+                float[] pose = Poses.randomPose(random);
+                camera.setPose(pose, 0);
+                camera.update();
+                for (int i = 0; i < 10; i++) {
+                    Vector3 point = new Vector3((random.nextFloat() - 0.5f) * 400, (random.nextFloat() - 0.5f) * 400,
+                            (random.nextFloat() - 0.5f) * 400);
+                    double[] expected = project(projection, pose, point);
+                    Vector3 actual = new Vector3(point).prj(camera.combined);
+                    assertNdc(expected, actual);
+                    if (isInside(expected, 0.99)) {
+                        inside++;
+                        assertTrue("Visible point outside of the frustum", camera.frustum.pointInFrustum(point));
+                    } else if (!isInside(expected, 1.01)) {
+                        assertTrue("Invisible point in the frustum", !camera.frustum.pointInFrustum(point));
+                    }
+                }
+            }
+            assertTrue("Too few visible points: "+inside, inside > RUNS);
+        }
+    }
+
+    @Test
+    public void modelTransformProjectsLikeView() {
+        float[] projection = projection(false);
+        ArCamera camera = new ArCamera();
+        camera.setProjection(projection);
+        camera.setIdentity();
+        camera.update();
+        Matrix4 model = new Matrix4();
+        Matrix4 transform = new Matrix4();
+        for (int run = 0; run < RUNS; run++) {
+            float[] pose = Poses.randomPose(random);
+            PoseMath.poseToGL(model.val, 0, pose, 0);
+            transform.set(camera.combined).mul(model);
+            Vector3 point = new Vector3((random.nextFloat() - 0.5f) * 400, (random.nextFloat() - 0.5f) * 400,
+                    (random.nextFloat() - 0.5f) * 400);
+            assertNdc(project(projection, pose, point), new Vector3(point).prj(transform));
+        }
+    }
+
+    @Test
+    public void frameMatchesView() {
+        ArCamera camera = new ArCamera();
+        camera.setProjection(projection(false));
+        Vector3 axis = new Vector3();
+        for (int run = 0; run < RUNS; run++) {
+            float[] pose = Poses.randomPose(random);
+            camera.setPose(pose, 0);
+            camera.update();
+            // the view maps the camera to the origin, its direction to +z and up to -y of the Vuforia camera
+            axis.set(camera.position).mul(camera.view);
+            assertEquals(0f, axis.len(), 1e-3f);
+            axis.set(camera.direction).rot(camera.view);
+            assertEquals(0f, axis.sub(0, 0, 1).len(), 1e-5f);
+            axis.set(camera.up).rot(camera.view);
+            assertEquals(0f, axis.sub(0, -1, 0).len(), 1e-5f);
+        }
+        camera.setIdentity();
+        camera.update();
+        assertEquals(new Vector3(0, 0, 1), camera.direction);
+        assertEquals(new Vector3(0, -1, 0), camera.up);
+    }
+
+    /**
+     * GL projection of the Vuforia camera coordinates (x right, y down, z forward) with the principal
+     * point off center, rotated to a portrait screen like the projection of the rendering primitives.
+     */
+    private static float[] projection(boolean reflected) {
+        float near = TrackingSource.NEAR_PLANE, far = TrackingSource.FAR_PLANE;
+        Matrix4 camera = new Matrix4();
+        float[] p = camera.val;
+        p[Matrix4.M00] = (reflected ? -2f : 2f) * FOCAL_LENGTH_X / WIDTH;
+        p[Matrix4.M02] = (reflected ? -1f : 1f) * (2f * PRINCIPAL_X / WIDTH - 1f);
+        p[Matrix4.M11] = -2f * FOCAL_LENGTH_Y / HEIGHT;
+        p[Matrix4.M12] = -(2f * PRINCIPAL_Y / HEIGHT - 1f);
+        p[Matrix4.M22] = (far + near) / (far - near);
+        p[Matrix4.M23] = -2f * far * near / (far - near);
+        p[Matrix4.M32] = 1f;
+        p[Matrix4.M33] = 0f;
+        return new Matrix4().setToRotation(0, 0, 1, 90).mul(camera).val;
+    }
+
+    /**
+     * @return normalized device coordinates of the target point, computed in double precision
+     */
+    private static double[] project(float[] projection, float[] pose, Vector3 point) {
+        double[] eye = new double[4];
+        for (int row = 0; row < 3; row++) {
+            eye[row] = pose[row * 4] * (double) point.x + pose[row * 4 + 1] * (double) point.y
+                    + pose[row * 4 + 2] * (double) point.z + pose[row * 4 + 3];
+        }
+        eye[3] = 1;
+        double[] clip = new double[4];
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 4; col++) {
+                clip[row] += projection[col * 4 + row] * eye[col];
+            }
+        }
+        return new double[]{clip[0] / clip[3], clip[1] / clip[3], clip[2] / clip[3]};
+    }
+
+    /**
+     * @param limit bound of x and y, depth is compared to its exact bounds (with 1 to 1000 planes, the
+     *              depth of most of the points is close to 1)
+     */
+    private static boolean isInside(double[] ndc, double limit) {
+        return Math.abs(ndc[0]) < limit && Math.abs(ndc[1]) < limit && Math.abs(ndc[2]) < 1;
+    }
+
+    private static void assertNdc(double[] expected, Vector3 actual) {
+        // float precision relative to the magnitude, points near the camera plane project far away
+        double scale = Math.max(1, Math.max(Math.abs(expected[0]), Math.abs(expected[1])));
+        assertEquals(expected[0], actual.x, 1e-5 * scale);
+        assertEquals(expected[1], actual.y, 1e-5 * scale);
+        assertEquals(expected[2], actual.z, 1e-5 * Math.max(1, Math.abs(expected[2])));
+    }
+}
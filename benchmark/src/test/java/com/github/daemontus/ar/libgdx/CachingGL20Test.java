@@ -0,0 +1,82 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.github.daemontus.ar.benchmark.RecordingGL20;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks which repeated clears {@link CachingGL20} filters out: a clear of buffers which weren't
+ * touched since the last one is skipped, anything that changes what a clear writes lets it through.
+ */
+public class CachingGL20Test {
+
+    private static final int BUFFERS = GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT | GL20.GL_STENCIL_BUFFER_BIT;
+
+    private RecordingGL20 driver;
+    private CachingGL20 gl;
+
+    @Before
+    public void setUp() {
+        driver = new RecordingGL20();
+        gl = new CachingGL20(driver);
+        clear(BUFFERS, true);
+    }
+
+    @Test
+    public void repeatedClearIsFiltered() {
+        clear(BUFFERS, false);
+        clear(GL20.GL_DEPTH_BUFFER_BIT, false);
+        // after the cache is invalidated, or a draw call wrote into the buffers
+        gl.invalidate();
+        clear(GL20.GL_DEPTH_BUFFER_BIT, true);
+        clear(GL20.GL_DEPTH_BUFFER_BIT, false);
+        gl.glDrawArrays(GL20.GL_TRIANGLES, 0, 3);
+        clear(GL20.GL_DEPTH_BUFFER_BIT, true);
+        // only the depth buffer was cleared since the draw call
+        clear(BUFFERS, true);
+        clear(BUFFERS, false);
+    }
+
+    @Test
+    public void writeMasksLetTheClearThrough() {
+        gl.glStencilMask(0x0f);
+        clear(BUFFERS, true);
+        gl.glStencilMaskSeparate(GL20.GL_FRONT, 0xf0);
+        clear(BUFFERS, true);
+        gl.glColorMask(true, false, true, true);
+        clear(BUFFERS, true);
+        gl.glDepthMask(false);
+        clear(BUFFERS, true);
+        // the same depth mask again is filtered out and changes nothing
+        gl.glDepthMask(false);
+        clear(BUFFERS, false);
+    }
+
+    @Test
+    public void clearParametersLetTheClearThrough() {
+        gl.glClearColor(0.5f, 0f, 0f, 1f);
+        clear(BUFFERS, true);
+        gl.glClearDepthf(0.5f);
+        clear(BUFFERS, true);
+        gl.glClearStencil(1);
+        clear(BUFFERS, true);
+        gl.glScissor(0, 0, 8, 8);
+        clear(BUFFERS, true);
+        gl.glEnable(GL20.GL_SCISSOR_TEST);
+        clear(BUFFERS, true);
+        clear(BUFFERS, false);
+    }
+
+    /**
+     * Clears the buffers and checks whether the clear reached the driver.
+     */
+    private void clear(int mask, boolean expected) {
+        int calls = driver.getCalls();
+        gl.glClear(mask);
+        assertEquals(expected ? 1 : 0, driver.getCalls() - calls);
+    }
+}
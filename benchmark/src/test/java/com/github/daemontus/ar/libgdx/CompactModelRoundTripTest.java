@@ -0,0 +1,216 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.loader.G3dModelLoader;
+import com.badlogic.gdx.graphics.g3d.model.Animation;
+import com.badlogic.gdx.graphics.g3d.model.MeshPart;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodeAnimation;
+import com.badlogic.gdx.graphics.g3d.model.NodeKeyframe;
+import com.badlogic.gdx.graphics.g3d.model.NodePart;
+import com.badlogic.gdx.graphics.g3d.utils.TextureProvider;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.UBJsonReader;
+import com.github.daemontus.ar.benchmark.RecordingGL20;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Converts the g3db jet to the compact format without quantization, parses it back with the
+ * {@link CompactModelLoader} and checks that nothing was lost: meshes with their attributes and
+ * buffers, mesh parts with their bounds, materials, the node tree with its bones and animations.
+ */
+public class CompactModelRoundTripTest {
+
+    private static final String G3DB = "jet.g3db";
+
+    private Texture texture;
+    private Model expected, actual;
+
+    @Before
+    public void setUp() {
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = -1;
+        new HeadlessApplication(new ApplicationAdapter() {}, config);
+        Gdx.gl = Gdx.gl20 = new RecordingGL20();
+
+        Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
+        texture = new Texture(pixmap);
+        pixmap.dispose();
+        TextureProvider textures = new TextureProvider() {
+            @Override
+            public Texture load(String fileName) {
+                return texture;
+            }
+        };
+
+        FileHandle file = Gdx.files.internal(G3DB);
+        G3dModelLoader g3dbLoader = new G3dModelLoader(new UBJsonReader());
+        expected = g3dbLoader.loadModel(file, textures);
+        byte[] bytes = CompactModelWriter.write(g3dbLoader.loadModelData(file), file.parent().path(), false);
+        actual = new CompactModelLoader(null).loadModel(CompactModelLoader.parse(ByteBuffer.wrap(bytes), file.parent().path()), textures);
+    }
+
+    @After
+    public void tearDown() {
+        dispose(expected);
+        dispose(actual);
+        texture.dispose();
+    }
+
+    @Test
+    public void meshes() {
+        assertEquals(expected.meshes.size, actual.meshes.size);
+        assertTrue(expected.meshes.size > 0);
+        for (int i = 0; i < expected.meshes.size; i++) {
+            Mesh a = expected.meshes.get(i);
+            Mesh b = actual.meshes.get(i);
+            assertEquals("Attributes of mesh "+i, a.getVertexAttributes(), b.getVertexAttributes());
+            assertEquals("Vertices of mesh "+i, a.getNumVertices(), b.getNumVertices());
+            float[] vertices = new float[a.getNumVertices() * a.getVertexSize() / 4];
+            float[] otherVertices = new float[vertices.length];
+            a.getVertices(vertices);
+            b.getVertices(otherVertices);
+            assertArrayEquals("Vertices of mesh "+i, vertices, otherVertices, 0f);
+            short[] indices = new short[a.getNumIndices()];
+            short[] otherIndices = new short[b.getNumIndices()];
+            a.getIndices(indices);
+            b.getIndices(otherIndices);
+            assertArrayEquals("Indices of mesh "+i, indices, otherIndices);
+        }
+    }
+
+    @Test
+    public void meshParts() {
+        assertEquals(expected.meshParts.size, actual.meshParts.size);
+        for (int i = 0; i < expected.meshParts.size; i++) {
+            MeshPart a = expected.meshParts.get(i);
+            MeshPart b = actual.meshParts.get(i);
+            // equals() compares the meshes by identity
+            assertEquals(a.id, b.id);
+            assertEquals(a.id, a.primitiveType, b.primitiveType);
+            assertEquals(a.id, a.offset, b.offset);
+            assertEquals(a.id, a.size, b.size);
+            assertEquals(a.id, expected.meshes.indexOf(a.mesh, true), actual.meshes.indexOf(b.mesh, true));
+            assertEquals(a.id, a.center, b.center);
+            assertEquals(a.id, a.halfExtents, b.halfExtents);
+            assertEquals(a.id, a.radius, b.radius, 0f);
+        }
+    }
+
+    @Test
+    public void materials() {
+        assertEquals(expected.materials.size, actual.materials.size);
+        for (int i = 0; i < expected.materials.size; i++) {
+            assertEquals(expected.materials.get(i).id, expected.materials.get(i), actual.materials.get(i));
+        }
+    }
+
+    @Test
+    public void nodes() {
+        assertEquals(expected.nodes.size, actual.nodes.size);
+        for (int i = 0; i < expected.nodes.size; i++) {
+            compare(expected.nodes.get(i), actual.nodes.get(i));
+        }
+    }
+
+    @Test
+    public void animations() {
+        assertEquals(expected.animations.size, actual.animations.size);
+        for (int i = 0; i < expected.animations.size; i++) {
+            Animation a = expected.animations.get(i);
+            Animation b = actual.animations.get(i);
+            assertEquals(a.id, b.id);
+            assertEquals(a.id, a.duration, b.duration, 0f);
+            assertEquals(a.id, a.nodeAnimations.size, b.nodeAnimations.size);
+            for (int j = 0; j < a.nodeAnimations.size; j++) {
+                NodeAnimation na = a.nodeAnimations.get(j);
+                NodeAnimation nb = b.nodeAnimations.get(j);
+                String name = a.id+" of "+na.node.id;
+                assertEquals(name, na.node.id, nb.node.id);
+                compare(name+" translation", na.translation, nb.translation);
+                compare(name+" rotation", na.rotation, nb.rotation);
+                compare(name+" scaling", na.scaling, nb.scaling);
+            }
+        }
+    }
+
+    private static void compare(Node expected, Node actual) {
+        String name = expected.id;
+        assertEquals(name, expected.id, actual.id);
+        assertEquals(name, expected.inheritTransform, actual.inheritTransform);
+        assertEquals(name, expected.isAnimated, actual.isAnimated);
+        assertEquals(name, expected.translation, actual.translation);
+        assertEquals(name, expected.rotation, actual.rotation);
+        assertEquals(name, expected.scale, actual.scale);
+        assertArrayEquals(name, expected.localTransform.val, actual.localTransform.val, 0f);
+        assertArrayEquals(name, expected.globalTransform.val, actual.globalTransform.val, 0f);
+
+        assertEquals(name, expected.parts.size, actual.parts.size);
+        for (int i = 0; i < expected.parts.size; i++) {
+            NodePart a = expected.parts.get(i);
+            NodePart b = actual.parts.get(i);
+            assertEquals(name, a.enabled, b.enabled);
+            assertEquals(name, a.meshPart.id, b.meshPart.id);
+            assertEquals(name, a.material.id, b.material.id);
+            if (a.invBoneBindTransforms == null) {
+                assertNull(name, b.invBoneBindTransforms);
+                continue;
+            }
+            assertEquals(name, a.invBoneBindTransforms.size, b.invBoneBindTransforms.size);
+            for (int j = 0; j < a.invBoneBindTransforms.size; j++) {
+                assertEquals(name, a.invBoneBindTransforms.getKeyAt(j).id, b.invBoneBindTransforms.getKeyAt(j).id);
+                assertArrayEquals(name, a.invBoneBindTransforms.getValueAt(j).val, b.invBoneBindTransforms.getValueAt(j).val, 0f);
+            }
+        }
+
+        assertEquals(name, expected.getChildCount(), actual.getChildCount());
+        for (int i = 0; i < expected.getChildCount(); i++) {
+            compare(expected.getChild(i), actual.getChild(i));
+        }
+    }
+
+    private static <T> void compare(String name, Array<NodeKeyframe<T>> expected, Array<NodeKeyframe<T>> actual) {
+        if (expected == null) {
+            assertNull(name, actual);
+            return;
+        }
+        assertFalse(name, actual == null);
+        assertEquals(name, expected.size, actual.size);
+        for (int i = 0; i < expected.size; i++) {
+            assertEquals(name, expected.get(i).keytime, actual.get(i).keytime, 0f);
+            assertEquals(name, expected.get(i).value, actual.get(i).value);
+        }
+    }
+
+    /**
+     * Disposes the meshes of the model, the shared texture is kept.
+     */
+    private static void dispose(Model model) {
+        Iterator<Disposable> disposables = model.getManagedDisposables().iterator();
+        while (disposables.hasNext()) {
+            if (disposables.next() instanceof Texture) disposables.remove();
+        }
+        model.dispose();
+    }
+}
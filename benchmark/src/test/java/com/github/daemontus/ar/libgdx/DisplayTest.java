@@ -0,0 +1,175 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.github.daemontus.ar.benchmark.RecordingGL20;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Renders a {@link Display} without a tracking source on the headless backend and follows its
+ * model streaming from the first frame until the model is shown, and how it notices evicted models.
+ */
+public class DisplayTest {
+
+    private static final int ID = 3;
+    // enough frames to stream the jet with any load budget
+    private static final int MAX_FRAMES = 10000;
+
+    private Display display;
+
+    @Before
+    public void setUp() {
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = -1;
+        new HeadlessApplication(new ApplicationAdapter() {}, config);
+        Gdx.gl = Gdx.gl20 = new RecordingGL20();
+    }
+
+    @After
+    public void tearDown() {
+        if (display != null) display.dispose();
+    }
+
+    @Test
+    public void streamsTheModel() {
+        display = new Display(false, 1);
+        // nothing is shown until the first frames stream the model
+        assertFalse(display.isLoaded());
+        assertEquals(-1, display.getTimeToFirstFrame());
+        assertEquals(-1, display.getLoadTime());
+        assertNull(display.getModelInstance(ID));
+
+        int frames = 0;
+        while (!display.isLoaded()) {
+            assertNull(display.getModelInstance(ID));
+            assertTrue(display.getLoadProgress() < 1f);
+            display.render(0);
+            frames++;
+            assertTrue("Still loading after "+frames+" frames", frames < MAX_FRAMES);
+        }
+        assertTrue(display.getTimeToFirstFrame() >= 0);
+        assertTrue(display.getLoadTime() >= display.getTimeToFirstFrame());
+        assertEquals(frames, display.getLoadingFrames());
+        assertEquals(1f, display.getLoadProgress(), 0f);
+
+        ModelInstance instance = display.getModelInstance(ID);
+        assertNotNull(instance);
+        assertSame(display.getModelCache().get("jet.g3dc"), instance.model);
+
+        // later frames don't load anything, the instance of the target is kept
+        for (int i = 0; i < 10; i++) {
+            display.render(0);
+            assertSame(instance, display.getModelInstance(ID));
+        }
+        assertEquals(frames, display.getLoadingFrames());
+        assertTrue(display.isLoaded());
+    }
+
+    @Test
+    public void loadsRightAwayWithoutBudget() {
+        display = new Display(false, 0);
+        assertTrue(display.isLoaded());
+        assertTrue(display.getLoadTime() >= 0);
+        assertEquals(-1, display.getTimeToFirstFrame());
+        assertNotNull(display.getModelInstance(ID));
+        display.render(0);
+        assertEquals(0, display.getLoadingFrames());
+        assertTrue(display.getLoadTime() <= display.getTimeToFirstFrame());
+    }
+
+    @Test
+    public void loadTimeIsKept() {
+        display = new Display(false, 1);
+        while (!display.isLoaded()) {
+            display.render(0);
+        }
+        long loadTime = display.getLoadTime();
+        int loadingFrames = display.getLoadingFrames();
+        // another model streamed later doesn't change the time to the first model
+        display.getModelCache().load("jet.g3db");
+        assertFalse(display.isLoaded());
+        while (!display.isLoaded()) {
+            display.render(0);
+        }
+        assertEquals(loadTime, display.getLoadTime());
+        assertTrue(display.getLoadingFrames() > loadingFrames);
+    }
+
+    @Test
+    public void evictionsSurviveCounterResets() {
+        // target 1 shows the g3db jet and is followed by target 2 with the g3dc jet, only the
+        // models in use fit into the cache
+        ContentRegistry registry = new ContentRegistry(null);
+        registry.register(1, "jet.g3db");
+        registry.bind(1, "first");
+        registry.bind(2, "second");
+        registry.register("second", "jet.g3dc");
+        registry.link("first", "second");
+        ModelCache cache = new ModelCache(1, 1);
+        display = new Display(false, 0, registry, cache);
+
+        // the prefetch of the next model waits until the first one isn't used anymore and is evicted
+        frame(1);
+        ModelInstance first = display.getModelInstance(1);
+        assertNotNull(first);
+        frame();
+        frame();
+        frame();
+        assertEquals(1, cache.getEvictions());
+        assertEquals(1, cache.getPrefetches());
+        assertTrue(cache.contains("jet.g3dc"));
+        assertFalse(cache.contains("jet.g3db"));
+
+        // the counters are reset right before the next eviction, like the stats of the engine do
+        frame(1);
+        assertEquals(1, cache.getEvictions());
+        cache.resetCounters();
+        frame(1);
+        assertEquals(1, cache.getEvictions());
+        assertFalse(cache.contains("jet.g3dc"));
+        // the reloaded model gets a new instance
+        ModelInstance reloaded = display.getModelInstance(1);
+        assertNotNull(reloaded);
+        assertTrue(reloaded != first);
+        assertSame(cache.get("jet.g3db"), reloaded.model);
+
+        // the evicted next model is prefetched again when the target is seen after the eviction
+        frame(1);
+        frame();
+        frame();
+        frame();
+        assertEquals(1, cache.getPrefetches());
+        assertTrue(cache.contains("jet.g3dc"));
+        assertEquals(3, cache.getEvictionGeneration());
+    }
+
+    /**
+     * Renders a frame in which the given targets are seen.
+     */
+    private void frame(int... ids) {
+        FrameResults results = new FrameResults();
+        results.clear(0);
+        float[] pose = {1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 500};
+        for (int id : ids) {
+            results.add(id, 2, pose, 0);
+        }
+        display.prefetch(results);
+        for (int id : ids) {
+            display.getModelInstance(id);
+        }
+        display.render(0);
+    }
+}
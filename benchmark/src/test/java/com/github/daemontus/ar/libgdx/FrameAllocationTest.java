@@ -0,0 +1,59 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.github.daemontus.ar.benchmark.HeadlessEngine;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Renders steady state frames of the whole pipeline (synthetic tracking, pose filter and predictor,
+ * model cache, model batch) on the headless backend and checks that they allocate nothing.
+ *
+ * The bytes are counted by the JVM for the rendering thread. The JIT of a desktop JVM removes short
+ * lived allocations (e.g. iterators) which the Android runtime makes every frame, and allocates on
+ * the thread itself while compiling, so the frames are measured in the interpreter: the test runs
+ * with -Xint in the frameAllocation task and is skipped elsewhere.
+ */
+public class FrameAllocationTest {
+
+    private static final int WARM_UP = 20;
+    private static final int FRAMES = 100;
+
+    @Test
+    public void singleTarget() {
+        check(1);
+    }
+
+    @Test
+    public void multiTarget() {
+        check(4);
+    }
+
+    private void check(int targets) {
+        Assume.assumeTrue("Needs the interpreter (-Xint)", System.getProperty("java.vm.info", "").contains("interpreted"));
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        HeadlessEngine harness = new HeadlessEngine(targets > 1, new SyntheticTrackingSource(targets, 42));
+        try {
+            // the first frames create shaders, upload meshes and fill the pools
+            for (int i = 0; i < WARM_UP; i++) {
+                harness.frame();
+            }
+            for (int i = 0; i < FRAMES; i++) {
+                long before = threads.getThreadAllocatedBytes(thread);
+                harness.frame();
+                long bytes = threads.getThreadAllocatedBytes(thread) - before;
+                assertEquals("Bytes allocated by frame "+i, 0, bytes);
+            }
+        } finally {
+            harness.dispose();
+        }
+    }
+}
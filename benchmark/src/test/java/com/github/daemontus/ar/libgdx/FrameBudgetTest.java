@@ -0,0 +1,108 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+import com.github.daemontus.ar.benchmark.GLCallBreakdown;
+import com.github.daemontus.ar.benchmark.HeadlessEngine;
+import com.github.daemontus.ar.benchmark.RecordingGL20;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Renders steady state frames of the whole pipeline on the headless backend and checks their GL
+ * calls against a budget built from what a frame has to do.
+ *
+ * The budget of a frame is {@link #FRAME_CALLS} plus {@link #PART_CALLS} for every drawn mesh part.
+ * With the jet (5 parts) a single target frame issues 197 calls:
+ * <pre>
+ *   frame    3  clear, front face, depth mask
+ *           34  uniforms set once per shader begin (projection-view, camera, lights) of the 4 programs
+ *   parts    5  draws
+ *           48  vertex attribute pointer, enable, disable (3 per attribute, parts drawn with the
+ *               same program and mesh bind it once)
+ *            8  index and vertex buffer binds (parts of one mesh share them)
+ *           12  texture unit selects for the material textures
+ *           87  material and world transform uniforms (about 17 per part)
+ * </pre>
+ * i.e. 37 calls per frame and 32 per part (160 per target). The budget allows 20 % more of both,
+ * while draws and uploads are checked exactly and vertex arrays against the meshes: a regression shows up either as a
+ * broken budget or as an unexpected count of a kind of call, and the breakdown is printed.
+ */
+public class FrameBudgetTest {
+
+    private static final int FRAME_CALLS = 45;
+    private static final int PART_CALLS = 38;
+
+    private static final int WARM_UP = 10;
+    private static final int FRAMES = 100;
+
+    @Test
+    public void singleTarget() {
+        check(1);
+    }
+
+    @Test
+    public void multiTarget() {
+        check(4);
+    }
+
+    private void check(int targets) {
+        HeadlessEngine harness = new HeadlessEngine(targets > 1, new SyntheticTrackingSource(targets, 42),
+                new FrameTimings(), true);
+        try {
+            // the first frames create shaders and upload meshes
+            for (int i = 0; i < WARM_UP; i++) {
+                harness.frame();
+            }
+
+            int parts = 0;
+            int attributes = 0;
+            Array<Renderable> renderables = new Array<Renderable>();
+            Pool<Renderable> pool = new Pool<Renderable>() {
+                @Override
+                protected Renderable newObject() {
+                    return new Renderable();
+                }
+            };
+            for (int id = 0; id < targets; id++) {
+                ModelInstance instance = harness.getDisplay().getModelInstance(id);
+                assertTrue("Model of target "+id+" isn't loaded", instance != null);
+                renderables.clear();
+                instance.getRenderables(renderables, pool);
+                for (Renderable renderable : renderables) {
+                    parts++;
+                    attributes += renderable.meshPart.mesh.getVertexAttributes().size();
+                }
+            }
+            int budget = FRAME_CALLS + parts * PART_CALLS;
+
+            RecordingGL20 gl = harness.getGL();
+            GLCallBreakdown breakdown = harness.getBreakdown();
+            for (int frame = 0; frame < FRAMES; frame++) {
+                harness.frame();
+                String message = "Frame "+frame+" of "+targets+" targets, "+parts+" parts:\n"+breakdown;
+                assertTrue(gl.getCalls()+" GL calls, budget is "+budget+". "+message, gl.getCalls() <= budget);
+                assertEquals(message, gl.getCalls(), breakdown.getTotal());
+                assertEquals(message, parts, gl.getDrawCalls());
+                assertEquals(message, 0, gl.getBufferUploads());
+                // an attribute is set up and torn down at most once per drawn part, every array enabled is disabled
+                int pointers = breakdown.get("glVertexAttribPointer");
+                assertTrue(pointers+" vertex arrays for "+attributes+" attributes. "+message, pointers <= attributes);
+                assertEquals(message, pointers, breakdown.get("glEnableVertexAttribArray"));
+                assertEquals(message, pointers, breakdown.get("glDisableVertexAttribArray"));
+                // the caching GL filters repeated state
+                assertEquals(message, 1, breakdown.get("glClear"));
+                assertEquals(message, 1, breakdown.get("glFrontFace"));
+                assertEquals(message, 1, breakdown.get("glDepthMask"));
+                assertEquals(message, 0, breakdown.get("glEnable") + breakdown.get("glDisable"));
+            }
+        } finally {
+            harness.dispose();
+        }
+    }
+}
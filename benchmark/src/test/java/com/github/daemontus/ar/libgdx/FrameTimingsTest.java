@@ -0,0 +1,131 @@
+package com.github.daemontus.ar.libgdx;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures frames on a fake clock and checks the recorded stages, latencies and counted frames
+ * of {@link FrameTimings}.
+ */
+public class FrameTimingsTest {
+
+    private static final long MS = 1000000L;
+
+    private long now;
+    private FrameTimings timings;
+
+    @Before
+    public void setUp() {
+        now = 1000 * MS;
+        timings = new FrameTimings(new Clock() {
+            @Override
+            public long nanoTime() {
+                return now;
+            }
+        });
+    }
+
+    @Test
+    public void staleFrames() {
+        // a camera frame shown twice, a new one and a frame which didn't update the state at all
+        frame(0.5);
+        frame(0.5);
+        frame(0.5);
+        frame(0.6);
+        frame(Double.NaN);
+        frame(0.6);
+        frame(0.7);
+        assertEquals(7, timings.getFrames());
+        assertEquals(3, timings.getStaleFrames());
+        assertEquals(6, timings.getUpdateToFrameEnd().getCount());
+
+        timings.reset();
+        assertEquals(0, timings.getStaleFrames());
+        assertEquals(0, timings.getFrames());
+        // the reset doesn't forget the camera frame shown last
+        frame(0.7);
+        assertEquals(1, timings.getStaleFrames());
+    }
+
+    @Test
+    public void motionToPhoton() {
+        // the camera clock starts 900 ms after the timings clock
+        timings.setCameraClockOffset(900 * MS);
+        for (int i = 0; i < 10; i++) {
+            // captured 30 ms before the update, rendered 10 ms after it
+            now += 30 * MS;
+            double timestamp = (now - 900 * MS - 30 * MS) / 1e9;
+            timings.beginFrame();
+            timings.cameraFrame(timestamp);
+            now += 10 * MS;
+            timings.endFrame();
+        }
+        assertEquals(10, timings.getMotionToPhoton().getCount());
+        assertEquals(40 * MS, timings.getMotionToPhoton().getMax(), MS / 100);
+        assertEquals(10 * MS, timings.getUpdateToFrameEnd().getMax());
+        assertEquals(0, timings.getUnsynchronizedFrames());
+        assertEquals(0, timings.getStaleFrames());
+    }
+
+    @Test
+    public void unsynchronizedClocks() {
+        // without the offset the camera frames seem to come from the future or from long ago
+        timings.beginFrame();
+        timings.cameraFrame(now / 1e9 + 1);
+        timings.endFrame();
+        timings.beginFrame();
+        timings.cameraFrame(now / 1e9 - 5);
+        timings.endFrame();
+        assertEquals(2, timings.getUnsynchronizedFrames());
+        assertEquals(0, timings.getMotionToPhoton().getCount());
+        assertEquals(2, timings.getUpdateToFrameEnd().getCount());
+    }
+
+    @Test
+    public void stages() {
+        timings.beginFrame();
+        timings.start(FrameTimings.STAGE_POSES);
+        now += 2 * MS;
+        timings.stop(FrameTimings.STAGE_POSES);
+        timings.start(FrameTimings.STAGE_MODEL_BATCH);
+        now += 5 * MS;
+        timings.stop(FrameTimings.STAGE_MODEL_BATCH);
+        // the same stage again is summed into one sample
+        timings.start(FrameTimings.STAGE_POSES);
+        now += 1 * MS;
+        timings.stop(FrameTimings.STAGE_POSES);
+        timings.endFrame();
+        now += 8 * MS;
+        timings.beginFrame();
+        timings.endFrame();
+
+        assertEquals(1, timings.getHistogram(FrameTimings.STAGE_POSES).getCount());
+        assertEquals(3 * MS, timings.getHistogram(FrameTimings.STAGE_POSES).getMax());
+        assertEquals(5 * MS, timings.getHistogram(FrameTimings.STAGE_MODEL_BATCH).getMax());
+        assertEquals(0, timings.getHistogram(FrameTimings.STAGE_ASSET_LOADING).getCount());
+        assertEquals(2, timings.getHistogram(FrameTimings.STAGE_FRAME).getCount());
+        assertEquals(8 * MS, timings.getHistogram(FrameTimings.STAGE_FRAME).getMax());
+        assertEquals(8 * MS, timings.getHistogram(FrameTimings.STAGE_SWAP).getMax());
+
+        // the time spent paused isn't a swap
+        timings.pause();
+        now += 5000 * MS;
+        timings.beginFrame();
+        timings.endFrame();
+        assertEquals(1, timings.getHistogram(FrameTimings.STAGE_SWAP).getCount());
+    }
+
+    /**
+     * Renders a 16 ms frame of the camera frame with the given timestamp, NaN for a frame without a state update.
+     */
+    private void frame(double timestamp) {
+        timings.beginFrame();
+        if (!Double.isNaN(timestamp)) {
+            timings.cameraFrame(timestamp);
+        }
+        now += 16 * MS;
+        timings.endFrame();
+    }
+}
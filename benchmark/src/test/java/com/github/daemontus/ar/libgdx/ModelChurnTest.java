@@ -0,0 +1,173 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.github.daemontus.ar.benchmark.RecordingGL20;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Churns targets through a {@link ModelCache}: a catalogue of targets, each with its own model (a copy
+ * of the jet), two of them visible at a time and the visible set changing every two seconds (at 60 fps),
+ * popular targets more often than the others. The loading gets 4 ms of every frame, like in the app.
+ * Half of the time the next visible targets are the ones after the current ones, which are prefetched
+ * in the second run. The first run's budget is smaller than the visible models.
+ *
+ * Every frame checks that the meshes of exactly the cached models are alive, that no model used in the
+ * previous frame was evicted and that the cache is over its budget only by the models it may not evict.
+ * Every visible model has to load within the time its target is visible. The prefetching statistics
+ * of a longer run are printed by ModelChurn.
+ */
+public class ModelChurnTest {
+
+    private static final String MODEL = "jet.g3dc";
+    private static final int TARGETS = 30;
+    private static final int VISIBLE = 2;
+    private static final int FRAMES_PER_SET = 120;
+    private static final int SETS = 20;
+
+    private long modelGpuBytes, modelHeapBytes;
+    private int modelMeshes;
+    // meshes left alive by other tests
+    private int otherMeshes;
+
+    @Before
+    public void setUp() {
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = -1;
+        new HeadlessApplication(new ApplicationAdapter() {}, config);
+        Gdx.gl = Gdx.gl20 = new RecordingGL20();
+
+        otherMeshes = managedMeshes();
+        // the budget is set from the size of one model
+        ModelCache probe = new ModelCache(Long.MAX_VALUE, Long.MAX_VALUE);
+        probe.load(MODEL);
+        probe.update(0);
+        modelGpuBytes = probe.getGpuBytes();
+        modelHeapBytes = probe.getHeapBytes();
+        modelMeshes = managedMeshes() - otherMeshes;
+        probe.dispose();
+        assertTrue(modelMeshes > 0);
+        assertEquals(otherMeshes, managedMeshes());
+    }
+
+    @Test
+    public void churn() {
+        // less than the visible models, which are kept over the budget
+        run(1, false);
+    }
+
+    @Test
+    public void churnWithPrefetching() {
+        // a prefetch has to fit into the cache
+        run(4, true);
+    }
+
+    /**
+     * @param cachedModels number of models which fit into the budget of the cache
+     */
+    private void run(int cachedModels, boolean prefetch) {
+        AssetManager assets = new AssetManager(new FileHandleResolver() {
+            @Override
+            public FileHandle resolve(String fileName) {
+                return Gdx.files.internal(fileName.startsWith("target") ? MODEL : fileName);
+            }
+        });
+        long gpuBudget = modelGpuBytes * cachedModels;
+        long heapBudget = modelHeapBytes * cachedModels;
+        ModelCache cache = new ModelCache(assets, gpuBudget, heapBudget);
+        Random random = new Random(42);
+        int[] visible = new int[VISIBLE];
+        String[] shown = new String[VISIBLE];
+        Model[] shownModels = new Model[VISIBLE];
+
+        for (int frame = 0; frame < SETS * FRAMES_PER_SET; frame++) {
+            if (frame % FRAMES_PER_SET == 0) {
+                boolean next = frame > 0 && random.nextBoolean();
+                for (int i = 0; i < VISIBLE; i++) {
+                    if (next) {
+                        visible[i] = (visible[i] + 1) % TARGETS;
+                    } else {
+                        // popularity falls with the square of the rank
+                        double r = random.nextDouble();
+                        visible[i] = (int) (r * r * TARGETS);
+                    }
+                }
+            }
+            int cached = cache.size();
+            long evictions = cache.getEvictions();
+            cache.beginFrame();
+            cache.update(4);
+
+            assertEquals("Frame "+frame+": meshes alive", cache.size() * modelMeshes, managedMeshes() - otherMeshes);
+            // models shown in the previous frame are kept, so they aren't disposed
+            int kept = 0;
+            for (int i = 0; i < VISIBLE; i++) {
+                if (shownModels[i] == null) continue;
+                assertTrue("Frame "+frame+": "+shown[i]+" evicted while visible", cache.contains(shown[i]));
+                boolean counted = false;
+                for (int j = 0; j < i; j++) {
+                    counted |= shownModels[j] != null && shown[j].equals(shown[i]);
+                }
+                if (!counted) kept++;
+            }
+            // models loaded in this frame can't be evicted either
+            int loaded = (int) (cache.size() - cached + cache.getEvictions() - evictions);
+            int allowed = cachedModels + kept + loaded;
+            assertTrue("Frame "+frame+": "+(cache.getGpuBytes() / modelGpuBytes)+" models cached, at most "+allowed+" allowed",
+                    cache.getGpuBytes() <= allowed * modelGpuBytes && cache.getHeapBytes() <= allowed * modelHeapBytes);
+
+            for (int i = 0; i < VISIBLE; i++) {
+                if (prefetch) {
+                    cache.prefetch("target"+((visible[i] + 1) % TARGETS)+".g3dc");
+                }
+                String asset = "target"+visible[i]+".g3dc";
+                Model model = cache.get(asset);
+                if (model != null && asset.equals(shown[i]) && shownModels[i] != null) {
+                    assertSame("Frame "+frame+": "+asset+" was reloaded", shownModels[i], model);
+                }
+                shown[i] = asset;
+                shownModels[i] = model;
+            }
+            // the first set also loads the shared textures
+            if (frame % FRAMES_PER_SET == FRAMES_PER_SET - 1 && frame >= FRAMES_PER_SET) {
+                for (int i = 0; i < VISIBLE; i++) {
+                    assertNotNull("Frame "+frame+": "+shown[i]+" wasn't loaded in "+FRAMES_PER_SET+" frames", shownModels[i]);
+                }
+            }
+        }
+
+        assertTrue("The catalogue fits into the cache, nothing was evicted", cache.getEvictions() > 0);
+        if (prefetch) assertTrue("Nothing was prefetched", cache.getPrefetchHits() > 0);
+        cache.dispose();
+        assertEquals("Meshes alive after the cache was disposed", otherMeshes, managedMeshes());
+    }
+
+    /**
+     * @return number of meshes not disposed yet, of all applications
+     */
+    private static int managedMeshes() {
+        // "Managed meshes/app: { count count ... }", one count per application
+        String status = Mesh.getManagedStatus();
+        int count = 0;
+        for (String app : status.substring(status.indexOf('{') + 1, status.indexOf('}')).trim().split(" ")) {
+            if (!app.isEmpty()) count += Integer.parseInt(app);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,138 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.github.daemontus.ar.benchmark.Poses;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that a {@link PoseBatch} split across threads produces the single threaded results,
+ * call after call on the same batch, that errors of the chunks reach the caller and that chunks
+ * rejected by the executor are still converted.
+ */
+public class PoseBatchTest {
+
+    private static final int COUNT = 1000;
+
+    private final float[] poses = new float[COUNT * PoseMath.POSE_SIZE];
+    private final float[] expectedModelViews = new float[COUNT * 16];
+    private final float[] expectedFrames = new float[COUNT * PoseBatch.FRAME_SIZE];
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < COUNT; i++) {
+            PoseBatch.pack(poses, COUNT, i, Poses.randomPose(random), 0);
+        }
+        new PoseBatch().convert(poses, COUNT, expectedModelViews, expectedFrames);
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void parallelMatchesSequential() {
+        PoseBatch batch = new PoseBatch(executor, 64, 4);
+        float[] modelViews = new float[COUNT * 16];
+        float[] frames = new float[COUNT * PoseBatch.FRAME_SIZE];
+        // the batch reuses its chunks and counter, so every call must wait for exactly its own chunks
+        for (int call = 0; call < 2000; call++) {
+            Arrays.fill(modelViews, Float.NaN);
+            Arrays.fill(frames, Float.NaN);
+            batch.convert(poses, COUNT, modelViews, frames);
+            assertArrayEquals(expectedModelViews, modelViews, 0f);
+            assertArrayEquals(expectedFrames, frames, 0f);
+        }
+    }
+
+    @Test
+    public void moreChunksThanPoses() {
+        PoseBatch batch = new PoseBatch(executor, 1, 8);
+        float[] frames = new float[3 * PoseBatch.FRAME_SIZE];
+        float[] three = new float[3 * PoseMath.POSE_SIZE];
+        for (int i = 0; i < 3; i++) {
+            for (int c = 0; c < PoseMath.POSE_SIZE; c++) {
+                three[c * 3 + i] = poses[c * COUNT + i];
+            }
+        }
+        batch.convert(three, 3, null, frames);
+        float[] expected = new float[frames.length];
+        System.arraycopy(expectedFrames, 0, expected, 0, expected.length);
+        assertArrayEquals(expected, frames, 0f);
+    }
+
+    @Test
+    public void chunkErrorIsRethrown() {
+        PoseBatch batch = new PoseBatch(executor, 64, 4);
+        // the first chunks (on the executor) run out of the model-view array
+        float[] modelViews = new float[16];
+        try {
+            batch.convert(poses, COUNT, modelViews, null);
+            fail("Expected the error of a chunk");
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // expected
+        }
+        // and the batch is still usable afterwards
+        float[] frames = new float[COUNT * PoseBatch.FRAME_SIZE];
+        batch.convert(poses, COUNT, null, frames);
+        assertArrayEquals(expectedFrames, frames, 0f);
+    }
+
+    @Test
+    public void rejectedChunksRunInline() throws InterruptedException {
+        // the first chunk is accepted and held back, then the executor is saturated
+        final Thread[] held = new Thread[1];
+        Executor saturated = new Executor() {
+            private boolean accepted = false;
+
+            @Override
+            public void execute(final Runnable command) {
+                if (accepted) throw new RejectedExecutionException("Saturated");
+                accepted = true;
+                held[0] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            Thread.sleep(200);
+                        } catch (InterruptedException e) {
+                            // run right away
+                        }
+                        command.run();
+                    }
+                });
+                held[0].start();
+            }
+        };
+        PoseBatch batch = new PoseBatch(saturated, 64, 4);
+        float[] modelViews = new float[COUNT * 16];
+        Arrays.fill(modelViews, Float.NaN);
+        batch.convert(poses, COUNT, modelViews, null);
+        // the held back chunk was waited for, its part of the output is written as well
+        assertArrayEquals(expectedModelViews, modelViews, 0f);
+        held[0].join();
+
+        // every chunk is rejected now, the next call isn't disturbed by the last one
+        float[] frames = new float[COUNT * PoseBatch.FRAME_SIZE];
+        batch.convert(poses, COUNT, null, frames);
+        assertArrayEquals(expectedFrames, frames, 0f);
+    }
+}
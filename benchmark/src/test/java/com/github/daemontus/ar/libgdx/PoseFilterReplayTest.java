@@ -0,0 +1,166 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.github.daemontus.ar.benchmark.TrackingLogs;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays a recorded session with noisy translation through the pose filters and measures them
+ * against the true poses: jitter (frame to frame change of the error) must go down noticeably,
+ * while the lag behind the moving target stays a few millimeters.
+ */
+public class PoseFilterReplayTest {
+
+    private static final int FRAMES = 1200;
+    private static final float NOISE = 1.5f;
+    // the first half a second lets the filters settle
+    private static final double SETTLE = 0.5;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private SyntheticTrackingSource truth;
+    private File log;
+
+    @Before
+    public void setUp() throws IOException {
+        log = folder.newFile("session.posl");
+        TrackingLogs.record(new SyntheticTrackingSource(1, 7, 30.0, 60.0, NOISE), FRAMES, log);
+        // same seed, so the same motion, only used for its noiseless poses
+        truth = new SyntheticTrackingSource(1, 7);
+    }
+
+    @Test
+    public void unfiltered() throws IOException {
+        Metrics raw = replay(null);
+        // sanity check of the measurement itself: white noise with sigma NOISE per axis
+        assertEquals(NOISE * Math.sqrt(3), raw.error(), 0.2);
+        assertEquals(Math.sqrt(2) * raw.error(), raw.jitter(), 0.3);
+        assertEquals(0, raw.lag(), 0.2);
+    }
+
+    @Test
+    public void oneEuro() throws IOException {
+        Metrics raw = replay(null);
+        Metrics filtered = replay(new OneEuroPoseFilter());
+        String metrics = "One Euro: "+filtered+", unfiltered: "+raw;
+        assertTrue(metrics, filtered.jitter() < 0.5 * raw.jitter());
+        assertTrue(metrics, filtered.lag() < 3.0);
+        assertTrue(metrics, filtered.rotationError < 0.03);
+    }
+
+    @Test
+    public void kalman() throws IOException {
+        Metrics raw = replay(null);
+        Metrics filtered = replay(new KalmanPoseFilter());
+        String metrics = "Kalman: "+filtered+", unfiltered: "+raw;
+        assertTrue(metrics, filtered.jitter() < 0.5 * raw.jitter());
+        assertTrue(metrics, filtered.lag() < 3.0);
+        assertTrue(metrics, filtered.rotationError < 0.03);
+    }
+
+    private Metrics replay(PoseFilter filter) throws IOException {
+        PoseLogReader reader = new PoseLogReader(log);
+        try {
+            ReplayTrackingSource source = new ReplayTrackingSource(reader, false);
+            Metrics metrics = new Metrics();
+            float[] expected = new float[PoseMath.POSE_SIZE];
+            float[] earlier = new float[PoseMath.POSE_SIZE];
+            float[] pose = new float[PoseMath.POSE_SIZE];
+            float[] last = new float[PoseMath.POSE_SIZE];
+            float[] lastError = new float[3];
+            double lastTimestamp = -1;
+            FrameResults results;
+            while ((results = source.onDrawFrame()) != null && results.size() > 0) {
+                double timestamp = results.getTimestamp();
+                results.getPose(0, pose, 0);
+                if (filter != null) filter.filter(results.getId(0), timestamp, pose, 0);
+                if (timestamp == lastTimestamp) {
+                    // a camera frame rendered again gives exactly the same pose
+                    assertArrayEquals(last, pose, 0f);
+                    continue;
+                }
+                lastTimestamp = timestamp;
+                System.arraycopy(pose, 0, last, 0, PoseMath.POSE_SIZE);
+                if (timestamp < SETTLE) continue;
+
+                truth.getPose(0, timestamp, expected, 0);
+                float[] error = {pose[3] - expected[3], pose[7] - expected[7], pose[11] - expected[11]};
+                // velocity of the target, to tell how far behind it the pose is
+                truth.getPose(0, timestamp - 1e-3, earlier, 0);
+                float[] velocity = {expected[3] - earlier[3], expected[7] - earlier[7], expected[11] - earlier[11]};
+                metrics.add(error, lastError, velocity, pose, expected);
+                System.arraycopy(error, 0, lastError, 0, 3);
+            }
+            assertTrue(metrics.frames > 500);
+            return metrics;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static class Metrics {
+        int frames = 0;
+        double errorSquares = 0;
+        double jitterSquares = 0;
+        double lagSum = 0;
+        int lagFrames = 0;
+        double rotationError = 0;
+
+        void add(float[] error, float[] lastError, float[] velocity, float[] pose, float[] expected) {
+            if (frames > 0) {
+                for (int i = 0; i < 3; i++) {
+                    double change = error[i] - lastError[i];
+                    jitterSquares += change * change;
+                }
+            }
+            for (int i = 0; i < 3; i++) {
+                errorSquares += error[i] * error[i];
+            }
+            double speed = Math.sqrt(velocity[0] * velocity[0] + velocity[1] * velocity[1] + velocity[2] * velocity[2]);
+            if (speed > 0) {
+                // positive when the pose trails the target
+                lagSum -= (error[0] * velocity[0] + error[1] * velocity[1] + error[2] * velocity[2]) / speed;
+                lagFrames++;
+            }
+            for (int row = 0; row < 3; row++) {
+                for (int col = 0; col < 3; col++) {
+                    rotationError = Math.max(rotationError, Math.abs(pose[row * 4 + col] - expected[row * 4 + col]));
+                }
+            }
+            frames++;
+        }
+
+        /** RMS distance from the true position in mm. */
+        double error() {
+            return Math.sqrt(errorSquares / frames);
+        }
+
+        /** RMS change of the error between camera frames in mm. */
+        double jitter() {
+            return Math.sqrt(jitterSquares / (frames - 1));
+        }
+
+        /** Mean distance behind the moving target in mm. */
+        double lag() {
+            return lagSum / lagFrames;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "error %.2f mm, jitter %.2f mm, lag %.2f mm, rotation error %.4f",
+                    error(), jitter(), lag(), rotationError);
+        }
+    }
+}
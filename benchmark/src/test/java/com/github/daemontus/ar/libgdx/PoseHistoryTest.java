@@ -0,0 +1,200 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.math.Vector3;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the velocity and dwell queries of {@link PoseHistory} on poses moving along known paths,
+ * and how the ring buffer handles repeated timestamps and wrapping around.
+ */
+public class PoseHistoryTest {
+
+    private static final int ID = 7;
+    private static final double FRAME = 1.0 / 30;
+
+    @Test
+    public void velocity() {
+        PoseHistory history = new PoseHistory(4);
+        Vector3 velocity = new Vector3(1, 2, 3);
+        assertFalse(history.velocity(ID, velocity));
+        history.add(ID, 0, position(10, 20, 300), 0);
+        assertFalse(history.velocity(ID, velocity));
+        // result is untouched without enough samples
+        assertEquals(new Vector3(1, 2, 3), velocity);
+
+        for (int frame = 1; frame < 10; frame++) {
+            double time = frame * FRAME;
+            history.add(ID, time, position(10 + 30 * (float) time, 20 - 60 * (float) time, 300), 0);
+            assertTrue(history.velocity(ID, velocity));
+            assertEquals(30f, velocity.x, 1e-3f);
+            assertEquals(-60f, velocity.y, 1e-3f);
+            assertEquals(0f, velocity.z, 1e-3f);
+        }
+    }
+
+    @Test
+    public void angularVelocity() {
+        Vector3 axis = new Vector3(1, -2, 0.5f).nor();
+        // down to tiny rotations between frames, where acos alone would lose the angle
+        for (float speed : new float[]{3f, 0.5f, 1e-2f, 1e-4f}) {
+            PoseHistory history = new PoseHistory(3);
+            Vector3 velocity = new Vector3();
+            for (int frame = 0; frame < 5; frame++) {
+                double time = frame * FRAME;
+                history.add(ID, time, pose(axis, speed * (float) time, 0, 0, 400), 0);
+            }
+            assertTrue(history.angularVelocity(ID, velocity));
+            assertEquals("Speed "+speed, speed, velocity.len(), speed * 1e-2f + 2e-5f);
+            if (speed > 1e-2f) {
+                assertEquals("Speed "+speed, 1f, velocity.nor().dot(axis), 1e-4f);
+            }
+        }
+
+        PoseHistory still = new PoseHistory(2);
+        still.add(ID, 0, pose(axis, 1f, 0, 0, 400), 0);
+        still.add(ID, FRAME, pose(axis, 1f, 0, 0, 400), 0);
+        Vector3 velocity = new Vector3(1, 1, 1);
+        assertTrue(still.angularVelocity(ID, velocity));
+        assertEquals(0f, velocity.len(), 1e-5f);
+    }
+
+    @Test
+    public void repeatedTimestampsAreIgnored() {
+        PoseHistory history = new PoseHistory(4);
+        float[] first = position(1, 2, 3);
+        history.add(ID, 1.0, first, 0);
+        // the same camera frame rendered again (possibly with a filtered pose) and an older one
+        history.add(ID, 1.0, position(5, 5, 5), 0);
+        history.add(ID, 0.5, position(6, 6, 6), 0);
+        assertEquals(1, history.size(ID));
+        float[] pose = new float[PoseMath.POSE_SIZE];
+        history.getPose(ID, 0, pose, 0);
+        assertArrayEquals(first, pose, 0f);
+
+        // velocity never divides by a zero interval
+        history.add(ID, 1.0 + FRAME, position(2, 2, 3), 0);
+        history.add(ID, 1.0 + FRAME, position(9, 9, 9), 0);
+        Vector3 velocity = new Vector3();
+        assertTrue(history.velocity(ID, velocity));
+        assertEquals(30f, velocity.x, 1e-3f);
+        assertEquals(0f, velocity.y, 1e-3f);
+    }
+
+    @Test
+    public void wrapsAround() {
+        PoseHistory history = new PoseHistory(4);
+        float[] pose = new float[PoseMath.POSE_SIZE];
+        for (int frame = 0; frame < 11; frame++) {
+            history.add(ID, frame, position(frame, 0, 0), 0);
+            assertEquals(Math.min(frame + 1, 4), history.size(ID));
+            // newest first, down to the oldest remembered one
+            for (int age = 0; age < history.size(ID); age++) {
+                assertEquals(frame - age, history.getTimestamp(ID, age), 0);
+                history.getPose(ID, age, pose, 0);
+                assertEquals(frame - age, pose[3], 0f);
+            }
+        }
+        float[] result = new float[PoseMath.POSE_SIZE + 3];
+        history.getPose(ID, 3, result, 3);
+        assertEquals(7f, result[6], 0f);
+
+        for (int age : new int[]{-1, 4}) {
+            try {
+                history.getTimestamp(ID, age);
+                fail("Age "+age+" is out of the history");
+            } catch (IndexOutOfBoundsException e) {
+                // expected
+            }
+        }
+        try {
+            history.getPose(ID + 1, 0, pose, 0);
+            fail("Unknown trackable has no samples");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void stationary() {
+        PoseHistory history = new PoseHistory(60);
+        Vector3 axis = new Vector3(0, 1, 0);
+        assertFalse(history.isStationary(ID, 0.5, 5f, 0.05f));
+        // a second of slight jitter
+        for (int frame = 0; frame <= 30; frame++) {
+            float jitter = (frame % 2 == 0 ? 1 : -1) * 0.5f;
+            history.add(ID, frame * FRAME, pose(axis, 0.2f + jitter * 0.01f, 10 + jitter, 20, 300), 0);
+        }
+        assertTrue(history.isStationary(ID, 0.5, 5f, 0.05f));
+        assertTrue(history.isStationary(ID, 1.0, 5f, 0.05f));
+        // longer than the history, tighter than the jitter
+        assertFalse(history.isStationary(ID, 1.5, 5f, 0.05f));
+        assertFalse(history.isStationary(ID, 0.5, 0.5f, 0.05f));
+        assertFalse(history.isStationary(ID, 0.5, 5f, 0.005f));
+
+        // a jump ends the dwell, until the new position has been held long enough
+        double time = 31 * FRAME;
+        history.add(ID, time, pose(axis, 0.2f, 30, 20, 300), 0);
+        assertFalse(history.isStationary(ID, 0.1, 5f, 0.05f));
+        for (int frame = 32; frame < 36; frame++) {
+            history.add(ID, frame * FRAME, pose(axis, 0.2f, 30, 20, 300), 0);
+        }
+        assertTrue(history.isStationary(ID, 0.1, 5f, 0.05f));
+        assertFalse(history.isStationary(ID, 0.2, 5f, 0.05f));
+
+        // turning in place isn't stationary either
+        history.add(ID, 36 * FRAME, pose(axis, 0.4f, 30, 20, 300), 0);
+        assertFalse(history.isStationary(ID, 0.1, 5f, 0.05f));
+    }
+
+    @Test
+    public void historyWrapsAroundTheDwell() {
+        // a small history can't tell about longer dwells, even after wrapping around many times
+        PoseHistory history = new PoseHistory(5);
+        for (int frame = 0; frame < 100; frame++) {
+            history.add(ID, frame * FRAME, position(10, 20, 300), 0);
+        }
+        assertTrue(history.isStationary(ID, 4 * FRAME, 1f, 0.01f));
+        assertFalse(history.isStationary(ID, 5 * FRAME, 1f, 0.01f));
+    }
+
+    @Test
+    public void reset() {
+        PoseHistory history = new PoseHistory(2);
+        history.add(ID, 1, position(0, 0, 0), 0);
+        history.add(ID + 1, 1, position(0, 0, 0), 0);
+        history.reset(ID);
+        assertEquals(0, history.size(ID));
+        assertEquals(1, history.size(ID + 1));
+        // an older timestamp is accepted again after the reset
+        history.add(ID, 0.5, position(0, 0, 0), 0);
+        assertEquals(1, history.size(ID));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityOfOne() {
+        new PoseHistory(1);
+    }
+
+    private static float[] position(float x, float y, float z) {
+        return pose(new Vector3(1, 0, 0), 0, x, y, z);
+    }
+
+    /**
+     * @return pose rotated by the angle around the unit axis (Rodrigues' formula), at the position
+     */
+    private static float[] pose(Vector3 axis, float angle, float x, float y, float z) {
+        float c = (float) Math.cos(angle), s = (float) Math.sin(angle), k = 1f - c;
+        return new float[]{
+                c + axis.x * axis.x * k, axis.x * axis.y * k - axis.z * s, axis.x * axis.z * k + axis.y * s, x,
+                axis.y * axis.x * k + axis.z * s, c + axis.y * axis.y * k, axis.y * axis.z * k - axis.x * s, y,
+                axis.z * axis.x * k - axis.y * s, axis.z * axis.y * k + axis.x * s, c + axis.z * axis.z * k, z
+        };
+    }
+}
@@ -0,0 +1,218 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.github.daemontus.ar.vuforia.CameraIntrinsics;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Writes pose logs with {@link PoseLogWriter} and reads them back with {@link PoseLogReader},
+ * also after cutting them short or damaging a record the way a killed app or a lost page does.
+ */
+public class PoseLogTest {
+
+    private static final int FRAMES = 20;
+    // the camera changes with this frame
+    private static final int CAMERA_CHANGE = 8;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private File log;
+    // log length after every frame
+    private final long[] ends = new long[FRAMES];
+
+    @Before
+    public void setUp() throws IOException {
+        log = folder.newFile("session.posl");
+        PoseLogWriter writer = new PoseLogWriter(log);
+        try {
+            write(writer, FRAMES);
+        } finally {
+            writer.close();
+        }
+        assertEquals(ends[FRAMES - 1], log.length());
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        assertEquals(FRAMES, read(log));
+    }
+
+    @Test
+    public void unclosedLog() throws IOException {
+        // the app was killed while recording, the rest of the mapped chunk is zero
+        File unclosed = folder.newFile("unclosed.posl");
+        PoseLogWriter writer = new PoseLogWriter(unclosed);
+        write(writer, FRAMES);
+        writer.flush();
+        assertTrue(unclosed.length() > ends[FRAMES - 1]);
+        assertEquals(FRAMES, read(unclosed));
+        writer.close();
+    }
+
+    @Test
+    public void recordCutShortInZeroTail() throws IOException {
+        // every record of the last frame (even the camera one of a changed camera) up to its last
+        // byte, followed by the zero tail of the chunk
+        for (int frame : new int[]{FRAMES - 1, CAMERA_CHANGE}) {
+            long start = ends[frame - 1];
+            for (long end = start; end < ends[frame]; end++) {
+                byte[] bytes = Arrays.copyOf(bytes(log), (int) ends[frame]);
+                Arrays.fill(bytes, (int) end, bytes.length, (byte) 0);
+                assertEquals("Cut at "+end, frame, read(write(bytes, 4096)));
+            }
+        }
+    }
+
+    @Test
+    public void uncommittedRecord() throws IOException {
+        // everything but the type byte was written
+        byte[] bytes = bytes(log);
+        int start = frameStart(FRAMES - 1);
+        assertEquals(PoseLog.RECORD_FRAME, bytes[start]);
+        bytes[start] = PoseLog.RECORD_END;
+        assertEquals(FRAMES - 1, read(write(bytes, 0)));
+    }
+
+    @Test
+    public void damagedRecordEndsTheLog() throws IOException {
+        // a page of a frame in the middle is lost, the frames after it can't be trusted either
+        int frame = FRAMES / 2;
+        for (int offset = frameStart(frame) + 1; offset < ends[frame]; offset++) {
+            byte[] bytes = bytes(log);
+            bytes[offset] ^= 0x10;
+            assertEquals("Damaged at "+offset, frame, read(write(bytes, 0)));
+        }
+    }
+
+    @Test
+    public void truncatedFile() throws IOException {
+        byte[] bytes = bytes(log);
+        for (int frame : new int[]{0, FRAMES / 2, FRAMES - 1}) {
+            // within the header and one byte short
+            for (int end : new int[]{frameStart(frame) + 5, (int) ends[frame] - 1}) {
+                assertEquals("Cut at "+end, frame, read(write(Arrays.copyOf(bytes, end), 0)));
+            }
+        }
+    }
+
+    /**
+     * Writes the test frames, frame i has i % 4 results and the camera changes with {@link #CAMERA_CHANGE}.
+     */
+    private void write(PoseLogWriter writer, int frames) throws IOException {
+        FrameResults results = new FrameResults();
+        CameraIntrinsics intrinsics = new CameraIntrinsics();
+        for (int frame = 0; frame < frames; frame++) {
+            fill(frame, results);
+            intrinsics.set(640, 480, focalLength(frame), focalLength(frame), 320, 240);
+            writer.write(results, projection(frame), intrinsics, frame >= CAMERA_CHANGE);
+            ends[frame] = writer.getLength();
+        }
+    }
+
+    /**
+     * Reads the log, checks every frame and the camera it was seen by against the written ones.
+     *
+     * @return number of frames in the log
+     */
+    private int read(File file) throws IOException {
+        PoseLogReader reader = new PoseLogReader(file);
+        try {
+            FrameResults results = new FrameResults();
+            FrameResults expected = new FrameResults();
+            CameraIntrinsics intrinsics = new CameraIntrinsics();
+            float[] pose = new float[PoseMath.POSE_SIZE];
+            float[] expectedPose = new float[PoseMath.POSE_SIZE];
+            int frame = 0;
+            while (reader.next(results)) {
+                fill(frame, expected);
+                assertEquals(expected.getTimestamp(), results.getTimestamp(), 0);
+                assertEquals(expected.size(), results.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.getId(i), results.getId(i));
+                    assertEquals(expected.getStatus(i), results.getStatus(i));
+                    expected.getPose(i, expectedPose, 0);
+                    results.getPose(i, pose, 0);
+                    assertArrayEquals(expectedPose, pose, 0f);
+                }
+                assertEquals(frame == 0 || frame == CAMERA_CHANGE, reader.isCameraChanged());
+                assertEquals(frame >= CAMERA_CHANGE, reader.isReflected());
+                assertArrayEquals(projection(frame), reader.getProjectionMatrix(), 0f);
+                assertTrue(reader.getCameraIntrinsics(intrinsics));
+                assertEquals(focalLength(frame), intrinsics.getFocalLengthX(), 0f);
+                frame++;
+            }
+            // the end stays the end
+            assertFalse(reader.next(results));
+            return frame;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private int frameStart(int frame) {
+        return (int) ends[frame] - PoseLog.FRAME_HEADER_SIZE - (frame % 4) * PoseLog.RESULT_SIZE - PoseLog.CHECKSUM_SIZE;
+    }
+
+    private static void fill(int frame, FrameResults results) {
+        results.clear(frame / 30.0);
+        float[] pose = new float[PoseMath.POSE_SIZE];
+        for (int i = 0; i < frame % 4; i++) {
+            for (int j = 0; j < pose.length; j++) {
+                pose[j] = frame * 100 + i * 10 + j + 0.25f;
+            }
+            results.add(i * 3 + 1, i % 2 + 1, pose, 0);
+        }
+    }
+
+    private static float focalLength(int frame) {
+        return frame < CAMERA_CHANGE ? 500f : 520f;
+    }
+
+    private static float[] projection(int frame) {
+        float[] projection = new float[16];
+        for (int i = 0; i < 16; i++) {
+            projection[i] = i + focalLength(frame);
+        }
+        return projection;
+    }
+
+    private static byte[] bytes(File file) throws IOException {
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            byte[] bytes = new byte[(int) input.length()];
+            input.readFully(bytes);
+            return bytes;
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * @return new log file with the bytes followed by the given number of zeros
+     */
+    private File write(byte[] bytes, int zeros) throws IOException {
+        File file = folder.newFile();
+        RandomAccessFile output = new RandomAccessFile(file, "rw");
+        try {
+            output.write(bytes);
+            output.write(new byte[zeros]);
+        } finally {
+            output.close();
+        }
+        return file;
+    }
+}
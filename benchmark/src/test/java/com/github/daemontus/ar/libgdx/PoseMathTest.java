@@ -0,0 +1,168 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.github.daemontus.ar.benchmark.Poses;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the closed form camera frame of {@link PoseMath} against inverting the GL pose with
+ * {@link Matrix4#inv()}, and that {@link PoseBatch} produces exactly the {@link PoseMath} results.
+ */
+public class PoseMathTest {
+
+    private static final int RUNS = 2000;
+
+    private final Random random = new Random(42);
+
+    @BeforeClass
+    public static void loadNatives() {
+        GdxNativesLoader.load();
+    }
+
+    @Test
+    public void poseToGL() {
+        for (int run = 0; run < 100; run++) {
+            float[] pose = Poses.randomPose(random);
+            float[] gl = new float[20];
+            PoseMath.poseToGL(gl, 4, pose, 0);
+            float[] expected = new float[20];
+            System.arraycopy(Poses.toGL(pose), 0, expected, 4, 16);
+            assertArrayEquals(expected, gl, 0f);
+        }
+    }
+
+    @Test
+    public void rigidPoses() {
+        for (int run = 0; run < RUNS; run++) {
+            assertFrame(Poses.randomPose(random), 0f);
+        }
+    }
+
+    @Test
+    public void reflectedPoses() {
+        // improper rotations (determinant -1) are still orthogonal, the transpose is their inverse
+        for (int run = 0; run < RUNS; run++) {
+            float[] pose = Poses.randomPose(random);
+            int axis = run % 3;
+            pose[axis] = -pose[axis];
+            pose[4 + axis] = -pose[4 + axis];
+            pose[8 + axis] = -pose[8 + axis];
+            assertEquals(-1f, determinant(pose), 1e-5f);
+            assertFrame(pose, 0f);
+        }
+    }
+
+    @Test
+    public void nearlyOrthonormalPoses() {
+        // e.g. filtered component-wise: the closed form is off from the full inverse by about the drift
+        for (float drift : new float[]{1e-5f, 1e-4f, 1e-3f, 1e-2f}) {
+            for (int run = 0; run < RUNS / 4; run++) {
+                float[] pose = Poses.randomPose(random);
+                for (int row = 0; row < 3; row++) {
+                    for (int col = 0; col < 3; col++) {
+                        pose[row * 4 + col] += (random.nextFloat() * 2 - 1) * drift;
+                    }
+                }
+                assertFrame(pose, drift);
+            }
+        }
+    }
+
+    @Test
+    public void orthonormalize() {
+        for (int run = 0; run < RUNS; run++) {
+            float[] pose = Poses.randomPose(random);
+            float[] drifted = pose.clone();
+            for (int i = 0; i < PoseMath.POSE_SIZE; i++) {
+                if (i % 4 != 3) drifted[i] += (random.nextFloat() * 2 - 1) * 1e-2f;
+            }
+            PoseMath.orthonormalize(drifted, 0);
+            for (int row = 0; row < 3; row++) {
+                for (int other = 0; other < 3; other++) {
+                    float dot = drifted[row * 4] * drifted[other * 4] + drifted[row * 4 + 1] * drifted[other * 4 + 1]
+                            + drifted[row * 4 + 2] * drifted[other * 4 + 2];
+                    assertEquals(row == other ? 1f : 0f, dot, 1e-5f);
+                }
+                assertEquals(pose[row * 4 + 3], drifted[row * 4 + 3], 0f);
+                for (int col = 0; col < 3; col++) {
+                    assertEquals(pose[row * 4 + col], drifted[row * 4 + col], 5e-2f);
+                }
+            }
+            assertEquals(1f, determinant(drifted), 1e-5f);
+            // after that the closed form is exact again
+            assertFrame(drifted, 0f);
+        }
+    }
+
+    @Test
+    public void batchMatchesPoseMath() {
+        int count = 37;
+        float[] poses = new float[count * PoseMath.POSE_SIZE];
+        float[][] single = new float[count][];
+        for (int i = 0; i < count; i++) {
+            single[i] = Poses.randomPose(random);
+            PoseBatch.pack(poses, count, i, single[i], 0);
+        }
+        float[] modelViews = new float[count * 16];
+        float[] frames = new float[count * PoseBatch.FRAME_SIZE];
+        new PoseBatch().convert(poses, count, modelViews, frames);
+
+        float[] modelView = new float[16];
+        Vector3 position = new Vector3(), up = new Vector3(), direction = new Vector3();
+        for (int i = 0; i < count; i++) {
+            PoseMath.poseToGL(modelView, 0, single[i], 0);
+            PoseMath.cameraFrame(single[i], 0, position, up, direction);
+            int f = i * PoseBatch.FRAME_SIZE;
+            for (int m = 0; m < 16; m++) {
+                assertEquals(modelView[m], modelViews[i * 16 + m], 0f);
+            }
+            assertArrayEquals(new float[]{position.x, position.y, position.z, up.x, up.y, up.z,
+                    direction.x, direction.y, direction.z}, slice(frames, f, PoseBatch.FRAME_SIZE), 0f);
+        }
+    }
+
+    /**
+     * Compares the closed form frame with the frame of the inverted GL pose, the error may grow
+     * by the given deviation of the rotation from an orthogonal one.
+     */
+    private static void assertFrame(float[] pose, float drift) {
+        Matrix4 inverse = new Matrix4(Poses.toGL(pose));
+        assertTrue(Matrix4.inv(inverse.val));
+        Vector3 expectedPosition = new Vector3().mul(inverse);
+        Vector3 expectedDirection = new Vector3(0, 0, 1).rot(inverse);
+        Vector3 expectedUp = new Vector3(0, -1, 0).rot(inverse);
+
+        Vector3 position = new Vector3(), up = new Vector3(), direction = new Vector3();
+        PoseMath.cameraFrame(pose, 0, position, up, direction);
+
+        float distance = (float) Math.sqrt(pose[3] * pose[3] + pose[7] * pose[7] + pose[11] * pose[11]);
+        // float rounding of the general inverse, plus first order error of the transpose of a drifted rotation
+        float axisTolerance = 1e-5f + 10 * drift;
+        float positionTolerance = distance * axisTolerance;
+        assertEquals(0f, position.dst(expectedPosition), positionTolerance);
+        assertEquals(0f, direction.dst(expectedDirection), axisTolerance);
+        assertEquals(0f, up.dst(expectedUp), axisTolerance);
+    }
+
+    private static float determinant(float[] pose) {
+        return pose[0] * (pose[5] * pose[10] - pose[6] * pose[9])
+                - pose[1] * (pose[4] * pose[10] - pose[6] * pose[8])
+                + pose[2] * (pose[4] * pose[9] - pose[5] * pose[8]);
+    }
+
+    private static float[] slice(float[] values, int offset, int length) {
+        float[] slice = new float[length];
+        System.arraycopy(values, offset, slice, 0, length);
+        return slice;
+    }
+}
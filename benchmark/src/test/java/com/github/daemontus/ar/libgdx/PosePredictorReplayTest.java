@@ -0,0 +1,139 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.github.daemontus.ar.benchmark.TrackingLogs;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays a recorded session through the {@link PosePredictor}, predicting every camera frame
+ * to the display frames it is shown on, and measures the predicted poses against the true poses
+ * at those times. The prediction must be much closer than showing the camera frame pose as it is.
+ */
+public class PosePredictorReplayTest {
+
+    private static final int FRAMES = 1200;
+    private static final double DISPLAY_FRAME = 1.0 / 60;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private SyntheticTrackingSource truth;
+    private File log;
+
+    @Before
+    public void setUp() throws IOException {
+        log = folder.newFile("session.posl");
+        TrackingLogs.record(new SyntheticTrackingSource(3, 11, 30.0, 60.0, 0f), FRAMES, log);
+        truth = new SyntheticTrackingSource(3, 11);
+    }
+
+    @Test
+    public void predictsDisplayFrames() throws IOException {
+        // the second display frame showing a camera frame, then the same with two frames of display latency
+        for (double horizon : new double[]{DISPLAY_FRAME, 3 * DISPLAY_FRAME}) {
+            Errors stale = new Errors();
+            Errors predicted = new Errors();
+            replay(new PosePredictor(0f, 0.1f), horizon, stale, predicted);
+            String errors = String.format(Locale.US, "%.0f ms ahead: predicted %s, stale %s",
+                    horizon * 1000, predicted, stale);
+            assertTrue(errors, predicted.translation() < 0.1 * stale.translation());
+            assertTrue(errors, predicted.rotation() < 0.1 * stale.rotation());
+            assertTrue(errors, predicted.translation() < 0.5);
+        }
+    }
+
+    @Test
+    public void horizonIsLimited() throws IOException {
+        // beyond the horizon the pose stops moving, so the error grows like the stale one again
+        Errors limited = new Errors();
+        replay(new PosePredictor(0f, 0.02f), 0.2, new Errors(), limited);
+        Errors unlimited = new Errors();
+        replay(new PosePredictor(0f, 0.2f), 0.2, new Errors(), unlimited);
+        assertTrue(limited + " vs " + unlimited, limited.translation() > 2 * unlimited.translation());
+    }
+
+    /**
+     * Predicts every pose of the log for the given time after its camera frame, adds the error of
+     * the pose as recorded into stale and the error of the predicted one into predicted.
+     */
+    private void replay(PosePredictor predictor, double horizon, Errors stale, Errors predicted) throws IOException {
+        PoseLogReader reader = new PoseLogReader(log);
+        try {
+            ReplayTrackingSource source = new ReplayTrackingSource(reader, false);
+            float[] pose = new float[PoseMath.POSE_SIZE];
+            float[] again = new float[PoseMath.POSE_SIZE];
+            float[] expected = new float[PoseMath.POSE_SIZE];
+            FrameResults results;
+            while ((results = source.onDrawFrame()) != null && results.size() > 0) {
+                double timestamp = results.getTimestamp();
+                for (int i = 0; i < results.size(); i++) {
+                    int id = results.getId(i);
+                    results.getPose(i, pose, 0);
+                    truth.getPose(id, timestamp + horizon, expected, 0);
+                    // the first frames have no velocity yet
+                    if (timestamp > 0.1) stale.add(pose, expected);
+                    results.getPose(i, again, 0);
+
+                    predictor.predict(id, timestamp, timestamp + horizon, pose, 0);
+                    if (timestamp > 0.1) predicted.add(pose, expected);
+                    // predicting the same frame for the same time again doesn't change the history
+                    predictor.predict(id, timestamp, timestamp + horizon, again, 0);
+                    assertArrayEquals(pose, again, 0f);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static class Errors {
+        int count = 0;
+        double translationSquares = 0;
+        double rotationSquares = 0;
+
+        void add(float[] pose, float[] truth) {
+            for (int i = 3; i < PoseMath.POSE_SIZE; i += 4) {
+                translationSquares += (pose[i] - truth[i]) * (pose[i] - truth[i]);
+            }
+            // angle of the rotation between them from the skew part of R^T R', precise for small angles
+            double[] m = new double[9];
+            for (int row = 0; row < 3; row++) {
+                for (int col = 0; col < 3; col++) {
+                    for (int k = 0; k < 3; k++) {
+                        m[row * 3 + col] += (double) pose[k * 4 + row] * truth[k * 4 + col];
+                    }
+                }
+            }
+            double x = m[7] - m[5], y = m[2] - m[6], z = m[3] - m[1];
+            double trace = m[0] + m[4] + m[8];
+            double angle = Math.atan2(Math.sqrt(x * x + y * y + z * z), trace - 1);
+            rotationSquares += angle * angle;
+            count++;
+        }
+
+        /** RMS translation error in mm. */
+        double translation() {
+            return Math.sqrt(translationSquares / count);
+        }
+
+        /** RMS rotation error in degrees. */
+        double rotation() {
+            return Math.toDegrees(Math.sqrt(rotationSquares / count));
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%.3f mm, %.3f deg", translation(), rotation());
+        }
+    }
+}
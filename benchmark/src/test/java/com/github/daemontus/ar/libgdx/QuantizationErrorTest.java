@@ -0,0 +1,211 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.loader.G3dModelLoader;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodePart;
+import com.badlogic.gdx.graphics.g3d.utils.TextureProvider;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.UBJsonReader;
+import com.github.daemontus.ar.benchmark.RecordingGL20;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the quantized jet of the app (jet.g3dc) against the g3db model it was converted from.
+ *
+ * Every quantized attribute is read back the way the GPU and the {@link QuantizedShaderProvider}
+ * shader read it and may be off from the original only by the bound of its encoding: half a step of
+ * the range for positions and texture coordinates (plus float rounding), 1 / 255 per normal component
+ * and half of 1 / 255 per color component. Attributes which stay floats must be equal.
+ */
+public class QuantizationErrorTest {
+
+    // float rounding of the offset + scale * value in the shader, relative to the range
+    private static final float EPSILON = 1e-6f;
+
+    private Texture texture;
+    private Model original, quantized;
+
+    @Before
+    public void setUp() {
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = -1;
+        new HeadlessApplication(new ApplicationAdapter() {}, config);
+        Gdx.gl = Gdx.gl20 = new RecordingGL20();
+
+        Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
+        texture = new Texture(pixmap);
+        pixmap.dispose();
+        TextureProvider textures = new TextureProvider() {
+            @Override
+            public Texture load(String fileName) {
+                return texture;
+            }
+        };
+        original = new G3dModelLoader(new UBJsonReader()).loadModel(Gdx.files.internal("jet.g3db"), textures);
+        quantized = new CompactModelLoader(null).loadModel(Gdx.files.internal("jet.g3dc"), textures);
+        assertEquals(original.meshes.size, quantized.meshes.size);
+    }
+
+    @After
+    public void tearDown() {
+        dispose(original);
+        dispose(quantized);
+        texture.dispose();
+    }
+
+    @Test
+    public void positions() {
+        check(VertexAttributes.Usage.Position, GL20.GL_UNSIGNED_SHORT);
+    }
+
+    @Test
+    public void texCoords() {
+        check(VertexAttributes.Usage.TextureCoordinates, GL20.GL_UNSIGNED_SHORT);
+    }
+
+    @Test
+    public void normals() {
+        check(VertexAttributes.Usage.Normal, GL20.GL_UNSIGNED_BYTE);
+    }
+
+    @Test
+    public void colors() {
+        check(VertexAttributes.Usage.ColorUnpacked, GL20.GL_UNSIGNED_BYTE);
+    }
+
+    @Test
+    public void floats() {
+        check(VertexAttributes.Usage.BoneWeight, GL20.GL_FLOAT);
+    }
+
+    /**
+     * Checks every component of the attributes with the given usage in all meshes, which have to be
+     * stored with the given type.
+     */
+    private void check(int usage, int type) {
+        int checked = 0;
+        for (int i = 0; i < original.meshes.size; i++) {
+            Mesh mesh = quantized.meshes.get(i);
+            QuantizationAttribute quantization = findQuantization(mesh);
+            assertNotNull("Mesh "+i+" isn't quantized", quantization);
+            checked += check(original.meshes.get(i), mesh, quantization, usage, type);
+        }
+        assertTrue("No attribute of the usage "+usage, checked > 0);
+    }
+
+    /**
+     * @return number of checked components
+     */
+    private static int check(Mesh original, Mesh quantized, QuantizationAttribute quantization, int usage, int type) {
+        VertexAttributes floats = original.getVertexAttributes();
+        VertexAttributes attributes = quantized.getVertexAttributes();
+        assertEquals(floats.size(), attributes.size());
+        int vertices = original.getNumVertices();
+        assertEquals(vertices, quantized.getNumVertices());
+        float[] source = new float[vertices * floats.vertexSize / 4];
+        original.getVertices(source);
+        // the quantized vertices are only stored in a float buffer, their bits are the data
+        FloatBuffer stored = quantized.getVerticesBuffer();
+        ByteBuffer bytes = ByteBuffer.allocate(stored.limit() * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < stored.limit(); i++) {
+            bytes.putInt(Float.floatToRawIntBits(stored.get(i)));
+        }
+
+        int checked = 0;
+        for (int a = 0; a < floats.size(); a++) {
+            VertexAttribute from = floats.get(a);
+            VertexAttribute to = attributes.get(a);
+            if (from.usage != usage) continue;
+            assertEquals(from.alias, from.alias, to.alias);
+            assertEquals(from.alias+" type", type, to.type);
+            for (int v = 0; v < vertices; v++) {
+                int f = v * floats.vertexSize / 4 + from.offset / 4;
+                int b = v * attributes.vertexSize + to.offset;
+                for (int c = 0; c < from.numComponents; c++) {
+                    float expected = source[f + c];
+                    float actual;
+                    float limit;
+                    if (to.type == GL20.GL_FLOAT) {
+                        actual = bytes.getFloat(b + c * 4);
+                        limit = 0f;
+                    } else if (to.usage == VertexAttributes.Usage.Position) {
+                        float scale = c == 0 ? quantization.positionScale.x : c == 1 ? quantization.positionScale.y : quantization.positionScale.z;
+                        float offset = c == 0 ? quantization.positionOffset.x : c == 1 ? quantization.positionOffset.y : quantization.positionOffset.z;
+                        actual = offset + scale * ((bytes.getShort(b + c * 2) & 0xFFFF) / 65535f);
+                        limit = scale / 131070f + EPSILON * (Math.abs(offset) + scale);
+                    } else if (to.usage == VertexAttributes.Usage.TextureCoordinates) {
+                        float scale = c == 0 ? quantization.texCoordScale.x : quantization.texCoordScale.y;
+                        float offset = c == 0 ? quantization.texCoordOffset.x : quantization.texCoordOffset.y;
+                        actual = offset + scale * ((bytes.getShort(b + c * 2) & 0xFFFF) / 65535f);
+                        limit = scale / 131070f + EPSILON * (Math.abs(offset) + scale);
+                    } else if (to.usage == VertexAttributes.Usage.Normal) {
+                        actual = (bytes.get(b + c) & 0xFF) / 255f * 2f - 1f;
+                        limit = 1f / 255f + EPSILON;
+                    } else {
+                        actual = (bytes.get(b + c) & 0xFF) / 255f;
+                        limit = 0.5f / 255f + EPSILON;
+                    }
+                    if (Math.abs(actual - expected) > limit) {
+                        fail(from.alias+"["+c+"] of vertex "+v+": "+actual+" instead of "+expected+", bound "+limit);
+                    }
+                    checked++;
+                }
+            }
+        }
+        return checked;
+    }
+
+    private QuantizationAttribute findQuantization(Mesh mesh) {
+        for (Node node : quantized.nodes) {
+            QuantizationAttribute quantization = findQuantization(node, mesh);
+            if (quantization != null) return quantization;
+        }
+        return null;
+    }
+
+    private static QuantizationAttribute findQuantization(Node node, Mesh mesh) {
+        for (NodePart part : node.parts) {
+            if (part.meshPart.mesh == mesh) return (QuantizationAttribute) part.material.get(QuantizationAttribute.Type);
+        }
+        for (Node child : node.getChildren()) {
+            QuantizationAttribute quantization = findQuantization(child, mesh);
+            if (quantization != null) return quantization;
+        }
+        return null;
+    }
+
+    /**
+     * Disposes the meshes of the model, the shared texture is kept.
+     */
+    private static void dispose(Model model) {
+        Iterator<Disposable> disposables = model.getManagedDisposables().iterator();
+        while (disposables.hasNext()) {
+            if (disposables.next() instanceof Texture) disposables.remove();
+        }
+        model.dispose();
+    }
+}
@@ -0,0 +1,185 @@
+package com.github.daemontus.ar.libgdx;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessFiles;
+import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
+import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
+import com.badlogic.gdx.backends.lwjgl.LwjglNativesLoader;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g3d.Environment;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
+import com.badlogic.gdx.graphics.g3d.shaders.DefaultShader;
+import com.badlogic.gdx.graphics.g3d.utils.TextureProvider;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the vertex shader of the {@link QuantizedShaderProvider}: every read of a quantized attribute
+ * is dequantized, and the shaders of all parts of the quantized jet compile and link on a real GL.
+ *
+ * Compiling needs an OpenGL context of the LWJGL backend, the test is skipped on machines without
+ * one (e.g. without a display).
+ */
+public class QuantizedShaderTest {
+
+    private static final Pattern TEX_COORD = Pattern.compile("\\ba_texCoord\\d+\\b");
+
+    @Test
+    public void dequantizesEveryTexCoordUnit() {
+        String shader = QuantizedShaderProvider.QuantizedShader.dequantize("attribute vec3 a_position;\n"
+                + "attribute vec3 a_normal;\n"
+                + "attribute vec2 a_texCoord0;\n"
+                + "attribute vec2 a_texCoord1;\n"
+                + "attribute vec2 a_texCoord12;\n"
+                + "varying vec2 v_uv;\n"
+                + "void main() {\n"
+                + "    v_uv = a_texCoord0 + a_texCoord1 * a_texCoord12.x;\n"
+                + "    gl_Position = vec4(a_position + a_normal, 1.0);\n"
+                + "}\n");
+        for (String unit : new String[]{"a_texCoord0", "a_texCoord1", "a_texCoord12"}) {
+            assertTrue(shader, shader.contains("attribute vec2 "+unit+";"));
+            assertTrue(shader, shader.contains("(u_texCoordOffset + u_texCoordScale * "+unit+")"));
+        }
+        assertTrue(shader, shader.contains("(u_positionOffset + u_positionScale * a_position)"));
+        assertTrue(shader, shader.contains("(a_normal * 2.0 - 1.0)"));
+
+        // the default vertex shader (read from the classpath) doesn't read any texture coordinate directly
+        Gdx.files = new HeadlessFiles();
+        String quantized = QuantizedShaderProvider.QuantizedShader.getQuantizedVertexShader();
+        int uses = 0;
+        Matcher matcher = TEX_COORD.matcher(quantized);
+        while (matcher.find()) uses++;
+        int dequantized = 0;
+        matcher = Pattern.compile("u_texCoordScale \\* a_texCoord\\d+\\b").matcher(quantized);
+        while (matcher.find()) dequantized++;
+        int declarations = 0;
+        matcher = Pattern.compile("attribute\\s+vec2\\s+a_texCoord\\d+\\s*;").matcher(quantized);
+        while (matcher.find()) declarations++;
+        assertTrue(declarations > 0);
+        assertEquals(uses, dequantized + declarations);
+    }
+
+    @Test
+    public void dequantizesPositionsAndNormals() {
+        Gdx.files = new HeadlessFiles();
+        String quantized = QuantizedShaderProvider.QuantizedShader.getQuantizedVertexShader();
+        String[] attributes = {"a_position", "a_normal"};
+        String[] reads = {"u_positionScale * a_position", "(a_normal * 2.0 - 1.0)"};
+        for (int i = 0; i < attributes.length; i++) {
+            int uses = 0;
+            Matcher matcher = Pattern.compile("\\b"+attributes[i]+"\\b").matcher(quantized);
+            while (matcher.find()) uses++;
+            int dequantized = 0;
+            matcher = Pattern.compile(Pattern.quote(reads[i])).matcher(quantized);
+            while (matcher.find()) dequantized++;
+            // one use is the declaration
+            assertTrue(attributes[i], dequantized > 0);
+            assertEquals(attributes[i], uses, dequantized + 1);
+        }
+    }
+
+    @Test
+    public void compilesAndLinks() throws InterruptedException {
+        assumeGLContext();
+
+        final List<String> failures = new ArrayList<String>();
+        final int[] compiled = {0};
+        final CountDownLatch done = new CountDownLatch(1);
+        LwjglApplicationConfiguration config = new LwjglApplicationConfiguration();
+        config.width = 16;
+        config.height = 16;
+        config.forceExit = false;
+        new LwjglApplication(new ApplicationAdapter() {
+            @Override
+            public void create() {
+                try {
+                    compile(failures, compiled);
+                } catch (Throwable e) {
+                    failures.add(e.toString());
+                } finally {
+                    done.countDown();
+                    Gdx.app.exit();
+                }
+            }
+        }, config);
+
+        assertTrue("The shaders weren't compiled in time", done.await(60, TimeUnit.SECONDS));
+        assertTrue(failures.toString(), failures.isEmpty());
+        assertTrue(compiled[0] > 0);
+    }
+
+    /**
+     * Creates the quantized shader of every part of the compact jet on the GL of the application.
+     */
+    private static void compile(List<String> failures, int[] compiled) {
+        Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
+        final Texture texture = new Texture(pixmap);
+        pixmap.dispose();
+        Model model = new CompactModelLoader(null).loadModel(Gdx.files.internal("jet.g3dc"), new TextureProvider() {
+            @Override
+            public Texture load(String fileName) {
+                return texture;
+            }
+        });
+        Environment lights = new Environment();
+        lights.set(new ColorAttribute(ColorAttribute.AmbientLight, Color.WHITE));
+
+        Array<Renderable> renderables = new Array<Renderable>();
+        new ModelInstance(model).getRenderables(renderables, new Pool<Renderable>() {
+            @Override
+            protected Renderable newObject() {
+                return new Renderable();
+            }
+        });
+        QuantizedShaderProvider provider = new QuantizedShaderProvider(new DefaultShader.Config());
+        for (Renderable renderable : renderables) {
+            renderable.environment = lights;
+            DefaultShader shader = (DefaultShader) provider.getShader(renderable);
+            if (!(shader instanceof QuantizedShaderProvider.QuantizedShader)) {
+                failures.add("Part "+renderable.meshPart.id+" isn't quantized");
+            } else if (!shader.program.isCompiled()) {
+                failures.add("Part "+renderable.meshPart.id+": "+shader.program.getLog());
+            } else if (shader.program.getAttributeLocation("a_position") < 0 || !shader.program.hasUniform("u_positionScale")) {
+                failures.add("Part "+renderable.meshPart.id+" doesn't read quantized positions");
+            } else {
+                compiled[0]++;
+            }
+        }
+        provider.dispose();
+        model.dispose();
+        texture.dispose();
+    }
+
+    /**
+     * Skips the test if LWJGL can't create an OpenGL context here.
+     */
+    private static void assumeGLContext() {
+        try {
+            LwjglNativesLoader.load();
+            org.lwjgl.opengl.Display.setDisplayMode(new org.lwjgl.opengl.DisplayMode(16, 16));
+            org.lwjgl.opengl.Display.create();
+            org.lwjgl.opengl.Display.destroy();
+        } catch (Throwable e) {
+            Assume.assumeNoException("No OpenGL context", e);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.github.daemontus.ar.libgdx;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the ring buffer, levels, rate limited logging and GL error check sampling of {@link Trace}.
+ *
+ * Trace is global, so the events of the other classes may be in the ring as well, the test only
+ * looks at its own tags. The log goes to the standard error output on the desktop.
+ */
+public class TraceTest {
+
+    private static final Trace.Event RING = Trace.event("TRACE_TEST_RING", Trace.INFO, 3600000, "%.0f %.0f %.0f");
+    private static final Trace.Event THREADS = Trace.event("TRACE_TEST_THREADS", Trace.INFO, 3600000, "%.0f %.0f %.0f");
+    private static final Trace.Event EVERY = Trace.event("TRACE_TEST_EVERY", Trace.INFO, 0, "every %.0f");
+    private static final Trace.Event HOURLY = Trace.event("TRACE_TEST_HOURLY", Trace.INFO, 3600000, "hourly %.0f");
+    private static final Trace.Event OFTEN = Trace.event("TRACE_TEST_OFTEN", Trace.INFO, 50, "often %.0f");
+    private static final Trace.Event DEBUG = Trace.event("TRACE_TEST_DEBUG", Trace.DEBUG, 0, "debug %.0f");
+
+    private PrintStream err;
+    private ByteArrayOutputStream log;
+
+    @Before
+    public void setUp() {
+        err = System.err;
+        log = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(log, true));
+        Trace.setLevel(Trace.INFO);
+    }
+
+    @After
+    public void tearDown() {
+        System.setErr(err);
+        Trace.setLevel(Trace.INFO);
+        Trace.setGLErrorChecks(Trace.GL_CHECKS_OFF);
+    }
+
+    @Test
+    public void ringKeepsTheLastEvents() {
+        long recorded = Trace.getRecorded();
+        int count = Trace.CAPACITY + 100;
+        for (int i = 0; i < count; i++) {
+            Trace.trace(RING, i, -i, 2 * i);
+        }
+        assertEquals(recorded + count, Trace.getRecorded());
+
+        List<String> lines = lines(Trace.dump(new StringBuilder()).toString(), "TRACE_TEST_RING: ");
+        assertEquals(Trace.CAPACITY, lines.size());
+        // oldest first, with all three arguments
+        for (int i = 0; i < lines.size(); i++) {
+            int value = count - Trace.CAPACITY + i;
+            assertEquals(value+" "+(-value)+" "+(2 * value), lines.get(i));
+        }
+        // logged only once in the hour, although all of them are in the ring
+        assertEquals(1, lines(log.toString(), "TRACE_TEST_RING: ").size());
+    }
+
+    @Test
+    public void concurrentTracing() throws InterruptedException {
+        final int threads = 4;
+        final int perThread = 10000;
+        long recorded = Trace.getRecorded();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < perThread; i++) {
+                        Trace.trace(THREADS, thread, i, thread * perThread + i);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(recorded + threads * perThread, Trace.getRecorded());
+
+        // every slot holds a whole event of one of the threads
+        List<String> lines = lines(Trace.dump(new StringBuilder()).toString(), "TRACE_TEST_THREADS: ");
+        assertEquals(Trace.CAPACITY, lines.size());
+        for (String line : lines) {
+            String[] values = line.split(" ");
+            int thread = Integer.parseInt(values[0]);
+            int i = Integer.parseInt(values[1]);
+            assertEquals(line, thread * perThread + i, Integer.parseInt(values[2]));
+        }
+    }
+
+    @Test
+    public void rateLimitedLogging() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            Trace.trace(EVERY, i);
+            Trace.trace(HOURLY, i);
+        }
+        assertEquals(10, lines(log.toString(), "TRACE_TEST_EVERY: ").size());
+        List<String> hourly = lines(log.toString(), "TRACE_TEST_HOURLY: ");
+        assertEquals(1, hourly.size());
+        assertEquals("hourly 0", hourly.get(0));
+
+        // logged again once the interval elapses
+        Trace.trace(OFTEN, 1);
+        Trace.trace(OFTEN, 2);
+        Thread.sleep(100);
+        Trace.trace(OFTEN, 3);
+        List<String> often = lines(log.toString(), "TRACE_TEST_OFTEN: ");
+        assertEquals(2, often.size());
+        assertEquals("often 1", often.get(0));
+        assertEquals("often 3", often.get(1));
+    }
+
+    @Test
+    public void levels() {
+        long recorded = Trace.getRecorded();
+        Trace.trace(DEBUG, 1);
+        assertFalse(DEBUG.isEnabled());
+        assertEquals(recorded, Trace.getRecorded());
+
+        Trace.setLevel(Trace.DEBUG);
+        assertTrue(DEBUG.isEnabled());
+        Trace.trace(DEBUG, 2);
+        assertEquals(recorded + 1, Trace.getRecorded());
+
+        Trace.setLevel(Trace.OFF);
+        Trace.trace(EVERY, 3);
+        assertEquals(recorded + 1, Trace.getRecorded());
+
+        assertEquals(1, lines(log.toString(), "TRACE_TEST_DEBUG: ").size());
+        assertEquals(0, lines(log.toString(), "TRACE_TEST_EVERY: ").size());
+    }
+
+    @Test
+    public void glErrorCheckSampling() {
+        for (int i = 0; i < 10; i++) {
+            assertFalse(Trace.isGLErrorCheckFrame());
+            Trace.frame();
+        }
+        Trace.setGLErrorChecks(Trace.GL_CHECKS_ALWAYS);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(Trace.isGLErrorCheckFrame());
+            Trace.frame();
+        }
+        Trace.setGLErrorChecks(4);
+        int checked = 0;
+        for (int i = 0; i < 40; i++) {
+            if (Trace.isGLErrorCheckFrame()) checked++;
+            Trace.frame();
+        }
+        assertEquals(10, checked);
+    }
+
+    /**
+     * @return the rest of the lines which contain the prefix, after it
+     */
+    private static List<String> lines(String text, String prefix) {
+        List<String> result = new ArrayList<String>();
+        for (String line : text.split("\n")) {
+            int start = line.indexOf(prefix);
+            if (start >= 0) result.add(line.substring(start + prefix.length()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,302 @@
+package com.github.daemontus.ar.vuforia;
+
+import com.vuforia.Matrix44F;
+import com.vuforia.Renderer;
+import com.vuforia.Vec2F;
+import com.vuforia.Vec2I;
+import com.vuforia.Vec3F;
+import com.vuforia.Vec4F;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that {@link ArrayMath} and the {@link SampleMath} built on it are bit-identical to
+ * {@link OriginalSampleMath} on random inputs, at any offset and with aliased results.
+ */
+public class ArrayMathTest {
+
+    private static final int RUNS = 2000;
+
+    private final Random random = new Random(42);
+
+    @Before
+    public void setUp() {
+        Renderer.getInstance().getVideoBackgroundConfig().setSize(new Vec2I(1920, 1080));
+    }
+
+    @Test
+    public void vectors() {
+        for (int run = 0; run < RUNS; run++) {
+            float[] a = vector(4);
+            float[] b = vector(4);
+            float s = value();
+            int offset = random.nextInt(8);
+
+            float[] result = new float[offset + 4];
+            ArrayMath.Vec2FSub(result, offset, shift(a, offset), offset, b, 0);
+            assertBits("Vec2FSub", OriginalSampleMath.Vec2FSub(vec2(a), vec2(b)).getData(), result, offset);
+            assertBits("Vec2FSub", OriginalSampleMath.Vec2FSub(vec2(a), vec2(b)).getData(), SampleMath.Vec2FSub(vec2(a), vec2(b)).getData(), 0);
+            assertBits("Vec2FDist", OriginalSampleMath.Vec2FDist(vec2(a), vec2(b)), ArrayMath.Vec2FDist(shift(a, offset), offset, b, 0));
+
+            ArrayMath.Vec3FAdd(result, offset, a, 0, shift(b, offset), offset);
+            assertBits("Vec3FAdd", OriginalSampleMath.Vec3FAdd(vec3(a), vec3(b)).getData(), result, offset);
+            assertBits("Vec3FAdd", OriginalSampleMath.Vec3FAdd(vec3(a), vec3(b)).getData(), SampleMath.Vec3FAdd(vec3(a), vec3(b)).getData(), 0);
+
+            ArrayMath.Vec3FSub(result, offset, shift(a, offset), offset, b, 0);
+            assertBits("Vec3FSub", OriginalSampleMath.Vec3FSub(vec3(a), vec3(b)).getData(), result, offset);
+            assertBits("Vec3FSub", OriginalSampleMath.Vec3FSub(vec3(a), vec3(b)).getData(), SampleMath.Vec3FSub(vec3(a), vec3(b)).getData(), 0);
+
+            ArrayMath.Vec3FScale(result, offset, shift(a, offset), offset, s);
+            assertBits("Vec3FScale", OriginalSampleMath.Vec3FScale(vec3(a), s).getData(), result, offset);
+            assertBits("Vec3FScale", OriginalSampleMath.Vec3FScale(vec3(a), s).getData(), SampleMath.Vec3FScale(vec3(a), s).getData(), 0);
+
+            assertBits("Vec3FDot", OriginalSampleMath.Vec3FDot(vec3(a), vec3(b)), ArrayMath.Vec3FDot(a, 0, shift(b, offset), offset));
+            assertBits("Vec3FDot", OriginalSampleMath.Vec3FDot(vec3(a), vec3(b)), SampleMath.Vec3FDot(vec3(a), vec3(b)));
+
+            ArrayMath.Vec3FCross(result, offset, a, 0, shift(b, offset), offset);
+            assertBits("Vec3FCross", OriginalSampleMath.Vec3FCross(vec3(a), vec3(b)).getData(), result, offset);
+            assertBits("Vec3FCross", OriginalSampleMath.Vec3FCross(vec3(a), vec3(b)).getData(), SampleMath.Vec3FCross(vec3(a), vec3(b)).getData(), 0);
+
+            // every tenth vector is zero, which isn't normalized
+            float[] n = run % 10 == 0 ? new float[4] : a;
+            ArrayMath.Vec3FNormalize(result, offset, shift(n, offset), offset);
+            assertBits("Vec3FNormalize", OriginalSampleMath.Vec3FNormalize(vec3(n)).getData(), result, offset);
+            assertBits("Vec3FNormalize", OriginalSampleMath.Vec3FNormalize(vec3(n)).getData(), SampleMath.Vec3FNormalize(vec3(n)).getData(), 0);
+
+            ArrayMath.Vec4FDiv(result, offset, shift(a, offset), offset, s);
+            assertBits("Vec4FDiv", OriginalSampleMath.Vec4FDiv(vec4(a), s).getData(), result, offset);
+            assertBits("Vec4FDiv", OriginalSampleMath.Vec4FDiv(vec4(a), s).getData(), SampleMath.Vec4FDiv(vec4(a), s).getData(), 0);
+        }
+    }
+
+    @Test
+    public void aliasedVectors() {
+        for (int run = 0; run < RUNS; run++) {
+            float[] a = vector(4);
+            float[] b = vector(4);
+
+            float[] result = a.clone();
+            ArrayMath.Vec3FCross(result, 0, result, 0, b, 0);
+            assertBits("Vec3FCross", OriginalSampleMath.Vec3FCross(vec3(a), vec3(b)).getData(), result, 0);
+
+            result = b.clone();
+            ArrayMath.Vec3FCross(result, 0, a, 0, result, 0);
+            assertBits("Vec3FCross", OriginalSampleMath.Vec3FCross(vec3(a), vec3(b)).getData(), result, 0);
+
+            result = a.clone();
+            ArrayMath.Vec3FSub(result, 0, result, 0, result, 0);
+            assertBits("Vec3FSub", OriginalSampleMath.Vec3FSub(vec3(a), vec3(a)).getData(), result, 0);
+        }
+    }
+
+    @Test
+    public void transforms() {
+        for (int run = 0; run < RUNS; run++) {
+            float[] v = vector(4);
+            float[] m = vector(16);
+            int offset = random.nextInt(8);
+
+            float[] result = new float[offset + 4];
+            ArrayMath.Vec3FTransform(result, offset, shift(v, offset), offset, m, 0);
+            assertBits("Vec3FTransform", OriginalSampleMath.Vec3FTransform(vec3(v), matrix(m)).getData(), result, offset);
+            assertBits("Vec3FTransform", OriginalSampleMath.Vec3FTransform(vec3(v), matrix(m)).getData(),
+                    SampleMath.Vec3FTransform(vec3(v), matrix(m)).getData(), 0);
+
+            ArrayMath.Vec3FTransformNormal(result, offset, v, 0, shift(m, offset), offset);
+            assertBits("Vec3FTransformNormal", OriginalSampleMath.Vec3FTransformNormal(vec3(v), matrix(m)).getData(), result, offset);
+            assertBits("Vec3FTransformNormal", OriginalSampleMath.Vec3FTransformNormal(vec3(v), matrix(m)).getData(),
+                    SampleMath.Vec3FTransformNormal(vec3(v), matrix(m)).getData(), 0);
+
+            ArrayMath.Vec4FTransform(result, offset, shift(v, offset), offset, shift(m, offset), offset);
+            assertBits("Vec4FTransform", OriginalSampleMath.Vec4FTransform(vec4(v), matrix(m)).getData(), result, offset);
+            assertBits("Vec4FTransform", OriginalSampleMath.Vec4FTransform(vec4(v), matrix(m)).getData(),
+                    SampleMath.Vec4FTransform(vec4(v), matrix(m)).getData(), 0);
+
+            // the result may alias the transformed vector
+            result = v.clone();
+            ArrayMath.Vec4FTransform(result, 0, result, 0, m, 0);
+            assertBits("Vec4FTransform", OriginalSampleMath.Vec4FTransform(vec4(v), matrix(m)).getData(), result, 0);
+        }
+    }
+
+    @Test
+    public void matrices() {
+        for (int run = 0; run < RUNS; run++) {
+            float[] m = vector(16);
+            if (run % 10 == 0) {
+                // singular, the inverse is all NaN or infinite
+                System.arraycopy(m, 0, m, 4, 4);
+            }
+            int offset = random.nextInt(8);
+
+            float[] result = new float[offset + 16];
+            ArrayMath.Matrix44FIdentity(result, offset);
+            assertBits("Matrix44FIdentity", OriginalSampleMath.Matrix44FIdentity().getData(), result, offset);
+            assertBits("Matrix44FIdentity", OriginalSampleMath.Matrix44FIdentity().getData(), SampleMath.Matrix44FIdentity().getData(), 0);
+
+            ArrayMath.Matrix44FTranspose(result, offset, m, 0);
+            assertBits("Matrix44FTranspose", OriginalSampleMath.Matrix44FTranspose(matrix(m)).getData(), result, offset);
+            assertBits("Matrix44FTranspose", OriginalSampleMath.Matrix44FTranspose(matrix(m)).getData(),
+                    SampleMath.Matrix44FTranspose(matrix(m)).getData(), 0);
+            result = shift(m, offset);
+            ArrayMath.Matrix44FTranspose(result, offset, result, offset);
+            assertBits("Matrix44FTranspose in place", OriginalSampleMath.Matrix44FTranspose(matrix(m)).getData(), result, offset);
+
+            assertBits("Matrix44FDeterminate", OriginalSampleMath.Matrix44FDeterminate(matrix(m)),
+                    ArrayMath.Matrix44FDeterminate(shift(m, offset), offset));
+            assertBits("Matrix44FDeterminate", OriginalSampleMath.Matrix44FDeterminate(matrix(m)), SampleMath.Matrix44FDeterminate(matrix(m)));
+
+            result = new float[offset + 16];
+            ArrayMath.Matrix44FInverse(result, offset, m, 0);
+            assertBits("Matrix44FInverse", OriginalSampleMath.Matrix44FInverse(matrix(m)).getData(), result, offset);
+            assertBits("Matrix44FInverse", OriginalSampleMath.Matrix44FInverse(matrix(m)).getData(),
+                    SampleMath.Matrix44FInverse(matrix(m)).getData(), 0);
+            result = shift(m, offset);
+            ArrayMath.Matrix44FInverse(result, offset, result, offset);
+            assertBits("Matrix44FInverse in place", OriginalSampleMath.Matrix44FInverse(matrix(m)).getData(), result, offset);
+        }
+    }
+
+    @Test
+    public void linePlaneIntersection() {
+        int parallel = 0;
+        for (int run = 0; run < RUNS; run++) {
+            float[] start = vector(3);
+            float[] end = vector(3);
+            float[] point = vector(3);
+            float[] normal = vector(3);
+            if (run % 10 == 0) {
+                // the line lies in a plane parallel to the tested one
+                float[] direction = new float[3];
+                ArrayMath.Vec3FSub(direction, 0, end, 0, start, 0);
+                ArrayMath.Vec3FCross(normal, 0, direction, 0, vector(3), 0);
+            }
+            int offset = random.nextInt(8);
+
+            Vec3F expected = OriginalSampleMath.linePlaneIntersection(vec3(start), vec3(end), vec3(point), vec3(normal));
+            float[] result = new float[offset + 3];
+            boolean intersects = ArrayMath.linePlaneIntersection(result, offset, shift(start, offset), offset,
+                    end, 0, shift(point, offset), offset, normal, 0);
+            Vec3F wrapped = SampleMath.linePlaneIntersection(vec3(start), vec3(end), vec3(point), vec3(normal));
+            if (expected == null) {
+                parallel++;
+                assertFalse("linePlaneIntersection", intersects);
+                assertNull("linePlaneIntersection", wrapped);
+                assertBits("linePlaneIntersection untouched", new float[3], result, offset);
+            } else {
+                assertTrue("linePlaneIntersection", intersects);
+                assertBits("linePlaneIntersection", expected.getData(), result, offset);
+                assertBits("linePlaneIntersection", expected.getData(), wrapped.getData(), 0);
+            }
+        }
+        assertTrue("No parallel line was tested", parallel > 0);
+    }
+
+    @Test
+    public void pointToPlane() {
+        PlaneProjection projection = new PlaneProjection();
+        for (int run = 0; run < RUNS; run++) {
+            float[] inverseProjection = vector(16);
+            float[] modelView = vector(16);
+            Vec2F point = new Vec2F(random.nextFloat() * 1080, random.nextFloat() * 1920);
+            Vec3F center = vec3(vector(3));
+            Vec3F normal = vec3(vector(3));
+
+            Vec3F lineStart = OriginalSampleMath.getPointToPlaneLineStart(matrix(inverseProjection), matrix(modelView),
+                    1080, 1920, point, center, normal);
+            Vec3F lineEnd = OriginalSampleMath.getPointToPlaneLineEnd(matrix(inverseProjection), matrix(modelView),
+                    1080, 1920, point, center, normal);
+            Vec3F intersection = OriginalSampleMath.getPointToPlaneIntersection(matrix(inverseProjection), matrix(modelView),
+                    1080, 1920, point, center, normal);
+
+            assertBits("getPointToPlaneLineStart", lineStart.getData(), SampleMath.getPointToPlaneLineStart(matrix(inverseProjection),
+                    matrix(modelView), 1080, 1920, point, center, normal).getData(), 0);
+            assertBits("getPointToPlaneLineEnd", lineEnd.getData(), SampleMath.getPointToPlaneLineEnd(matrix(inverseProjection),
+                    matrix(modelView), 1080, 1920, point, center, normal).getData(), 0);
+            Vec3F wrapped = SampleMath.getPointToPlaneIntersection(matrix(inverseProjection), matrix(modelView),
+                    1080, 1920, point, center, normal);
+
+            boolean intersects = projection.project(inverseProjection, modelView, 1080, 1920, 1920, 1080,
+                    point.getData()[0], point.getData()[1], center.getData(), normal.getData());
+            assertBits("PlaneProjection line start", lineStart.getData(), projection.getLineStart(), 0);
+            assertBits("PlaneProjection line end", lineEnd.getData(), projection.getLineEnd(), 0);
+            if (intersection == null) {
+                assertFalse(intersects);
+                assertNull(wrapped);
+                assertNull(projection.getIntersection());
+            } else {
+                assertTrue(intersects);
+                assertBits("getPointToPlaneIntersection", intersection.getData(), wrapped.getData(), 0);
+                assertBits("PlaneProjection intersection", intersection.getData(), projection.getIntersection(), 0);
+            }
+        }
+    }
+
+    /**
+     * Random value, mostly of the magnitude of poses and projections, sometimes zero or tiny.
+     */
+    private float value() {
+        switch (random.nextInt(20)) {
+            case 0: return 0f;
+            case 1: return -0f;
+            case 2: return (float) (random.nextGaussian() * 1e-20);
+            default: return (float) (random.nextGaussian() * Math.pow(10, random.nextInt(7) - 3));
+        }
+    }
+
+    private float[] vector(int size) {
+        float[] v = new float[size];
+        for (int i = 0; i < size; i++) {
+            v[i] = value();
+        }
+        return v;
+    }
+
+    /**
+     * @return copy of the data starting at the given offset of a larger array with garbage around
+     */
+    private float[] shift(float[] data, int offset) {
+        float[] shifted = vector(offset + data.length + 4);
+        System.arraycopy(data, 0, shifted, offset, data.length);
+        return shifted;
+    }
+
+    private static Vec2F vec2(float[] v) {
+        return new Vec2F(v[0], v[1]);
+    }
+
+    private static Vec3F vec3(float[] v) {
+        return new Vec3F(v[0], v[1], v[2]);
+    }
+
+    private static Vec4F vec4(float[] v) {
+        return new Vec4F(v[0], v[1], v[2], v[3]);
+    }
+
+    private static Matrix44F matrix(float[] m) {
+        Matrix44F matrix = new Matrix44F();
+        matrix.setData(m);
+        return matrix;
+    }
+
+    private static void assertBits(String message, float expected, float actual) {
+        assertEquals(message, Float.floatToRawIntBits(expected), Float.floatToRawIntBits(actual));
+    }
+
+    private static void assertBits(String message, float[] expected, float[] actual, int offset) {
+        for (int i = 0; i < expected.length; i++) {
+            if (Float.floatToRawIntBits(expected[i]) != Float.floatToRawIntBits(actual[offset + i])) {
+                fail(message+": component "+i+" is "+actual[offset + i]+", expected "+expected[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.github.daemontus.ar.vuforia;
+
+import com.vuforia.Matrix44F;
+import com.vuforia.Renderer;
+import com.vuforia.Vec2F;
+import com.vuforia.Vec2I;
+import com.vuforia.Vec3F;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs {@link SampleMath} and {@link PlaneProjection} from many threads at once and checks that
+ * every thread gets exactly the results of a single threaded run.
+ */
+public class SampleMathConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int CASES = 200;
+    private static final int ROUNDS = 50;
+
+    private final float[][] inverseProjections = new float[CASES][];
+    private final float[][] modelViews = new float[CASES][];
+    private final float[][] points = new float[CASES][];
+    private final float[][] centers = new float[CASES][];
+    private final float[][] normals = new float[CASES][];
+
+    // single threaded results: line start, line end, intersection (NaN if there is none) and the inverse model view
+    private final float[][] expected = new float[CASES][];
+    private final float[][] expectedProjections = new float[CASES][];
+
+    @Before
+    public void setUp() {
+        Renderer.getInstance().getVideoBackgroundConfig().setSize(new Vec2I(1920, 1080));
+        Random random = new Random(42);
+        for (int i = 0; i < CASES; i++) {
+            inverseProjections[i] = random(random, 16);
+            modelViews[i] = random(random, 16);
+            points[i] = new float[]{random.nextFloat() * 1080, random.nextFloat() * 1920};
+            centers[i] = random(random, 3);
+            normals[i] = random(random, 3);
+            expected[i] = sampleMath(i);
+            expectedProjections[i] = new float[9];
+            System.arraycopy(expected[i], 0, expectedProjections[i], 0, 9);
+        }
+    }
+
+    @Test
+    public void sampleMath() throws Exception {
+        run(expected, new Worker() {
+            @Override
+            public float[] compute(int i) {
+                return sampleMath(i);
+            }
+        });
+    }
+
+    @Test
+    public void planeProjection() throws Exception {
+        run(expectedProjections, new Worker() {
+            // every thread has its own projection
+            private final ThreadLocal<PlaneProjection> projection = new ThreadLocal<PlaneProjection>() {
+                @Override
+                protected PlaneProjection initialValue() {
+                    return new PlaneProjection();
+                }
+            };
+
+            @Override
+            public float[] compute(int i) {
+                PlaneProjection projection = this.projection.get();
+                projection.project(inverseProjections[i], modelViews[i], 1080, 1920, 1920, 1080,
+                        points[i][0], points[i][1], centers[i], normals[i]);
+                return result(projection.getLineStart(), projection.getLineEnd(), projection.getIntersection());
+            }
+        });
+    }
+
+    private void run(final float[][] expected, final Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CyclicBarrier start = new CyclicBarrier(THREADS);
+        try {
+            List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+            for (int t = 0; t < THREADS; t++) {
+                final int thread = t;
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        start.await();
+                        int checked = 0;
+                        for (int round = 0; round < ROUNDS; round++) {
+                            // threads go through the cases in different orders
+                            for (int c = 0; c < CASES; c++) {
+                                int i = (c * (2 * thread + 1) + round) % CASES;
+                                assertArrayEquals("Case "+i+" on thread "+thread, expected[i], worker.compute(i), 0f);
+                                checked++;
+                            }
+                        }
+                        return checked;
+                    }
+                }));
+            }
+            int checked = 0;
+            for (Future<Integer> result : results) {
+                checked += result.get(1, TimeUnit.MINUTES);
+            }
+            assertEquals(THREADS * ROUNDS * CASES, checked);
+        } finally {
+            executor.shutdownNow();
+            assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        }
+    }
+
+    private float[] sampleMath(int i) {
+        Vec2F point = new Vec2F(points[i][0], points[i][1]);
+        Vec3F center = new Vec3F(centers[i][0], centers[i][1], centers[i][2]);
+        Vec3F normal = new Vec3F(normals[i][0], normals[i][1], normals[i][2]);
+        Vec3F lineStart = SampleMath.getPointToPlaneLineStart(matrix(inverseProjections[i]), matrix(modelViews[i]),
+                1080, 1920, point, center, normal);
+        Vec3F lineEnd = SampleMath.getPointToPlaneLineEnd(matrix(inverseProjections[i]), matrix(modelViews[i]),
+                1080, 1920, point, center, normal);
+        Vec3F intersection = SampleMath.getPointToPlaneIntersection(matrix(inverseProjections[i]), matrix(modelViews[i]),
+                1080, 1920, point, center, normal);
+        // the inverse goes through the same helpers as the projection, so it's checked as well
+        float[] inverse = SampleMath.Matrix44FInverse(matrix(modelViews[i])).getData();
+        float[] result = result(lineStart.getData(), lineEnd.getData(), intersection == null ? null : intersection.getData());
+        float[] withInverse = new float[result.length + 16];
+        System.arraycopy(result, 0, withInverse, 0, result.length);
+        System.arraycopy(inverse, 0, withInverse, result.length, 16);
+        return withInverse;
+    }
+
+    private static float[] result(float[] lineStart, float[] lineEnd, float[] intersection) {
+        float[] result = new float[9];
+        System.arraycopy(lineStart, 0, result, 0, 3);
+        System.arraycopy(lineEnd, 0, result, 3, 3);
+        if (intersection == null) {
+            result[6] = result[7] = result[8] = Float.NaN;
+        } else {
+            System.arraycopy(intersection, 0, result, 6, 3);
+        }
+        return result;
+    }
+
+    private static float[] random(Random random, int size) {
+        float[] values = new float[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = (float) (random.nextGaussian() * 100);
+        }
+        return values;
+    }
+
+    private static Matrix44F matrix(float[] m) {
+        Matrix44F matrix = new Matrix44F();
+        matrix.setData(m);
+        return matrix;
+    }
+
+    private interface Worker {
+        float[] compute(int i);
+    }
+}
@@ -0,0 +1,196 @@
+package com.github.daemontus.ar.vuforia;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.IntArray;
+import com.github.daemontus.ar.benchmark.RecordingGL20;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Renders the video background mesh like the video background rendering of {@link AppRenderer}
+ * does on a recording GL and checks that it's uploaded once and after that only bound and drawn.
+ */
+public class VideoBackgroundMeshTest {
+
+    private static final int FRAMES = 100;
+    private static final int POSITION = 3, TEX_COORD = 5;
+    // a grid of 8x8 quads, like the distortion mesh of the rendering primitives
+    private static final int TRIANGLES = 8 * 8 * 2;
+
+    private final ByteBuffer positions = BufferUtils.newByteBuffer(9 * 9 * 3 * 4);
+    private final ByteBuffer texCoords = BufferUtils.newByteBuffer(9 * 9 * 2 * 4);
+    private final ByteBuffer triangles = BufferUtils.newByteBuffer(TRIANGLES * 3 * 2);
+    private final float[] projection = new float[16];
+
+    private BufferGL gl;
+    private VideoBackgroundMesh mesh;
+    // upload() is a reconfiguration of the video background, counted like on the device
+    private int uploads;
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < 16; i++) {
+            projection[i] = i;
+        }
+        gl = new BufferGL();
+        mesh = new VideoBackgroundMesh();
+        uploads = 0;
+    }
+
+    @Test
+    public void uploadedOnce() {
+        render();
+        assertEquals(1, uploads);
+        assertEquals(3, gl.generated);
+        assertEquals(3, gl.getBufferUploads());
+        assertEquals(positions.capacity() + texCoords.capacity() + triangles.capacity(), gl.getUploadedBytes());
+        assertArrayEquals(projection, mesh.getProjection(), 0f);
+
+        gl.reset();
+        int calls = -1;
+        for (int frame = 0; frame < FRAMES; frame++) {
+            int before = gl.getCalls();
+            render();
+            // every frame is the same few binds and one draw
+            if (calls < 0) calls = gl.getCalls() - before;
+            assertEquals(calls, gl.getCalls() - before);
+        }
+        assertEquals(1, uploads);
+        assertEquals(3, gl.generated);
+        assertEquals(0, gl.getBufferUploads());
+        assertEquals(FRAMES, gl.getDrawCalls());
+        assertEquals(FRAMES, gl.drawnIndices / (TRIANGLES * 3));
+        // 5 binds, 2 pointers, 2 enables, 1 draw, 2 disables
+        assertEquals(12, calls);
+    }
+
+    @Test
+    public void drawsFromItsBuffers() {
+        render();
+        gl.reset();
+        gl.drawn = false;
+        render();
+        assertTrue(gl.drawn);
+        // libGDX expects nothing bound and no vertex array enabled
+        assertEquals(0, gl.boundArray);
+        assertEquals(0, gl.boundElements);
+        assertEquals(0, gl.enabledArrays);
+    }
+
+    @Test
+    public void invalidatedMeshReusesItsBuffers() {
+        render();
+        mesh.invalidate();
+        assertFalse(mesh.isReady());
+        gl.reset();
+        render();
+        render();
+        assertEquals(2, uploads);
+        assertEquals(3, gl.generated);
+        assertEquals(3, gl.getBufferUploads());
+    }
+
+    @Test
+    public void lostContextCreatesNewBuffers() {
+        render();
+        mesh.reset();
+        render();
+        assertEquals(2, uploads);
+        assertEquals(6, gl.generated);
+    }
+
+    /**
+     * One frame of the video background: upload if the mesh changed, then draw.
+     */
+    private void render() {
+        if (!mesh.isReady()) {
+            mesh.upload(gl, positions, texCoords, triangles, TRIANGLES, projection);
+            uploads++;
+        }
+        mesh.draw(gl, POSITION, TEX_COORD);
+    }
+
+    /**
+     * Also follows buffer names, bindings and enabled vertex arrays.
+     */
+    private static class BufferGL extends RecordingGL20 {
+        int generated = 0;
+        int boundArray = 0, boundElements = 0;
+        int enabledArrays = 0;
+        int drawnIndices = 0;
+        boolean drawn = false;
+        // buffers the data was uploaded to: positions, texture coordinates and indices of every upload
+        private final IntArray uploadedTo = new IntArray();
+
+        @Override
+        public void reset() {
+            super.reset();
+            drawnIndices = 0;
+        }
+
+        private int uploaded(int which) {
+            return uploadedTo.get(uploadedTo.size - 3 + which);
+        }
+
+        @Override
+        public int glGenBuffer() {
+            generated++;
+            return super.glGenBuffer();
+        }
+
+        @Override
+        public void glBindBuffer(int target, int buffer) {
+            super.glBindBuffer(target, buffer);
+            if (target == GL20.GL_ARRAY_BUFFER) boundArray = buffer;
+            else boundElements = buffer;
+        }
+
+        @Override
+        public void glBufferData(int target, int size, Buffer data, int usage) {
+            super.glBufferData(target, size, data, usage);
+            assertEquals(GL20.GL_STATIC_DRAW, usage);
+            int bound = target == GL20.GL_ARRAY_BUFFER ? boundArray : boundElements;
+            assertTrue("Upload without a bound buffer", bound != 0);
+            uploadedTo.add(bound);
+        }
+
+        @Override
+        public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, int ptr) {
+            super.glVertexAttribPointer(indx, size, type, normalized, stride, ptr);
+            assertEquals(uploaded(indx == POSITION ? 0 : 1), boundArray);
+            assertEquals(indx == POSITION ? 3 : 2, size);
+            assertEquals(0, ptr);
+        }
+
+        @Override
+        public void glEnableVertexAttribArray(int index) {
+            super.glEnableVertexAttribArray(index);
+            enabledArrays++;
+        }
+
+        @Override
+        public void glDisableVertexAttribArray(int index) {
+            super.glDisableVertexAttribArray(index);
+            enabledArrays--;
+        }
+
+        @Override
+        public void glDrawElements(int mode, int count, int type, int indices) {
+            super.glDrawElements(mode, count, type, indices);
+            assertEquals(uploaded(2), boundElements);
+            assertEquals(2, enabledArrays);
+            drawnIndices += count;
+            drawn = true;
+        }
+    }
+}